@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+
+/**
+ * Lightweight {@link Cell} view used when converting column-aliases back to user-column-qualifiers:
+ * all components of the original (aliased) Cell are read directly from its backing arrays, and
+ * only the qualifier is replaced. No row, family, value, or tags bytes are copied.
+ *
+ * @author Daniel Vimont
+ */
+class AliasConvertedCell implements Cell {
+
+  private final Cell aliasedCell;
+  private final byte[] colQualifier;
+
+  AliasConvertedCell(Cell aliasedCell, byte[] colQualifier) {
+    this.aliasedCell = aliasedCell;
+    this.colQualifier = colQualifier;
+  }
+
+  @Override
+  public byte[] getRowArray() {
+    return aliasedCell.getRowArray();
+  }
+
+  @Override
+  public int getRowOffset() {
+    return aliasedCell.getRowOffset();
+  }
+
+  @Override
+  public short getRowLength() {
+    return aliasedCell.getRowLength();
+  }
+
+  @Override
+  public byte[] getFamilyArray() {
+    return aliasedCell.getFamilyArray();
+  }
+
+  @Override
+  public int getFamilyOffset() {
+    return aliasedCell.getFamilyOffset();
+  }
+
+  @Override
+  public byte getFamilyLength() {
+    return aliasedCell.getFamilyLength();
+  }
+
+  @Override
+  public byte[] getQualifierArray() {
+    return colQualifier;
+  }
+
+  @Override
+  public int getQualifierOffset() {
+    return 0;
+  }
+
+  @Override
+  public int getQualifierLength() {
+    return colQualifier.length;
+  }
+
+  @Override
+  public long getTimestamp() {
+    return aliasedCell.getTimestamp();
+  }
+
+  @Override
+  public byte getTypeByte() {
+    return aliasedCell.getTypeByte();
+  }
+
+  @Override
+  @Deprecated
+  public long getMvccVersion() {
+    return aliasedCell.getMvccVersion();
+  }
+
+  @Override
+  public long getSequenceId() {
+    return aliasedCell.getSequenceId();
+  }
+
+  @Override
+  public byte[] getValueArray() {
+    return aliasedCell.getValueArray();
+  }
+
+  @Override
+  public int getValueOffset() {
+    return aliasedCell.getValueOffset();
+  }
+
+  @Override
+  public int getValueLength() {
+    return aliasedCell.getValueLength();
+  }
+
+  @Override
+  public byte[] getTagsArray() {
+    return aliasedCell.getTagsArray();
+  }
+
+  @Override
+  public int getTagsOffset() {
+    return aliasedCell.getTagsOffset();
+  }
+
+  @Override
+  public int getTagsLength() {
+    return aliasedCell.getTagsLength();
+  }
+
+  @Override
+  @Deprecated
+  public byte[] getValue() {
+    return CellUtil.cloneValue(this);
+  }
+
+  @Override
+  @Deprecated
+  public byte[] getFamily() {
+    return CellUtil.cloneFamily(this);
+  }
+
+  @Override
+  @Deprecated
+  public byte[] getQualifier() {
+    return CellUtil.cloneQualifier(this);
+  }
+
+  @Override
+  @Deprecated
+  public byte[] getRow() {
+    return CellUtil.cloneRow(this);
+  }
+
+  @Override
+  public String toString() {
+    return CellUtil.toString(this, true);
+  }
+}
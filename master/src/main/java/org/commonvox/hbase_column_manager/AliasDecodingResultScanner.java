@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.log4j.Logger;
+
+/**
+ * AliasDecodingResultScanner wraps the ResultScanner returned by Table#getScanner for a Table
+ * with alias-enabled column families. Results are retrieved from the wrapped scanner and their
+ * column-aliases converted to user-column-qualifiers on a background thread, one batch (sized
+ * by the Scan's caching value) at a time, so that decoding of the next batch proceeds while the
+ * caller consumes the current one. At most {@link #PREFETCH_BATCH_CAPACITY} decoded batches are
+ * buffered ahead of the caller. Prefetching threads are taken from a bounded pool shared by all
+ * scanners of a Repository; when none is available (or no pool is designated), Results are
+ * decoded on the caller's thread as they are retrieved.
+ *
+ * @author Daniel Vimont
+ */
+class AliasDecodingResultScanner implements ResultScanner {
+
+  static final int DEFAULT_PREFETCH_BATCH_SIZE = 100;
+  static final int PREFETCH_BATCH_CAPACITY = 2;
+  private static final Logger LOGGER = Logger.getLogger(AliasDecodingResultScanner.class);
+  private static final Result[] END_OF_SCAN = new Result[0];
+
+  private final ResultScanner wrappedResultScanner;
+  private final NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap;
+  private final MTableDescriptor mTableDescriptor;
+  private final int batchSize;
+  private final BlockingQueue<Result[]> decodedBatches
+          = new ArrayBlockingQueue<>(PREFETCH_BATCH_CAPACITY);
+  private final Executor prefetchExecutor;
+  private final Object prefetchThreadLock = new Object();
+  private boolean prefetchStarted = false;
+  private boolean synchronousDecoding = false;
+  private Thread prefetchThread = null;
+  private volatile boolean closed = false;
+  private volatile IOException prefetchFailure = null;
+  private volatile boolean prefetchFailureUnchecked = false;
+  private boolean exhausted = false;
+  private Result[] currentBatch = END_OF_SCAN;
+  private int currentBatchIndex = 0;
+
+  AliasDecodingResultScanner(ResultScanner resultScanner,
+          NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap,
+          MTableDescriptor mTableDescriptor, int batchSize, Executor prefetchExecutor) {
+    wrappedResultScanner = resultScanner;
+    this.familyAliasToQualifierMap = familyAliasToQualifierMap;
+    this.mTableDescriptor = mTableDescriptor;
+    this.batchSize = (batchSize > 0) ? batchSize : DEFAULT_PREFETCH_BATCH_SIZE;
+    this.prefetchExecutor = prefetchExecutor;
+  }
+
+  @Override
+  public synchronized Result next() throws IOException {
+    if (closed || (currentBatchIndex >= currentBatch.length && !takeNextBatch())) {
+      return null;
+    }
+    return currentBatch[currentBatchIndex++];
+  }
+
+  @Override
+  public synchronized Result[] next(int nbRows) throws IOException {
+    List<Result> results = new ArrayList<>(Math.max(0, Math.min(nbRows, batchSize)));
+    while (results.size() < nbRows && !closed) {
+      if (currentBatchIndex >= currentBatch.length && !takeNextBatch()) {
+        break;
+      }
+      int endIndex = Math.min(currentBatch.length,
+              currentBatchIndex + nbRows - results.size());
+      results.addAll(Arrays.asList(currentBatch).subList(currentBatchIndex, endIndex));
+      currentBatchIndex = endIndex;
+    }
+    return results.toArray(new Result[results.size()]);
+  }
+
+  /**
+   * Makes the next decoded batch current, submitting the prefetch task upon first invocation.
+   *
+   * @return false if the scan is exhausted (or the scanner closed)
+   */
+  private boolean takeNextBatch() throws IOException {
+    if (exhausted || closed) {
+      return false;
+    }
+    synchronized (prefetchThreadLock) {
+      if (closed) {
+        return false;
+      }
+      if (!prefetchStarted && !synchronousDecoding) {
+        try {
+          if (prefetchExecutor == null) {
+            throw new RejectedExecutionException();
+          }
+          prefetchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+              prefetch();
+            }
+          });
+          prefetchStarted = true;
+        } catch (RejectedExecutionException e) {
+          synchronousDecoding = true;
+        }
+      }
+    }
+    if (synchronousDecoding) {
+      return decodeNextBatch();
+    }
+    Result[] batch;
+    try {
+      batch = decodedBatches.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while awaiting decoded Results.");
+    }
+    currentBatch = batch;
+    currentBatchIndex = 0;
+    if (batch == END_OF_SCAN) {
+      exhausted = true;
+      if (prefetchFailure != null) {
+        throw prefetchFailure;
+      }
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Retrieves and decodes the next batch on the caller's thread.
+   */
+  private boolean decodeNextBatch() throws IOException {
+    Result[] batch = wrappedResultScanner.next(batchSize);
+    if (batch == null || batch.length == 0) {
+      exhausted = true;
+      return false;
+    }
+    for (int i = 0; i < batch.length; i++) {
+      batch[i] = Repository.convertAliasesToQualifiers(
+              batch[i], familyAliasToQualifierMap, mTableDescriptor);
+    }
+    currentBatch = batch;
+    currentBatchIndex = 0;
+    return true;
+  }
+
+  private void prefetch() {
+    synchronized (prefetchThreadLock) {
+      prefetchThread = Thread.currentThread();
+    }
+    try {
+      while (!closed) {
+        Result[] batch = wrappedResultScanner.next(batchSize);
+        if (batch == null || batch.length == 0) {
+          break;
+        }
+        for (int i = 0; i < batch.length; i++) {
+          batch[i] = Repository.convertAliasesToQualifiers(
+                  batch[i], familyAliasToQualifierMap, mTableDescriptor);
+        }
+        decodedBatches.put(batch);
+      }
+    } catch (IOException e) {
+      if (!closed) {
+        prefetchFailure = e;
+      }
+    } catch (InterruptedException e) {
+      // scanner closed while awaiting space in the buffer
+    } catch (RuntimeException | Error e) {
+      // must not be swallowed by the prefetch thread, lest the scan appear complete
+      if (!closed) {
+        IOException failure = new ColumnManagerIOException(
+                "Failure in decoding of column aliases: " + e) {};
+        failure.initCause(e);
+        prefetchFailureUnchecked = true;
+        prefetchFailure = failure;
+      }
+    } finally {
+      wrappedResultScanner.close();
+      signalEndOfScan();
+      synchronized (prefetchThreadLock) {
+        prefetchThread = null;
+        Thread.interrupted(); // pooled thread must not carry an interrupt to its next task
+      }
+    }
+  }
+
+  private void signalEndOfScan() {
+    if (!closed) {
+      try {
+        decodedBatches.put(END_OF_SCAN);
+        return;
+      } catch (InterruptedException e) {
+        LOGGER.debug("Interrupted while signalling end of scan.");
+      }
+    }
+    // scanner closed: discard undelivered batches, releasing any caller blocked in #next
+    decodedBatches.clear();
+    decodedBatches.offer(END_OF_SCAN);
+  }
+
+  /**
+   * Stops prefetching and closes the wrapped ResultScanner. (Not synchronized with the
+   * {@code next} methods, so that a scan may be closed while a caller awaits its next batch.)
+   */
+  @Override
+  public void close() {
+    synchronized (prefetchThreadLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (!prefetchStarted) {
+        wrappedResultScanner.close();
+      } else {
+        // the prefetch task closes the wrapped scanner as it exits
+        if (prefetchThread != null) {
+          prefetchThread.interrupt();
+        }
+        decodedBatches.clear();
+        decodedBatches.offer(END_OF_SCAN);
+      }
+    }
+  }
+
+  @Override
+  public Iterator<Result> iterator() {
+    return new Iterator<Result>() {
+      private Result next = null;
+
+      @Override
+      public boolean hasNext() {
+        if (next == null) {
+          try {
+            next = AliasDecodingResultScanner.this.next();
+          } catch (IOException e) {
+            // an unchecked failure in decoding is rethrown as such; an IOException is wrapped as
+            //  in the iterator of an HBase ResultScanner
+            if (prefetchFailureUnchecked && e == prefetchFailure) {
+              Throwable cause = e.getCause();
+              if (cause instanceof Error) {
+                throw (Error) cause;
+              }
+              throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(e);
+          }
+        }
+        return next != null;
+      }
+
+      @Override
+      public Result next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Result result = next;
+        next = null;
+        return result;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.hbase.HColumnDescriptor;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.NamespaceDescriptor;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+
+/**
+ * An asynchronous complement to the {@link org.apache.hadoop.hbase.client.Admin Admin} obtained
+ * from a ColumnManager {@code Connection}: each schema change submitted via an
+ * {@code AsyncMAdmin} is performed in the background, and returns a {@code Future} which completes
+ * only once both the HBase DDL operation and the corresponding update of the ColumnManager
+ * Repository are complete. Up to {@code maxOperationsInFlight} DDL operations are submitted to
+ * HBase concurrently.
+ * <br><br>
+ * A <i>Table</i> creation occupies an operation thread only while its creation request is
+ * submitted to HBase; its schema is captured in the Repository (and its {@code Future} completed)
+ * by a separate polling thread once the <i>Table</i> comes online. If the <i>Table</i> does not
+ * come online within the timeout designated by the
+ * {@code [column_manager.admin.createTableTimeout]} configuration property (default 600000
+ * milliseconds), its {@code Future} fails with a {@link ColumnManagerIOException}.
+ * <br><br>
+ * An {@code AsyncMAdmin} should be {@link #close() closed} when no longer needed; operations
+ * already submitted are completed after it is closed.
+ *
+ * @author Daniel Vimont
+ */
+public class AsyncMAdmin implements Closeable {
+
+  private final MConnection mConnection;
+  private final Repository repository;
+  private final ExecutorService operationExecutor;
+
+  /**
+   * Initialize an AsyncMAdmin object using a Connection provided by either a
+   * {@link org.apache.hadoop.hbase.client.ConnectionFactory ConnectionFactory} or
+   * {@link MConnectionFactory}.
+   *
+   * @param connection An HBase Connection.
+   * @param maxOperationsInFlight maximum number of DDL operations to be submitted to HBase
+   * concurrently
+   * @throws IOException if a remote or network exception occurs
+   */
+  public AsyncMAdmin(Connection connection, int maxOperationsInFlight) throws IOException {
+    if (MConnection.class.isAssignableFrom(connection.getClass())) {
+      mConnection = (MConnection) connection;
+    } else {
+      mConnection = MConnectionFactory.getMConnection(connection);
+    }
+    repository = mConnection.getRepository();
+    final AtomicInteger threadNumber = new AtomicInteger();
+    operationExecutor = Executors.newFixedThreadPool(Math.max(1, maxOperationsInFlight),
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, Repository.PRODUCT_NAME + " "
+                        + AsyncMAdmin.class.getSimpleName() + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+  }
+
+  /**
+   * Create a new <i>Table</i>.
+   *
+   * @param htd descriptor of <i>Table</i> to be created
+   * @return {@code Future} which completes once the <i>Table</i> is online and its schema is
+   * captured in the Repository
+   */
+  public Future<Void> createTable(HTableDescriptor htd) {
+    return createTable(htd, null);
+  }
+
+  /**
+   * Create a new <i>Table</i> with an initial set of empty regions defined by the submitted split
+   * keys.
+   *
+   * @param htd descriptor of <i>Table</i> to be created
+   * @param splitKeys array of split keys for the initial regions of the <i>Table</i> (may be
+   * {@code null})
+   * @return {@code Future} which completes once the <i>Table</i> is online and its schema is
+   * captured in the Repository
+   */
+  public Future<Void> createTable(final HTableDescriptor htd, final byte[][] splitKeys) {
+    final SchemaChangeFuture future = new SchemaChangeFuture();
+    operationExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (future.isDone()) { // cancelled
+          return;
+        }
+        try (Admin standardAdmin = mConnection.getStandardConnection().getAdmin()) {
+          standardAdmin.createTableAsync(htd, splitKeys);
+        } catch (IOException | RuntimeException e) {
+          future.fail(e);
+          return;
+        }
+        repository.putTableSchemaEntityWhenAvailable(htd, future);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Modify an existing <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i> to be modified
+   * @param htd modified descriptor of <i>Table</i>
+   * @return {@code Future} which completes once the modification is complete and captured in the
+   * Repository
+   */
+  public Future<Void> modifyTable(final TableName tableName, final HTableDescriptor htd) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.modifyTable(tableName, htd);
+      }
+    });
+  }
+
+  /**
+   * Disable a <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i> to be disabled
+   * @return {@code Future} which completes once the <i>Table</i> is disabled
+   */
+  public Future<Void> disableTable(final TableName tableName) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.disableTable(tableName);
+      }
+    });
+  }
+
+  /**
+   * Enable a <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i> to be enabled
+   * @return {@code Future} which completes once the <i>Table</i> is enabled
+   */
+  public Future<Void> enableTable(final TableName tableName) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.enableTable(tableName);
+      }
+    });
+  }
+
+  /**
+   * Delete a (disabled) <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i> to be deleted
+   * @return {@code Future} which completes once the <i>Table</i> is deleted and its deletion is
+   * captured in the Repository
+   */
+  public Future<Void> deleteTable(final TableName tableName) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.deleteTable(tableName);
+      }
+    });
+  }
+
+  /**
+   * Truncate a (disabled) <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i> to be truncated
+   * @param preserveSplits true if the splits should be preserved
+   * @return {@code Future} which completes once the <i>Table</i> is truncated and its truncation
+   * is captured in the Repository
+   */
+  public Future<Void> truncateTable(final TableName tableName, final boolean preserveSplits) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.truncateTable(tableName, preserveSplits);
+      }
+    });
+  }
+
+  /**
+   * Add a <i>Column Family</i> to an existing <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i>
+   * @param hcd descriptor of <i>Column Family</i> to be added
+   * @return {@code Future} which completes once the <i>Column Family</i> is added and captured in
+   * the Repository
+   */
+  public Future<Void> addColumnFamily(final TableName tableName, final HColumnDescriptor hcd) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        ((MAdmin) mAdmin).addColumnFamily(tableName, hcd);
+      }
+    });
+  }
+
+  /**
+   * Modify an existing <i>Column Family</i>.
+   *
+   * @param tableName name of <i>Table</i>
+   * @param hcd modified descriptor of <i>Column Family</i>
+   * @return {@code Future} which completes once the <i>Column Family</i> is modified and the
+   * modification is captured in the Repository
+   */
+  public Future<Void> modifyColumnFamily(final TableName tableName, final HColumnDescriptor hcd) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        ((MAdmin) mAdmin).modifyColumnFamily(tableName, hcd);
+      }
+    });
+  }
+
+  /**
+   * Delete a <i>Column Family</i> from a <i>Table</i>.
+   *
+   * @param tableName name of <i>Table</i>
+   * @param colFamily name of <i>Column Family</i> to be deleted
+   * @return {@code Future} which completes once the <i>Column Family</i> is deleted and its
+   * deletion is captured in the Repository
+   */
+  public Future<Void> deleteColumnFamily(final TableName tableName, final byte[] colFamily) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        ((MAdmin) mAdmin).deleteColumnFamily(tableName, colFamily);
+      }
+    });
+  }
+
+  /**
+   * Create a new <i>Namespace</i>.
+   *
+   * @param nd descriptor of <i>Namespace</i> to be created
+   * @return {@code Future} which completes once the <i>Namespace</i> is created and captured in
+   * the Repository
+   */
+  public Future<Void> createNamespace(final NamespaceDescriptor nd) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.createNamespace(nd);
+      }
+    });
+  }
+
+  /**
+   * Modify an existing <i>Namespace</i>.
+   *
+   * @param nd modified descriptor of <i>Namespace</i>
+   * @return {@code Future} which completes once the <i>Namespace</i> is modified and the
+   * modification is captured in the Repository
+   */
+  public Future<Void> modifyNamespace(final NamespaceDescriptor nd) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.modifyNamespace(nd);
+      }
+    });
+  }
+
+  /**
+   * Delete an (empty) <i>Namespace</i>.
+   *
+   * @param namespaceName name of <i>Namespace</i> to be deleted
+   * @return {@code Future} which completes once the <i>Namespace</i> is deleted and its deletion
+   * is captured in the Repository
+   */
+  public Future<Void> deleteNamespace(final String namespaceName) {
+    return submit(new AdminOperation() {
+      @Override
+      void perform(Admin mAdmin) throws IOException {
+        mAdmin.deleteNamespace(namespaceName);
+      }
+    });
+  }
+
+  /**
+   * Stop accepting new operations; operations already submitted are completed.
+   */
+  @Override
+  public void close() {
+    operationExecutor.shutdown();
+  }
+
+  private Future<Void> submit(final AdminOperation operation) {
+    return operationExecutor.submit(new Callable<Void>() {
+      @Override
+      public Void call() throws IOException {
+        // Admin objects are not thread-safe, so each operation gets its own MAdmin
+        try (Admin mAdmin = mConnection.getAdmin()) {
+          operation.perform(mAdmin);
+        }
+        return null;
+      }
+    });
+  }
+
+  private abstract static class AdminOperation {
+    abstract void perform(Admin mAdmin) throws IOException;
+  }
+}
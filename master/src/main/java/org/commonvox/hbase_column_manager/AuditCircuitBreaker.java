@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.log4j.Logger;
+
+/**
+ * Circuit breaker around the real-time {@link ColumnAuditor} write path, so that a slow or
+ * unavailable Repository table does not stall user writes to healthy user <i>Table</i>s. Enabled
+ * via the {@code [column_manager.auditing.circuitBreaker.enabled]} configuration property
+ * (default false).
+ * <br>
+ * While the breaker is CLOSED, audits are written to the Repository as usual. Once
+ * {@code [column_manager.auditing.circuitBreaker.failureThreshold]} (default 5) consecutive
+ * audits have failed or taken at least
+ * {@code [column_manager.auditing.circuitBreaker.latencyThresholdMs]} (default 500), the breaker
+ * OPENs: audits are then merged into a bounded local backlog (at most
+ * {@code [column_manager.auditing.backlogSize]} (default 10000) columns, beyond which audits are
+ * dropped) and user operations proceed without touching the Repository. After
+ * {@code [column_manager.auditing.circuitBreaker.openIntervalMs]} (default 30000), a background
+ * thread moves the breaker to HALF_OPEN and drains the backlog; the breaker CLOSEs once the
+ * backlog is drained, or re-OPENs upon the first failed or slow write. Audits which fail while
+ * the breaker is CLOSED are likewise deferred to the backlog rather than failing the user
+ * operation. While the breaker is enabled, audits are written via a Repository <i>Table</i>
+ * instance of their own, whose operation timeout is
+ * {@code [column_manager.auditing.circuitBreaker.operationTimeoutMs]} (default 2000), so that an
+ * unresponsive Repository fails an audit promptly rather than stalling the user operation.
+ *
+ * @author Daniel Vimont
+ */
+class AuditCircuitBreaker {
+
+  static final String ENABLED_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "auditing.circuitBreaker.enabled";
+  static final String FAILURE_THRESHOLD_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "auditing.circuitBreaker.failureThreshold";
+  static final String LATENCY_THRESHOLD_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "auditing.circuitBreaker.latencyThresholdMs";
+  static final String OPEN_INTERVAL_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "auditing.circuitBreaker.openIntervalMs";
+  static final String BACKLOG_SIZE_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "auditing.backlogSize";
+  static final String OPERATION_TIMEOUT_KEY = Repository.HBASE_CONFIG_PARM_KEY_PREFIX
+          + "auditing.circuitBreaker.operationTimeoutMs";
+  static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  static final long DEFAULT_LATENCY_THRESHOLD = 500; // milliseconds
+  static final long DEFAULT_OPEN_INTERVAL = 30000; // milliseconds
+  static final int DEFAULT_BACKLOG_SIZE = 10000;
+  static final int DEFAULT_OPERATION_TIMEOUT = 2000; // milliseconds
+
+  enum State {
+    CLOSED, HALF_OPEN, OPEN
+  }
+
+  /**
+   * Writes a single column audit to the Repository (implemented by {@link Repository}).
+   */
+  interface AuditWriter {
+    void writeAudit(TableName tableName, byte[] colFamilyForeignKey, byte[] colQualifier,
+            long valueLength) throws IOException;
+  }
+
+  private static final Logger staticLogger
+          = Logger.getLogger(AuditCircuitBreaker.class.getName());
+  private final AuditWriter auditWriter;
+  private final ColumnManagerMetrics metrics;
+  private final boolean enabled;
+  private final int failureThreshold;
+  private final long latencyThresholdNanos;
+  private final long openInterval;
+  private final int maxBacklogSize;
+  private final int operationTimeout;
+  private volatile State state = State.CLOSED;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final ConcurrentMap<ByteBuffer, PendingAudit> backlog = new ConcurrentHashMap<>();
+  private final AtomicInteger backlogSize = new AtomicInteger();
+  private final AtomicBoolean drainScheduled = new AtomicBoolean();
+  private ScheduledExecutorService drainer = null;
+  private boolean closed = false; // guarded by this
+
+  AuditCircuitBreaker(AuditWriter auditWriter, ColumnManagerMetrics metrics, Configuration conf) {
+    this.auditWriter = auditWriter;
+    this.metrics = metrics;
+    enabled = conf.getBoolean(ENABLED_KEY, false);
+    failureThreshold = Math.max(1, conf.getInt(FAILURE_THRESHOLD_KEY, DEFAULT_FAILURE_THRESHOLD));
+    latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+            conf.getLong(LATENCY_THRESHOLD_KEY, DEFAULT_LATENCY_THRESHOLD));
+    openInterval = conf.getLong(OPEN_INTERVAL_KEY, DEFAULT_OPEN_INTERVAL);
+    maxBacklogSize = conf.getInt(BACKLOG_SIZE_KEY, DEFAULT_BACKLOG_SIZE);
+    operationTimeout = conf.getInt(OPERATION_TIMEOUT_KEY, DEFAULT_OPERATION_TIMEOUT);
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the operation timeout (in milliseconds) of the Repository <i>Table</i> instance via
+   * which audits are written while the breaker is enabled.
+   */
+  int getOperationTimeout() {
+    return operationTimeout;
+  }
+
+  State getState() {
+    return state;
+  }
+
+  int getBacklogSize() {
+    return backlogSize.get();
+  }
+
+  /**
+   * Returns true if audits may be written directly to the Repository by user operations.
+   */
+  boolean allowsRepositoryWrites() {
+    return state == State.CLOSED;
+  }
+
+  /**
+   * Records the latency of an audit written directly to the Repository; a slow audit counts
+   * toward the failure threshold.
+   */
+  void recordLatency(long elapsedNanos) {
+    if (!enabled) {
+      return;
+    }
+    if (elapsedNanos >= latencyThresholdNanos) {
+      recordFailure();
+    } else {
+      consecutiveFailures.set(0);
+    }
+  }
+
+  /**
+   * Records a failed audit.
+   *
+   * @return true if the breaker is enabled (in which case the audit is to be deferred rather than
+   * its failure propagated)
+   */
+  boolean recordFailure() {
+    if (!enabled) {
+      return false;
+    }
+    if (consecutiveFailures.incrementAndGet() >= failureThreshold && state == State.CLOSED) {
+      transitionTo(State.OPEN);
+    }
+    return true;
+  }
+
+  /**
+   * Merges the column audits of the submitted Mutation into the backlog, to be written to the
+   * Repository by the background drainer.
+   */
+  void defer(MTableDescriptor mtd, Mutation mutation) {
+    defer(mtd, mutation.getFamilyCellMap());
+  }
+
+  /**
+   * Merges the submitted column audits into the backlog, to be written to the Repository by the
+   * background drainer.
+   */
+  void defer(MTableDescriptor mtd, Map<byte[], List<Cell>> familyCellMap) {
+    TableName tableName = mtd.getTableName();
+    for (Entry<byte[], List<Cell>> colFamilyCellList : familyCellMap.entrySet()) {
+      MColumnDescriptor mcd = mtd.getMColumnDescriptor(colFamilyCellList.getKey());
+      for (Cell cell : colFamilyCellList.getValue()) {
+        byte[] colQualifier = Bytes.copy(
+                cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+        defer(tableName, mcd.getForeignKey(), colQualifier, cell.getValueLength());
+      }
+    }
+    scheduleDrain();
+  }
+
+  /**
+   * A PendingAudit detached by the drainer no longer accepts merges; it is then replaced in the
+   * backlog by a new PendingAudit, so no merged value length is lost.
+   */
+  private void defer(TableName tableName, byte[] colFamilyForeignKey, byte[] colQualifier,
+          long valueLength) {
+    ByteBuffer key = ByteBuffer.wrap(Bytes.add(colFamilyForeignKey, colQualifier));
+    while (true) {
+      PendingAudit pendingAudit = backlog.get(key);
+      if (pendingAudit == null) {
+        if (backlogSize.get() >= maxBacklogSize) {
+          metrics.increment(tableName, ColumnManagerMetrics.Counter.AUDITOR_UPDATES_DROPPED);
+          return;
+        }
+        PendingAudit newPendingAudit
+                = new PendingAudit(tableName, colFamilyForeignKey, colQualifier);
+        pendingAudit = backlog.putIfAbsent(key, newPendingAudit);
+        if (pendingAudit == null) {
+          pendingAudit = newPendingAudit;
+          backlogSize.incrementAndGet();
+        }
+      }
+      if (pendingAudit.mergeValueLength(valueLength)) {
+        break;
+      }
+      backlog.remove(key, pendingAudit);
+    }
+    metrics.increment(tableName, ColumnManagerMetrics.Counter.AUDITOR_UPDATES_DEFERRED);
+  }
+
+  private void scheduleDrain() {
+    if (!drainScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      getDrainer().schedule(new Runnable() {
+        @Override
+        public void run() {
+          drainScheduled.set(false);
+          drainBacklog();
+        }
+      }, openInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Writes all backlogged audits to the Repository; upon the first failed or slow write, the
+   * breaker is (re-)OPENed and a further drain is scheduled.
+   */
+  void drainBacklog() {
+    if (state == State.OPEN) {
+      transitionTo(State.HALF_OPEN);
+    }
+    for (Entry<ByteBuffer, PendingAudit> backlogEntry : backlog.entrySet()) {
+      PendingAudit pendingAudit = backlogEntry.getValue();
+      // merges after detachment go to a replacement PendingAudit (see #defer)
+      if (!pendingAudit.detach()) {
+        continue;
+      }
+      long maxValueLength = pendingAudit.getMaxValueLength();
+      backlog.remove(backlogEntry.getKey(), pendingAudit);
+      backlogSize.decrementAndGet();
+      long startNanos = System.nanoTime();
+      boolean written;
+      try {
+        auditWriter.writeAudit(pendingAudit.tableName, pendingAudit.colFamilyForeignKey,
+                pendingAudit.colQualifier, maxValueLength);
+        written = System.nanoTime() - startNanos < latencyThresholdNanos;
+      } catch (IOException | RuntimeException e) {
+        staticLogger.warn(Repository.PRODUCT_NAME + " deferred audit of table <"
+                + pendingAudit.tableName.getNameAsString() + "> failed: " + e);
+        written = false;
+        defer(pendingAudit.tableName, pendingAudit.colFamilyForeignKey,
+                pendingAudit.colQualifier, maxValueLength);
+      }
+      if (!written) {
+        if (state != State.OPEN) {
+          transitionTo(State.OPEN);
+        }
+        scheduleDrain();
+        return;
+      }
+    }
+    consecutiveFailures.set(0);
+    if (state != State.CLOSED) {
+      transitionTo(State.CLOSED);
+    }
+  }
+
+  private synchronized void transitionTo(State newState) {
+    if (state == newState) {
+      return;
+    }
+    staticLogger.info(Repository.PRODUCT_NAME + " auditing circuit breaker transitioning from "
+            + state + " to " + newState + " (backlog size: " + backlogSize.get() + ").");
+    state = newState;
+    switch (newState) {
+      case OPEN:
+        metrics.increment(Repository.REPOSITORY_TABLENAME,
+                ColumnManagerMetrics.Counter.AUDIT_CIRCUIT_OPENED);
+        scheduleDrain();
+        break;
+      case HALF_OPEN:
+        metrics.increment(Repository.REPOSITORY_TABLENAME,
+                ColumnManagerMetrics.Counter.AUDIT_CIRCUIT_HALF_OPENED);
+        break;
+      default:
+        metrics.increment(Repository.REPOSITORY_TABLENAME,
+                ColumnManagerMetrics.Counter.AUDIT_CIRCUIT_CLOSED);
+    }
+  }
+
+  /**
+   * Stops the drainer thread. Audits still deferred in the backlog (or deferred thereafter) are
+   * abandoned.
+   */
+  synchronized void close() {
+    closed = true;
+    if (drainer != null) {
+      drainer.shutdownNow();
+    }
+    if (backlogSize.get() > 0) {
+      staticLogger.warn(Repository.PRODUCT_NAME + " auditing backlog of " + backlogSize.get()
+              + " deferred audit(s) abandoned upon closure of connection.");
+    }
+  }
+
+  private synchronized ScheduledExecutorService getDrainer() {
+    if (drainer == null) {
+      drainer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable,
+                  Repository.PRODUCT_NAME + " " + AuditCircuitBreaker.class.getSimpleName());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return drainer;
+  }
+
+  private static class PendingAudit {
+
+    private final TableName tableName;
+    private final byte[] colFamilyForeignKey;
+    private final byte[] colQualifier;
+    private long maxValueLength = -1; // guarded by this
+    private boolean detached = false; // guarded by this
+
+    PendingAudit(TableName tableName, byte[] colFamilyForeignKey, byte[] colQualifier) {
+      this.tableName = tableName;
+      this.colFamilyForeignKey = colFamilyForeignKey;
+      this.colQualifier = colQualifier;
+    }
+
+    /**
+     * Returns false if this PendingAudit has been detached from the backlog.
+     */
+    synchronized boolean mergeValueLength(long valueLength) {
+      if (detached) {
+        return false;
+      }
+      maxValueLength = Math.max(maxValueLength, valueLength);
+      return true;
+    }
+
+    /**
+     * Returns false if this PendingAudit was already detached from the backlog.
+     */
+    synchronized boolean detach() {
+      if (detached) {
+        return false;
+      }
+      detached = true;
+      return true;
+    }
+
+    synchronized long getMaxValueLength() {
+      return maxValueLength;
+    }
+  }
+}
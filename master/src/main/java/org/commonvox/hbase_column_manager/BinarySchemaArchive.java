@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Reading and writing of HBaseSchemaArchive files in {@link SchemaArchiveFormat#BINARY binary}
+ * format. A binary archive holds exactly the content of its XML counterpart (i.e., the type, name,
+ * values, and configurations of each entity, and the nesting of entities), laid out as follows:
+ * <ul>
+ * <li>a six-byte preamble: the magic bytes "HSAB", a format-version byte, and a flags byte
+ * (designating whether the remainder of the file is deflate-compressed);</li>
+ * <li>a sequence of records, each prefixed by its length as a varint: a header record (file
+ * timestamp and description), then a START_ENTITY record for each entity which may have
+ * children (followed by its children and an END_ENTITY record), or an ENTITY record for each
+ * childless entity, and finally an END_OF_ARCHIVE record.</li>
+ * </ul>
+ * Each string within an entity record is written as a reference into a dictionary which both
+ * writer and reader build up as the archive is processed: a repeated string (e.g., a value key
+ * which appears in every ColumnAuditor) is written in full only upon its first appearance.
+ * The dictionary's size is capped, so that memory use remains bounded regardless of archive size.
+ *
+ * @author Daniel Vimont
+ */
+class BinarySchemaArchive {
+
+  private static final byte[] MAGIC = {'H', 'S', 'A', 'B'};
+  private static final byte FORMAT_VERSION = 1;
+  private static final byte COMPRESSED_FLAG = 0x01;
+  private static final int PREAMBLE_LENGTH = MAGIC.length + 2;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+
+  // record kinds
+  private static final byte HEADER = 0;
+  private static final byte START_ENTITY = 1;
+  private static final byte ENTITY = 2;
+  private static final byte END_ENTITY = 3;
+  private static final byte END_OF_ARCHIVE = 4;
+
+  // string references: NULL_REF, LITERAL_REF (followed by string), or FIRST_DICTIONARY_REF + index
+  private static final int NULL_REF = 0;
+  private static final int LITERAL_REF = 1;
+  private static final int FIRST_DICTIONARY_REF = 2;
+
+  private BinarySchemaArchive() {
+  }
+
+  static boolean isBinaryArchive(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer magicBuffer = ByteBuffer.allocate(MAGIC.length);
+      while (magicBuffer.hasRemaining() && channel.read(magicBuffer) >= 0) {
+      }
+      return !magicBuffer.hasRemaining() && Arrays.equals(magicBuffer.array(), MAGIC);
+    }
+  }
+
+  private static ColumnManagerIOException invalidArchiveException(File file, String reason) {
+    return new ColumnManagerIOException("Invalid binary " + HBaseSchemaArchive.class.getSimpleName()
+            + " file <" + file.getAbsolutePath() + ">: " + reason) {};
+  }
+
+  static class EntityWriter implements HBaseSchemaArchive.SchemaEntityWriter {
+
+    private final FileChannel channel;
+    private final Deflater deflater;
+    private final OutputStream outputStream;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private byte[] record = new byte[1024];
+    private int recordLength = 0;
+
+    EntityWriter(File targetFile, boolean compressed, String fileTimestamp,
+            String archiveDescription) throws IOException {
+      channel = FileChannel.open(targetFile.toPath(), StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH)
+              .put(MAGIC).put(FORMAT_VERSION).put(compressed ? COMPRESSED_FLAG : 0);
+      preamble.flip();
+      while (preamble.hasRemaining()) {
+        channel.write(preamble);
+      }
+      OutputStream channelStream = Channels.newOutputStream(channel);
+      if (compressed) {
+        deflater = new Deflater();
+        outputStream = new BufferedOutputStream(
+                new DeflaterOutputStream(channelStream, deflater, BUFFER_SIZE), BUFFER_SIZE);
+      } else {
+        deflater = null;
+        outputStream = new BufferedOutputStream(channelStream, BUFFER_SIZE);
+      }
+      startRecord(HEADER);
+      putLiteral(fileTimestamp);
+      putLiteral(archiveDescription);
+      writeRecord();
+    }
+
+    @Override
+    public void writeStartEntity(SchemaEntity entity) throws IOException {
+      writeEntityRecord(START_ENTITY, entity);
+    }
+
+    @Override
+    public void writeEndEntity() throws IOException {
+      startRecord(END_ENTITY);
+      writeRecord();
+    }
+
+    @Override
+    public void writeEntity(SchemaEntity entity) throws IOException {
+      writeEntityRecord(ENTITY, entity);
+    }
+
+    private void writeEntityRecord(byte recordKind, SchemaEntity entity) throws IOException {
+      startRecord(recordKind);
+      putByte(entity.getEntityRecordType());
+      putString(entity.getNameAsString());
+      putEntries(entity.getValuesStringMap());
+      putEntries(entity.getConfiguration());
+      writeRecord();
+    }
+
+    private void putEntries(Map<String, String> entries) {
+      putVarint(entries.size());
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        putString(entry.getKey());
+        putString(entry.getValue());
+      }
+    }
+
+    private void putString(String string) {
+      if (string == null) {
+        putVarint(NULL_REF);
+        return;
+      }
+      Integer dictionaryIndex = dictionary.get(string);
+      if (dictionaryIndex != null) {
+        putVarint(FIRST_DICTIONARY_REF + dictionaryIndex);
+        return;
+      }
+      if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+        dictionary.put(string, dictionary.size());
+      }
+      putVarint(LITERAL_REF);
+      putLiteral(string);
+    }
+
+    private void putLiteral(String string) {
+      byte[] stringBytes = Bytes.toBytes(string);
+      putVarint(stringBytes.length);
+      ensureCapacity(stringBytes.length);
+      System.arraycopy(stringBytes, 0, record, recordLength, stringBytes.length);
+      recordLength += stringBytes.length;
+    }
+
+    private void startRecord(byte recordKind) {
+      recordLength = 0;
+      putByte(recordKind);
+    }
+
+    private void putByte(byte b) {
+      ensureCapacity(1);
+      record[recordLength++] = b;
+    }
+
+    private void putVarint(int value) {
+      ensureCapacity(5);
+      recordLength = encodeVarint(value, record, recordLength);
+    }
+
+    private void ensureCapacity(int additionalLength) {
+      if (recordLength + additionalLength > record.length) {
+        record = Arrays.copyOf(record, Math.max(record.length * 2, recordLength + additionalLength));
+      }
+    }
+
+    private void writeRecord() throws IOException {
+      byte[] lengthPrefix = new byte[5];
+      outputStream.write(lengthPrefix, 0, encodeVarint(recordLength, lengthPrefix, 0));
+      outputStream.write(record, 0, recordLength);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        startRecord(END_OF_ARCHIVE);
+        writeRecord();
+        outputStream.close(); // completes compression (if any) and closes channel
+      } finally {
+        if (deflater != null) {
+          deflater.end();
+        }
+        channel.close();
+      }
+    }
+  }
+
+  static class EntityReader implements HBaseSchemaArchive.SchemaEntityReader {
+
+    private final File sourceFile;
+    private final FileChannel channel;
+    private final Inflater inflater;
+    private final DataInputStream inputStream;
+    private final List<String> dictionary = new ArrayList<>();
+    private final Deque<SchemaEntity> ancestors = new ArrayDeque<>();
+    private final String fileTimestamp;
+    private final String archiveDescription;
+    private SchemaEntity pendingParent = null;
+    private boolean endOfArchive = false;
+    private byte[] record = new byte[1024];
+    private ByteBuffer recordBuffer;
+
+    EntityReader(File sourceFile) throws IOException {
+      this.sourceFile = sourceFile;
+      channel = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+      try {
+        ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH);
+        while (preamble.hasRemaining() && channel.read(preamble) >= 0) {
+        }
+        preamble.flip();
+        if (preamble.remaining() < PREAMBLE_LENGTH) {
+          throw invalidArchiveException(sourceFile, "incomplete preamble");
+        }
+        byte[] magic = new byte[MAGIC.length];
+        preamble.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+          throw invalidArchiveException(sourceFile, "not a binary archive file");
+        }
+        byte formatVersion = preamble.get();
+        if (formatVersion != FORMAT_VERSION) {
+          throw invalidArchiveException(sourceFile, "unsupported format version " + formatVersion);
+        }
+        byte flags = preamble.get();
+        if ((flags & ~COMPRESSED_FLAG) != 0) {
+          throw invalidArchiveException(sourceFile, "unsupported flags " + flags);
+        }
+        InputStream channelStream = Channels.newInputStream(channel);
+        if ((flags & COMPRESSED_FLAG) != 0) {
+          inflater = new Inflater();
+          inputStream = new DataInputStream(new BufferedInputStream(
+                  new InflaterInputStream(channelStream, inflater, BUFFER_SIZE), BUFFER_SIZE));
+        } else {
+          inflater = null;
+          inputStream = new DataInputStream(new BufferedInputStream(channelStream, BUFFER_SIZE));
+        }
+        if (readRecord() != HEADER) {
+          throw invalidArchiveException(sourceFile, "header record not found");
+        }
+        fileTimestamp = getLiteral();
+        archiveDescription = getLiteral();
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    @Override
+    public String getArchiveFileTimestampString() {
+      return fileTimestamp;
+    }
+
+    @Override
+    public String getArchiveDescription() {
+      return archiveDescription;
+    }
+
+    @Override
+    public SchemaEntity next() throws IOException {
+      if (pendingParent != null) {
+        ancestors.push(pendingParent);
+        pendingParent = null;
+      }
+      while (!endOfArchive) {
+        byte recordKind = readRecord();
+        switch (recordKind) {
+          case START_ENTITY:
+            pendingParent = getEntity(); // children follow
+            return pendingParent;
+          case ENTITY:
+            return getEntity();
+          case END_ENTITY:
+            if (ancestors.isEmpty()) {
+              throw invalidArchiveException(sourceFile, "unbalanced END_ENTITY record");
+            }
+            ancestors.pop();
+            break;
+          case END_OF_ARCHIVE:
+            endOfArchive = true;
+            break;
+          default:
+            throw invalidArchiveException(sourceFile, "unknown record kind " + recordKind);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public SchemaEntity getParent() {
+      return ancestors.peek();
+    }
+
+    @Override
+    public int getDepth() {
+      return ancestors.size();
+    }
+
+    private byte readRecord() throws IOException {
+      int recordLength;
+      try {
+        recordLength = readVarint(inputStream);
+        if (recordLength <= 0) {
+          throw invalidArchiveException(sourceFile, "invalid record length " + recordLength);
+        }
+        if (recordLength > record.length) {
+          record = new byte[Math.max(record.length * 2, recordLength)];
+        }
+        inputStream.readFully(record, 0, recordLength);
+      } catch (EOFException e) {
+        throw invalidArchiveException(sourceFile, "file is truncated");
+      } catch (ZipException e) {
+        throw invalidArchiveException(sourceFile, "corrupt compressed content: " + e.getMessage());
+      }
+      recordBuffer = ByteBuffer.wrap(record, 0, recordLength);
+      return recordBuffer.get();
+    }
+
+    private SchemaEntity getEntity() throws IOException {
+      SchemaEntityType entityType
+              = SchemaEntityType.ENTITY_TYPE_BYTE_TO_ENUM_MAP.get(getByte());
+      if (entityType == null) {
+        throw invalidArchiveException(sourceFile, "unknown entity type");
+      }
+      SchemaEntity entity = new SchemaEntity(entityType.getRecordType(), getNonNullString());
+      for (int i = getVarint(); i > 0; i--) {
+        entity.setValue(getNonNullString(), getString());
+      }
+      for (int i = getVarint(); i > 0; i--) {
+        entity.setConfiguration(getNonNullString(), getString());
+      }
+      return entity;
+    }
+
+    private String getNonNullString() throws IOException {
+      String string = getString();
+      if (string == null) {
+        throw invalidArchiveException(sourceFile, "null entity name or key");
+      }
+      return string;
+    }
+
+    private String getString() throws IOException {
+      int ref = getVarint();
+      if (ref == NULL_REF) {
+        return null;
+      }
+      if (ref == LITERAL_REF) {
+        String string = getLiteral();
+        if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+          dictionary.add(string);
+        }
+        return string;
+      }
+      if (ref < FIRST_DICTIONARY_REF || ref - FIRST_DICTIONARY_REF >= dictionary.size()) {
+        throw invalidArchiveException(sourceFile, "invalid dictionary reference");
+      }
+      return dictionary.get(ref - FIRST_DICTIONARY_REF);
+    }
+
+    private String getLiteral() throws IOException {
+      int length = getVarint();
+      if (length < 0 || length > recordBuffer.remaining()) {
+        throw invalidArchiveException(sourceFile, "string length " + length
+                + " exceeds remaining record length " + recordBuffer.remaining());
+      }
+      String string = Bytes.toString(record, recordBuffer.position(), length);
+      recordBuffer.position(recordBuffer.position() + length);
+      return string;
+    }
+
+    private int getVarint() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+        byte b = getByte();
+        value |= (b & 0x7f) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw invalidArchiveException(sourceFile, "malformed varint");
+    }
+
+    private byte getByte() throws IOException {
+      if (!recordBuffer.hasRemaining()) {
+        throw invalidArchiveException(sourceFile, "record is truncated");
+      }
+      return recordBuffer.get();
+    }
+
+    @Override
+    public void close() {
+      try {
+        inputStream.close();
+        channel.close();
+      } catch (IOException e) {
+        // read-only channel; nothing to be done
+      } finally {
+        if (inflater != null) {
+          inflater.end();
+        }
+      }
+    }
+  }
+
+  /**
+   * Encodes an unsigned varint (7 bits per byte, least-significant group first) into the
+   * submitted array, returning the offset following the encoded value.
+   */
+  private static int encodeVarint(int value, byte[] target, int offset) {
+    while ((value & ~0x7f) != 0) {
+      target[offset++] = (byte) ((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    target[offset++] = (byte) value;
+    return offset;
+  }
+
+  /**
+   * Reads an unsigned varint from the submitted stream; a varint of more than five bytes yields
+   * -1 (i.e., an invalid length).
+   */
+  private static int readVarint(InputStream inputStream) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int b = inputStream.read();
+      if (b < 0) {
+        throw new EOFException();
+      }
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    return -1;
+  }
+}
@@ -60,6 +60,15 @@ public class ChangeEvent implements Comparable<ChangeEvent> {
     this.setUserName(userName);
   }
 
+  ChangeEvent(Entity entity, byte[] attributeName, long timestamp, byte[] attributeValue,
+          byte[] userName) {
+    this.entity = entity;
+    this.setAttributeName(attributeName);
+    this.setTimestamp(timestamp);
+    this.setAttributeValue(attributeValue);
+    this.setUserName(userName);
+  }
+
   private ChangeEvent() {
   }
 
@@ -317,6 +326,29 @@ public class ChangeEvent implements Comparable<ChangeEvent> {
     return result;
   }
 
+  /**
+   * {@code ChangeEvent}s are equal when they are equal in all their components (consistent with
+   * {@link #compareTo(ChangeEvent)}); {@code ChangeEvent} objects are materialized on demand
+   * from a {@link ChangeEventMonitor}'s internal store, so object identity is not significant.
+   *
+   * @param other object to be compared
+   * @return {@code true} if equal
+   */
+  @Override
+  public boolean equals(Object other) {
+    if (other == null || !this.getClass().equals(other.getClass())) {
+      return false;
+    }
+    return compareTo((ChangeEvent) other) == 0;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = Bytes.hashCode(timestamp.getBytes());
+    hash = 31 * hash + Bytes.hashCode(entity.getEntityName().getBytes());
+    return 31 * hash + Bytes.hashCode(attributeName.getBytes());
+  }
+
   static class Entity implements Comparable<Entity> {
 
     private final EntityType entityType; // part of Entity unique identifier (rowId)
@@ -355,6 +387,10 @@ public class ChangeEvent implements Comparable<ChangeEvent> {
       return entityForeignKey;
     }
 
+    Entity getNamespaceEntity() {
+      return this.namespace;
+    }
+
     void setNamespaceEntity(Entity namespaceEntity) {
       this.namespace = namespaceEntity;
     }
@@ -367,6 +403,10 @@ public class ChangeEvent implements Comparable<ChangeEvent> {
       return extractEntityNameAsString(this.namespace);
     }
 
+    Entity getTableEntity() {
+      return this.table;
+    }
+
     void setTableEntity(Entity tableEntity) {
       this.table = tableEntity;
     }
@@ -379,6 +419,10 @@ public class ChangeEvent implements Comparable<ChangeEvent> {
       return extractEntityNameAsString(this.table);
     }
 
+    Entity getColumnFamilyEntity() {
+      return this.colFamily;
+    }
+
     void setColumnFamilyEntity(Entity colFamilyEntity) {
       this.colFamily = colFamilyEntity;
     }
@@ -23,23 +23,13 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.TreeSet;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.apache.hadoop.hbase.Cell;
-import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.TableName;
-import org.apache.hadoop.hbase.client.Result;
-import org.apache.hadoop.hbase.client.ResultScanner;
-import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
 
@@ -55,173 +45,54 @@ import org.apache.hadoop.hbase.util.Bytes;
  */
 public class ChangeEventMonitor {
   private final static char COMMA = ',';
-  private Set<ChangeEvent.Entity> entitySet = new TreeSet<>();
-  private final Set<ChangeEvent> changeEventsByTimestamp = new TreeSet<>();
-  private final Set<ChangeEvent> changeEventsByUser = new TreeSet<>(
-          new Comparator<ChangeEvent>() {
-            @Override
-            public int compare(ChangeEvent ce1, ChangeEvent ce2) {
-              int result = ce1.getUserNameObject().compareTo(ce2.getUserNameObject());
-              if (result == 0) {
-                result = ce1.getTimestampObject().compareTo(ce2.getTimestampObject());
-              }
-              if (result == 0) {
-                result = ce1.getEntity().compareTo(ce2.getEntity());
-              }
-              if (result == 0) {
-                result = ce1.getAttributeNameObject().compareTo(ce2.getAttributeNameObject());
-              }
-              if (result == 0) {
-                result = ce1.getAttributeValueObject().compareTo(ce2.getAttributeValueObject());
-              }
-              return result;
-            }
-          }
-  );
-  private Set<ChangeEvent> changeEventsByEntity = new TreeSet<>(
-          new Comparator<ChangeEvent>() {
-            @Override
-            public int compare(ChangeEvent ce1, ChangeEvent ce2) {
-              int result = ce1.getEntity().compareTo(ce2.getEntity());
-              if (result == 0) {
-                result = ce1.getTimestampObject().compareTo(ce2.getTimestampObject());
-              }
-              if (result == 0) {
-                result = ce1.getAttributeNameObject().compareTo(ce2.getAttributeNameObject());
-              }
-              if (result == 0) {
-                result = ce1.getAttributeValueObject().compareTo(ce2.getAttributeValueObject());
-              }
-              return result;
-            }
-          }
-  );
+  private final ChangeEventStore changeEventStore = new ChangeEventStore();
+  private final Set<ChangeEvent.Entity> entitySet = new TreeSet<>();
   private final static Charset ENCODING = StandardCharsets.UTF_8;
 
-  ChangeEventMonitor(Table repositoryTable) throws IOException {
-    try (ResultScanner rows = repositoryTable.getScanner(new Scan().setMaxVersions())) {
-      for (Result row : rows) {
-        Repository.RowId rowId = new Repository.RowId(row.getRow());
-        byte entityType = rowId.getEntityType();
-        byte[] entityName = rowId.getEntityName();
-        byte[] parentForeignKey = rowId.getParentForeignKey();
-        byte[] entityForeignKey
-                = row.getValue(Repository.REPOSITORY_CF, Repository.FOREIGN_KEY_COLUMN);
-        Map<Long, byte[]> userNameKeyedByTimestampMap = new HashMap<>();
-        for (Cell userNameCell : row.getColumnCells(
-                Repository.REPOSITORY_CF, Repository.JAVA_USERNAME_PROPERTY_KEY)) {
-          userNameKeyedByTimestampMap.put(userNameCell.getTimestamp(),
-                  Bytes.getBytes(CellUtil.getValueBufferShallowCopy(userNameCell)));
-        }
-        for (Map.Entry<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> cfEntry
-                : row.getMap().entrySet()) {
-          for (Map.Entry<byte[], NavigableMap<Long, byte[]>> colEntry
-                  : cfEntry.getValue().entrySet()) {
-            byte[] attributeName = colEntry.getKey();
-            // bypass ColumnManager-maintained columns
-            if (Bytes.equals(attributeName, Repository.FOREIGN_KEY_COLUMN)
-                    || Bytes.equals(attributeName, Repository.JAVA_USERNAME_PROPERTY_KEY)
-                    || Bytes.equals(attributeName, Repository.MAX_VALUE_QUALIFIER)
-                    || Bytes.equals(attributeName, Repository.COL_COUNTER_QUALIFIER)
-                    || Bytes.equals(attributeName, Repository.CELL_COUNTER_QUALIFIER)
-                    ) {
-              continue;
-            }
-            for (Map.Entry<Long, byte[]> cellEntry : colEntry.getValue().entrySet()) {
-              long timestamp = cellEntry.getKey();
-              byte[] attributeValue = cellEntry.getValue();
-              byte[] userName = userNameKeyedByTimestampMap.get(timestamp);
-              ChangeEvent changeEvent = new ChangeEvent(entityType, parentForeignKey, entityName,
-                      entityForeignKey, attributeName,
-                      timestamp, attributeValue, userName);
-              changeEventsByEntity.add(changeEvent);
-              entitySet.add(changeEvent.getEntity());
-            }
-          }
-        }
-      }
-    }
-    denormalize();
+  ChangeEventMonitor(Table repositoryTable, RepositoryLayout repositoryLayout)
+          throws IOException {
+    this(repositoryTable, repositoryLayout, new ChangeEventQuery());
   }
 
-  private void denormalize() {
-    // use complete list of Entities to build entityForeignKeyMap for subsequent "look-ups"
-    Map<byte[], ChangeEvent.Entity> entityForeignKeyMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
-    for (ChangeEvent.Entity entity : entitySet) {
-      entityForeignKeyMap.put(entity.getEntityForeignKey().getBytes(), entity);
-    }
-
-    // "denormalize" each ChangeEvent by adding namespace, table, etc. to each one
-    Set<ChangeEvent> denormalizedChangeEventsByEntity
-            = new TreeSet<>(((TreeSet<ChangeEvent>)changeEventsByEntity).comparator());
-    Set<ChangeEvent.Entity> denormalizedEntitySet = new TreeSet<>();
-    ChangeEvent.Entity denormalizedEntity = null;
-    for (ChangeEvent event : changeEventsByEntity) {
-      ChangeEvent.Entity entity = event.getEntity();
-      if (denormalizedEntity == null || entity.compareTo(denormalizedEntity) != 0) {
-        byte[] namespaceForeignKey = {(byte) ' '};
-        byte[] tableForeignKey = {(byte) ' '};
-        byte[] colFamilyForeignKey = {(byte) ' '};
-        byte[] colQualifierForeignKey = {(byte) ' '};
-        switch (event.getEntityType()) {
-          case NAMESPACE:
-            namespaceForeignKey = entity.getEntityForeignKey().getBytes();
-            break;
-          case TABLE:
-            tableForeignKey = entity.getEntityForeignKey().getBytes();
-            namespaceForeignKey = entity.getParentForeignKey().getBytes();
-            break;
-          case COLUMN_FAMILY:
-            colFamilyForeignKey = entity.getEntityForeignKey().getBytes();
-            tableForeignKey = entity.getParentForeignKey().getBytes();
-            namespaceForeignKey
-                    = entityForeignKeyMap.get(tableForeignKey).getParentForeignKey().getBytes();
-            break;
-          case COLUMN_AUDITOR:
-          case COLUMN_DEFINITION:
-            colQualifierForeignKey = entity.getEntityForeignKey().getBytes();
-            colFamilyForeignKey = entity.getParentForeignKey().getBytes();
-            tableForeignKey
-                    = entityForeignKeyMap.get(colFamilyForeignKey).getParentForeignKey().getBytes();
-            namespaceForeignKey
-                    = entityForeignKeyMap.get(tableForeignKey).getParentForeignKey().getBytes();
-            break;
+  ChangeEventMonitor(Table repositoryTable, RepositoryLayout repositoryLayout,
+          ChangeEventQuery query) throws IOException {
+    try (ChangeEventScanner changeEventScanner
+            = new ChangeEventScanner(repositoryTable, repositoryLayout, query)) {
+      entitySet.addAll(changeEventScanner.getAncestorEntities());
+      ChangeEvent.Entity previousEntity = null;
+      for (ChangeEvent changeEvent : changeEventScanner) {
+        changeEventStore.add(changeEvent);
+        // ChangeEvents are streamed grouped by entity
+        if (changeEvent.getEntity() != previousEntity) {
+          previousEntity = changeEvent.getEntity();
+          entitySet.add(previousEntity);
         }
-        entity.setNamespaceEntity(entityForeignKeyMap.get(namespaceForeignKey));
-        entity.setTableEntity(entityForeignKeyMap.get(tableForeignKey));
-        entity.setColumnFamilyEntity(entityForeignKeyMap.get(colFamilyForeignKey));
-        entity.setColumnQualifierEntity(entityForeignKeyMap.get(colQualifierForeignKey));
-
-        denormalizedEntity = entity;
-        denormalizedEntitySet.add(denormalizedEntity);
       }
-      event.setEntity(denormalizedEntity);
-      changeEventsByTimestamp.add(event);
-      changeEventsByUser.add(event);
-      denormalizedChangeEventsByEntity.add(event);
     }
-    changeEventsByEntity = denormalizedChangeEventsByEntity;
-    entitySet = denormalizedEntitySet;
   }
 
   /**
    * Get a Set of all {@link ChangeEvent}s in the ColumnManager repository in the default
-   * (timestamp) order.
+   * (timestamp) order. The returned Set is an unmodifiable view (any attempt to modify it throws
+   * an {@code UnsupportedOperationException}), whose {@link ChangeEvent}s are materialized as
+   * they are iterated; a modifiable copy may be made via, e.g.,
+   * {@code new java.util.LinkedHashSet<>(monitor.getAllChangeEvents())}.
    *
-   * @return complete list of {@link ChangeEvent}s in timestamp order
+   * @return unmodifiable Set of all {@link ChangeEvent}s in timestamp order
    */
   public Set<ChangeEvent> getAllChangeEvents() {
-    return changeEventsByTimestamp;
+    return changeEventStore.getChangeEventsInTimestampOrder();
   }
 
   /**
    * Get a Set of all {@link ChangeEvent}s in the ColumnManager repository, ordered by user name (as
    * designated by the Java "user.name" property in effect within a session as a change was made).
+   * As with {@link #getAllChangeEvents()}, the returned Set is an unmodifiable view.
    *
-   * @return complete list of {@link ChangeEvent}s in user-name and timestamp order
+   * @return unmodifiable Set of all {@link ChangeEvent}s in user-name and timestamp order
    */
   public Set<ChangeEvent> getAllChangeEventsByUserName() {
-    return changeEventsByUser;
+    return changeEventStore.getChangeEventsInUserNameOrder();
   }
 
   /**
@@ -230,21 +101,12 @@ public class ChangeEventMonitor {
    * property in effect within a session as a change was made), in timestamp order.
    *
    * @param userName value of Java "user.name" property in effect when change was made
+   * ({@code null} for changes recorded without a user name)
    * @return Set of {@link ChangeEvent}s pertaining to the user name, in timestamp order
    */
   public Set<ChangeEvent> getChangeEventsForUserName(String userName) {
-    Set<ChangeEvent> changeEventsForUser = new LinkedHashSet<>();
-    boolean userFound = false;
-    ChangeEvent.UserName userNameObject = new ChangeEvent.UserName(userName);
-    for (ChangeEvent ce : changeEventsByUser) {
-      if (ce.getUserNameObject().equals(userNameObject)) {
-        userFound = true;
-        changeEventsForUser.add(ce);
-      } else if (userFound) {
-        break;
-      }
-    }
-    return changeEventsForUser;
+    return changeEventStore.getChangeEventsForUserName(
+            (userName == null) ? null : Bytes.toBytes(userName));
   }
 
   /**
@@ -484,17 +346,7 @@ public class ChangeEventMonitor {
   }
 
   private Set<ChangeEvent> getChangeEventsForEntity(ChangeEvent.Entity entity) {
-    Set<ChangeEvent> changeEventsForEntity = new LinkedHashSet<>();
-    boolean entityFound = false;
-    for (ChangeEvent ce : changeEventsByEntity) {
-      if (ce.getEntity().equals(entity)) {
-        entityFound = true;
-        changeEventsForEntity.add(ce);
-      } else if (entityFound) {
-        break;
-      }
-    }
-    return changeEventsForEntity;
+    return changeEventStore.getChangeEventsForEntity(entity);
   }
 
   private enum ReportHeader {
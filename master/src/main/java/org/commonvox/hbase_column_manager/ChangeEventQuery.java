@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.EnumSet;
+import java.util.Set;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * A <b>ChangeEventQuery</b> restricts the set of {@link ChangeEvent}s retrieved from the
+ * ColumnManager repository by a {@link ChangeEventMonitor} (see
+ * {@link RepositoryAdmin#getChangeEventMonitor(ChangeEventQuery)}) or by a
+ * {@link ChangeEventScanner} (see {@link RepositoryAdmin#getChangeEventScanner(ChangeEventQuery)}).
+ * All restrictions are pushed down into the Scan of the repository table: the time range is applied
+ * as the Scan's time range, and <i>Namespace</i>, <i>Table</i>, and entity-type restrictions
+ * are applied as row-prefix ranges, so that repository rows outside the query's scope are never
+ * returned from the server.
+ * <br><br>
+ * A newly constructed {@code ChangeEventQuery} imposes no restrictions (i.e., it selects all
+ * {@code ChangeEvent}s in the repository).
+ *
+ * @author Daniel Vimont
+ */
+public class ChangeEventQuery {
+
+  /**
+   * Types of entities for which {@link ChangeEvent}s are tracked in the ColumnManager repository.
+   */
+  public enum EntityType {
+    /**
+     * <i>Namespace</i>
+     */
+    NAMESPACE(SchemaEntityType.NAMESPACE),
+    /**
+     * <i>Table</i>
+     */
+    TABLE(SchemaEntityType.TABLE),
+    /**
+     * <i>Column Family</i>
+     */
+    COLUMN_FAMILY(SchemaEntityType.COLUMN_FAMILY),
+    /**
+     * {@link ColumnAuditor}
+     */
+    COLUMN_AUDITOR(SchemaEntityType.COLUMN_AUDITOR),
+    /**
+     * {@link ColumnDefinition}
+     */
+    COLUMN_DEFINITION(SchemaEntityType.COLUMN_DEFINITION);
+
+    private final SchemaEntityType schemaEntityType;
+
+    EntityType(SchemaEntityType schemaEntityType) {
+      this.schemaEntityType = schemaEntityType;
+    }
+
+    SchemaEntityType getSchemaEntityType() {
+      return schemaEntityType;
+    }
+  }
+
+  private long minTimestamp = 0;
+  private long maxTimestamp = Long.MAX_VALUE;
+  private byte[] namespaceName = null;
+  private TableName tableName = null;
+  private final Set<SchemaEntityType> entityTypes = EnumSet.allOf(SchemaEntityType.class);
+
+  /**
+   * Create a {@code ChangeEventQuery} which imposes no restrictions.
+   */
+  public ChangeEventQuery() {
+  }
+
+  ChangeEventQuery(ChangeEventQuery other) {
+    this.minTimestamp = other.minTimestamp;
+    this.maxTimestamp = other.maxTimestamp;
+    this.namespaceName = other.namespaceName;
+    this.tableName = other.tableName;
+    this.entityTypes.clear();
+    this.entityTypes.addAll(other.entityTypes);
+  }
+
+  /**
+   * Restrict the query to {@link ChangeEvent}s with timestamps in the range
+   * [minTimestamp, maxTimestamp).
+   *
+   * @param minTimestamp minimum timestamp value, inclusive
+   * @param maxTimestamp maximum timestamp value, exclusive
+   * @return this object, for method chaining
+   */
+  public ChangeEventQuery setTimeRange(long minTimestamp, long maxTimestamp) {
+    if (minTimestamp < 0 || maxTimestamp < minTimestamp) {
+      throw new IllegalArgumentException("Invalid time range submitted: ["
+              + minTimestamp + ", " + maxTimestamp + ")");
+    }
+    this.minTimestamp = minTimestamp;
+    this.maxTimestamp = maxTimestamp;
+    return this;
+  }
+
+  /**
+   * Restrict the query to {@link ChangeEvent}s with timestamps equal to or greater than
+   * the submitted value.
+   *
+   * @param minTimestamp minimum timestamp value, inclusive
+   * @return this object, for method chaining
+   */
+  public ChangeEventQuery setMinTimestamp(long minTimestamp) {
+    return setTimeRange(minTimestamp, this.maxTimestamp);
+  }
+
+  /**
+   * Restrict the query to {@link ChangeEvent}s pertaining to the specified <i>Namespace</i>
+   * and its components (i.e., its <i>Table</i>s, their <i>Column Families</i>, etc.).
+   * This setting replaces any previously set <i>Table</i> restriction.
+   *
+   * @param namespaceName <i>Namespace</i> name
+   * @return this object, for method chaining
+   */
+  public ChangeEventQuery setNamespace(String namespaceName) {
+    return setNamespace(Bytes.toBytes(namespaceName));
+  }
+
+  /**
+   * Restrict the query to {@link ChangeEvent}s pertaining to the specified <i>Namespace</i>
+   * and its components (i.e., its <i>Table</i>s, their <i>Column Families</i>, etc.).
+   * This setting replaces any previously set <i>Table</i> restriction.
+   *
+   * @param namespaceName <i>Namespace</i> name
+   * @return this object, for method chaining
+   */
+  public ChangeEventQuery setNamespace(byte[] namespaceName) {
+    this.namespaceName = namespaceName;
+    this.tableName = null;
+    return this;
+  }
+
+  /**
+   * Restrict the query to {@link ChangeEvent}s pertaining to the specified <i>Table</i>
+   * and its components (i.e., its <i>Column Families</i>, {@link ColumnAuditor}s, and
+   * {@link ColumnDefinition}s). This setting replaces any previously set <i>Namespace</i>
+   * restriction.
+   *
+   * @param tableName name of <i>Table</i>
+   * @return this object, for method chaining
+   */
+  public ChangeEventQuery setTable(TableName tableName) {
+    this.tableName = tableName;
+    this.namespaceName = (tableName == null) ? null : tableName.getNamespace();
+    return this;
+  }
+
+  /**
+   * Restrict the query to {@link ChangeEvent}s pertaining to entities of the specified types.
+   *
+   * @param entityTypes types of entities for which {@code ChangeEvent}s are to be retrieved
+   * @return this object, for method chaining
+   */
+  public ChangeEventQuery setEntityTypes(EntityType... entityTypes) {
+    this.entityTypes.clear();
+    for (EntityType entityType : entityTypes) {
+      this.entityTypes.add(entityType.getSchemaEntityType());
+    }
+    return this;
+  }
+
+  long getMinTimestamp() {
+    return minTimestamp;
+  }
+
+  long getMaxTimestamp() {
+    return maxTimestamp;
+  }
+
+  boolean hasTimeRange() {
+    return minTimestamp > 0 || maxTimestamp < Long.MAX_VALUE;
+  }
+
+  byte[] getNamespace() {
+    return namespaceName;
+  }
+
+  TableName getTableName() {
+    return tableName;
+  }
+
+  boolean includesEntityType(SchemaEntityType entityType) {
+    return entityTypes.contains(entityType);
+  }
+}
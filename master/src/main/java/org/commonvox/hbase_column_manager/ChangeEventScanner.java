@@ -0,0 +1,432 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * A <b>ChangeEventScanner</b> (obtained via a {@code RepositoryAdmin}'s
+ * {@link RepositoryAdmin#getChangeEventScanner(ChangeEventQuery) getChangeEventScanner} method)
+ * streams the {@link ChangeEvent}s selected by a {@link ChangeEventQuery} directly from the
+ * ColumnManager repository, without materializing them in memory. {@code ChangeEvent}s are
+ * returned grouped by entity (i.e., in repository-row order), and in timestamp order within
+ * each attribute of an entity. A {@code ChangeEventScanner} must be closed after use.
+ *
+ * @author Daniel Vimont
+ */
+public class ChangeEventScanner implements Closeable, Iterable<ChangeEvent> {
+
+  private final ChangeEventQuery query;
+  private final RepositoryLayout repositoryLayout;
+  private final Map<ChangeEvent.Entity, ChangeEvent.Entity> ancestorEntities = new TreeMap<>();
+  private final Map<byte[], ChangeEvent.Entity> ancestorEntitiesByForeignKey
+          = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+  private ChangeEvent.Entity namespaceEntity = null;
+  private final List<ChangeEvent.Entity> tableEntities = new ArrayList<>();
+  private final List<ChangeEvent.Entity> colFamilyEntities = new ArrayList<>();
+  private final Table repositoryTable;
+  private final ResultScanner resultScanner;
+
+  ChangeEventScanner(Table repositoryTable, RepositoryLayout repositoryLayout,
+          ChangeEventQuery query) throws IOException {
+    this.repositoryTable = repositoryTable;
+    this.query = query;
+    this.repositoryLayout = repositoryLayout;
+    loadAncestorEntities(repositoryTable);
+    denormalizeAncestorEntities();
+    List<RowRange> changeEventRowRanges = buildChangeEventRowRanges();
+    if (changeEventRowRanges.isEmpty()) {
+      resultScanner = null;
+    } else {
+      Scan changeEventScan = buildScan(changeEventRowRanges).setMaxVersions();
+      if (query.hasTimeRange()) {
+        changeEventScan.setTimeRange(query.getMinTimestamp(), query.getMaxTimestamp());
+      }
+      resultScanner = repositoryTable.getScanner(changeEventScan);
+    }
+  }
+
+  /**
+   * Namespace, Table, and ColumnFamily entities are needed to resolve the names of all
+   * entities in the scope of the query, even when they have no {@code ChangeEvent}s in the
+   * query's time range; only their foreign keys are retrieved.
+   */
+  private void loadAncestorEntities(Table repositoryTable) throws IOException {
+    byte[] namespaceName = query.getNamespace();
+    TableName tableName = query.getTableName();
+    if (namespaceName == null) {
+      List<RowRange> rowRanges = new ArrayList<>();
+      addPrefixRange(rowRanges, new byte[]{SchemaEntityType.NAMESPACE.getRecordType()});
+      addPrefixRange(rowRanges, new byte[]{SchemaEntityType.TABLE.getRecordType()});
+      addPrefixRange(rowRanges, new byte[]{SchemaEntityType.COLUMN_FAMILY.getRecordType()});
+      loadAncestorEntities(repositoryTable, rowRanges);
+      return;
+    }
+    List<RowRange> namespaceRowRanges = new ArrayList<>();
+    addSingleRowRange(namespaceRowRanges, new Repository.RowId(
+            SchemaEntityType.NAMESPACE.getRecordType(),
+            Repository.NAMESPACE_PARENT_FOREIGN_KEY, namespaceName));
+    loadAncestorEntities(repositoryTable, namespaceRowRanges);
+    if (namespaceEntity == null) {
+      return;
+    }
+    Repository.RowId tableRowId = new Repository.RowId(SchemaEntityType.TABLE.getRecordType(),
+            getForeignKey(namespaceEntity), (tableName == null) ? null : tableName.getName());
+    List<RowRange> tableRowRanges = new ArrayList<>();
+    if (tableName == null) {
+      addPrefixRange(tableRowRanges, tableRowId.getByteArray());
+    } else {
+      addSingleRowRange(tableRowRanges, tableRowId);
+    }
+    loadAncestorEntities(repositoryTable, tableRowRanges);
+    if (tableEntities.isEmpty()) {
+      return;
+    }
+    List<RowRange> colFamilyRowRanges = new ArrayList<>();
+    for (ChangeEvent.Entity tableEntity : tableEntities) {
+      addPrefixRange(colFamilyRowRanges, new Repository.RowId(
+              SchemaEntityType.COLUMN_FAMILY.getRecordType(), getForeignKey(tableEntity), null)
+              .getByteArray());
+    }
+    loadAncestorEntities(repositoryTable, colFamilyRowRanges);
+  }
+
+  private void loadAncestorEntities(Table repositoryTable, List<RowRange> rowRanges)
+          throws IOException {
+    Scan ancestorScan
+            = buildScan(rowRanges).addColumn(Repository.REPOSITORY_CF, Repository.FOREIGN_KEY_COLUMN);
+    try (ResultScanner rows = repositoryTable.getScanner(ancestorScan)) {
+      for (Result row : rows) {
+        byte[] foreignKey = row.getValue(Repository.REPOSITORY_CF, Repository.FOREIGN_KEY_COLUMN);
+        if (foreignKey == null) {
+          continue;
+        }
+        Repository.RowId rowId = new Repository.RowId(repositoryLayout.toRowId(row.getRow()));
+        ChangeEvent.Entity entity = new ChangeEvent.Entity(
+                rowId.getEntityType(), rowId.getParentForeignKey(), rowId.getEntityName());
+        entity.setEntityForeignKey(foreignKey);
+        ancestorEntities.put(entity, entity);
+        ancestorEntitiesByForeignKey.put(foreignKey, entity);
+        switch (SchemaEntityType.ENTITY_TYPE_BYTE_TO_ENUM_MAP.get(rowId.getEntityType())) {
+          case NAMESPACE:
+            namespaceEntity = entity;
+            break;
+          case TABLE:
+            tableEntities.add(entity);
+            break;
+          case COLUMN_FAMILY:
+            colFamilyEntities.add(entity);
+            break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Ancestor rows are not necessarily retrieved in hierarchical order (e.g., "F" rows sort
+   * before "N" rows), so pointers are set in a separate pass, one entity type at a time.
+   */
+  private void denormalizeAncestorEntities() {
+    for (SchemaEntityType entityType : new SchemaEntityType[]{SchemaEntityType.NAMESPACE,
+            SchemaEntityType.TABLE, SchemaEntityType.COLUMN_FAMILY}) {
+      for (ChangeEvent.Entity entity : ancestorEntities.values()) {
+        if (entity.getEntityRecordType().getByte() == entityType.getRecordType()) {
+          setDenormalizationPointers(entity);
+        }
+      }
+    }
+  }
+
+  private List<RowRange> buildChangeEventRowRanges() {
+    List<RowRange> rowRanges = new ArrayList<>();
+    boolean namespaceRestricted = (query.getNamespace() != null);
+    TableName tableName = query.getTableName();
+    if (namespaceRestricted && namespaceEntity == null) {
+      return rowRanges;
+    }
+    for (SchemaEntityType entityType : SchemaEntityType.values()) {
+      if (!query.includesEntityType(entityType)) {
+        continue;
+      }
+      byte recordType = entityType.getRecordType();
+      if (!namespaceRestricted) {
+        addPrefixRange(rowRanges, new byte[]{recordType});
+        continue;
+      }
+      switch (entityType) {
+        case NAMESPACE:
+          if (tableName == null) {
+            addSingleRowRange(rowRanges, new Repository.RowId(recordType,
+                    Repository.NAMESPACE_PARENT_FOREIGN_KEY, query.getNamespace()));
+          }
+          break;
+        case TABLE:
+          for (ChangeEvent.Entity tableEntity : tableEntities) {
+            addSingleRowRange(rowRanges, new Repository.RowId(recordType,
+                    tableEntity.getParentForeignKey().getBytes(),
+                    tableEntity.getEntityName().getBytes()));
+          }
+          break;
+        case COLUMN_FAMILY:
+          for (ChangeEvent.Entity tableEntity : tableEntities) {
+            addPrefixRange(rowRanges,
+                    new Repository.RowId(recordType, getForeignKey(tableEntity), null)
+                            .getByteArray());
+          }
+          break;
+        case COLUMN_AUDITOR:
+        case COLUMN_DEFINITION:
+          for (ChangeEvent.Entity colFamilyEntity : colFamilyEntities) {
+            addPrefixRange(rowRanges,
+                    new Repository.RowId(recordType, getForeignKey(colFamilyEntity), null)
+                            .getByteArray());
+          }
+          break;
+      }
+    }
+    return rowRanges;
+  }
+
+  private static Scan buildScan(List<RowRange> rowRanges) throws IOException {
+    List<RowRange> sortedRowRanges = MultiRowRangeFilter.sortAndMerge(rowRanges);
+    Scan scan = new Scan(sortedRowRanges.get(0).getStartRow(),
+            sortedRowRanges.get(sortedRowRanges.size() - 1).getStopRow());
+    if (sortedRowRanges.size() > 1) {
+      scan.setFilter(new MultiRowRangeFilter(sortedRowRanges));
+    }
+    return scan;
+  }
+
+  private void addSingleRowRange(List<RowRange> rowRanges, Repository.RowId rowId) {
+    byte[] rowKey = repositoryLayout.toRowKey(rowId.getByteArray());
+    rowRanges.add(new RowRange(rowKey, true, Bytes.add(rowKey, new byte[1]), false));
+  }
+
+  /**
+   * Adds the range(s) of row keys whose RowIds begin with the submitted prefix (in a salted
+   * Repository, one range per salt bucket).
+   */
+  private void addPrefixRange(List<RowRange> rowRanges, byte[] prefix) {
+    if (!repositoryLayout.isSalted()) {
+      rowRanges.add(new RowRange(prefix, true, getPrefixStopRow(prefix), false));
+      return;
+    }
+    for (int bucket = 0; bucket < repositoryLayout.getSaltBuckets(); bucket++) {
+      byte[] saltedPrefix = Bytes.add(new byte[]{(byte) bucket}, prefix);
+      rowRanges.add(new RowRange(saltedPrefix, true, getPrefixStopRow(saltedPrefix), false));
+    }
+  }
+
+  /**
+   * Returns the smallest row key greater than all row keys beginning with the submitted prefix.
+   */
+  static byte[] getPrefixStopRow(byte[] prefix) {
+    for (int i = prefix.length - 1; i >= 0; i--) {
+      if (prefix[i] != (byte) 0xff) {
+        byte[] stopRow = Bytes.copy(prefix, 0, i + 1);
+        stopRow[i]++;
+        return stopRow;
+      }
+    }
+    return new byte[0]; // prefix consists entirely of 0xff bytes: scan to end of table
+  }
+
+  private static byte[] getForeignKey(ChangeEvent.Entity entity) {
+    return entity.getEntityForeignKey().getBytes();
+  }
+
+  private void setDenormalizationPointers(ChangeEvent.Entity entity) {
+    ChangeEvent.Entity parentEntity
+            = ancestorEntitiesByForeignKey.get(entity.getParentForeignKey().getBytes());
+    switch (SchemaEntityType.ENTITY_TYPE_BYTE_TO_ENUM_MAP.get(
+            entity.getEntityRecordType().getByte())) {
+      case NAMESPACE:
+        entity.setNamespaceEntity(entity);
+        break;
+      case TABLE:
+        entity.setTableEntity(entity);
+        entity.setNamespaceEntity(parentEntity);
+        break;
+      case COLUMN_FAMILY:
+        entity.setColumnFamilyEntity(entity);
+        entity.setTableEntity(parentEntity);
+        if (parentEntity != null) {
+          entity.setNamespaceEntity(parentEntity.getNamespaceEntity());
+        }
+        break;
+      case COLUMN_AUDITOR:
+      case COLUMN_DEFINITION:
+        entity.setColumnQualifierEntity(entity);
+        entity.setColumnFamilyEntity(parentEntity);
+        if (parentEntity != null) {
+          entity.setTableEntity(parentEntity.getTableEntity());
+          entity.setNamespaceEntity(parentEntity.getNamespaceEntity());
+        }
+        break;
+    }
+  }
+
+  /**
+   * Returns the Namespace, Table, and ColumnFamily entities within the scope of the query,
+   * each fully denormalized.
+   */
+  Collection<ChangeEvent.Entity> getAncestorEntities() {
+    return ancestorEntities.values();
+  }
+
+  /**
+   * Returns the entity foreign key of the submitted row. A time-ranged scan omits the
+   * foreign-key cell when it was written outside of the range (as it usually is, being written
+   * when the entity is created), in which case it is read separately.
+   */
+  private byte[] getForeignKey(Result row) throws IOException {
+    byte[] foreignKey = row.getValue(Repository.REPOSITORY_CF, Repository.FOREIGN_KEY_COLUMN);
+    if (foreignKey == null && query.hasTimeRange()) {
+      foreignKey = repositoryTable.get(new Get(row.getRow())
+              .addColumn(Repository.REPOSITORY_CF, Repository.FOREIGN_KEY_COLUMN))
+              .getValue(Repository.REPOSITORY_CF, Repository.FOREIGN_KEY_COLUMN);
+    }
+    return foreignKey;
+  }
+
+  private ChangeEvent.Entity getEntity(Repository.RowId rowId, byte[] entityForeignKey) {
+    ChangeEvent.Entity entity = new ChangeEvent.Entity(
+            rowId.getEntityType(), rowId.getParentForeignKey(), rowId.getEntityName());
+    ChangeEvent.Entity ancestorEntity = ancestorEntities.get(entity);
+    if (ancestorEntity != null) {
+      return ancestorEntity;
+    }
+    entity.setEntityForeignKey(entityForeignKey);
+    setDenormalizationPointers(entity);
+    return entity;
+  }
+
+  List<ChangeEvent> buildChangeEvents(Result row) throws IOException {
+    Repository.RowId rowId = new Repository.RowId(repositoryLayout.toRowId(row.getRow()));
+    ChangeEvent.Entity entity = getEntity(rowId, getForeignKey(row));
+    Map<Long, byte[]> userNameKeyedByTimestampMap = new HashMap<>();
+    for (Cell userNameCell : row.getColumnCells(
+            Repository.REPOSITORY_CF, Repository.JAVA_USERNAME_PROPERTY_KEY)) {
+      userNameKeyedByTimestampMap.put(userNameCell.getTimestamp(),
+              Bytes.getBytes(CellUtil.getValueBufferShallowCopy(userNameCell)));
+    }
+    List<ChangeEvent> changeEvents = new ArrayList<>();
+    for (Map.Entry<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> cfEntry
+            : row.getMap().entrySet()) {
+      for (Map.Entry<byte[], NavigableMap<Long, byte[]>> colEntry
+              : cfEntry.getValue().entrySet()) {
+        byte[] attributeName = colEntry.getKey();
+        // bypass ColumnManager-maintained columns
+        if (Bytes.equals(attributeName, Repository.FOREIGN_KEY_COLUMN)
+                || Bytes.equals(attributeName, Repository.JAVA_USERNAME_PROPERTY_KEY)
+                || Bytes.equals(attributeName, Repository.MAX_VALUE_QUALIFIER)
+                || Bytes.equals(attributeName, Repository.COL_COUNTER_QUALIFIER)
+                || Bytes.equals(attributeName, Repository.CELL_COUNTER_QUALIFIER)
+                || Bytes.equals(attributeName, Repository.WRITE_COUNTER_QUALIFIER)
+                || Bytes.equals(attributeName, Repository.WRITE_BYTES_COUNTER_QUALIFIER)
+                || Bytes.equals(attributeName, Repository.READ_COUNTER_QUALIFIER)
+                || Bytes.equals(attributeName, Repository.LAST_SEEN_COLUMN)
+                ) {
+          continue;
+        }
+        for (Map.Entry<Long, byte[]> cellEntry : colEntry.getValue().descendingMap().entrySet()) {
+          long timestamp = cellEntry.getKey();
+          changeEvents.add(new ChangeEvent(entity, attributeName, timestamp,
+                  cellEntry.getValue(), userNameKeyedByTimestampMap.get(timestamp)));
+        }
+      }
+    }
+    return changeEvents;
+  }
+
+  /**
+   * Returns an iterator over the {@link ChangeEvent}s selected by the {@link ChangeEventQuery}.
+   * Note that all iterators returned by this method share the same underlying repository
+   * scanner.
+   *
+   * @return iterator over selected {@link ChangeEvent}s
+   */
+  @Override
+  public Iterator<ChangeEvent> iterator() {
+    return new ChangeEventIterator();
+  }
+
+  /**
+   * Closes the underlying repository scanner.
+   */
+  @Override
+  public void close() {
+    if (resultScanner != null) {
+      resultScanner.close();
+    }
+  }
+
+  private class ChangeEventIterator implements Iterator<ChangeEvent> {
+
+    private final Iterator<Result> resultIterator = (resultScanner == null)
+            ? Collections.<Result>emptyIterator() : resultScanner.iterator();
+    private Iterator<ChangeEvent> rowChangeEventIterator = Collections.emptyIterator();
+
+    @Override
+    public boolean hasNext() {
+      while (!rowChangeEventIterator.hasNext() && resultIterator.hasNext()) {
+        try {
+          rowChangeEventIterator = buildChangeEvents(resultIterator.next()).iterator();
+        } catch (IOException e) {
+          // as in the iterator of an HBase ResultScanner
+          throw new RuntimeException(e);
+        }
+      }
+      return rowChangeEventIterator.hasNext();
+    }
+
+    @Override
+    public ChangeEvent next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return rowChangeEventIterator.next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
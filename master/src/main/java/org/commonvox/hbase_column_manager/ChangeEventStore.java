@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Compact, column-oriented store for a collection of {@link ChangeEvent}s. Entities, user names,
+ * and attribute names are dictionary-encoded as int ids; timestamps are held in a primitive
+ * long array; and each of the orderings offered by {@link ChangeEventMonitor} (timestamp,
+ * user name, entity) is held as a sorted int permutation of event positions, built only upon
+ * first request. {@code ChangeEvent} objects are materialized only as they are returned to
+ * the caller.
+ *
+ * @author Daniel Vimont
+ */
+class ChangeEventStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  // dictionary key of events recorded without a user name (a ChangeEvent likewise reports an
+  //  absent user name as empty)
+  private static final byte[] NULL_USER_NAME = new byte[0];
+
+  // dictionaries
+  private final Map<ChangeEvent.Entity, Integer> entityIdMap = new TreeMap<>();
+  private final List<ChangeEvent.Entity> entities = new ArrayList<>();
+  private final Map<byte[], Integer> userIdMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+  private final List<byte[]> userNames = new ArrayList<>();
+  private final Map<byte[], Integer> attributeIdMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+  private final List<byte[]> attributeNames = new ArrayList<>();
+  private ChangeEvent.Entity lastEntity = null;
+  private int lastEntityId = -1;
+
+  // event columns
+  private int size = 0;
+  private int[] entityIds = new int[INITIAL_CAPACITY];
+  private int[] userIds = new int[INITIAL_CAPACITY];
+  private int[] attributeIds = new int[INITIAL_CAPACITY];
+  private long[] timestamps = new long[INITIAL_CAPACITY];
+  private byte[][] attributeValues = new byte[INITIAL_CAPACITY][];
+
+  // derived structures, built upon first request
+  private int[] entityRanks = null;
+  private int[] userRanks = null;
+  private int[] attributeRanks = null;
+  private int[] timestampOrder = null;
+  private int[] userNameOrder = null;
+  private int[] entityOrder = null;
+
+  synchronized void add(ChangeEvent changeEvent) {
+    if (size == timestamps.length) {
+      int newCapacity = size * 2;
+      entityIds = Arrays.copyOf(entityIds, newCapacity);
+      userIds = Arrays.copyOf(userIds, newCapacity);
+      attributeIds = Arrays.copyOf(attributeIds, newCapacity);
+      timestamps = Arrays.copyOf(timestamps, newCapacity);
+      attributeValues = Arrays.copyOf(attributeValues, newCapacity);
+    }
+    entityIds[size] = getEntityId(changeEvent.getEntity());
+    userIds[size] = getId(getUserNameKey(changeEvent.getUserName()), userIdMap, userNames);
+    attributeIds[size] = getId(changeEvent.getAttributeName(), attributeIdMap, attributeNames);
+    timestamps[size] = changeEvent.getTimestamp();
+    attributeValues[size] = changeEvent.getAttributeValue();
+    size++;
+    entityRanks = null;
+    timestampOrder = null;
+    userNameOrder = null;
+    entityOrder = null;
+  }
+
+  private int getEntityId(ChangeEvent.Entity entity) {
+    // ChangeEvents arrive grouped by entity, so the previous lookup is usually a hit
+    if (entity == lastEntity) {
+      return lastEntityId;
+    }
+    Integer entityId = entityIdMap.get(entity);
+    if (entityId == null) {
+      entityId = entities.size();
+      entityIdMap.put(entity, entityId);
+      entities.add(entity);
+    }
+    lastEntity = entity;
+    lastEntityId = entityId;
+    return entityId;
+  }
+
+  private static byte[] getUserNameKey(byte[] userName) {
+    return (userName == null) ? NULL_USER_NAME : userName;
+  }
+
+  private static int getId(byte[] key, Map<byte[], Integer> idMap, List<byte[]> dictionary) {
+    Integer id = idMap.get(key);
+    if (id == null) {
+      id = dictionary.size();
+      idMap.put(key, id);
+      dictionary.add(key);
+    }
+    return id;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns an unmodifiable view of all {@link ChangeEvent}s in timestamp order.
+   */
+  synchronized Set<ChangeEvent> getChangeEventsInTimestampOrder() {
+    if (timestampOrder == null) {
+      timestampOrder = buildOrder(IndexOrder.TIMESTAMP);
+    }
+    return new ChangeEventView(timestampOrder, 0, size);
+  }
+
+  /**
+   * Returns an unmodifiable view of all {@link ChangeEvent}s in user-name order.
+   */
+  synchronized Set<ChangeEvent> getChangeEventsInUserNameOrder() {
+    if (userNameOrder == null) {
+      userNameOrder = buildOrder(IndexOrder.USER_NAME);
+    }
+    return new ChangeEventView(userNameOrder, 0, size);
+  }
+
+  synchronized Set<ChangeEvent> getChangeEventsForUserName(byte[] userName) {
+    Set<ChangeEvent> changeEventsForUser = new LinkedHashSet<>();
+    Integer userId = userIdMap.get(getUserNameKey(userName));
+    if (userId == null) {
+      return changeEventsForUser;
+    }
+    getChangeEventsInUserNameOrder();
+    int userRank = userRanks[userId];
+    for (int i = lowerBound(userNameOrder, userIds, userRanks, userRank);
+            i < size && userRanks[userIds[userNameOrder[i]]] == userRank; i++) {
+      changeEventsForUser.add(materialize(userNameOrder[i]));
+    }
+    return changeEventsForUser;
+  }
+
+  synchronized Set<ChangeEvent> getChangeEventsForEntity(ChangeEvent.Entity entity) {
+    Set<ChangeEvent> changeEventsForEntity = new LinkedHashSet<>();
+    Integer entityId = entityIdMap.get(entity);
+    if (entityId == null) {
+      return changeEventsForEntity;
+    }
+    if (entityOrder == null) {
+      entityOrder = buildOrder(IndexOrder.ENTITY);
+    }
+    int entityRank = entityRanks[entityId];
+    for (int i = lowerBound(entityOrder, entityIds, entityRanks, entityRank);
+            i < size && entityRanks[entityIds[entityOrder[i]]] == entityRank; i++) {
+      changeEventsForEntity.add(materialize(entityOrder[i]));
+    }
+    return changeEventsForEntity;
+  }
+
+  /**
+   * Returns the first position in the submitted order at which the rank of the leading key
+   * is equal to or greater than the submitted rank.
+   */
+  private int lowerBound(int[] order, int[] ids, int[] ranks, int rank) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (ranks[ids[order[mid]]] < rank) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private ChangeEvent materialize(int position) {
+    return new ChangeEvent(entities.get(entityIds[position]),
+            attributeNames.get(attributeIds[position]), timestamps[position],
+            attributeValues[position], userNames.get(userIds[position]));
+  }
+
+  private enum IndexOrder { TIMESTAMP, USER_NAME, ENTITY }
+
+  /**
+   * Dictionary ids are assigned in order of first appearance; ranks translate them into
+   * the sort order of the corresponding dictionary entries, so that comparisons during sorting
+   * are comparisons of ints rather than of objects.
+   */
+  private void buildRanks() {
+    entityRanks = buildRanks(entityIdMap.values(), entities.size());
+    userRanks = buildRanks(userIdMap.values(), userNames.size());
+    attributeRanks = buildRanks(attributeIdMap.values(), attributeNames.size());
+  }
+
+  private static int[] buildRanks(Iterable<Integer> idsInSortOrder, int dictionarySize) {
+    int[] ranks = new int[dictionarySize];
+    int rank = 0;
+    for (int id : idsInSortOrder) {
+      ranks[id] = rank++;
+    }
+    return ranks;
+  }
+
+  private int[] buildOrder(IndexOrder indexOrder) {
+    if (entityRanks == null) {
+      buildRanks();
+    }
+    int[] order = new int[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    mergeSort(order, new int[size], 0, size, indexOrder);
+    return order;
+  }
+
+  private void mergeSort(int[] order, int[] work, int from, int to, IndexOrder indexOrder) {
+    if (to - from < 2) {
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    mergeSort(order, work, from, mid, indexOrder);
+    mergeSort(order, work, mid, to, indexOrder);
+    if (compare(order[mid - 1], order[mid], indexOrder) <= 0) {
+      return; // already in order (typical for runs of events streamed from one entity)
+    }
+    System.arraycopy(order, from, work, from, to - from);
+    for (int i = from, left = from, right = mid; i < to; i++) {
+      if (right >= to || (left < mid && compare(work[left], work[right], indexOrder) <= 0)) {
+        order[i] = work[left++];
+      } else {
+        order[i] = work[right++];
+      }
+    }
+  }
+
+  /**
+   * Mirrors the orderings of {@link ChangeEvent#compareTo(ChangeEvent)} and of the
+   * user-name and entity comparators formerly used by {@link ChangeEventMonitor}.
+   */
+  private int compare(int a, int b, IndexOrder indexOrder) {
+    int result;
+    switch (indexOrder) {
+      case TIMESTAMP:
+        result = compareTimestamps(a, b);
+        if (result == 0) {
+          result = Integer.compare(userRanks[userIds[a]], userRanks[userIds[b]]);
+        }
+        if (result == 0) {
+          result = Integer.compare(entityRanks[entityIds[a]], entityRanks[entityIds[b]]);
+        }
+        break;
+      case USER_NAME:
+        result = Integer.compare(userRanks[userIds[a]], userRanks[userIds[b]]);
+        if (result == 0) {
+          result = compareTimestamps(a, b);
+        }
+        if (result == 0) {
+          result = Integer.compare(entityRanks[entityIds[a]], entityRanks[entityIds[b]]);
+        }
+        break;
+      default:
+        result = Integer.compare(entityRanks[entityIds[a]], entityRanks[entityIds[b]]);
+        if (result == 0) {
+          result = compareTimestamps(a, b);
+        }
+        break;
+    }
+    if (result == 0) {
+      result = Integer.compare(attributeRanks[attributeIds[a]], attributeRanks[attributeIds[b]]);
+    }
+    if (result == 0) {
+      result = Bytes.compareTo(attributeValues[a], attributeValues[b]);
+    }
+    return result;
+  }
+
+  /**
+   * Timestamps are compared as unsigned values, consistent with the byte-wise comparison
+   * performed by {@link ChangeEvent#compareTo(ChangeEvent)}.
+   */
+  private int compareTimestamps(int a, int b) {
+    return Long.compare(timestamps[a] + Long.MIN_VALUE, timestamps[b] + Long.MIN_VALUE);
+  }
+
+  /**
+   * Unmodifiable Set view over a range of a sorted permutation; each {@link ChangeEvent} is
+   * materialized only as it is iterated over.
+   */
+  private class ChangeEventView extends AbstractSet<ChangeEvent> {
+
+    private final int[] order;
+    private final int from;
+    private final int to;
+
+    ChangeEventView(int[] order, int from, int to) {
+      this.order = order;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    public Iterator<ChangeEvent> iterator() {
+      return new Iterator<ChangeEvent>() {
+        private int next = from;
+
+        @Override
+        public boolean hasNext() {
+          return next < to;
+        }
+
+        @Override
+        public ChangeEvent next() {
+          if (next >= to) {
+            throw new NoSuchElementException();
+          }
+          return materialize(order[next++]);
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.log4j.Logger;
+
+/**
+ * A <b>ChangeEventTailer</b> (obtained via a {@code RepositoryAdmin}'s
+ * {@link RepositoryAdmin#getChangeEventTailer(ChangeEventQuery, long, java.io.File)
+ * getChangeEventTailer} method) incrementally retrieves the {@link ChangeEvent}s which have been
+ * recorded in the ColumnManager repository since the timestamp designated by its <i>cursor</i>.
+ * Each retrieval is a time-ranged Scan of the repository (restricted further by the
+ * {@link ChangeEventQuery} submitted upon creation of the {@code ChangeEventTailer}), so repeated
+ * polling does not entail repeated full scans of the repository.
+ * <br><br>
+ * {@code ChangeEvent}s may either be {@link #poll() polled} directly, or delivered in batches
+ * to a {@link Listener} registered via the {@link #subscribe(Listener, long, int) subscribe}
+ * method. The cursor advances only after a batch has been returned by {@code poll} or
+ * successfully processed by the {@code Listener}; if a cursor file is designated, the cursor is
+ * persisted to that file after each advance, and it is read from that file when a
+ * {@code ChangeEventTailer} is created, so that a restarted consumer resumes where it left off.
+ * Delivery is at-least-once: {@code ChangeEvent}s bearing exactly the cursor's timestamp may be
+ * redelivered after a restart.
+ * <br><br>
+ * A {@code ChangeEvent} may be committed after {@code ChangeEvent}s bearing later timestamps
+ * (e.g., by a slow client), so each retrieval rescans an <i>overlap window</i> of
+ * {@code [column_manager.changeEventTailer.overlapWindowMs]} (default 60000) preceding the
+ * cursor, delivering only those {@code ChangeEvent}s in the window which have not already been
+ * delivered; a {@code ChangeEvent} committed later than that after its timestamp is not
+ * delivered. Retrieval, delivery, and advance of the cursor are serialized, so that a
+ * {@code poll} concurrent with a subscribed {@code Listener}'s delivery never returns the same
+ * {@code ChangeEvent}s.
+ *
+ * @author Daniel Vimont
+ */
+public class ChangeEventTailer implements Closeable {
+
+  static final String OVERLAP_WINDOW_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "changeEventTailer.overlapWindowMs";
+  static final long DEFAULT_OVERLAP_WINDOW = 60000; // milliseconds
+  private static final Logger LOGGER = Logger.getLogger(ChangeEventTailer.class);
+  private final Table repositoryTable;
+  private final RepositoryLayout repositoryLayout;
+  private final ChangeEventQuery query;
+  private final Path cursorPath;
+  private final long overlapWindow;
+  private final long startTimestamp;
+  private long cursor;
+  // ChangeEvents in the overlap window (or bearing the cursor's timestamp) already delivered
+  private final NavigableSet<ChangeEvent> recentlyDeliveredChangeEvents = new TreeSet<>();
+  // held throughout each retrieve-deliver-advance cycle
+  private final Object deliveryLock = new Object();
+  private ScheduledExecutorService subscriptionExecutor = null;
+
+  /**
+   * A {@code Listener} receives batches of {@link ChangeEvent}s from a
+   * {@link ChangeEventTailer} to which it has {@link ChangeEventTailer#subscribe(Listener, long, int)
+   * subscribed}.
+   */
+  public interface Listener {
+
+    /**
+     * Invoked with each batch of newly retrieved {@link ChangeEvent}s, in timestamp order. If this
+     * method throws an exception, the {@code ChangeEventTailer}'s cursor is not advanced, and the
+     * batch will be redelivered upon the next polling cycle.
+     *
+     * @param changeEvents batch of {@link ChangeEvent}s, in timestamp order
+     * @throws IOException if the batch could not be processed
+     */
+    void changeEventsReceived(List<ChangeEvent> changeEvents) throws IOException;
+  }
+
+  ChangeEventTailer(Table repositoryTable, RepositoryLayout repositoryLayout,
+          ChangeEventQuery query, long initialCursor, File cursorFile, long overlapWindow)
+          throws IOException {
+    this.repositoryTable = repositoryTable;
+    this.repositoryLayout = repositoryLayout;
+    this.query = new ChangeEventQuery(query);
+    this.overlapWindow = Math.max(0, overlapWindow);
+    this.cursorPath = (cursorFile == null) ? null : cursorFile.toPath();
+    if (cursorPath != null && Files.exists(cursorPath)) {
+      String persistedCursor
+              = new String(Files.readAllBytes(cursorPath), StandardCharsets.UTF_8).trim();
+      try {
+        this.cursor = Long.parseLong(persistedCursor);
+      } catch (NumberFormatException e) {
+        throw new ColumnManagerIOException("Invalid cursor value <" + persistedCursor
+                + "> found in file: " + cursorFile.getAbsolutePath()) {};
+      }
+    } else {
+      this.cursor = initialCursor;
+    }
+    startTimestamp = cursor;
+  }
+
+  /**
+   * Get the current cursor value (i.e., the timestamp of the most recently delivered
+   * {@link ChangeEvent}s).
+   *
+   * @return current cursor value
+   */
+  public synchronized long getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Retrieve all {@link ChangeEvent}s recorded since the previous poll (or since the initial
+   * cursor value), in timestamp order, and advance the cursor past them.
+   *
+   * @return newly recorded {@link ChangeEvent}s, in timestamp order
+   * @throws IOException if a remote or network exception occurs, or if the cursor cannot be
+   * persisted
+   */
+  public List<ChangeEvent> poll() throws IOException {
+    synchronized (deliveryLock) {
+      List<ChangeEvent> changeEvents = retrieveNewChangeEvents();
+      advanceCursor(changeEvents);
+      return changeEvents;
+    }
+  }
+
+  /**
+   * Register a {@link Listener} to which newly recorded {@link ChangeEvent}s will be delivered,
+   * polling the repository at the designated interval. Only one {@code Listener} may be
+   * subscribed to a {@code ChangeEventTailer}; polling stops when the {@code ChangeEventTailer} is
+   * {@link #close() closed}.
+   *
+   * @param listener {@link Listener} to which {@link ChangeEvent}s are to be delivered
+   * @param pollIntervalMillis interval between polls of the repository, in milliseconds
+   * @param maxBatchSize maximum number of {@link ChangeEvent}s delivered in a single batch
+   */
+  public synchronized void subscribe(
+          final Listener listener, long pollIntervalMillis, final int maxBatchSize) {
+    if (subscriptionExecutor != null) {
+      throw new IllegalStateException(
+              "A Listener is already subscribed to this " + this.getClass().getSimpleName());
+    }
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be greater than zero.");
+    }
+    subscriptionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable,
+                Repository.PRODUCT_NAME + " " + ChangeEventTailer.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    subscriptionExecutor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          deliverNewChangeEvents(listener, maxBatchSize);
+        } catch (IOException | RuntimeException e) {
+          LOGGER.error(Repository.PRODUCT_NAME + " " + ChangeEventTailer.class.getSimpleName()
+                  + " encountered exception while delivering ChangeEvents; delivery will be "
+                  + "retried upon next poll.", e);
+        }
+      }
+    }, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Invoked only by the subscription thread. The Listener is invoked without holding this
+   * ChangeEventTailer's monitor, so that a slow Listener blocks neither {@link #getCursor()} nor
+   * {@link #close()}; only a concurrent {@link #poll()} waits for it.
+   */
+  private void deliverNewChangeEvents(Listener listener, int maxBatchSize)
+          throws IOException {
+    synchronized (deliveryLock) {
+      List<ChangeEvent> changeEvents = retrieveNewChangeEvents();
+      for (int start = 0; start < changeEvents.size(); start += maxBatchSize) {
+        List<ChangeEvent> batch = changeEvents.subList(
+                start, Math.min(start + maxBatchSize, changeEvents.size()));
+        listener.changeEventsReceived(Collections.unmodifiableList(batch));
+        advanceCursor(batch);
+      }
+    }
+  }
+
+  private List<ChangeEvent> retrieveNewChangeEvents() throws IOException {
+    List<ChangeEvent> changeEvents = new ArrayList<>();
+    long minTimestamp;
+    synchronized (this) {
+      minTimestamp = Math.max(startTimestamp, cursor - overlapWindow);
+    }
+    ChangeEventQuery tailQuery = new ChangeEventQuery(query).setMinTimestamp(minTimestamp);
+    try (ChangeEventScanner changeEventScanner
+            = new ChangeEventScanner(repositoryTable, repositoryLayout, tailQuery)) {
+      for (ChangeEvent changeEvent : changeEventScanner) {
+        if (!recentlyDeliveredChangeEvents.contains(changeEvent)) {
+          changeEvents.add(changeEvent);
+        }
+      }
+    }
+    Collections.sort(changeEvents);
+    return changeEvents;
+  }
+
+  /**
+   * Records the delivered ChangeEvents and advances the cursor to the latest of them; delivered
+   * ChangeEvents which have fallen out of the overlap window are pruned (those bearing the
+   * cursor's timestamp are always retained).
+   */
+  private void advanceCursor(List<ChangeEvent> deliveredChangeEvents) throws IOException {
+    if (deliveredChangeEvents.isEmpty()) {
+      return;
+    }
+    recentlyDeliveredChangeEvents.addAll(deliveredChangeEvents);
+    long latestTimestamp
+            = deliveredChangeEvents.get(deliveredChangeEvents.size() - 1).getTimestamp();
+    synchronized (this) {
+      if (latestTimestamp <= cursor) {
+        return; // late-committed ChangeEvents within the overlap window
+      }
+      cursor = latestTimestamp;
+    }
+    long windowStart = cursor - overlapWindow;
+    while (!recentlyDeliveredChangeEvents.isEmpty()
+            && recentlyDeliveredChangeEvents.first().getTimestamp() < windowStart) {
+      recentlyDeliveredChangeEvents.pollFirst();
+    }
+    persistCursor();
+  }
+
+  private void persistCursor() throws IOException {
+    if (cursorPath == null) {
+      return;
+    }
+    Path tempPath = cursorPath.resolveSibling(cursorPath.getFileName() + ".tmp");
+    Files.write(tempPath, String.valueOf(cursor).getBytes(StandardCharsets.UTF_8));
+    Files.move(tempPath, cursorPath,
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Stops delivery to any subscribed {@link Listener}.
+   */
+  @Override
+  public synchronized void close() {
+    if (subscriptionExecutor != null) {
+      subscriptionExecutor.shutdown();
+    }
+  }
+}
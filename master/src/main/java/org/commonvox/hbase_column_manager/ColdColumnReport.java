@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Set;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.hadoop.hbase.TableName;
+
+/**
+ * Report on the {@link ColumnAuditor}s of a <i>Table</i> whose recorded read count does not exceed
+ * a designated maximum (i.e., on its cold columns), together with the read count of each
+ * reported column's <i>Column Family</i>. Read counts are those recorded by
+ * {@link ColumnReadUsageTracker}.
+ *
+ * @author Daniel Vimont
+ */
+class ColdColumnReport {
+
+  static final CSVFormat CSV_FORMAT = CSVFormat.DEFAULT.withRecordSeparator("\n")
+          .withCommentMarker('#').withHeader(ReportHeader.class);
+  private final Repository repository;
+  private final TableName sourceTableName;
+  private final long maxReadCount;
+  private final File targetFile;
+  private boolean recordsWrittenToReport = false;
+  private String namespaceReportString;
+  private String tableReportString;
+  private String colFamilyReportString;
+  private String colFamilyReadCountReportString;
+
+  enum ReportHeader {NAMESPACE, TABLE, COLUMN_FAMILY, COLUMN_FAMILY_READ_COUNT, COLUMN_QUALIFIER,
+      READ_COUNT, LAST_READ_TIMESTAMP, WRITE_COUNT}
+
+  ColdColumnReport(TableName tableName, long maxReadCount, Repository repository,
+          File targetFile) throws IOException {
+    this.sourceTableName = tableName;
+    this.maxReadCount = maxReadCount;
+    this.repository = repository;
+    this.targetFile = targetFile;
+    outputReport();
+  }
+
+  private void outputReport() throws IOException {
+    HBaseSchemaArchive hsa = new HBaseSchemaArchive(
+            sourceTableName.getNamespaceAsString(), sourceTableName, repository);
+    StringBuilder headerCommentsBuilder
+            = new StringBuilder("Report on ColumnAuditors with at most ").append(maxReadCount)
+            .append(" recorded reads in Table <")
+            .append(sourceTableName.getNameAsString()).append("> -- Generated by ")
+            .append(Repository.PRODUCT_NAME).append(":").append(this.getClass().getSimpleName());
+    try (CSVPrinter csvPrinter = CSV_FORMAT.withHeaderComments(headerCommentsBuilder, new Date())
+            .print(new FileWriter(targetFile))) {
+      namespaceReportString = "";
+      tableReportString = "";
+      colFamilyReportString = "";
+      colFamilyReadCountReportString = "";
+      printReport(csvPrinter, hsa.getSchemaEntities());
+    }
+  }
+
+  private void printReport(CSVPrinter csvPrinter, Set<SchemaEntity> schemaEntities)
+          throws IOException {
+    for (SchemaEntity entity : schemaEntities) {
+      switch (entity.getSchemaEntityType()) {
+        case NAMESPACE:
+          namespaceReportString = entity.getNameAsString();
+          printReport(csvPrinter, entity.getChildren());
+          break;
+        case TABLE:
+          tableReportString = entity.getNameAsString();
+          printReport(csvPrinter, entity.getChildren());
+          break;
+        case COLUMN_FAMILY:
+          colFamilyReportString = entity.getNameAsString();
+          colFamilyReadCountReportString = getCount(entity, ColumnAuditor.READ_COUNTER_KEY);
+          printReport(csvPrinter, entity.getChildren());
+          break;
+        case COLUMN_AUDITOR:
+          String readCountReportString = getCount(entity, ColumnAuditor.READ_COUNTER_KEY);
+          if (Long.valueOf(readCountReportString) > maxReadCount) {
+            continue;
+          }
+          String lastReadTimestamp
+                  = entity.getValue(ColumnAuditor.READ_COUNTER_TIMESTAMP_KEY_STRING);
+          csvPrinter.print(namespaceReportString);
+          csvPrinter.print(tableReportString);
+          csvPrinter.print(colFamilyReportString);
+          csvPrinter.print(colFamilyReadCountReportString);
+          csvPrinter.print(entity.getNameAsString());
+          csvPrinter.print(readCountReportString);
+          csvPrinter.print(lastReadTimestamp == null
+                  ? "" : new Date(Long.valueOf(lastReadTimestamp)).toString());
+          csvPrinter.print(getCount(entity, ColumnAuditor.WRITE_COUNTER_KEY));
+          csvPrinter.println();
+          recordsWrittenToReport = true;
+          break;
+        default:
+      }
+    }
+  }
+
+  private static String getCount(SchemaEntity entity, String counterKey) {
+    String count = entity.getValue(counterKey);
+    return (count == null) ? "0" : count;
+  }
+
+  boolean isEmpty() {
+    return !recordsWrittenToReport;
+  }
+}
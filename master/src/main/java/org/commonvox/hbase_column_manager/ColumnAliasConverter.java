@@ -0,0 +1,458 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import org.apache.log4j.Logger;
+
+/**
+ * Rewrites the cells of a Column Family from user-column-qualifier form to column-alias form
+ * (or vice versa), processing the Table's regions in parallel. Each row is rewritten atomically
+ * (via {@link Table#mutateRow(RowMutations) mutateRow}, with every cell retaining its timestamp
+ * and value; HBase does not accept RowMutations in a {@link Table#batch(List, Object[]) batch}),
+ * rows are processed in batches, and the overall rate of conversion may be throttled. Progress
+ * is checkpointed per batch of each region (optionally to a file), so an interrupted conversion
+ * resumes where it left off. Each
+ * conversion pass is followed by a verification pass which counts any cells remaining in the
+ * source form (e.g., cells written during the conversion by Table objects obtained before it
+ * began), and conversion passes are repeated until none remain.
+ * <br>
+ * Note that a column-qualifier whose bytes are identical to those of an existing column-alias in
+ * the Column Family cannot be distinguished from that column-alias.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnAliasConverter {
+
+  private static final Logger LOGGER = Logger.getLogger(ColumnAliasConverter.class);
+  static final int ROWS_PER_BATCH = 1000;
+  static final int MAX_CONVERSION_PASSES = 3;
+  private static final String CHECKPOINT_COMPLETE = "COMPLETE";
+  private static final String CHECKPOINT_REGION_PREFIX = "region.";
+  private static final String CHECKPOINT_TABLE_KEY = "table";
+  private static final String CHECKPOINT_FAMILY_KEY = "family";
+  private static final String CHECKPOINT_DIRECTION_KEY = "direction";
+
+  /**
+   * Reads (and assigns) the column-aliases of the Column Family being converted, as recorded in
+   * the AliasDirectory (implemented by {@link Repository}).
+   */
+  interface AliasDirectory {
+    /**
+     * Returns the column-aliases of the submitted qualifiers (or of all qualifiers, if null),
+     * assigning column-aliases to any qualifiers lacking them if assignMissing is true.
+     */
+    NavigableMap<byte[], byte[]> getQualifierToAliasMap(NavigableSet<byte[]> colQualifiers,
+            boolean assignMissing) throws IOException;
+  }
+
+  private final AliasDirectory aliasDirectory;
+  private final Connection standardConnection;
+  private final TableName tableName;
+  private final byte[] colFamily;
+  private final boolean toAliases;
+  private final int threadCount;
+  private final CellThrottle cellThrottle;
+  private final Path checkpointPath;
+  private final Properties checkpoints = new Properties();
+  private final NavigableMap<byte[], byte[]> aliasToQualifierMap
+          = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+  private final NavigableMap<byte[], byte[]> qualifierToAliasMap
+          = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+  private final AtomicLong convertedCellCount = new AtomicLong();
+
+  ColumnAliasConverter(AliasDirectory aliasDirectory, Connection standardConnection,
+          TableName tableName, byte[] colFamily, boolean toAliases, int threadCount,
+          int maxCellsPerSecond, File checkpointFile) {
+    this.aliasDirectory = aliasDirectory;
+    this.standardConnection = standardConnection;
+    this.tableName = tableName;
+    this.colFamily = colFamily;
+    this.toAliases = toAliases;
+    this.threadCount = Math.max(1, threadCount);
+    this.cellThrottle = (maxCellsPerSecond > 0) ? new CellThrottle(maxCellsPerSecond) : null;
+    this.checkpointPath = (checkpointFile == null) ? null : checkpointFile.toPath();
+  }
+
+  /**
+   * Converts all cells of the Column Family, and verifies that none remain in the source form.
+   *
+   * @return count of cells converted
+   * @throws IOException if a remote or network exception occurs, if the checkpoint file does not
+   * pertain to this conversion, or if cells remain unconverted after
+   * {@link #MAX_CONVERSION_PASSES} passes
+   */
+  long convert() throws IOException {
+    loadCheckpoints();
+    refreshAliasMaps();
+    long unconvertedCellCount = 0;
+    for (int pass = 1; pass <= MAX_CONVERSION_PASSES; pass++) {
+      processRegions(false);
+      unconvertedCellCount = processRegions(true);
+      LOGGER.info("Conversion pass " + pass + " for Column Family <" + Bytes.toString(colFamily)
+              + "> in Table <" + tableName.getNameAsString() + "> completed: "
+              + convertedCellCount.get() + " cells converted; verification found "
+              + unconvertedCellCount + " cells remaining unconverted.");
+      if (unconvertedCellCount == 0) {
+        break;
+      }
+      checkpoints.clear(); // next pass must revisit all regions
+      persistCheckpoints();
+    }
+    if (unconvertedCellCount > 0) {
+      throw new ColumnManagerIOException("Verification of conversion failed: "
+              + unconvertedCellCount + " cells of Column Family <" + Bytes.toString(colFamily)
+              + "> in Table <" + tableName.getNameAsString() + "> remain unconverted after "
+              + MAX_CONVERSION_PASSES + " passes. Writes to the Column Family via Table "
+              + "objects obtained before conversion began should be stopped, and the conversion "
+              + "rerun.") {};
+    }
+    if (checkpointPath != null) {
+      Files.deleteIfExists(checkpointPath);
+    }
+    return convertedCellCount.get();
+  }
+
+  /**
+   * Processes all regions in parallel, either converting their cells or (if verifyOnly) counting
+   * the cells remaining in source form.
+   *
+   * @return count of cells converted or counted
+   */
+  private long processRegions(final boolean verifyOnly) throws IOException {
+    Pair<byte[][], byte[][]> startEndKeys;
+    try (RegionLocator regionLocator = standardConnection.getRegionLocator(tableName)) {
+      startEndKeys = regionLocator.getStartEndKeys();
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < startEndKeys.getFirst().length; i++) {
+        final byte[] startKey = startEndKeys.getFirst()[i];
+        final byte[] endKey = startEndKeys.getSecond()[i];
+        futures.add(executor.submit(new Callable<Long>() {
+          @Override
+          public Long call() throws IOException {
+            return processRegion(startKey, endKey, verifyOnly);
+          }
+        }));
+      }
+      long cellCount = 0;
+      for (Future<Long> future : futures) {
+        cellCount += future.get();
+      }
+      return cellCount;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted during column-alias conversion.");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Column-alias conversion failure", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private long processRegion(byte[] startKey, byte[] endKey, boolean verifyOnly)
+          throws IOException {
+    String checkpointKey = CHECKPOINT_REGION_PREFIX + Bytes.toHex(startKey);
+    byte[] scanStartRow = startKey;
+    if (!verifyOnly) {
+      String checkpoint = getCheckpoint(checkpointKey);
+      if (CHECKPOINT_COMPLETE.equals(checkpoint)) {
+        return 0;
+      } else if (checkpoint != null) {
+        // resume with row following the last row converted
+        scanStartRow = Bytes.add(Bytes.fromHex(checkpoint), new byte[]{0});
+      }
+    }
+    Scan scan = new Scan(scanStartRow, endKey).addFamily(colFamily).setMaxVersions()
+            .setCacheBlocks(false).setCaching(ROWS_PER_BATCH);
+    long cellCount = 0;
+    try (Table table = standardConnection.getTable(tableName);
+            ResultScanner rows = table.getScanner(scan)) {
+      List<Result> rowBatch = new ArrayList<>(ROWS_PER_BATCH);
+      for (Result row : rows) {
+        rowBatch.add(row);
+        if (rowBatch.size() >= ROWS_PER_BATCH) {
+          cellCount += processRowBatch(table, rowBatch, verifyOnly);
+          if (!verifyOnly) {
+            setCheckpoint(checkpointKey, Bytes.toHex(rowBatch.get(rowBatch.size() - 1).getRow()));
+          }
+          rowBatch.clear();
+        }
+      }
+      cellCount += processRowBatch(table, rowBatch, verifyOnly);
+    }
+    if (!verifyOnly) {
+      setCheckpoint(checkpointKey, CHECKPOINT_COMPLETE);
+    }
+    return cellCount;
+  }
+
+  private long processRowBatch(Table table, List<Result> rowBatch, boolean verifyOnly)
+          throws IOException {
+    if (rowBatch.isEmpty()) {
+      return 0;
+    }
+    NavigableMap<byte[], byte[]> sourceToTargetMap = getSourceToTargetMap(rowBatch, verifyOnly);
+    long cellCount = 0;
+    List<RowMutations> rowMutationsList = new ArrayList<>(rowBatch.size());
+    List<Integer> rowCellCounts = new ArrayList<>(rowBatch.size());
+    for (Result row : rowBatch) {
+      int rowCellCount = 0;
+      Put put = new Put(row.getRow());
+      Delete delete = new Delete(row.getRow());
+      for (Cell cell : row.rawCells()) {
+        byte[] sourceQualifier = CellUtil.cloneQualifier(cell);
+        byte[] targetQualifier = sourceToTargetMap.get(sourceQualifier);
+        if (targetQualifier == null) {
+          continue; // cell already in target form
+        }
+        rowCellCount++;
+        if (!verifyOnly) {
+          put.addColumn(colFamily, targetQualifier, cell.getTimestamp(), CellUtil.cloneValue(cell));
+          delete.addColumn(colFamily, sourceQualifier, cell.getTimestamp());
+        }
+      }
+      cellCount += rowCellCount;
+      if (!put.isEmpty()) {
+        RowMutations rowMutations = new RowMutations(row.getRow());
+        rowMutations.add(put);
+        rowMutations.add(delete);
+        rowMutationsList.add(rowMutations);
+        rowCellCounts.add(rowCellCount);
+      }
+    }
+    if (!rowMutationsList.isEmpty()) {
+      if (cellThrottle != null) {
+        cellThrottle.acquire(cellCount);
+      }
+      for (int i = 0; i < rowMutationsList.size(); i++) {
+        table.mutateRow(rowMutationsList.get(i));
+        convertedCellCount.addAndGet(rowCellCounts.get(i));
+      }
+    }
+    return cellCount;
+  }
+
+  /**
+   * Returns a map of each source-form qualifier in the submitted rows to its target form. When
+   * converting to aliases, column-aliases are assigned (via the AliasDirectory) for any
+   * qualifiers which do not yet have them.
+   */
+  private NavigableMap<byte[], byte[]> getSourceToTargetMap(List<Result> rowBatch,
+          boolean verifyOnly) throws IOException {
+    NavigableSet<byte[]> unknownQualifiers = new TreeSet<>(Bytes.BYTES_RAWCOMPARATOR);
+    synchronized (aliasToQualifierMap) {
+      if (!toAliases) {
+        return aliasToQualifierMap;
+      }
+      if (collectUnknownQualifiers(rowBatch, unknownQualifiers)) {
+        // column-aliases may have been assigned by concurrent writers since last refresh
+        refreshAliasMaps();
+        unknownQualifiers.clear();
+        collectUnknownQualifiers(rowBatch, unknownQualifiers);
+      }
+      NavigableMap<byte[], byte[]> sourceToTargetMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+      if (unknownQualifiers.isEmpty()) {
+        return sourceToTargetMap;
+      }
+      if (verifyOnly) {
+        for (byte[] colQualifier : unknownQualifiers) {
+          sourceToTargetMap.put(colQualifier, HConstants.EMPTY_BYTE_ARRAY);
+        }
+        return sourceToTargetMap;
+      }
+      NavigableSet<byte[]> unaliasedQualifiers = new TreeSet<>(Bytes.BYTES_RAWCOMPARATOR);
+      for (byte[] colQualifier : unknownQualifiers) {
+        if (!qualifierToAliasMap.containsKey(colQualifier)) {
+          unaliasedQualifiers.add(colQualifier);
+        }
+      }
+      if (!unaliasedQualifiers.isEmpty()) {
+        NavigableMap<byte[], byte[]> newAliases
+                = aliasDirectory.getQualifierToAliasMap(unaliasedQualifiers, true);
+        for (byte[] colQualifier : unaliasedQualifiers) {
+          qualifierToAliasMap.put(colQualifier, newAliases.get(colQualifier));
+          aliasToQualifierMap.put(newAliases.get(colQualifier), colQualifier);
+        }
+      }
+      for (byte[] colQualifier : unknownQualifiers) {
+        sourceToTargetMap.put(colQualifier, qualifierToAliasMap.get(colQualifier));
+      }
+      return sourceToTargetMap;
+    }
+  }
+
+  /**
+   * Collects qualifiers of the submitted rows which are not known column-aliases.
+   *
+   * @return true if any collected qualifier also has no known column-alias
+   */
+  private boolean collectUnknownQualifiers(List<Result> rowBatch,
+          NavigableSet<byte[]> qualifiers) {
+    boolean unaliasedQualifierFound = false;
+    for (Result row : rowBatch) {
+      for (Cell cell : row.rawCells()) {
+        if (cell.getQualifierLength() == 0) {
+          continue; // empty qualifier is never aliased
+        }
+        byte[] colQualifier = CellUtil.cloneQualifier(cell);
+        if (!aliasToQualifierMap.containsKey(colQualifier)) {
+          qualifiers.add(colQualifier);
+          unaliasedQualifierFound |= !qualifierToAliasMap.containsKey(colQualifier);
+        }
+      }
+    }
+    return unaliasedQualifierFound;
+  }
+
+  private void refreshAliasMaps() throws IOException {
+    synchronized (aliasToQualifierMap) {
+      NavigableMap<byte[], byte[]> directoryMap
+              = aliasDirectory.getQualifierToAliasMap(null, false);
+      directoryMap.remove(HConstants.EMPTY_BYTE_ARRAY); // empty qualifier is never aliased
+      qualifierToAliasMap.clear();
+      aliasToQualifierMap.clear();
+      for (NavigableMap.Entry<byte[], byte[]> directoryEntry : directoryMap.entrySet()) {
+        qualifierToAliasMap.put(directoryEntry.getKey(), directoryEntry.getValue());
+        aliasToQualifierMap.put(directoryEntry.getValue(), directoryEntry.getKey());
+      }
+    }
+  }
+
+  private String getCheckpoint(String checkpointKey) {
+    synchronized (checkpoints) {
+      return checkpoints.getProperty(checkpointKey);
+    }
+  }
+
+  private void setCheckpoint(String checkpointKey, String checkpointValue) throws IOException {
+    synchronized (checkpoints) {
+      checkpoints.setProperty(checkpointKey, checkpointValue);
+      persistCheckpoints();
+    }
+  }
+
+  private void loadCheckpoints() throws IOException {
+    if (checkpointPath == null || !Files.exists(checkpointPath)) {
+      return;
+    }
+    try (InputStream inputStream = Files.newInputStream(checkpointPath)) {
+      checkpoints.load(inputStream);
+    }
+    if (!tableName.getNameAsString().equals(checkpoints.getProperty(CHECKPOINT_TABLE_KEY))
+            || !Bytes.toHex(colFamily).equals(checkpoints.getProperty(CHECKPOINT_FAMILY_KEY))
+            || !getDirection().equals(checkpoints.getProperty(CHECKPOINT_DIRECTION_KEY))) {
+      throw new ColumnManagerIOException("Checkpoint file <" + checkpointPath
+              + "> does not pertain to conversion of Column Family <"
+              + Bytes.toString(colFamily) + "> in Table <" + tableName.getNameAsString()
+              + "> " + getDirection() + ".") {};
+    }
+    LOGGER.info("Resuming column-alias conversion from checkpoint file: " + checkpointPath);
+  }
+
+  private void persistCheckpoints() throws IOException {
+    if (checkpointPath == null) {
+      return;
+    }
+    synchronized (checkpoints) {
+      checkpoints.setProperty(CHECKPOINT_TABLE_KEY, tableName.getNameAsString());
+      checkpoints.setProperty(CHECKPOINT_FAMILY_KEY, Bytes.toHex(colFamily));
+      checkpoints.setProperty(CHECKPOINT_DIRECTION_KEY, getDirection());
+      Path tempPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+      try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+        checkpoints.store(outputStream, Repository.PRODUCT_NAME + " column-alias conversion");
+      }
+      Files.move(tempPath, checkpointPath,
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+  }
+
+  private String getDirection() {
+    return toAliases ? "to aliases" : "to qualifiers";
+  }
+
+  /**
+   * Limits the rate at which cells are converted, across all conversion threads.
+   */
+  static class CellThrottle {
+
+    private final double nanosPerCell;
+    private long nextAvailableNanos = System.nanoTime();
+
+    CellThrottle(int maxCellsPerSecond) {
+      nanosPerCell = TimeUnit.SECONDS.toNanos(1) / (double) maxCellsPerSecond;
+    }
+
+    void acquire(long cellCount) throws InterruptedIOException {
+      long waitNanos;
+      synchronized (this) {
+        long now = System.nanoTime();
+        waitNanos = Math.max(0, nextAvailableNanos - now);
+        nextAvailableNanos = Math.max(now, nextAvailableNanos) + (long) (cellCount * nanosPerCell);
+      }
+      if (waitNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted during column-alias conversion.");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * A read-only, memory-mapped dictionary of the column-aliases of a <i>Table</i>, as exported via
+ * {@link RepositoryAdmin#exportColumnAliasDictionary(TableName, File)}. A ColumnAliasDictionary
+ * requires no HBase connection, and its lookups copy no bytes onto the heap, so it is suited to
+ * MapReduce, Spark, or HFile-level jobs which must decode the cells of alias-enabled
+ * <i>Column Families</i> outside of a ColumnManager-enabled {@code Connection}: the dictionary
+ * file may be shipped to each task (e.g., via the distributed cache) and opened there.
+ * <br>
+ * The dictionary is a snapshot: column-aliases assigned after its export are not included in it,
+ * and lookups of such column-aliases return {@code null}. An instance may be used concurrently by
+ * multiple threads.
+ * <br>
+ * File layout: an eight-byte preamble (the magic bytes "HCAD", a format-version byte, and three
+ * reserved bytes), the export timestamp, the <i>Table</i> name, and a directory of
+ * <i>Column Families</i>; then, for each <i>Column Family</i>, an index sorted by column-alias
+ * and an index sorted by <i>Column Qualifier</i>, each entry of which holds the positions and
+ * lengths of a column-alias and its <i>Column Qualifier</i> within the data area which concludes
+ * the file. All integers are big-endian.
+ *
+ * @author Daniel Vimont
+ */
+public final class ColumnAliasDictionary {
+
+  private static final byte[] MAGIC = {'H', 'C', 'A', 'D'};
+  private static final byte FORMAT_VERSION = 1;
+  private static final int PREAMBLE_LENGTH = 8;
+  private static final int INDEX_ENTRY_LENGTH = 16; // key pos, key length, value pos, value length
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ByteBuffer buffer;
+  private final long exportTimestamp;
+  private final TableName tableName;
+  private final byte[][] colFamilies;
+  private final int[] entryCounts;
+  private final int[] aliasIndexPositions;
+  private final int[] qualifierIndexPositions;
+
+  private ColumnAliasDictionary(File file, ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    byte[] magic = new byte[MAGIC.length];
+    if (buffer.limit() < PREAMBLE_LENGTH) {
+      throw invalidDictionaryException(file, "file too short");
+    }
+    buffer.get(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw invalidDictionaryException(file, "magic bytes not found");
+    }
+    byte formatVersion = buffer.get();
+    if (formatVersion != FORMAT_VERSION) {
+      throw invalidDictionaryException(file, "unsupported format version " + formatVersion);
+    }
+    buffer.position(PREAMBLE_LENGTH);
+    exportTimestamp = buffer.getLong();
+    tableName = TableName.valueOf(getLengthPrefixedBytes(buffer));
+    int familyCount = buffer.getInt();
+    colFamilies = new byte[familyCount][];
+    entryCounts = new int[familyCount];
+    aliasIndexPositions = new int[familyCount];
+    qualifierIndexPositions = new int[familyCount];
+    for (int i = 0; i < familyCount; i++) {
+      colFamilies[i] = getLengthPrefixedBytes(buffer);
+      entryCounts[i] = buffer.getInt();
+      aliasIndexPositions[i] = buffer.getInt();
+      qualifierIndexPositions[i] = buffer.getInt();
+    }
+  }
+
+  /**
+   * Opens (by memory-mapping) a column-alias dictionary file.
+   *
+   * @param file column-alias dictionary file, as exported via
+   * {@link RepositoryAdmin#exportColumnAliasDictionary(TableName, File)}
+   * @return ColumnAliasDictionary
+   * @throws IOException if the file cannot be read, or is not a valid column-alias dictionary
+   */
+  public static ColumnAliasDictionary open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      MappedByteBuffer mappedBuffer
+              = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new ColumnAliasDictionary(file, mappedBuffer);
+    } catch (RuntimeException e) {
+      throw invalidDictionaryException(file, e.toString());
+    }
+  }
+
+  /**
+   * Get the name of the <i>Table</i> whose column-aliases are contained in this dictionary.
+   *
+   * @return name of <i>Table</i>
+   */
+  public TableName getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Get the time at which this dictionary was exported.
+   *
+   * @return export timestamp (milliseconds since the epoch)
+   */
+  public long getExportTimestamp() {
+    return exportTimestamp;
+  }
+
+  /**
+   * Get the names of the <i>Column Families</i> whose column-aliases are contained in this
+   * dictionary.
+   *
+   * @return names of <i>Column Families</i>
+   */
+  public List<byte[]> getColumnFamilies() {
+    List<byte[]> colFamilyList = new ArrayList<>(colFamilies.length);
+    for (byte[] colFamily : colFamilies) {
+      colFamilyList.add(colFamily.clone());
+    }
+    return colFamilyList;
+  }
+
+  /**
+   * Get the count of column-aliases contained in this dictionary for a <i>Column Family</i>.
+   *
+   * @param colFamily name of <i>Column Family</i>
+   * @return count of column-aliases (zero if the <i>Column Family</i> is not in the dictionary)
+   */
+  public int getAliasCount(byte[] colFamily) {
+    int familyIndex = getFamilyIndex(colFamily, 0, colFamily.length);
+    return (familyIndex < 0) ? 0 : entryCounts[familyIndex];
+  }
+
+  /**
+   * Get the <i>Column Qualifier</i> represented by a column-alias.
+   *
+   * @param colFamily name of <i>Column Family</i>
+   * @param alias column-alias
+   * @return read-only view of the <i>Column Qualifier</i> (positioned at its first byte, with
+   * its length as the view's remaining count), or {@code null} if not found
+   */
+  public ByteBuffer getColumnQualifier(byte[] colFamily, byte[] alias) {
+    return lookup(colFamily, 0, colFamily.length, alias, 0, alias.length, true);
+  }
+
+  /**
+   * Get the <i>Column Qualifier</i> represented by the column-alias stored in a cell of an
+   * alias-enabled <i>Column Family</i>. The cell's family and qualifier are compared in place
+   * within its backing arrays.
+   *
+   * @param cell cell retrieved from an alias-enabled <i>Column Family</i>
+   * @return read-only view of the <i>Column Qualifier</i> (positioned at its first byte, with
+   * its length as the view's remaining count), or {@code null} if not found
+   */
+  public ByteBuffer getColumnQualifier(Cell cell) {
+    return lookup(cell.getFamilyArray(), cell.getFamilyOffset(), cell.getFamilyLength(),
+            cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength(), true);
+  }
+
+  /**
+   * Get the column-alias which represents a <i>Column Qualifier</i>.
+   *
+   * @param colFamily name of <i>Column Family</i>
+   * @param colQualifier name of <i>Column Qualifier</i>
+   * @return read-only view of the column-alias (positioned at its first byte, with its length as
+   * the view's remaining count), or {@code null} if not found
+   */
+  public ByteBuffer getColumnAlias(byte[] colFamily, byte[] colQualifier) {
+    return lookup(colFamily, 0, colFamily.length, colQualifier, 0, colQualifier.length, false);
+  }
+
+  private ByteBuffer lookup(byte[] familyArray, int familyOffset, int familyLength,
+          byte[] keyArray, int keyOffset, int keyLength, boolean byAlias) {
+    int familyIndex = getFamilyIndex(familyArray, familyOffset, familyLength);
+    if (familyIndex < 0 || keyLength == 0) {
+      return null;
+    }
+    int indexPosition = byAlias
+            ? aliasIndexPositions[familyIndex] : qualifierIndexPositions[familyIndex];
+    int low = 0;
+    int high = entryCounts[familyIndex] - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int entryPosition = indexPosition + mid * INDEX_ENTRY_LENGTH;
+      int comparison = compareTo(buffer.getInt(entryPosition), buffer.getInt(entryPosition + 4),
+              keyArray, keyOffset, keyLength);
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        ByteBuffer value = buffer.duplicate();
+        int valuePosition = buffer.getInt(entryPosition + 8);
+        value.limit(valuePosition + buffer.getInt(entryPosition + 12)).position(valuePosition);
+        return value.slice();
+      }
+    }
+    return null;
+  }
+
+  private int getFamilyIndex(byte[] familyArray, int familyOffset, int familyLength) {
+    for (int i = 0; i < colFamilies.length; i++) {
+      if (Bytes.equals(colFamilies[i], 0, colFamilies[i].length,
+              familyArray, familyOffset, familyLength)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compares (unsigned, byte-wise) the bytes at the designated position of the mapped file with
+   * the submitted bytes.
+   */
+  private int compareTo(int position, int length, byte[] array, int offset, int arrayLength) {
+    int commonLength = Math.min(length, arrayLength);
+    for (int i = 0; i < commonLength; i++) {
+      int difference = (buffer.get(position + i) & 0xFF) - (array[offset + i] & 0xFF);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - arrayLength;
+  }
+
+  private static byte[] getLengthPrefixedBytes(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  private static ColumnManagerIOException invalidDictionaryException(File file, String reason) {
+    return new ColumnManagerIOException("Invalid column-alias dictionary file <"
+            + file.getAbsolutePath() + ">: " + reason) {};
+  }
+
+  /**
+   * Writes a column-alias dictionary file.
+   *
+   * @param familyQualifierToAliasMap map of each <i>Column Family</i> to its
+   * <i>Column Qualifier</i>-to-column-alias map
+   */
+  static void write(File targetFile, TableName tableName, long exportTimestamp,
+          NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap)
+          throws IOException {
+    List<byte[]> colFamilyList = new ArrayList<>();
+    List<List<byte[][]>> familyEntryLists = new ArrayList<>();
+    long headerLength = PREAMBLE_LENGTH + Bytes.SIZEOF_LONG
+            + Bytes.SIZEOF_INT + tableName.getName().length + Bytes.SIZEOF_INT;
+    long indexLength = 0;
+    for (Entry<byte[], NavigableMap<byte[], byte[]>> familyEntry
+            : familyQualifierToAliasMap.entrySet()) {
+      List<byte[][]> entryList = new ArrayList<>();
+      for (Entry<byte[], byte[]> aliasEntry : familyEntry.getValue().entrySet()) {
+        if (aliasEntry.getKey().length == 0 || aliasEntry.getValue().length == 0) {
+          continue; // empty qualifier is never aliased
+        }
+        entryList.add(new byte[][]{aliasEntry.getKey(), aliasEntry.getValue()});
+      }
+      colFamilyList.add(familyEntry.getKey());
+      familyEntryLists.add(entryList);
+      headerLength += Bytes.SIZEOF_INT + familyEntry.getKey().length + 3 * Bytes.SIZEOF_INT;
+      indexLength += 2L * entryList.size() * INDEX_ENTRY_LENGTH;
+    }
+    long dataLength = 0;
+    for (List<byte[][]> entryList : familyEntryLists) {
+      for (byte[][] entry : entryList) {
+        dataLength += entry[0].length + entry[1].length;
+      }
+    }
+    if (headerLength + indexLength + dataLength > Integer.MAX_VALUE) {
+      throw new ColumnManagerIOException("Column-alias dictionary for Table <"
+              + tableName.getNameAsString() + "> exceeds maximum dictionary file size.") {};
+    }
+
+    try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(targetFile.toPath()), BUFFER_SIZE))) {
+      outputStream.write(MAGIC);
+      outputStream.writeByte(FORMAT_VERSION);
+      outputStream.write(new byte[PREAMBLE_LENGTH - MAGIC.length - 1]);
+      outputStream.writeLong(exportTimestamp);
+      outputStream.writeInt(tableName.getName().length);
+      outputStream.write(tableName.getName());
+      outputStream.writeInt(colFamilyList.size());
+      int indexPosition = (int) headerLength;
+      for (int i = 0; i < colFamilyList.size(); i++) {
+        int entryCount = familyEntryLists.get(i).size();
+        outputStream.writeInt(colFamilyList.get(i).length);
+        outputStream.write(colFamilyList.get(i));
+        outputStream.writeInt(entryCount);
+        outputStream.writeInt(indexPosition);
+        outputStream.writeInt(indexPosition + entryCount * INDEX_ENTRY_LENGTH);
+        indexPosition += 2 * entryCount * INDEX_ENTRY_LENGTH;
+      }
+
+      // data area holds each entry's qualifier followed by its alias
+      int dataPosition = (int) (headerLength + indexLength);
+      for (List<byte[][]> entryList : familyEntryLists) {
+        int[] qualifierPositions = new int[entryList.size()];
+        for (int i = 0; i < entryList.size(); i++) {
+          qualifierPositions[i] = dataPosition;
+          dataPosition += entryList.get(i)[0].length + entryList.get(i)[1].length;
+        }
+        writeIndex(outputStream, entryList, qualifierPositions, true);
+        writeIndex(outputStream, entryList, qualifierPositions, false);
+      }
+      for (List<byte[][]> entryList : familyEntryLists) {
+        for (byte[][] entry : entryList) {
+          outputStream.write(entry[0]);
+          outputStream.write(entry[1]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the index entries of a <i>Column Family</i>, sorted by column-alias (if byAlias) or by
+   * <i>Column Qualifier</i>.
+   */
+  private static void writeIndex(DataOutputStream outputStream, final List<byte[][]> entryList,
+          final int[] qualifierPositions, final boolean byAlias) throws IOException {
+    List<Integer> sortedEntries = new ArrayList<>(entryList.size());
+    for (int i = 0; i < entryList.size(); i++) {
+      sortedEntries.add(i);
+    }
+    final int keyIndex = byAlias ? 1 : 0;
+    Collections.sort(sortedEntries, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer entry1, Integer entry2) {
+        return Bytes.BYTES_RAWCOMPARATOR.compare(
+                entryList.get(entry1)[keyIndex], entryList.get(entry2)[keyIndex]);
+      }
+    });
+    for (int i : sortedEntries) {
+      byte[] colQualifier = entryList.get(i)[0];
+      byte[] alias = entryList.get(i)[1];
+      int qualifierPosition = qualifierPositions[i];
+      int aliasPosition = qualifierPosition + colQualifier.length;
+      if (byAlias) {
+        outputStream.writeInt(aliasPosition);
+        outputStream.writeInt(alias.length);
+        outputStream.writeInt(qualifierPosition);
+        outputStream.writeInt(colQualifier.length);
+      } else {
+        outputStream.writeInt(qualifierPosition);
+        outputStream.writeInt(colQualifier.length);
+        outputStream.writeInt(aliasPosition);
+        outputStream.writeInt(alias.length);
+      }
+    }
+  }
+}
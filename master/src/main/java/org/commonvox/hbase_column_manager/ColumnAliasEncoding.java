@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Encodings in which column-aliases may be stored in the cells of an alias-enabled
+ * <i>Column Family</i> (see
+ * {@link RepositoryAdmin#enableColumnAliases(boolean, org.apache.hadoop.hbase.TableName, byte[],
+ * ColumnAliasEncoding) RepositoryAdmin#enableColumnAliases}). Each column-alias is a positive
+ * integer, assigned sequentially per <i>Column Family</i>; the encoding determines how that integer
+ * is represented in place of the <i>Column Qualifier</i> in each cell.
+ * <br>
+ * The byte-representations produced by the encodings never overlap, so a <i>Column Family</i>
+ * containing column-aliases in one encoding may safely be switched to another encoding, with
+ * existing column-aliases optionally re-encoded via
+ * {@link RepositoryAdmin#reencodeColumnAliases(org.apache.hadoop.hbase.TableName, byte[],
+ * ColumnAliasEncoding) RepositoryAdmin#reencodeColumnAliases}.
+ *
+ * @author Daniel Vimont
+ */
+public enum ColumnAliasEncoding {
+  /**
+   * Each column-alias is stored as a 4-byte integer (the original, and default, encoding).
+   */
+  FOUR_BYTE_INT {
+    @Override
+    byte[] encode(int aliasNumber) {
+      return Bytes.toBytes(aliasNumber);
+    }
+  },
+  /**
+   * Each column-alias is stored as an order-preserving variable-length integer: one byte for
+   * column-alias values below 128, two bytes below 16,384, three bytes below 2,097,152, four bytes
+   * below 268,435,456, and five bytes otherwise. The leading bits of the first byte denote the
+   * length, so that the byte-wise ordering of encoded column-aliases matches their numeric
+   * ordering.
+   */
+  VARINT {
+    @Override
+    byte[] encode(int aliasNumber) {
+      if (aliasNumber < 0) {
+        throw new IllegalArgumentException("Column-alias value may not be negative.");
+      }
+      if (aliasNumber < 0x80) {
+        return new byte[]{(byte) aliasNumber};
+      } else if (aliasNumber < 0x4000) {
+        return new byte[]{(byte) (0x80 | (aliasNumber >>> 8)), (byte) aliasNumber};
+      } else if (aliasNumber < 0x200000) {
+        return new byte[]{(byte) (0xC0 | (aliasNumber >>> 16)), (byte) (aliasNumber >>> 8),
+                (byte) aliasNumber};
+      } else if (aliasNumber < 0x10000000) {
+        return new byte[]{(byte) (0xE0 | (aliasNumber >>> 24)), (byte) (aliasNumber >>> 16),
+                (byte) (aliasNumber >>> 8), (byte) aliasNumber};
+      }
+      return new byte[]{(byte) 0xF0, (byte) (aliasNumber >>> 24), (byte) (aliasNumber >>> 16),
+              (byte) (aliasNumber >>> 8), (byte) aliasNumber};
+    }
+  };
+
+  /**
+   * Returns the byte-representation of the submitted column-alias value in this encoding.
+   */
+  abstract byte[] encode(int aliasNumber);
+
+  /**
+   * Returns the column-alias value represented by the submitted column-alias, which may be in
+   * either encoding.
+   *
+   * @throws IllegalArgumentException if the submitted bytes are not a valid column-alias
+   */
+  static int decode(byte[] alias) {
+    switch (alias.length) {
+      case 1:
+        if ((alias[0] & 0x80) == 0) {
+          return alias[0];
+        }
+        break;
+      case 2:
+        if ((alias[0] & 0xC0) == 0x80) {
+          return ((alias[0] & 0x3F) << 8) | (alias[1] & 0xFF);
+        }
+        break;
+      case 3:
+        if ((alias[0] & 0xE0) == 0xC0) {
+          return ((alias[0] & 0x1F) << 16) | ((alias[1] & 0xFF) << 8) | (alias[2] & 0xFF);
+        }
+        break;
+      case 4:
+        if ((alias[0] & 0xF0) == 0xE0) {
+          return ((alias[0] & 0x0F) << 24) | ((alias[1] & 0xFF) << 16)
+                  | ((alias[2] & 0xFF) << 8) | (alias[3] & 0xFF);
+        } else if ((alias[0] & 0x80) == 0) {
+          return Bytes.toInt(alias); // FOUR_BYTE_INT
+        }
+        break;
+      case 5:
+        if (alias[0] == (byte) 0xF0) {
+          return Bytes.toInt(alias, 1);
+        }
+        break;
+    }
+    throw new IllegalArgumentException(
+            "Invalid column-alias encountered: " + Bytes.toStringBinary(alias));
+  }
+
+  /**
+   * Returns the submitted column-alias as represented in each encoding (for use while a Column
+   * Family is being re-encoded, during which its cells may be in either encoding).
+   */
+  static List<byte[]> getEquivalentAliases(byte[] alias) {
+    List<byte[]> equivalentAliases = new ArrayList<>(values().length);
+    int aliasNumber = decode(alias);
+    for (ColumnAliasEncoding encoding : values()) {
+      equivalentAliases.add(encoding.encode(aliasNumber));
+    }
+    return equivalentAliases;
+  }
+}
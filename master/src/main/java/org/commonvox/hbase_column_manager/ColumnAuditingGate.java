@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Applies the {@link ColumnAuditingPolicy} of each <i>Column Family</i> to the cells of mutations
+ * submitted for real-time auditing, selecting those cells which are to be audited. One instance
+ * exists per Repository (i.e., per ColumnManager client), so that rate limits are enforced per
+ * client.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnAuditingGate {
+
+  private static final long RATE_WINDOW_LENGTH = 1000; // milliseconds
+  static final int MAX_AUDITED_QUALIFIERS = 100000;
+
+  private final ConcurrentMap<ByteBuffer, RateWindow> rateWindows = new ConcurrentHashMap<>();
+  // foreign keys of Column Families audited under the NEW_QUALIFIERS_ONLY policy
+  private final Set<ByteBuffer> newQualifierFamilies
+          = Collections.newSetFromMap(new ConcurrentHashMap<ByteBuffer, Boolean>());
+  private final Set<ByteBuffer> auditedQualifiers
+          = Collections.newSetFromMap(new ConcurrentHashMap<ByteBuffer, Boolean>());
+
+  /**
+   * Returns those of the submitted cells (all belonging to the submitted Column Family) which are
+   * to be audited; the submitted list itself is returned if all of its cells are to be audited.
+   */
+  List<Cell> selectCellsToAudit(MColumnDescriptor mcd, List<Cell> cells) {
+    ColumnAuditingPolicy policy = mcd.getColumnAuditingPolicy();
+    switch (policy.getMode()) {
+      case SAMPLED:
+        return ThreadLocalRandom.current().nextDouble() < policy.getSampleFraction()
+                ? cells : Collections.<Cell>emptyList();
+      case RATE_LIMITED:
+        return tryAcquire(mcd.getForeignKey(), policy.getMaxMutationsPerSecond(),
+                System.currentTimeMillis()) ? cells : Collections.<Cell>emptyList();
+      case NEW_QUALIFIERS_ONLY:
+        return selectNewQualifierCells(mcd, cells);
+      default:
+        return cells;
+    }
+  }
+
+  /**
+   * Returns true if the rate limit of the designated Column Family permits another mutation to
+   * be audited within the current one-second window.
+   */
+  boolean tryAcquire(byte[] colFamilyForeignKey, int maxMutationsPerSecond, long currentTime) {
+    ByteBuffer key = ByteBuffer.wrap(colFamilyForeignKey);
+    RateWindow rateWindow = rateWindows.get(key);
+    if (rateWindow == null) {
+      RateWindow newRateWindow = new RateWindow();
+      rateWindow = rateWindows.putIfAbsent(key, newRateWindow);
+      if (rateWindow == null) {
+        rateWindow = newRateWindow;
+      }
+    }
+    return rateWindow.tryAcquire(maxMutationsPerSecond, currentTime);
+  }
+
+  /**
+   * Invoked once the {@link ColumnAuditor} of a column has been written to (or found unchanged
+   * in) the Repository, so that a column of a NEW_QUALIFIERS_ONLY Column Family is not audited
+   * again by this client. Once more than {@link #MAX_AUDITED_QUALIFIERS} columns are held, all
+   * are discarded, at the cost of some redundant audits.
+   */
+  void recordAudited(byte[] colFamilyForeignKey, byte[] colQualifier) {
+    if (!newQualifierFamilies.contains(ByteBuffer.wrap(colFamilyForeignKey))) {
+      return;
+    }
+    if (auditedQualifiers.add(ByteBuffer.wrap(Bytes.add(colFamilyForeignKey, colQualifier)))
+            && auditedQualifiers.size() > MAX_AUDITED_QUALIFIERS) {
+      auditedQualifiers.clear();
+    }
+  }
+
+  int getAuditedQualifierCount() {
+    return auditedQualifiers.size();
+  }
+
+  /**
+   * A qualifier is new if the Repository had no {@link ColumnAuditor} for it when the
+   * Column Family's descriptor was loaded, and its audit has not since succeeded (see
+   * {@link #recordAudited(byte[], byte[])}); a qualifier whose audit fails or is deferred is thus
+   * selected again upon its next write.
+   */
+  private List<Cell> selectNewQualifierCells(MColumnDescriptor mcd, List<Cell> cells) {
+    newQualifierFamilies.add(ByteBuffer.wrap(mcd.getForeignKey()));
+    Set<byte[]> knownQualifiers = mcd.getColumnQualifiers();
+    List<Cell> selectedCells = null;
+    for (int i = 0; i < cells.size(); i++) {
+      Cell cell = cells.get(i);
+      byte[] colQualifier = Bytes.copy(
+              cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+      boolean audit = !knownQualifiers.contains(colQualifier) && !auditedQualifiers.contains(
+              ByteBuffer.wrap(Bytes.add(mcd.getForeignKey(), colQualifier)));
+      if (audit && selectedCells != null) {
+        selectedCells.add(cell);
+      } else if (!audit && selectedCells == null) {
+        selectedCells = new ArrayList<>(cells.subList(0, i));
+      }
+    }
+    return selectedCells == null ? cells : selectedCells;
+  }
+
+  private static class RateWindow {
+
+    private long windowStart = Long.MIN_VALUE;
+    private int count = 0;
+
+    synchronized boolean tryAcquire(int maxCount, long currentTime) {
+      if (currentTime >= windowStart + RATE_WINDOW_LENGTH) {
+        windowStart = currentTime;
+        count = 0;
+      }
+      if (count >= maxCount) {
+        return false;
+      }
+      count++;
+      return true;
+    }
+  }
+}
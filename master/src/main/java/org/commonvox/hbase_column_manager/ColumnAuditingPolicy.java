@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+/**
+ * Policy governing which mutations of a <i>Column Family</i> are audited in real time by
+ * ColumnManager (i.e., result in {@link ColumnAuditor} metadata being captured or updated in the
+ * Repository). By default every mutation is audited; a less exhaustive policy may be set for any
+ * <i>Column Family</i> via
+ * {@link RepositoryAdmin#setColumnAuditingPolicy(org.apache.hadoop.hbase.TableName, byte[],
+ * ColumnAuditingPolicy) RepositoryAdmin#setColumnAuditingPolicy}, to reduce the Repository
+ * traffic generated by write-intensive applications. Note that any policy other than
+ * {@link Mode#ALL} may leave the <i>maxValueLengthFound</i> of a {@link ColumnAuditor} lower than
+ * the actual maximum; this may be corrected at any time via
+ * {@link RepositoryAdmin#discoverColumnMetadata(org.apache.hadoop.hbase.TableName, boolean,
+ * boolean) column discovery}.
+ *
+ * @author Daniel Vimont
+ */
+public final class ColumnAuditingPolicy {
+
+  /**
+   * Modes of column auditing.
+   */
+  public enum Mode {
+    /**
+     * Every mutation is audited (the default).
+     */
+    ALL,
+    /**
+     * A randomly sampled fraction of mutations is audited.
+     */
+    SAMPLED,
+    /**
+     * At most a designated number of mutations per second is audited by each ColumnManager client
+     * (i.e., by each ColumnManager <i>Connection</i>); excess mutations are not audited.
+     */
+    RATE_LIMITED,
+    /**
+     * Only cells with a <i>Column Qualifier</i> not yet known to the Repository are audited; once
+     * a {@link ColumnAuditor} exists for a column, further mutations of it are not audited.
+     */
+    NEW_QUALIFIERS_ONLY
+  }
+
+  private static final String PARAMETER_SEPARATOR = ":";
+  private static final ColumnAuditingPolicy AUDIT_ALL = new ColumnAuditingPolicy(Mode.ALL, 0);
+  private static final ColumnAuditingPolicy AUDIT_NEW_QUALIFIERS_ONLY
+          = new ColumnAuditingPolicy(Mode.NEW_QUALIFIERS_ONLY, 0);
+
+  private final Mode mode;
+  private final double parameter;
+
+  private ColumnAuditingPolicy(Mode mode, double parameter) {
+    this.mode = mode;
+    this.parameter = parameter;
+  }
+
+  /**
+   * Returns the default policy, in which every mutation is audited.
+   *
+   * @return policy of {@link Mode#ALL}
+   */
+  public static ColumnAuditingPolicy auditAll() {
+    return AUDIT_ALL;
+  }
+
+  /**
+   * Returns a policy in which a randomly sampled fraction of mutations is audited.
+   *
+   * @param sampleFraction fraction of mutations to be audited, greater than 0 and at most 1
+   * @return policy of {@link Mode#SAMPLED}
+   */
+  public static ColumnAuditingPolicy sampled(double sampleFraction) {
+    if (!(sampleFraction > 0 && sampleFraction <= 1)) {
+      throw new IllegalArgumentException(
+              "Auditing sample fraction must be greater than 0 and at most 1: " + sampleFraction);
+    }
+    return new ColumnAuditingPolicy(Mode.SAMPLED, sampleFraction);
+  }
+
+  /**
+   * Returns a policy in which at most the designated number of mutations per second is audited by
+   * each ColumnManager client.
+   *
+   * @param maxMutationsPerSecond maximum number of mutations audited per second per client
+   * @return policy of {@link Mode#RATE_LIMITED}
+   */
+  public static ColumnAuditingPolicy rateLimited(int maxMutationsPerSecond) {
+    if (maxMutationsPerSecond < 1) {
+      throw new IllegalArgumentException(
+              "Auditing rate limit must be at least 1 mutation per second: "
+              + maxMutationsPerSecond);
+    }
+    return new ColumnAuditingPolicy(Mode.RATE_LIMITED, maxMutationsPerSecond);
+  }
+
+  /**
+   * Returns a policy in which only cells with a <i>Column Qualifier</i> not yet known to the
+   * Repository are audited.
+   *
+   * @return policy of {@link Mode#NEW_QUALIFIERS_ONLY}
+   */
+  public static ColumnAuditingPolicy newQualifiersOnly() {
+    return AUDIT_NEW_QUALIFIERS_ONLY;
+  }
+
+  /**
+   * Get the auditing mode of this policy.
+   *
+   * @return auditing mode
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Get the fraction of mutations audited under a {@link Mode#SAMPLED} policy.
+   *
+   * @return sample fraction, or 1 if the policy is not {@link Mode#SAMPLED}
+   */
+  public double getSampleFraction() {
+    return mode == Mode.SAMPLED ? parameter : 1;
+  }
+
+  /**
+   * Get the maximum number of mutations audited per second per client under a
+   * {@link Mode#RATE_LIMITED} policy.
+   *
+   * @return rate limit, or 0 (unlimited) if the policy is not {@link Mode#RATE_LIMITED}
+   */
+  public int getMaxMutationsPerSecond() {
+    return mode == Mode.RATE_LIMITED ? (int) parameter : 0;
+  }
+
+  /**
+   * Returns the persisted form of this policy, as stored in the configuration of its
+   * <i>Column Family</i> in the Repository.
+   */
+  String toConfigurationValue() {
+    switch (mode) {
+      case SAMPLED:
+        return mode.name() + PARAMETER_SEPARATOR + parameter;
+      case RATE_LIMITED:
+        return mode.name() + PARAMETER_SEPARATOR + (int) parameter;
+      default:
+        return mode.name();
+    }
+  }
+
+  /**
+   * Parses the persisted form of a policy; a null value denotes the default policy.
+   */
+  static ColumnAuditingPolicy fromConfigurationValue(String configurationValue) {
+    if (configurationValue == null) {
+      return AUDIT_ALL;
+    }
+    int separatorIndex = configurationValue.indexOf(PARAMETER_SEPARATOR);
+    Mode mode = Mode.valueOf(separatorIndex < 0
+            ? configurationValue : configurationValue.substring(0, separatorIndex));
+    String parameterString
+            = separatorIndex < 0 ? null : configurationValue.substring(separatorIndex + 1);
+    switch (mode) {
+      case SAMPLED:
+        return sampled(Double.parseDouble(parameterString));
+      case RATE_LIMITED:
+        return rateLimited(Integer.parseInt(parameterString));
+      case NEW_QUALIFIERS_ONLY:
+        return AUDIT_NEW_QUALIFIERS_ONLY;
+      default:
+        return AUDIT_ALL;
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof ColumnAuditingPolicy)) {
+      return false;
+    }
+    ColumnAuditingPolicy otherPolicy = (ColumnAuditingPolicy) other;
+    return mode == otherPolicy.mode && parameter == otherPolicy.parameter;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * mode.hashCode() + Double.valueOf(parameter).hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toConfigurationValue();
+  }
+}
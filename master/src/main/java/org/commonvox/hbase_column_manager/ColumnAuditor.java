@@ -44,6 +44,14 @@ public class ColumnAuditor extends Column {
   static final byte[] MAX_VALUE_LENGTH_KEY_BYTES = Bytes.toBytes(MAX_VALUE_LENGTH_KEY);
   static final String COL_COUNTER_KEY = Bytes.toString(Repository.COL_COUNTER_QUALIFIER);
   static final String CELL_COUNTER_KEY = Bytes.toString(Repository.CELL_COUNTER_QUALIFIER);
+  static final String WRITE_COUNTER_KEY = Bytes.toString(Repository.WRITE_COUNTER_QUALIFIER);
+  static final String WRITE_BYTES_COUNTER_KEY
+          = Bytes.toString(Repository.WRITE_BYTES_COUNTER_QUALIFIER);
+  static final String READ_COUNTER_KEY = Bytes.toString(Repository.READ_COUNTER_QUALIFIER);
+  static final String READ_COUNTER_TIMESTAMP_KEY_STRING
+          = Bytes.toString(Repository.READ_COUNTER_TIMESTAMP_KEY);
+  static final String LAST_SEEN_TIMESTAMP_KEY_STRING
+          = Bytes.toString(Repository.LAST_SEEN_TIMESTAMP_KEY);
   static final String COL_COUNTER_TIMESTAMP_KEY_STRING
           = Bytes.toString(Repository.COL_COUNTER_TIMESTAMP_KEY);
   static final String CELL_COUNTER_TIMESTAMP_KEY_STRING
@@ -231,5 +239,76 @@ public class ColumnAuditor extends Column {
     return (value == null) ? 0 : Long.valueOf(value);
   }
 
+  /**
+   * Get the count of writes (i.e., cells submitted in puts, appends, and increments) of this
+   * ColumnAuditor's column-qualifier, as recorded via the ColumnManager API by all
+   * ColumnManager clients with write-usage tracking enabled (via the
+   * {@code [column_manager.writeUsage.enabled]} configuration property). Counts are accumulated
+   * in each client's memory and periodically flushed to the Repository, so writes of the last
+   * flush interval may not yet be reflected (see {@link RepositoryAdmin#flushColumnWriteUsage()}).
+   *
+   * @return count of writes recorded for this ColumnAuditor's column-qualifier, or 0 if none
+   * have been recorded
+   */
+  public long getWriteCount() {
+    String value = getValue(WRITE_COUNTER_KEY);
+    return (value == null) ? 0 : Long.valueOf(value);
+  }
+
+  /**
+   * Get the total length (in bytes) of all values written to this ColumnAuditor's
+   * column-qualifier, as recorded under the same conditions as {@link #getWriteCount()}.
+   *
+   * @return total bytes written to this ColumnAuditor's column-qualifier, or 0 if none have been
+   * recorded
+   */
+  public long getWriteBytes() {
+    String value = getValue(WRITE_BYTES_COUNTER_KEY);
+    return (value == null) ? 0 : Long.valueOf(value);
+  }
+
+  /**
+   * Get the count of reads of this ColumnAuditor's column-qualifier (i.e., of rows returned
+   * containing the column by gets and scans, plus existence checks explicitly designating the
+   * column), as recorded via the ColumnManager API by all ColumnManager clients with read-usage
+   * tracking enabled (via the {@code [column_manager.readUsage.enabled]} configuration property).
+   * Counts are accumulated in each client's memory and periodically flushed to the Repository, so
+   * reads of the last flush interval may not yet be reflected (see
+   * {@link RepositoryAdmin#flushColumnReadUsage()}).
+   *
+   * @return count of reads recorded for this ColumnAuditor's column-qualifier, or 0 if none have
+   * been recorded
+   */
+  public long getReadCount() {
+    String value = getValue(READ_COUNTER_KEY);
+    return (value == null) ? 0 : Long.valueOf(value);
+  }
+
+  /**
+   * Get the approximate time of the latest read of this ColumnAuditor's column-qualifier (i.e.,
+   * the time at which the latest reads recorded for it were flushed to the Repository).
+   *
+   * @return timestamp of latest recorded read, or 0 if no reads have been recorded
+   */
+  public long getLastReadTimestamp() {
+    String value = getValue(READ_COUNTER_TIMESTAMP_KEY_STRING);
+    return (value == null) ? 0 : Long.valueOf(value);
+  }
 
+  /**
+   * Get the approximate time at which this ColumnAuditor's column-qualifier was last seen by
+   * ColumnManager: the latest time at which it was written (whether or not the write was audited
+   * under its <i>Column Family</i>'s {@link ColumnAuditingPolicy}; refreshed at most once per
+   * {@code [column_manager.auditor.lastSeenResolutionMs]}, default one hour), discovered, or had
+   * usage counts flushed for it. ColumnAuditors not seen within the retention period of their
+   * <i>Column Family</i> are removed by
+   * {@link RepositoryAdmin#sweepExpiredColumnAuditors()}.
+   *
+   * @return timestamp at which this ColumnAuditor's column-qualifier was last seen, or 0 if
+   * unknown
+   */
+  public long getLastSeenTimestamp() {
+    String value = getValue(LAST_SEEN_TIMESTAMP_KEY_STRING);
+    return (value == null) ? 0 : Long.valueOf(value);
+  }
 }
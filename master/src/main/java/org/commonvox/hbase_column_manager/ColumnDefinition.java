@@ -16,8 +16,11 @@
  */
 package org.commonvox.hbase_column_manager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
+import org.apache.hadoop.hbase.util.Bytes;
 
 /**
  * A <b>ColumnDefinition</b> (managed via a number of {@code RepositoryAdmin}
@@ -52,6 +55,29 @@ public class ColumnDefinition extends Column {
    * Key for the COLUMN_VALIDATION_REGEX_KEY attribute.
    */
   static final String COLUMN_VALIDATION_REGEX_KEY = "COLUMN_VALIDATION_REGEX";
+  /**
+   * Key for the COLUMN_VALUE_TYPE_KEY attribute.
+   */
+  static final String COLUMN_VALUE_TYPE_KEY = "COLUMN_VALUE_TYPE";
+  /**
+   * Key for the COLUMN_BINARY_WIDTH_KEY attribute.
+   */
+  static final String COLUMN_BINARY_WIDTH_KEY = "COLUMN_BINARY_WIDTH";
+  /**
+   * Key for the COLUMN_MIN_VALUE_KEY attribute.
+   */
+  static final String COLUMN_MIN_VALUE_KEY = "COLUMN_MIN_VALUE";
+  /**
+   * Key for the COLUMN_MAX_VALUE_KEY attribute.
+   */
+  static final String COLUMN_MAX_VALUE_KEY = "COLUMN_MAX_VALUE";
+  /**
+   * Key for the COLUMN_ALLOWED_VALUES_KEY attribute (persisted as comma-delimited hex strings).
+   */
+  static final String COLUMN_ALLOWED_VALUES_KEY = "COLUMN_ALLOWED_VALUES";
+  private static final String ALLOWED_VALUES_DELIMITER = ",";
+
+  private ColumnValueValidator columnValueValidator = null; // compiled upon first validation
 
   /**
    * @param columnQualifier Column Qualifier
@@ -95,6 +121,7 @@ public class ColumnDefinition extends Column {
   @Override
   final ColumnDefinition setValue(String key, String value) {
     super.setValue(key, value);
+    columnValueValidator = null;
     return this;
   }
 
@@ -108,6 +135,7 @@ public class ColumnDefinition extends Column {
   @Override
   final ColumnDefinition setValue(byte[] key, byte[] value) {
     super.setValue(key, value);
+    columnValueValidator = null;
     return this;
   }
 
@@ -121,6 +149,7 @@ public class ColumnDefinition extends Column {
   @Override
   final ColumnDefinition setValue(final ImmutableBytesWritable key, final ImmutableBytesWritable value) {
     super.setValue(key, value);
+    columnValueValidator = null;
     return this;
   }
 
@@ -194,4 +223,167 @@ public class ColumnDefinition extends Column {
     String value = getValue(COLUMN_VALIDATION_REGEX_KEY);
     return (value == null) ? "" : value;
   }
+
+  /**
+   * Set the column's value type (i.e., the {@link ColumnValueType} of which any submitted value
+   * for this column must be a valid binary representation when
+   * {@link RepositoryAdmin#enableColumnDefinitionEnforcement(boolean, org.apache.hadoop.hbase.TableName, byte[])
+   * ColumnDefinitionsEnforced} is set to {@code true} for the column's <i>Column Family</i>);
+   * setting the value to {@code null} (the default) will result in NO type validation of column
+   * values being performed.
+   *
+   * @param valueType value type defined for column
+   * @return this object, for method chaining
+   */
+  public ColumnDefinition setColumnValueType(ColumnValueType valueType) {
+    return setValue(COLUMN_VALUE_TYPE_KEY, (valueType == null) ? null : valueType.name());
+  }
+
+  /**
+   * Get the column's value type (see {@link #setColumnValueType(ColumnValueType)}).
+   *
+   * @return defined value type for this column, or {@code null} if none defined
+   */
+  public ColumnValueType getColumnValueType() {
+    String value = getValue(COLUMN_VALUE_TYPE_KEY);
+    return (value == null) ? null : ColumnValueType.valueOf(value);
+  }
+
+  /**
+   * Set the width (in bytes) required of any submitted value for a column of value type
+   * {@link ColumnValueType#BINARY}; setting the value to 0 (the default) will result in values of
+   * any width being accepted.
+   *
+   * @param binaryWidth width required of values
+   * @return this object, for method chaining
+   */
+  public ColumnDefinition setColumnBinaryWidth(int binaryWidth) {
+    return setValue(COLUMN_BINARY_WIDTH_KEY, Integer.toString(binaryWidth));
+  }
+
+  /**
+   * Get the width required of any submitted value for a column of value type
+   * {@link ColumnValueType#BINARY} (see {@link #setColumnBinaryWidth(int)}).
+   *
+   * @return width required of values, or 0 if values of any width are accepted
+   */
+  public int getColumnBinaryWidth() {
+    String value = getValue(COLUMN_BINARY_WIDTH_KEY);
+    return (value == null) ? 0 : Integer.valueOf(value);
+  }
+
+  /**
+   * Set the (inclusive) range within which any submitted value must fall for a column of numeric
+   * value type ({@link ColumnValueType#INT}, {@link ColumnValueType#LONG}, or
+   * {@link ColumnValueType#DOUBLE}); the range is ignored for columns of other value types.
+   *
+   * @param minValue minimum value permitted, or {@code null} if no minimum
+   * @param maxValue maximum value permitted, or {@code null} if no maximum
+   * @return this object, for method chaining
+   */
+  public ColumnDefinition setColumnValueRange(Number minValue, Number maxValue) {
+    setValue(COLUMN_MIN_VALUE_KEY, (minValue == null) ? null : minValue.toString());
+    return setValue(COLUMN_MAX_VALUE_KEY, (maxValue == null) ? null : maxValue.toString());
+  }
+
+  /**
+   * Get the minimum value permitted for a column of numeric value type (see
+   * {@link #setColumnValueRange(Number, Number)}).
+   *
+   * @return minimum value permitted, or {@code null} if no minimum
+   */
+  public Number getColumnMinValue() {
+    return parseNumber(getValue(COLUMN_MIN_VALUE_KEY));
+  }
+
+  /**
+   * Get the maximum value permitted for a column of numeric value type (see
+   * {@link #setColumnValueRange(Number, Number)}).
+   *
+   * @return maximum value permitted, or {@code null} if no maximum
+   */
+  public Number getColumnMaxValue() {
+    return parseNumber(getValue(COLUMN_MAX_VALUE_KEY));
+  }
+
+  private static Number parseNumber(String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(value);
+    } catch (NumberFormatException e) {
+      return Double.valueOf(value);
+    }
+  }
+
+  /**
+   * Set the enumerated set of values (in binary form, e.g. as produced by a
+   * {@link org.apache.hadoop.hbase.util.Bytes#toBytes(String) Bytes#toBytes} method) to which any
+   * submitted value for this column must belong when
+   * {@link RepositoryAdmin#enableColumnDefinitionEnforcement(boolean, org.apache.hadoop.hbase.TableName, byte[])
+   * ColumnDefinitionsEnforced} is set to {@code true} for the column's <i>Column Family</i>);
+   * submitting no values (the default) will result in NO allowed-value validation being performed.
+   *
+   * @param allowedValues values permitted for column
+   * @return this object, for method chaining
+   */
+  public ColumnDefinition setColumnAllowedValues(byte[]... allowedValues) {
+    if (allowedValues == null || allowedValues.length == 0) {
+      return setValue(COLUMN_ALLOWED_VALUES_KEY, null);
+    }
+    StringBuilder allowedValuesString = new StringBuilder();
+    for (byte[] allowedValue : allowedValues) {
+      if (allowedValuesString.length() > 0) {
+        allowedValuesString.append(ALLOWED_VALUES_DELIMITER);
+      }
+      allowedValuesString.append(Bytes.toHex(allowedValue));
+    }
+    return setValue(COLUMN_ALLOWED_VALUES_KEY, allowedValuesString.toString());
+  }
+
+  /**
+   * Set the enumerated set of String values (stored as UTF-8) to which any submitted value for
+   * this column must belong (see {@link #setColumnAllowedValues(byte[]...)}).
+   *
+   * @param allowedValues values permitted for column
+   * @return this object, for method chaining
+   */
+  public ColumnDefinition setColumnAllowedValues(String... allowedValues) {
+    byte[][] allowedValueBytes = new byte[allowedValues.length][];
+    for (int i = 0; i < allowedValues.length; i++) {
+      allowedValueBytes[i] = Bytes.toBytes(allowedValues[i]);
+    }
+    return setColumnAllowedValues(allowedValueBytes);
+  }
+
+  /**
+   * Get the enumerated set of values permitted for this column (see
+   * {@link #setColumnAllowedValues(byte[]...)}).
+   *
+   * @return values permitted for column (empty if no allowed-value validation is defined)
+   */
+  public List<byte[]> getColumnAllowedValues() {
+    List<byte[]> allowedValues = new ArrayList<>();
+    String value = getValue(COLUMN_ALLOWED_VALUES_KEY);
+    if (value != null && !value.isEmpty()) {
+      for (String allowedValue : value.split(ALLOWED_VALUES_DELIMITER, -1)) {
+        allowedValues.add(Bytes.fromHex(allowedValue));
+      }
+    }
+    return allowedValues;
+  }
+
+  /**
+   * Returns the precompiled validator of this ColumnDefinition (compiled upon first invocation,
+   * and recompiled after any change to the ColumnDefinition).
+   */
+  ColumnValueValidator getColumnValueValidator() {
+    ColumnValueValidator validator = columnValueValidator;
+    if (validator == null) {
+      validator = new ColumnValueValidator(this);
+      columnValueValidator = validator;
+    }
+    return validator;
+  }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Accumulates column-discovery statistics (column count, cell count, and maximum value length)
+ * for each column found in the rows of a raw (i.e., standard-connection) scan. Statistics are
+ * keyed by the qualifier bytes as stored -- that is, by column-alias in alias-enabled
+ * <i>Column Families</i> -- so that no cell need be decoded during the scan; only the final,
+ * aggregated keys are translated (via {@link #translateAliases}) into user-column-qualifiers.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnDiscoveryStatistics {
+
+  static final int COLUMN_COUNT = 0;
+  static final int CELL_COUNT = 1;
+  static final int MAX_VALUE_LENGTH = 2;
+
+  private final NavigableMap<byte[], NavigableMap<byte[], long[]>> familyStatisticsMap
+          = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+
+  /**
+   * Accumulates statistics for all cells of the submitted row.
+   *
+   * @param row Result of raw scan
+   * @param keyOnlyFilterUsed if true, each cell's value is its original value's length (as
+   * returned via {@code KeyOnlyFilter(true)})
+   */
+  void addRow(Result row, boolean keyOnlyFilterUsed) {
+    Cell[] cells = row.rawCells();
+    if (cells == null) {
+      return;
+    }
+    NavigableMap<byte[], long[]> columnStatisticsMap = null;
+    long[] columnStatistics = null;
+    Cell previousCell = null;
+    for (Cell cell : cells) {
+      if (previousCell == null || !CellUtil.matchingFamily(previousCell, cell)) {
+        byte[] colFamily = CellUtil.cloneFamily(cell);
+        columnStatisticsMap = familyStatisticsMap.get(colFamily);
+        if (columnStatisticsMap == null) {
+          columnStatisticsMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+          familyStatisticsMap.put(colFamily, columnStatisticsMap);
+        }
+        columnStatistics = null;
+      }
+      // cells of a column are contiguous within a row
+      if (columnStatistics == null || !CellUtil.matchingQualifier(previousCell, cell)) {
+        byte[] colQualifier = CellUtil.cloneQualifier(cell);
+        columnStatistics = columnStatisticsMap.get(colQualifier);
+        if (columnStatistics == null) {
+          columnStatistics = new long[3];
+          columnStatisticsMap.put(colQualifier, columnStatistics);
+        }
+        columnStatistics[COLUMN_COUNT]++;
+      }
+      columnStatistics[CELL_COUNT]++;
+      int valueLength = keyOnlyFilterUsed
+              ? Bytes.toInt(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength())
+              : cell.getValueLength();
+      columnStatistics[MAX_VALUE_LENGTH]
+              = Math.max(columnStatistics[MAX_VALUE_LENGTH], valueLength);
+      previousCell = cell;
+    }
+  }
+
+  /**
+   * Returns the accumulated statistics: for each <i>Column Family</i>, a map of each qualifier
+   * (as stored) to its statistics array.
+   */
+  NavigableMap<byte[], NavigableMap<byte[], long[]>> getFamilyStatisticsMap() {
+    return familyStatisticsMap;
+  }
+
+  /**
+   * Returns the submitted statistics re-keyed by user-column-qualifier. Qualifiers not found in the
+   * aliasToQualifierMap are retained as-is, and the statistics of a column-alias and its
+   * user-column-qualifier (both of which may be present in a <i>Column Family</i> undergoing
+   * online conversion) are merged.
+   */
+  static NavigableMap<byte[], long[]> translateAliases(
+          NavigableMap<byte[], long[]> columnStatisticsMap,
+          NavigableMap<byte[], byte[]> aliasToQualifierMap) {
+    if (aliasToQualifierMap == null || aliasToQualifierMap.isEmpty()) {
+      return columnStatisticsMap;
+    }
+    NavigableMap<byte[], long[]> translatedStatisticsMap
+            = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    for (Entry<byte[], long[]> columnEntry : columnStatisticsMap.entrySet()) {
+      byte[] colQualifier = aliasToQualifierMap.get(columnEntry.getKey());
+      if (colQualifier == null) {
+        colQualifier = columnEntry.getKey();
+      }
+      long[] columnStatistics = translatedStatisticsMap.get(colQualifier);
+      if (columnStatistics == null) {
+        translatedStatisticsMap.put(colQualifier, columnEntry.getValue().clone());
+      } else {
+        columnStatistics[COLUMN_COUNT] += columnEntry.getValue()[COLUMN_COUNT];
+        columnStatistics[CELL_COUNT] += columnEntry.getValue()[CELL_COUNT];
+        columnStatistics[MAX_VALUE_LENGTH] = Math.max(columnStatistics[MAX_VALUE_LENGTH],
+                columnEntry.getValue()[MAX_VALUE_LENGTH]);
+      }
+    }
+    return translatedStatisticsMap;
+  }
+}
@@ -129,6 +129,7 @@ class ColumnDiscoveryTool extends Configured implements Tool  {
     private Repository repository = null;
     private MTableDescriptor mtd;
     private MConnection columnManagerConnection = null;
+    private final ColumnDiscoveryStatistics statistics = new ColumnDiscoveryStatistics();
 
     @Override
     protected void setup(Context context) {
@@ -144,11 +145,18 @@ class ColumnDiscoveryTool extends Configured implements Tool  {
       }
     }
     @Override
-    protected void cleanup(Context context) {
+    protected void cleanup(Context context) throws IOException {
       if (columnManagerConnection != null) {
         try {
-          columnManagerConnection.close();
-        } catch (IOException e) { }
+          // statistics aggregated (by column-alias in aliased families) across the mapper's rows
+          if (repository != null && mtd != null && !columnManagerConnection.isClosed()) {
+            repository.putDiscoveredColumnAuditors(mtd, statistics);
+          }
+        } finally {
+          try {
+            columnManagerConnection.close();
+          } catch (IOException e) { }
+        }
       }
     }
 
@@ -159,7 +167,7 @@ class ColumnDiscoveryTool extends Configured implements Tool  {
               || columnManagerConnection.isAborted() || repository == null || mtd == null) {
         return;
       }
-      repository.putDiscoveredColumnAuditors(mtd, value, true);
+      statistics.addRow(value, true);
     }
   }
 }
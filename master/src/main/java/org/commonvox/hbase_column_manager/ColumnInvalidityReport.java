@@ -26,6 +26,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
+import java.util.TreeMap;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.hadoop.conf.Configuration;
@@ -70,11 +71,11 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
   private static final String TEMP_REPORT_TABLENAME_PREFIX = "temp_report_table_";
   private static final byte[] TEMP_REPORT_CF = Bytes.toBytes("cr");
   private static final byte ROW_ID_DELIMITER = ':';
-  private static final String ROW_ID_DELIMITER_STRING = String.valueOf((char)ROW_ID_DELIMITER);
 
   private static final String TABLE_NAME_ARG_KEY = "--sourceTable=";
 
   private final Connection standardConnection;
+  private final Repository repository; // null if not invoked via ColumnManager connection
   private final Admin standardAdmin;
   private final MTableDescriptor sourceMtd; // descriptor for table being analyzed
   private final Table sourceTable; // table being analyzed
@@ -85,6 +86,9 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
   private final boolean includeAllCells;
   private final boolean invokedByMapper;
   private final ReportType reportType;
+  // per-family maps of stored qualifier (i.e., column-alias in aliased families) to definition
+  private final NavigableMap<byte[], NavigableMap<byte[], ColumnDefinition>> familyDefinitionMaps
+          = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
   enum ReportType {QUALIFIER, LENGTH, VALUE};
 
   ColumnInvalidityReport(ReportType reportType, Connection connection,
@@ -96,13 +100,16 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
     this.targetFile = targetFile;
     if (MConnection.class.isAssignableFrom(connection.getClass())) {
       this.standardConnection = ((MConnection)connection).getStandardConnection();
+      repository = ((MConnection)connection).getRepository();
     } else {
       standardConnection = connection;
+      repository = null;
     }
     standardAdmin = standardConnection.getAdmin();
     createTempReportNamespace(standardAdmin);
     sourceMtd = sourceTableDescriptor;
-    sourceTable = connection.getTable(sourceTableDescriptor.getTableName());
+    // raw scan: invalid columns of alias-enabled families are collected by column-alias
+    sourceTable = standardConnection.getTable(sourceTableDescriptor.getTableName());
     this.sourceColFamily = sourceColFamily;
 
     TableName tempReportTableName
@@ -133,10 +140,12 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
     this.targetFile = null;
     if (MConnection.class.isAssignableFrom(connection.getClass())) {
       this.standardConnection = ((MConnection)connection).getStandardConnection();
+      repository = ((MConnection)connection).getRepository();
     } else {
       standardConnection = connection;
+      repository = null;
     }
-    standardAdmin = connection.getAdmin();
+    standardAdmin = standardConnection.getAdmin();
     sourceMtd = sourceTableDescriptor;
     sourceTable = standardConnection.getTable(sourceTableDescriptor.getTableName());
     sourceColFamily = null; // not needed by Mapper; only referenced by Tool in Scan setup.
@@ -183,8 +192,8 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
       }
       for (Entry<byte[],NavigableMap<Long,byte[]>> colEntry
               : familyToColumnsMapEntry.getValue().entrySet()) {
-        byte[] colQualifier = colEntry.getKey();
-        ColumnDefinition colDef = mcd.getColumnDefinition(colQualifier);
+        byte[] colQualifier = colEntry.getKey(); // column-alias in aliased families
+        ColumnDefinition colDef = getColumnDefinitionMap(mcd).get(colQualifier);
         for (Entry<Long,byte[]> cellEntry : colEntry.getValue().entrySet()) {
           byte[] cellValue = cellEntry.getValue();
           boolean invalidRow = false;
@@ -195,23 +204,19 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
               }
               break;
             case LENGTH:
-              if (colDef != null && colDef.getColumnLength() > 0) {
+              if (colDef != null && colDef.getColumnValueValidator().hasLengthValidation()) {
                 if (verboseReport) {
-                  if (cellValue.length > colDef.getColumnLength()) {
-                    invalidRow = true;
-                  }
-                } else {
-                  if (Bytes.toInt(cellValue) > colDef.getColumnLength()) {
-                    invalidRow = true;
-                  }
+                  invalidRow = !colDef.getColumnValueValidator().isLengthValid(cellValue.length);
+                } else { // value *length* returned as value by KeyOnlyFilter
+                  invalidRow = !colDef.getColumnValueValidator().isLengthValid(
+                          Bytes.toInt(cellValue));
                 }
               }
               break;
             case VALUE:
-              if (colDef != null && !colDef.getColumnValidationRegex().isEmpty()) {
-                if (!Bytes.toString(cellValue).matches(colDef.getColumnValidationRegex())) {
-                  invalidRow = true;
-                }
+              if (colDef != null && colDef.getColumnValueValidator().hasValueValidations()) {
+                invalidRow = colDef.getColumnValueValidator().getValueInvalidityReason(
+                        cellValue, 0, cellValue.length) != null;
               }
               break;
           }
@@ -229,7 +234,46 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
   }
 
   /**
-   * RowId layout: <namespace:table:colFamily:colQualifier>
+   * Returns a map of each stored qualifier of the Column Family to its ColumnDefinition: in an
+   * alias-enabled Column Family, the definitions are keyed by column-alias (via a single read of
+   * the AliasDirectory), so that no cell need be decoded during the scan.
+   */
+  private NavigableMap<byte[], ColumnDefinition> getColumnDefinitionMap(MColumnDescriptor mcd)
+          throws IOException {
+    NavigableMap<byte[], ColumnDefinition> definitionMap = familyDefinitionMaps.get(mcd.getName());
+    if (definitionMap != null) {
+      return definitionMap;
+    }
+    definitionMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    boolean aliased = repository != null && mcd.columnAliasReadProcessingRequired();
+    if (!aliased || mcd.columnAliasConversionInProgress()) {
+      for (ColumnDefinition colDef : mcd.getColumnDefinitions()) {
+        definitionMap.put(colDef.getColumnQualifier(), colDef);
+      }
+    }
+    if (aliased) {
+      for (Entry<byte[], byte[]> aliasEntry : getAliasToQualifierMap(mcd.getName()).entrySet()) {
+        ColumnDefinition colDef = mcd.getColumnDefinition(aliasEntry.getValue());
+        if (colDef != null && aliasEntry.getKey().length > 0) {
+          definitionMap.put(aliasEntry.getKey(), colDef);
+        }
+      }
+    }
+    familyDefinitionMaps.put(mcd.getName(), definitionMap);
+    return definitionMap;
+  }
+
+  private NavigableMap<byte[], byte[]> getAliasToQualifierMap(byte[] colFamily)
+          throws IOException {
+    NavigableMap<byte[], byte[]> aliasToQualifierMap
+            = repository.getFamilyAliasToQualifierMap(sourceMtd, colFamily).get(colFamily);
+    return (aliasToQualifierMap == null)
+            ? new TreeMap<byte[], byte[]>(Bytes.BYTES_RAWCOMPARATOR) : aliasToQualifierMap;
+  }
+
+  /**
+   * RowId layout: <namespace:table:colFamily:colQualifier> (with colQualifier being the stored
+   * qualifier, i.e. column-alias in aliased families)
    */
   private byte[] buildRowId(byte[] colFamily, byte[] colQualifier) {
     ByteBuffer rowId = ByteBuffer.allocate(3 + sourceTable.getName().getNamespace().length
@@ -240,8 +284,38 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
     return rowId.array();
   }
 
-  private String[] parseRowId(byte[] rowId) {
-    return Bytes.toString(rowId).split(ROW_ID_DELIMITER_STRING, 4);
+  /**
+   * Parses the report rowId, translating the stored qualifier to its user-column-qualifier in
+   * aliased families (via a single read of the AliasDirectory per family).
+   */
+  private String[] parseRowId(byte[] rowId,
+          NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMaps)
+          throws IOException {
+    String[] rowIdComponents = new String[4];
+    int componentStart = 0;
+    for (int i = 0; i < 3; i++) {
+      int delimiterIndex = componentStart;
+      while (rowId[delimiterIndex] != ROW_ID_DELIMITER) {
+        delimiterIndex++;
+      }
+      rowIdComponents[i] = Bytes.toString(rowId, componentStart, delimiterIndex - componentStart);
+      componentStart = delimiterIndex + 1;
+    }
+    byte[] colQualifier = Bytes.tail(rowId, rowId.length - componentStart);
+    MColumnDescriptor mcd = sourceMtd.getMColumnDescriptor(Bytes.toBytes(rowIdComponents[2]));
+    if (repository != null && mcd != null && mcd.columnAliasReadProcessingRequired()) {
+      NavigableMap<byte[], byte[]> aliasToQualifierMap
+              = familyAliasToQualifierMaps.get(mcd.getName());
+      if (aliasToQualifierMap == null) {
+        aliasToQualifierMap = getAliasToQualifierMap(mcd.getName());
+        familyAliasToQualifierMaps.put(mcd.getName(), aliasToQualifierMap);
+      }
+      if (aliasToQualifierMap.containsKey(colQualifier)) {
+        colQualifier = aliasToQualifierMap.get(colQualifier);
+      }
+    }
+    rowIdComponents[3] = Bytes.toString(colQualifier);
+    return rowIdComponents;
   }
 
   boolean isEmpty() {
@@ -272,8 +346,10 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
                             + this.getClass().getSimpleName(),
                             new Date())
                             .print(new FileWriter(targetFile))) {
+      NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMaps
+              = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
       for (Result row : rows) {
-        String[] reportLineComponents = parseRowId(row.getRow());
+        String[] reportLineComponents = parseRowId(row.getRow(), familyAliasToQualifierMaps);
         NavigableMap<byte[],NavigableMap<Long,byte[]>> tempReportColumnMap
                 = row.getMap().firstEntry().getValue(); // .get(TEMP_REPORT_CF);
         if (verboseReport) { // print line for each invalid occurrence found
@@ -511,7 +587,7 @@ class ColumnInvalidityReport implements Closeable, AutoCloseable {
         includeAllCells = jobConfig.get(ColumnInvalidityReportTool.INCLUDE_ALL_CELLS_CONF_KEY)
                 .equalsIgnoreCase(Boolean.TRUE.toString());
         columnInvalidityReport = new ColumnInvalidityReport(
-                reportType, columnManagerConnection.getStandardConnection(), sourceMtd,
+                reportType, columnManagerConnection, sourceMtd,
                 tempReportTableName, verboseReport, includeAllCells);
       } catch (Exception e) {
         columnManagerConnection = null;
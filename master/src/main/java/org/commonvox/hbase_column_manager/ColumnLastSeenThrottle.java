@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the refreshing of each {@link ColumnAuditor}'s last-seen timestamp by a ColumnManager
+ * client to once per {@code [column_manager.auditor.lastSeenResolutionMs]}, so that columns
+ * written continuously do not each cost a Repository write per mutation. Refresh times are held
+ * in memory; once more than {@link #MAX_TRACKED_COLUMNS} columns are held, those whose refresh is
+ * again due are discarded (and, should that not suffice, all are discarded, at the cost of some
+ * redundant refreshes).
+ *
+ * @author Daniel Vimont
+ */
+class ColumnLastSeenThrottle {
+
+  static final int MAX_TRACKED_COLUMNS = 100000;
+
+  private final long resolution;
+  private final ConcurrentMap<ByteBuffer, Long> refreshTimes = new ConcurrentHashMap<>();
+
+  ColumnLastSeenThrottle(long resolution) {
+    this.resolution = resolution;
+  }
+
+  /**
+   * Returns true (and records the refresh) if the last-seen timestamp of the ColumnAuditor with
+   * the submitted RowId is due to be refreshed.
+   */
+  boolean refreshDue(byte[] colAuditorRowId, long currentTime) {
+    ByteBuffer key = ByteBuffer.wrap(colAuditorRowId);
+    Long refreshTime = refreshTimes.get(key);
+    if (refreshTime != null && currentTime - refreshTime < resolution) {
+      return false;
+    }
+    if (refreshTime == null) {
+      if (refreshTimes.putIfAbsent(key, currentTime) != null) {
+        return false; // concurrently refreshed
+      }
+      if (refreshTimes.size() > MAX_TRACKED_COLUMNS) {
+        discardDueRefreshTimes(currentTime);
+      }
+      return true;
+    }
+    return refreshTimes.replace(key, refreshTime, currentTime);
+  }
+
+  /**
+   * Invoked upon failure of a refresh, so that it is retried upon the next write of the column.
+   */
+  void refreshFailed(byte[] colAuditorRowId) {
+    refreshTimes.remove(ByteBuffer.wrap(colAuditorRowId));
+  }
+
+  int getTrackedColumnCount() {
+    return refreshTimes.size();
+  }
+
+  private void discardDueRefreshTimes(long currentTime) {
+    for (Iterator<Long> it = refreshTimes.values().iterator(); it.hasNext();) {
+      if (currentTime - it.next() >= resolution) {
+        it.remove();
+      }
+    }
+    if (refreshTimes.size() > MAX_TRACKED_COLUMNS) {
+      refreshTimes.clear();
+    }
+  }
+}
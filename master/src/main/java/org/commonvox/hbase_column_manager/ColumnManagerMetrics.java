@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsInfo;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.hadoop.metrics2.lib.Interns;
+import org.apache.log4j.Logger;
+
+/**
+ * Registry of the metrics which measure the overhead of ColumnManager processing within a single
+ * {@link MConnection}, broken down by <i>Table</i>: validation latency and outcomes, column-alias
+ * lookups and assignments, {@link ColumnAuditor} updates written and skipped, table-descriptor
+ * loads, and the latency of each type of RPC issued against the Repository and alias tables (which
+ * are recorded under the name of the Repository or alias table itself). All counters are striped,
+ * so recording on the hot paths of {@link MTable}, {@link MBufferedMutator}, and
+ * {@link MTableMultiplexer} entails no contended writes.
+ * <br>
+ * Unless the {@code [column_manager.metrics.published]} configuration property is set to false,
+ * the registry is published (until its connection is closed) via a single, process-wide Hadoop
+ * metrics2 source -- and thereby as a JMX MBean, under {@code Hadoop:service=ColumnManager} --
+ * with one record per connection and <i>Table</i>, tagged by connection id and <i>Table</i> name.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnManagerMetrics {
+
+  static final String METRICS_PUBLISHED_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "metrics.published";
+  static final String METRICS_SYSTEM_PREFIX = "ColumnManager";
+  private static final String RECORD_NAME = "TableMetrics";
+  private static final String CONTEXT = "column_manager";
+  private static final String SOURCE_NAME = METRICS_SYSTEM_PREFIX + ",sub=Connections";
+  private static final MetricsInfo CONNECTION_TAG_INFO
+          = Interns.info("Connection", "Id of the connection to which the metrics pertain");
+  private static final MetricsInfo TABLE_TAG_INFO
+          = Interns.info("Table", "Name of the Table to which the metrics pertain");
+  private static final Set<String> REPOSITORY_RPC_METHOD_NAMES = new HashSet<>(Arrays.asList(
+          "exists", "existsAll", "get", "getScanner", "put", "checkAndPut", "delete",
+          "checkAndDelete", "checkAndMutate", "mutateRow", "append", "increment",
+          "incrementColumnValue", "batch", "batchCallback"));
+  private static final AtomicInteger CONNECTION_SEQUENCE = new AtomicInteger();
+  private static final Set<ColumnManagerMetrics> PUBLISHED_METRICS
+          = Collections.newSetFromMap(new ConcurrentHashMap<ColumnManagerMetrics, Boolean>());
+  private static final Logger staticLogger
+          = Logger.getLogger(ColumnManagerMetrics.class.getName());
+  private static boolean sourceRegistered = false;
+
+  /**
+   * Counted events, each recorded per <i>Table</i>.
+   */
+  enum Counter {
+    ALIAS_LOOKUP_HITS("aliasLookupHits",
+            "Column qualifiers whose column-alias was found in the alias table"),
+    ALIAS_LOOKUP_MISSES("aliasLookupMisses",
+            "Column qualifiers whose column-alias was not found in the alias table"),
+    ALIASES_ASSIGNED("aliasesAssigned", "New column-aliases assigned"),
+    AUDITOR_UPDATES_WRITTEN("auditorUpdatesWritten", "ColumnAuditor updates written"),
+    AUDITOR_UPDATES_SKIPPED("auditorUpdatesSkipped",
+            "ColumnAuditor updates skipped (no change in audited metadata)"),
+    AUDITOR_UPDATES_DEFERRED("auditorUpdatesDeferred",
+            "ColumnAuditor updates deferred to the auditing backlog"),
+    AUDITOR_UPDATES_DROPPED("auditorUpdatesDropped",
+            "ColumnAuditor updates dropped because the auditing backlog was full"),
+    AUDITOR_UPDATES_BYPASSED("auditorUpdatesBypassed",
+            "ColumnAuditor updates bypassed under the Column Family's auditing policy"),
+    AUDITORS_EXPIRED("auditorsExpired",
+            "ColumnAuditors deleted upon expiry of the Column Family's retention period"),
+    AUDIT_CIRCUIT_OPENED("auditCircuitOpened",
+            "Transitions of the auditing circuit breaker to OPEN"),
+    AUDIT_CIRCUIT_HALF_OPENED("auditCircuitHalfOpened",
+            "Transitions of the auditing circuit breaker to HALF_OPEN"),
+    AUDIT_CIRCUIT_CLOSED("auditCircuitClosed",
+            "Transitions of the auditing circuit breaker to CLOSED");
+
+    private final MetricsInfo info;
+
+    Counter(String name, String description) {
+      info = Interns.info(name, description);
+    }
+  }
+
+  /**
+   * Timed operations, each recorded per <i>Table</i>.
+   */
+  enum Timer {
+    VALIDATION("validation", "Validation of Mutations against ColumnDefinitions"),
+    DESCRIPTOR_LOAD("descriptorLoad", "Loads of table descriptors from the Repository");
+
+    private final String name;
+    private final String description;
+
+    Timer(String name, String description) {
+      this.name = name;
+      this.description = description;
+    }
+  }
+
+  /**
+   * All metrics recorded for a single <i>Table</i>.
+   */
+  static class TableMetrics {
+    private final StripedCounter[] counters = new StripedCounter[Counter.values().length];
+    private final LatencyHistogram[] timers = new LatencyHistogram[Timer.values().length];
+    private final ColumnValidationCounters validationCounters = new ColumnValidationCounters();
+    private final ConcurrentMap<String, LatencyHistogram> repositoryRpcTimers
+            = new ConcurrentHashMap<>();
+
+    TableMetrics() {
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] = new StripedCounter();
+      }
+      for (int i = 0; i < timers.length; i++) {
+        timers[i] = new LatencyHistogram();
+      }
+    }
+
+    StripedCounter getCounter(Counter counter) {
+      return counters[counter.ordinal()];
+    }
+
+    LatencyHistogram getTimer(Timer timer) {
+      return timers[timer.ordinal()];
+    }
+
+    ColumnValidationCounters getValidationCounters() {
+      return validationCounters;
+    }
+
+    LatencyHistogram getRepositoryRpcTimer(String rpcType) {
+      LatencyHistogram rpcTimer = repositoryRpcTimers.get(rpcType);
+      if (rpcTimer == null) {
+        rpcTimer = new LatencyHistogram();
+        LatencyHistogram existingTimer = repositoryRpcTimers.putIfAbsent(rpcType, rpcTimer);
+        if (existingTimer != null) {
+          rpcTimer = existingTimer;
+        }
+      }
+      return rpcTimer;
+    }
+  }
+
+  private final ConcurrentMap<TableName, TableMetrics> tableMetricsMap
+          = new ConcurrentHashMap<>();
+  private final String connectionId;
+  private final boolean publishingRequested;
+  private volatile AuditCircuitBreaker auditCircuitBreaker = null;
+
+  ColumnManagerMetrics(Configuration conf) {
+    connectionId = String.valueOf(CONNECTION_SEQUENCE.incrementAndGet());
+    publishingRequested = conf.getBoolean(METRICS_PUBLISHED_KEY, true);
+  }
+
+  /**
+   * Returns the metrics of the submitted <i>Table</i>, creating them upon first request.
+   */
+  TableMetrics getTableMetrics(TableName tableName) {
+    TableMetrics tableMetrics = tableMetricsMap.get(tableName);
+    if (tableMetrics == null) {
+      tableMetrics = new TableMetrics();
+      TableMetrics existingMetrics = tableMetricsMap.putIfAbsent(tableName, tableMetrics);
+      if (existingMetrics != null) {
+        tableMetrics = existingMetrics;
+      }
+    }
+    return tableMetrics;
+  }
+
+  /**
+   * Returns the metrics of all <i>Table</i>s for which any metric has been recorded.
+   */
+  ConcurrentMap<TableName, TableMetrics> getTableMetricsMap() {
+    return tableMetricsMap;
+  }
+
+  void increment(TableName tableName, Counter counter) {
+    getTableMetrics(tableName).getCounter(counter).increment();
+  }
+
+  void add(TableName tableName, Counter counter, long delta) {
+    if (delta != 0) {
+      getTableMetrics(tableName).getCounter(counter).add(delta);
+    }
+  }
+
+  /**
+   * Records an operation which began at the submitted {@link System#nanoTime()} value.
+   */
+  void recordSince(TableName tableName, Timer timer, long startNanos) {
+    getTableMetrics(tableName).getTimer(timer).recordSince(startNanos);
+  }
+
+  /**
+   * Returns a {@link Table} which passes all invocations to the submitted Repository (or alias)
+   * table, recording the latency of each RPC by type.
+   */
+  Table instrument(final Table repositoryTable) {
+    final TableMetrics tableMetrics = getTableMetrics(repositoryTable.getName());
+    return (Table) Proxy.newProxyInstance(Table.class.getClassLoader(),
+            new Class<?>[]{Table.class}, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        boolean rpc = REPOSITORY_RPC_METHOD_NAMES.contains(method.getName());
+        long startNanos = rpc ? System.nanoTime() : 0;
+        try {
+          return method.invoke(repositoryTable, args);
+        } catch (InvocationTargetException e) {
+          throw e.getCause();
+        } finally {
+          if (rpc) {
+            tableMetrics.getRepositoryRpcTimer(method.getName()).recordSince(startNanos);
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Publishes this registry via the process-wide Hadoop metrics2 source (registering that source
+   * upon first invocation), unless publishing has been disabled via configuration. Failure to
+   * register is logged, but does not impede ColumnManager processing.
+   */
+  void publish() {
+    if (!publishingRequested) {
+      return;
+    }
+    synchronized (ColumnManagerMetrics.class) {
+      if (!sourceRegistered) {
+        try {
+          // has no effect if metrics system already initialized by hosting process
+          DefaultMetricsSystem.initialize(METRICS_SYSTEM_PREFIX);
+          DefaultMetricsSystem.instance().register(SOURCE_NAME,
+                  Repository.PRODUCT_NAME + " metrics of all connections", new Source());
+          sourceRegistered = true;
+        } catch (RuntimeException e) {
+          staticLogger.warn(Repository.PRODUCT_NAME + " metrics could not be published: " + e);
+          return;
+        }
+      }
+    }
+    PUBLISHED_METRICS.add(this);
+  }
+
+  /**
+   * Withdraws this registry from publication (metrics2 sources cannot be unregistered in the
+   * supported Hadoop releases, so the process-wide source simply ceases to report it).
+   */
+  void unpublish() {
+    PUBLISHED_METRICS.remove(this);
+  }
+
+  void setAuditCircuitBreaker(AuditCircuitBreaker auditCircuitBreaker) {
+    this.auditCircuitBreaker = auditCircuitBreaker;
+  }
+
+  String getConnectionId() {
+    return connectionId;
+  }
+
+  /**
+   * Adds one record per <i>Table</i> to the submitted collector.
+   */
+  void collect(MetricsCollector collector) {
+    if (auditCircuitBreaker != null && auditCircuitBreaker.isEnabled()) {
+      collector.addRecord(RECORD_NAME).setContext(CONTEXT)
+              .tag(CONNECTION_TAG_INFO, connectionId)
+              .tag(TABLE_TAG_INFO, Repository.REPOSITORY_TABLENAME.getNameAsString())
+              .addGauge(getInfo("auditCircuitState",
+                      "State of the auditing circuit breaker (0=CLOSED, 1=HALF_OPEN, 2=OPEN)"),
+                      auditCircuitBreaker.getState().ordinal())
+              .addGauge(getInfo("auditBacklogSize", "Column audits pending in the backlog"),
+                      auditCircuitBreaker.getBacklogSize());
+    }
+    for (Entry<TableName, TableMetrics> tableEntry : tableMetricsMap.entrySet()) {
+      TableMetrics tableMetrics = tableEntry.getValue();
+      MetricsRecordBuilder recordBuilder = collector.addRecord(RECORD_NAME).setContext(CONTEXT)
+              .tag(CONNECTION_TAG_INFO, connectionId)
+              .tag(TABLE_TAG_INFO, tableEntry.getKey().getNameAsString());
+      for (Counter counter : Counter.values()) {
+        recordBuilder.addCounter(counter.info, tableMetrics.getCounter(counter).sum());
+      }
+      ColumnValidationStatistics validationStatistics
+              = tableMetrics.getValidationCounters().getStatistics();
+      recordBuilder.addCounter(getInfo("validatedMutations", "Mutations validated"),
+              validationStatistics.getValidatedMutationCount());
+      recordBuilder.addCounter(getInfo("rejectedMutations", "Mutations rejected by validation"),
+              validationStatistics.getRejectedMutationCount());
+      for (Timer timer : Timer.values()) {
+        addLatencyMetrics(recordBuilder, timer.name, timer.description,
+                tableMetrics.getTimer(timer));
+      }
+      for (Entry<String, LatencyHistogram> rpcEntry
+              : tableMetrics.repositoryRpcTimers.entrySet()) {
+        addLatencyMetrics(recordBuilder, "repositoryRpc_" + rpcEntry.getKey(),
+                "Repository RPCs of type " + rpcEntry.getKey(), rpcEntry.getValue());
+      }
+    }
+  }
+
+  private void addLatencyMetrics(MetricsRecordBuilder recordBuilder, String name,
+          String description, LatencyHistogram histogram) {
+    recordBuilder.addCounter(getInfo(name + "_num_ops", description + ": count"),
+            histogram.getCount());
+    recordBuilder.addGauge(getInfo(name + "_mean_us", description + ": mean microseconds"),
+            histogram.getMeanMicros());
+    recordBuilder.addGauge(getInfo(name + "_99th_percentile_us",
+            description + ": 99th percentile microseconds (upper bound)"),
+            histogram.getPercentileMicros(99));
+  }
+
+  private static MetricsInfo getInfo(String name, String description) {
+    return Interns.info(name, description); // interned (cached) by metrics2
+  }
+
+  /**
+   * The process-wide metrics2 source, which reports all published registries.
+   */
+  private static class Source implements MetricsSource {
+    @Override
+    public void getMetrics(MetricsCollector collector, boolean all) {
+      for (ColumnManagerMetrics metrics : PUBLISHED_METRICS) {
+        metrics.collect(collector);
+      }
+    }
+  }
+}
@@ -45,6 +45,8 @@ class ColumnQualifierReport {
   private String colFamilyReportString;
   private String colQualifierReportString;
   private String colMaxLengthReportString;
+  private String colWriteCountReportString;
+  private String colWriteBytesReportString;
 
 
   ColumnQualifierReport(String namespace, TableName tableName, byte[] colFamily,
@@ -58,7 +60,8 @@ class ColumnQualifierReport {
     outputReport();
   }
 
-  enum ReportHeader {NAMESPACE, TABLE, COLUMN_FAMILY, COLUMN_QUALIFIER, COLUMN_MAX_LENGTH}
+  enum ReportHeader {NAMESPACE, TABLE, COLUMN_FAMILY, COLUMN_QUALIFIER, COLUMN_MAX_LENGTH,
+      WRITE_COUNT, WRITE_BYTES}
 
   private void outputReport() throws IOException {
     HBaseSchemaArchive hsa = new HBaseSchemaArchive(sourceNamespace, sourceTableName, repository);
@@ -89,6 +92,8 @@ class ColumnQualifierReport {
       colFamilyReportString = "";
       colQualifierReportString = "";
       colMaxLengthReportString = "";
+      colWriteCountReportString = "";
+      colWriteBytesReportString = "";
 
       printReport(csvPrinter, hsa.getSchemaEntities());
     }
@@ -103,6 +108,8 @@ class ColumnQualifierReport {
           colFamilyReportString = "";
           colQualifierReportString = "";
           colMaxLengthReportString = "";
+          colWriteCountReportString = "";
+          colWriteBytesReportString = "";
           printReport(csvPrinter, entity.getChildren());
           break;
         case TABLE:
@@ -120,11 +127,15 @@ class ColumnQualifierReport {
         case COLUMN_AUDITOR:
           colQualifierReportString = entity.getNameAsString();
           colMaxLengthReportString = entity.getValue(ColumnAuditor.MAX_VALUE_LENGTH_KEY);
+          colWriteCountReportString = entity.getValue(ColumnAuditor.WRITE_COUNTER_KEY);
+          colWriteBytesReportString = entity.getValue(ColumnAuditor.WRITE_BYTES_COUNTER_KEY);
           csvPrinter.print(namespaceReportString);
           csvPrinter.print(tableReportString);
           csvPrinter.print(colFamilyReportString);
           csvPrinter.print(colQualifierReportString);
           csvPrinter.print(colMaxLengthReportString);
+          csvPrinter.print(colWriteCountReportString == null ? "0" : colWriteCountReportString);
+          csvPrinter.print(colWriteBytesReportString == null ? "0" : colWriteBytesReportString);
           csvPrinter.println();
           recordsWrittenToReport = true;
       }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.Set;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.AbstractClientScanner;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+
+/**
+ * Accumulates live per-column and per-<i>Column Family</i> read counts in process memory, as
+ * {@code Get}s, existence checks, and {@code Scan}s are submitted via {@code MTable}. Each flush
+ * increments the read counters of the affected {@link ColumnAuditor}s and <i>Column
+ * Families</i>, and the timestamp of that increment serves as their last-read time. Enabled via
+ * the {@code [column_manager.readUsage.enabled]} configuration property (default false); flushes
+ * occur every {@code [column_manager.readUsage.flushIntervalMs]} (default 60000), and upon closure
+ * of the ColumnManager {@code Connection}.
+ * <br>
+ * A <i>Column Family</i> read is recorded for each request which designates the family (a request
+ * designating no families designates all of them); a column read is recorded for each returned
+ * row which contains the column (or, for existence checks, for each column explicitly requested
+ * which is already known to the Repository, so that checks for arbitrary qualifiers do not create
+ * counters, or Repository rows, for columns which do not exist).
+ *
+ * @author Daniel Vimont
+ */
+class ColumnReadUsageTracker extends ColumnUsageTracker {
+
+  static final String ENABLED_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "readUsage.enabled";
+  static final String FLUSH_INTERVAL_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "readUsage.flushIntervalMs";
+  static final long DEFAULT_FLUSH_INTERVAL = 60000; // milliseconds
+  private static final byte[][] COUNTER_QUALIFIERS = {Repository.READ_COUNTER_QUALIFIER};
+  private static final int READ_COUNT = 0;
+
+  ColumnReadUsageTracker(UsageWriter usageWriter, Configuration conf) {
+    super(usageWriter, COUNTER_QUALIFIERS, conf.getBoolean(ENABLED_KEY, false),
+            conf.getLong(FLUSH_INTERVAL_KEY, DEFAULT_FLUSH_INTERVAL));
+  }
+
+  /**
+   * Records the reads of a Get and of the Result it returned.
+   */
+  void recordGet(MTableDescriptor mtd, Get get, Result result) {
+    recordFamilyReads(mtd, get.getFamilyMap().keySet());
+    recordResult(mtd, result);
+  }
+
+  /**
+   * Records the reads of an existence check, which returns no cells; a column read is recorded
+   * only for those requested columns known to the Repository.
+   */
+  void recordExistenceCheck(MTableDescriptor mtd, Get get) {
+    recordFamilyReads(mtd, get.getFamilyMap().keySet());
+    for (Entry<byte[], NavigableSet<byte[]>> familyEntry : get.getFamilyMap().entrySet()) {
+      MColumnDescriptor mcd = getMColumnDescriptor(mtd, familyEntry.getKey());
+      if (mcd == null || familyEntry.getValue() == null) {
+        continue;
+      }
+      Set<byte[]> knownQualifiers = mcd.getColumnQualifiers();
+      for (byte[] colQualifier : familyEntry.getValue()) {
+        if (knownQualifiers.contains(colQualifier)) {
+          recordColumnRead(mcd, colQualifier, 0, colQualifier.length);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the family reads of the submitted Scan, and returns a scanner which records the
+   * column reads of each Result returned by the submitted scanner.
+   */
+  ResultScanner recordScan(MTableDescriptor mtd, Scan scan, ResultScanner resultScanner) {
+    recordFamilyReads(mtd, scan.getFamilyMap().keySet());
+    return new ReadRecordingResultScanner(mtd, resultScanner);
+  }
+
+  void recordResult(MTableDescriptor mtd, Result result) {
+    if (result == null || result.isEmpty()) {
+      return;
+    }
+    Cell previousCell = null;
+    MColumnDescriptor mcd = null;
+    for (Cell cell : result.rawCells()) {
+      if (previousCell != null && CellUtil.matchingColumn(previousCell, cell)) {
+        continue; // further versions of the same column
+      }
+      if (previousCell == null || !CellUtil.matchingFamily(previousCell, cell)) {
+        mcd = getMColumnDescriptor(mtd, CellUtil.cloneFamily(cell));
+      }
+      previousCell = cell;
+      if (mcd != null) {
+        recordColumnRead(mcd, cell.getQualifierArray(), cell.getQualifierOffset(),
+                cell.getQualifierLength());
+      }
+    }
+  }
+
+  private void recordFamilyReads(MTableDescriptor mtd, Collection<byte[]> colFamilies) {
+    if (colFamilies.isEmpty()) {
+      for (MColumnDescriptor mcd : mtd.getMColumnDescriptors()) {
+        recordFamilyRead(mtd, mcd.getName());
+      }
+    } else {
+      for (byte[] colFamily : colFamilies) {
+        recordFamilyRead(mtd, colFamily);
+      }
+    }
+  }
+
+  private void recordFamilyRead(MTableDescriptor mtd, byte[] colFamily) {
+    getUsageCounters(SchemaEntityType.COLUMN_FAMILY.getRecordType(), mtd.getForeignKey(),
+            colFamily, 0, colFamily.length).add(READ_COUNT, 1);
+  }
+
+  private void recordColumnRead(MColumnDescriptor mcd, byte[] qualifierArray, int qualifierOffset,
+          int qualifierLength) {
+    getUsageCounters(SchemaEntityType.COLUMN_AUDITOR.getRecordType(), mcd.getForeignKey(),
+            qualifierArray, qualifierOffset, qualifierLength).add(READ_COUNT, 1);
+  }
+
+  private static MColumnDescriptor getMColumnDescriptor(MTableDescriptor mtd, byte[] colFamily) {
+    return mtd.hasFamily(colFamily) ? mtd.getMColumnDescriptor(colFamily) : null;
+  }
+
+  private class ReadRecordingResultScanner extends AbstractClientScanner {
+
+    private final MTableDescriptor mtd;
+    private final ResultScanner wrappedResultScanner;
+
+    ReadRecordingResultScanner(MTableDescriptor mtd, ResultScanner resultScanner) {
+      this.mtd = mtd;
+      wrappedResultScanner = resultScanner;
+    }
+
+    @Override
+    public Result next() throws IOException {
+      Result result = wrappedResultScanner.next();
+      recordResult(mtd, result);
+      return result;
+    }
+
+    @Override
+    public boolean renewLease() {
+      return (wrappedResultScanner instanceof AbstractClientScanner)
+              && ((AbstractClientScanner) wrappedResultScanner).renewLease();
+    }
+
+    @Override
+    public void close() {
+      wrappedResultScanner.close();
+    }
+  }
+}
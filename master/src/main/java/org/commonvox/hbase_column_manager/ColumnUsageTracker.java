@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.log4j.Logger;
+
+/**
+ * Accumulates live usage counts of Repository schema entities (e.g., {@link ColumnAuditor}s) in
+ * process memory, and periodically flushes them to the Repository as batched increments of the
+ * entities' counter columns. Subclasses designate the counter columns and record usage.
+ * <br>
+ * Each entity's counts are held in a single {@link AtomicLongArray}, since a tracker may hold
+ * counts for a great many entities, across which concurrent recorders are mostly spread. Counters
+ * of entities not used since the previous flush are retired, and are discarded after one further
+ * flush (which captures any usage that raced with their retirement).
+ *
+ * @author Daniel Vimont
+ */
+abstract class ColumnUsageTracker {
+
+  /**
+   * Writes a batch of usage deltas to the Repository (implemented by {@link Repository}).
+   */
+  interface UsageWriter {
+    void writeUsage(byte[][] counterQualifiers, List<UsageDelta> usageDeltas) throws IOException;
+  }
+
+  /**
+   * Usage recorded for a single schema entity since its previous flush, with one count per
+   * counter column.
+   */
+  static class UsageDelta {
+
+    final byte[] rowId;
+    final long[] counts;
+
+    UsageDelta(byte[] rowId, long[] counts) {
+      this.rowId = rowId;
+      this.counts = counts;
+    }
+  }
+
+  private static final Logger staticLogger = Logger.getLogger(ColumnUsageTracker.class.getName());
+  private final UsageWriter usageWriter;
+  private final byte[][] counterQualifiers;
+  private final boolean enabled;
+  private final long flushInterval;
+  private final ConcurrentMap<ByteBuffer, UsageCounters> liveCounters
+          = new ConcurrentHashMap<>();
+  private final Object flushLock = new Object();
+  private final List<UsageCounters> retiredCounters = new ArrayList<>(); // guarded by flushLock
+  private volatile ScheduledExecutorService flusher = null;
+  private boolean closed = false; // guarded by this
+
+  ColumnUsageTracker(UsageWriter usageWriter, byte[][] counterQualifiers, boolean enabled,
+          long flushInterval) {
+    this.usageWriter = usageWriter;
+    this.counterQualifiers = counterQualifiers;
+    this.enabled = enabled;
+    this.flushInterval = Math.max(1, flushInterval);
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the counters of the schema entity of the designated type, whose name is the
+   * designated range of the submitted array, creating them upon first use.
+   */
+  UsageCounters getUsageCounters(byte recordType, byte[] parentForeignKey,
+          byte[] nameArray, int nameOffset, int nameLength) {
+    byte[] rowId = new byte[1 + parentForeignKey.length + nameLength];
+    rowId[0] = recordType;
+    System.arraycopy(parentForeignKey, 0, rowId, 1, parentForeignKey.length);
+    System.arraycopy(nameArray, nameOffset, rowId, 1 + parentForeignKey.length, nameLength);
+    ByteBuffer counterKey = ByteBuffer.wrap(rowId);
+    UsageCounters usageCounters = liveCounters.get(counterKey);
+    if (usageCounters == null) {
+      UsageCounters newUsageCounters = new UsageCounters(rowId, counterQualifiers.length);
+      usageCounters = liveCounters.putIfAbsent(counterKey, newUsageCounters);
+      if (usageCounters == null) {
+        usageCounters = newUsageCounters;
+        if (flusher == null) {
+          scheduleFlushes();
+        }
+      }
+    }
+    return usageCounters;
+  }
+
+  /**
+   * Writes all usage recorded since the previous flush to the Repository; upon failure, the
+   * unflushed usage is retained for the next flush.
+   */
+  void flush() throws IOException {
+    synchronized (flushLock) {
+      flushUnderLock();
+    }
+  }
+
+  private void flushUnderLock() throws IOException {
+    List<UsageCounters> previouslyRetiredCounters = new ArrayList<>(retiredCounters);
+    List<UsageCounters> countersToFlush = new ArrayList<>(previouslyRetiredCounters);
+    for (Iterator<Entry<ByteBuffer, UsageCounters>> it = liveCounters.entrySet().iterator();
+            it.hasNext();) {
+      UsageCounters usageCounters = it.next().getValue();
+      if (usageCounters.getUnflushedCount(0) == 0) {
+        it.remove();
+        retiredCounters.add(usageCounters);
+      } else {
+        countersToFlush.add(usageCounters);
+      }
+    }
+    List<UsageDelta> usageDeltas = new ArrayList<>();
+    List<UsageCounters> flushedCounters = new ArrayList<>();
+    for (UsageCounters usageCounters : countersToFlush) {
+      UsageDelta usageDelta = usageCounters.getUnflushedUsage();
+      if (usageDelta.counts[0] > 0) {
+        usageDeltas.add(usageDelta);
+        flushedCounters.add(usageCounters);
+      }
+    }
+    if (!usageDeltas.isEmpty()) {
+      usageWriter.writeUsage(counterQualifiers, usageDeltas);
+      for (int i = 0; i < flushedCounters.size(); i++) {
+        flushedCounters.get(i).markFlushed(usageDeltas.get(i));
+      }
+    }
+    retiredCounters.removeAll(previouslyRetiredCounters);
+  }
+
+  /**
+   * Returns the count of schema entities for which usage is currently held in memory.
+   */
+  int getTrackedEntityCount() {
+    return liveCounters.size();
+  }
+
+  /**
+   * Stops periodic flushing. The Repository performs a final {@link #flush()} beforehand; usage
+   * recorded after that is not flushed.
+   */
+  synchronized void close() {
+    closed = true;
+    if (flusher != null) {
+      flusher.shutdownNow();
+    }
+  }
+
+  private synchronized void scheduleFlushes() {
+    if (flusher != null || closed) {
+      return;
+    }
+    final String trackerName = this.getClass().getSimpleName();
+    flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, Repository.PRODUCT_NAME + " " + trackerName);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    flusher.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          flush();
+        } catch (IOException | RuntimeException e) {
+          staticLogger.warn(Repository.PRODUCT_NAME + " flush of usage counts by "
+                  + trackerName + " failed (to be retried): " + e);
+        }
+      }
+    }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * The counters of a single schema entity. Recorders must update the first counter (the usage
+   * count, by which idleness is determined) before any others.
+   */
+  static class UsageCounters {
+
+    private final byte[] rowId;
+    private final AtomicLongArray counters;
+    private final long[] flushedCounts; // guarded by flushLock
+
+    UsageCounters(byte[] rowId, int counterCount) {
+      this.rowId = rowId;
+      counters = new AtomicLongArray(counterCount);
+      flushedCounts = new long[counterCount];
+    }
+
+    void add(int counterIndex, long delta) {
+      counters.addAndGet(counterIndex, delta);
+    }
+
+    private long getUnflushedCount(int counterIndex) {
+      return counters.get(counterIndex) - flushedCounts[counterIndex];
+    }
+
+    private UsageDelta getUnflushedUsage() {
+      // counters are read in reverse order of their update, so flushed secondary counts never
+      // include those of a usage whose primary count is not also flushed
+      long[] unflushedCounts = new long[counters.length()];
+      for (int i = counters.length() - 1; i >= 0; i--) {
+        unflushedCounts[i] = getUnflushedCount(i);
+      }
+      return new UsageDelta(rowId, unflushedCounts);
+    }
+
+    private void markFlushed(UsageDelta usageDelta) {
+      for (int i = 0; i < counters.length(); i++) {
+        flushedCounts[i] += usageDelta.counts[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+/**
+ * Running counts of the {@link org.apache.hadoop.hbase.client.Mutation}s of a <i>Table</i>
+ * validated against its {@link ColumnDefinition}s, and of those rejected, by cause. Counters are
+ * striped, since they are updated on every validated write.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnValidationCounters {
+
+  private final StripedCounter validatedMutationCount = new StripedCounter();
+  private final StripedCounter columnDefinitionNotFoundCount = new StripedCounter();
+  private final StripedCounter columnValueInvalidCount = new StripedCounter();
+
+  void recordValidMutation() {
+    validatedMutationCount.increment();
+  }
+
+  void recordInvalidMutation(ColumnManagerIOException violation) {
+    validatedMutationCount.increment();
+    if (violation instanceof ColumnDefinitionNotFoundException) {
+      columnDefinitionNotFoundCount.increment();
+    } else {
+      columnValueInvalidCount.increment();
+    }
+  }
+
+  ColumnValidationStatistics getStatistics() {
+    return new ColumnValidationStatistics(validatedMutationCount.sum(),
+            columnDefinitionNotFoundCount.sum(), columnValueInvalidCount.sum());
+  }
+}
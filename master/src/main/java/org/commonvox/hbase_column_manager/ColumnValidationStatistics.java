@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+/**
+ * A point-in-time snapshot of the counts of {@link org.apache.hadoop.hbase.client.Mutation}s
+ * validated against {@link ColumnDefinition}s (in <i>Column Families</i> with
+ * {@link RepositoryAdmin#enableColumnDefinitionEnforcement(boolean, org.apache.hadoop.hbase.TableName, byte[])
+ * ColumnDefinitionsEnforced} set to {@code true}) and of those rejected, as accumulated since the
+ * ColumnManager {@code Connection} was created. Statistics are obtained via
+ * {@link RepositoryAdmin#getColumnValidationStatistics(org.apache.hadoop.hbase.TableName)}.
+ *
+ * @author Daniel Vimont
+ */
+public class ColumnValidationStatistics {
+
+  private final long validatedMutationCount;
+  private final long columnDefinitionNotFoundCount;
+  private final long columnValueInvalidCount;
+
+  ColumnValidationStatistics(long validatedMutationCount, long columnDefinitionNotFoundCount,
+          long columnValueInvalidCount) {
+    this.validatedMutationCount = validatedMutationCount;
+    this.columnDefinitionNotFoundCount = columnDefinitionNotFoundCount;
+    this.columnValueInvalidCount = columnValueInvalidCount;
+  }
+
+  /**
+   * Get the count of {@code Mutation}s validated (whether accepted or rejected).
+   *
+   * @return count of {@code Mutation}s validated
+   */
+  public long getValidatedMutationCount() {
+    return validatedMutationCount;
+  }
+
+  /**
+   * Get the count of {@code Mutation}s rejected for any reason.
+   *
+   * @return count of {@code Mutation}s rejected
+   */
+  public long getRejectedMutationCount() {
+    return columnDefinitionNotFoundCount + columnValueInvalidCount;
+  }
+
+  /**
+   * Get the count of {@code Mutation}s rejected with a {@link ColumnDefinitionNotFoundException}.
+   *
+   * @return count of {@code Mutation}s rejected for lack of a {@link ColumnDefinition}
+   */
+  public long getColumnDefinitionNotFoundCount() {
+    return columnDefinitionNotFoundCount;
+  }
+
+  /**
+   * Get the count of {@code Mutation}s rejected with a {@link ColumnValueInvalidException}.
+   *
+   * @return count of {@code Mutation}s rejected for an invalid <i>Column</i> value
+   */
+  public long getColumnValueInvalidCount() {
+    return columnValueInvalidCount;
+  }
+
+  /**
+   * Get the proportion of validated {@code Mutation}s which were rejected.
+   *
+   * @return rejected count divided by validated count (zero if none validated)
+   */
+  public double getRejectionRate() {
+    return (validatedMutationCount == 0)
+            ? 0 : (double) getRejectedMutationCount() / validatedMutationCount;
+  }
+
+  ColumnValidationStatistics add(ColumnValidationStatistics other) {
+    return new ColumnValidationStatistics(
+            validatedMutationCount + other.validatedMutationCount,
+            columnDefinitionNotFoundCount + other.columnDefinitionNotFoundCount,
+            columnValueInvalidCount + other.columnValueInvalidCount);
+  }
+
+  @Override
+  public String toString() {
+    return "validatedMutations=" + validatedMutationCount + ", rejectedMutations="
+            + getRejectedMutationCount() + " (columnDefinitionNotFound="
+            + columnDefinitionNotFoundCount + ", columnValueInvalid=" + columnValueInvalidCount
+            + "), rejectionRate=" + getRejectionRate();
+  }
+}
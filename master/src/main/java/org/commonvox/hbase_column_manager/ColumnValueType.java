@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+/**
+ * Value types which may be declared for a column via
+ * {@link ColumnDefinition#setColumnValueType(ColumnValueType)}. When
+ * {@link RepositoryAdmin#enableColumnDefinitionEnforcement(boolean,
+ * org.apache.hadoop.hbase.TableName, byte[]) ColumnDefinitionsEnforced} is set to {@code true} for
+ * the column's <i>Column Family</i>, each submitted value must be a valid binary representation of
+ * the declared type, as produced by the corresponding
+ * {@link org.apache.hadoop.hbase.util.Bytes#toBytes(int) Bytes#toBytes} method.
+ *
+ * @author Daniel Vimont
+ */
+public enum ColumnValueType {
+  /** A 4-byte, big-endian integer (as produced by {@code Bytes.toBytes(int)}). */
+  INT(4),
+  /** An 8-byte, big-endian long integer (as produced by {@code Bytes.toBytes(long)}). */
+  LONG(8),
+  /** An 8-byte IEEE 754 double (as produced by {@code Bytes.toBytes(double)}). */
+  DOUBLE(8),
+  /** A single-byte boolean (as produced by {@code Bytes.toBytes(boolean)}). */
+  BOOLEAN(1),
+  /** A well-formed UTF-8 string (as produced by {@code Bytes.toBytes(String)}). */
+  UTF8(0),
+  /**
+   * An opaque binary value, of the width (if any) designated via
+   * {@link ColumnDefinition#setColumnBinaryWidth(int)}.
+   */
+  BINARY(0);
+
+  private final int width;
+
+  ColumnValueType(int width) {
+    this.width = width;
+  }
+
+  /**
+   * Returns the fixed width of values of this type, or zero if values are of variable width.
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns true if numeric ranges may be declared for values of this type.
+   */
+  boolean isNumeric() {
+    return this == INT || this == LONG || this == DOUBLE;
+  }
+}
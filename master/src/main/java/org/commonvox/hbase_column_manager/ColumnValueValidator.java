@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Precompiled validations of a {@link ColumnDefinition}: its length limit, declared
+ * {@link ColumnValueType} (with any fixed width, numeric range, and set of allowed values), and
+ * validation regex. Apart from regex validation (which requires decoding of the value as a
+ * String), all validations are performed in place upon the submitted bytes, with no allocation
+ * unless a value is found to be invalid.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnValueValidator {
+
+  private final long maxLength;
+  private final ColumnValueType valueType;
+  private final int binaryWidth;
+  private final boolean rangeDeclared;
+  private final long minLong;
+  private final long maxLong;
+  private final double minDouble;
+  private final double maxDouble;
+  private final byte[][] allowedValues; // sorted; null if no set of allowed values declared
+  private final Pattern validationPattern; // null if no regex declared
+
+  ColumnValueValidator(ColumnDefinition colDefinition) {
+    maxLength = colDefinition.getColumnLength();
+    valueType = colDefinition.getColumnValueType();
+    binaryWidth = (valueType == ColumnValueType.BINARY) ? colDefinition.getColumnBinaryWidth() : 0;
+    String minValue = colDefinition.getValue(ColumnDefinition.COLUMN_MIN_VALUE_KEY);
+    String maxValue = colDefinition.getValue(ColumnDefinition.COLUMN_MAX_VALUE_KEY);
+    rangeDeclared = valueType != null && valueType.isNumeric()
+            && (minValue != null || maxValue != null);
+    minDouble = (minValue == null) ? Double.NEGATIVE_INFINITY : Double.parseDouble(minValue);
+    maxDouble = (maxValue == null) ? Double.POSITIVE_INFINITY : Double.parseDouble(maxValue);
+    minLong = (minValue == null) ? Long.MIN_VALUE : parseLongBound(minValue, true);
+    maxLong = (maxValue == null) ? Long.MAX_VALUE : parseLongBound(maxValue, false);
+    List<byte[]> allowedValueList = colDefinition.getColumnAllowedValues();
+    if (allowedValueList.isEmpty()) {
+      allowedValues = null;
+    } else {
+      allowedValues = allowedValueList.toArray(new byte[allowedValueList.size()][]);
+      Arrays.sort(allowedValues, Bytes.BYTES_RAWCOMPARATOR);
+    }
+    String regex = colDefinition.getColumnValidationRegex();
+    validationPattern = regex.isEmpty() ? null : Pattern.compile(regex);
+  }
+
+  private static long parseLongBound(String bound, boolean lowerBound) {
+    try {
+      return Long.parseLong(bound);
+    } catch (NumberFormatException e) {
+      double doubleBound = lowerBound
+              ? Math.ceil(Double.parseDouble(bound)) : Math.floor(Double.parseDouble(bound));
+      return (long) doubleBound; // saturates at Long.MIN_VALUE/MAX_VALUE
+    }
+  }
+
+  /**
+   * Returns true if a length limit is declared.
+   */
+  boolean hasLengthValidation() {
+    return maxLength > 0;
+  }
+
+  /**
+   * Returns true if any validation other than the length limit is declared.
+   */
+  boolean hasValueValidations() {
+    return valueType != null || allowedValues != null || validationPattern != null;
+  }
+
+  /**
+   * Returns true if the submitted value length does not exceed the declared length limit.
+   */
+  boolean isLengthValid(long valueLength) {
+    return maxLength <= 0 || valueLength <= maxLength;
+  }
+
+  /**
+   * Returns the reason the submitted value fails the declared length limit, or {@code null} if
+   * the value is valid.
+   */
+  String getLengthInvalidityReason(int valueLength) {
+    if (isLengthValid(valueLength)) {
+      return null;
+    }
+    return "Value length of <" + valueLength + "> is longer than maximum length of <"
+            + maxLength + "> defined for the column in its corresponding ColumnDefinition.";
+  }
+
+  /**
+   * Returns the reason the submitted value fails the declared type, range, allowed-value, or regex
+   * validations, or {@code null} if the value is valid.
+   */
+  String getValueInvalidityReason(byte[] array, int offset, int length) {
+    if (valueType != null) {
+      String typeInvalidityReason = getTypeInvalidityReason(array, offset, length);
+      if (typeInvalidityReason != null) {
+        return typeInvalidityReason;
+      }
+    }
+    if (allowedValues != null && !isAllowedValue(array, offset, length)) {
+      return "Value <" + Bytes.toStringBinary(array, offset, length)
+              + "> is not among the allowed values defined for the column in its corresponding "
+              + "ColumnDefinition.";
+    }
+    if (validationPattern != null
+            && !validationPattern.matcher(Bytes.toString(array, offset, length)).matches()) {
+      return "Value does not match the regular expression <" + validationPattern.pattern()
+              + "> defined for the column in its corresponding ColumnDefinition.";
+    }
+    return null;
+  }
+
+  private String getTypeInvalidityReason(byte[] array, int offset, int length) {
+    int expectedWidth = (valueType == ColumnValueType.BINARY) ? binaryWidth : valueType.getWidth();
+    if (expectedWidth > 0 && length != expectedWidth) {
+      return "Value length of <" + length + "> does not match the width of <" + expectedWidth
+              + "> required for values of type " + valueType
+              + " in the column's corresponding ColumnDefinition.";
+    }
+    switch (valueType) {
+      case INT:
+        return getRangeInvalidityReason(Bytes.toInt(array, offset));
+      case LONG:
+        return getRangeInvalidityReason(Bytes.toLong(array, offset));
+      case DOUBLE:
+        double doubleValue = Bytes.toDouble(array, offset);
+        if (rangeDeclared && !(doubleValue >= minDouble && doubleValue <= maxDouble)) {
+          return "Value <" + doubleValue + "> is outside the range <" + minDouble + " .. "
+                  + maxDouble + "> defined for the column in its corresponding ColumnDefinition.";
+        }
+        return null;
+      case BOOLEAN:
+        if (array[offset] != 0 && array[offset] != (byte) -1) {
+          return "Value <" + Bytes.toStringBinary(array, offset, length)
+                  + "> is not a valid BOOLEAN value.";
+        }
+        return null;
+      case UTF8:
+        if (!isWellFormedUtf8(array, offset, length)) {
+          return "Value <" + Bytes.toStringBinary(array, offset, length)
+                  + "> is not a well-formed UTF8 value.";
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  private String getRangeInvalidityReason(long value) {
+    if (rangeDeclared && (value < minLong || value > maxLong)) {
+      return "Value <" + value + "> is outside the range <" + minLong + " .. " + maxLong
+              + "> defined for the column in its corresponding ColumnDefinition.";
+    }
+    return null;
+  }
+
+  private boolean isAllowedValue(byte[] array, int offset, int length) {
+    int low = 0;
+    int high = allowedValues.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int comparison = Bytes.compareTo(
+              allowedValues[mid], 0, allowedValues[mid].length, array, offset, length);
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if the submitted bytes are well-formed UTF-8 (per RFC 3629: no overlong
+   * encodings, no surrogates, and no code points above U+10FFFF).
+   */
+  static boolean isWellFormedUtf8(byte[] array, int offset, int length) {
+    int index = offset;
+    int end = offset + length;
+    while (index < end) {
+      int leadByte = array[index++] & 0xFF;
+      if (leadByte < 0x80) {
+        continue;
+      }
+      int continuationCount;
+      int minSecondByte = 0x80;
+      int maxSecondByte = 0xBF;
+      if (leadByte >= 0xC2 && leadByte <= 0xDF) {
+        continuationCount = 1;
+      } else if (leadByte >= 0xE0 && leadByte <= 0xEF) {
+        continuationCount = 2;
+        if (leadByte == 0xE0) {
+          minSecondByte = 0xA0; // overlong
+        } else if (leadByte == 0xED) {
+          maxSecondByte = 0x9F; // surrogates
+        }
+      } else if (leadByte >= 0xF0 && leadByte <= 0xF4) {
+        continuationCount = 3;
+        if (leadByte == 0xF0) {
+          minSecondByte = 0x90; // overlong
+        } else if (leadByte == 0xF4) {
+          maxSecondByte = 0x8F; // above U+10FFFF
+        }
+      } else {
+        return false;
+      }
+      if (end - index < continuationCount) {
+        return false;
+      }
+      int secondByte = array[index++] & 0xFF;
+      if (secondByte < minSecondByte || secondByte > maxSecondByte) {
+        return false;
+      }
+      for (int i = 1; i < continuationCount; i++) {
+        if ((array[index++] & 0xC0) != 0x80) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+}
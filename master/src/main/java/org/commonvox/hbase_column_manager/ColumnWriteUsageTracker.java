@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.List;
+import java.util.Map.Entry;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Mutation;
+
+/**
+ * Accumulates live per-column write counts and written-byte totals in process memory, as
+ * {@link Mutation}s are submitted via {@code MTable}, {@code MBufferedMutator}, and
+ * {@code MTableMultiplexer}; each flush adds them to the counters of the column's
+ * {@link ColumnAuditor}. Enabled via the {@code [column_manager.writeUsage.enabled]} configuration
+ * property (default false); flushes occur every
+ * {@code [column_manager.writeUsage.flushIntervalMs]} (default 60000), and upon closure of the
+ * ColumnManager {@code Connection}.
+ *
+ * @author Daniel Vimont
+ */
+class ColumnWriteUsageTracker extends ColumnUsageTracker {
+
+  static final String ENABLED_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "writeUsage.enabled";
+  static final String FLUSH_INTERVAL_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "writeUsage.flushIntervalMs";
+  static final long DEFAULT_FLUSH_INTERVAL = 60000; // milliseconds
+  private static final byte[][] COUNTER_QUALIFIERS
+          = {Repository.WRITE_COUNTER_QUALIFIER, Repository.WRITE_BYTES_COUNTER_QUALIFIER};
+  private static final int WRITE_COUNT = 0;
+  private static final int WRITE_BYTES = 1;
+
+  ColumnWriteUsageTracker(UsageWriter usageWriter, Configuration conf) {
+    super(usageWriter, COUNTER_QUALIFIERS, conf.getBoolean(ENABLED_KEY, false),
+            conf.getLong(FLUSH_INTERVAL_KEY, DEFAULT_FLUSH_INTERVAL));
+  }
+
+  /**
+   * Records a write of each cell of the submitted Mutation.
+   */
+  void recordWrites(MTableDescriptor mtd, Mutation mutation) {
+    for (Entry<byte[], List<Cell>> colFamilyCellList : mutation.getFamilyCellMap().entrySet()) {
+      byte[] colFamilyForeignKey
+              = mtd.getMColumnDescriptor(colFamilyCellList.getKey()).getForeignKey();
+      for (Cell cell : colFamilyCellList.getValue()) {
+        UsageCounters usageCounters = getUsageCounters(
+                SchemaEntityType.COLUMN_AUDITOR.getRecordType(), colFamilyForeignKey,
+                cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+        usageCounters.add(WRITE_COUNT, 1);
+        usageCounters.add(WRITE_BYTES, cell.getValueLength());
+      }
+    }
+  }
+}
@@ -16,26 +16,45 @@
  */
 package org.commonvox.hbase_column_manager;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Timestamp;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.util.Bytes;
 
 /**
@@ -50,6 +69,18 @@ class HBaseSchemaArchive {
 
   private static final String BLANKS = "                    ";
   private static final int TAB = 3;
+  private static final String FILE_TIMESTAMP_LABEL = "File generated on ";
+  private static final String ARCHIVE_ELEMENT = "hBaseSchemaArchive";
+  private static final String ENTITY_ELEMENT = "hBaseSchemaEntity";
+  private static final String ENTITY_TYPE_ATTRIBUTE = "schemaEntityType";
+  private static final String NAME_ATTRIBUTE = "name";
+  private static final String VALUES_ELEMENT = "values";
+  private static final String CONFIGURATIONS_ELEMENT = "configurations";
+  private static final String CHILD_ENTITIES_ELEMENT = "childEntities";
+  private static final String ENTRY_ELEMENT = "entry";
+  private static final String KEY_ELEMENT = "key";
+  private static final String VALUE_ELEMENT = "value";
+  private static volatile JAXBContext jaxbContext = null;
 
   @XmlTransient // was @XmlAttribute (Timestamp attribute now written to comment)
   private final String fileTimestamp;
@@ -106,59 +137,539 @@ class HBaseSchemaArchive {
     return fileTimestamp;
   }
 
-  static void exportToXmlFile(HBaseSchemaArchive hsa, File targetFile)
-          throws JAXBException, XMLStreamException, FileNotFoundException {
-    XMLStreamWriter xsw = XMLOutputFactory.newFactory()
-            .createXMLStreamWriter(new FileOutputStream(targetFile));
-    xsw.writeStartDocument();
-    xsw.writeComment(HBaseSchemaArchive.class.getSimpleName() + " file generated for "
-            + (hsa.namespace == null && hsa.tableName == null ?
-                    "full " + Repository.PRODUCT_NAME + " Repository, " : "")
-            + (hsa.namespace == null ? "" : "Namespace:[" + hsa.namespace + "], ")
-            + (hsa.tableName == null ? "" : "Table:[" + hsa.tableName.getNameAsString() + "], ")
-            + "File generated on [" + hsa.fileTimestamp + "]");
-    Marshaller marshaller
-            = JAXBContext.newInstance(HBaseSchemaArchive.class).createMarshaller();
+  /**
+   * Writes the entities of a schema archive one at a time, in any {@link SchemaArchiveFormat}.
+   * Entities which may have children (Namespaces, Tables, Column Families) are opened and closed
+   * explicitly; childless entities (ColumnAuditors and ColumnDefinitions) are written in a single
+   * invocation.
+   */
+  interface SchemaEntityWriter extends Closeable {
+
+    void writeStartEntity(SchemaEntity entity)
+            throws IOException, JAXBException, XMLStreamException;
+
+    void writeEndEntity() throws IOException, JAXBException, XMLStreamException;
+
+    void writeEntity(SchemaEntity entity) throws IOException, JAXBException, XMLStreamException;
+  }
+
+  /**
+   * Reads the entities of a schema archive one at a time, in document order, in any
+   * {@link SchemaArchiveFormat}, so that archives of any size may be processed in bounded
+   * memory. Each entity is returned with its values and configurations but without its children
+   * (which are returned by subsequent invocations of {@link #next()}); the
+   * {@link #getParent() parent} and {@link #getDepth() depth} of the most recently returned
+   * entity are available from the reader.
+   */
+  interface SchemaEntityReader extends Closeable {
+
+    /**
+     * Returns the next SchemaEntity in document order, or null if all entities have been read.
+     */
+    SchemaEntity next() throws IOException, JAXBException;
+
+    /**
+     * Returns the parent of the most recently returned entity, or null if it is a top-level
+     * entity.
+     */
+    SchemaEntity getParent();
+
+    /**
+     * Returns the depth (zero for top-level entities) of the most recently returned entity.
+     */
+    int getDepth();
+
+    String getArchiveFileTimestampString();
+
+    /**
+     * Returns the description recorded in the archive's header, or null if none is recorded.
+     */
+    String getArchiveDescription();
+
+    @Override
+    void close();
+  }
+
+  static SchemaEntityWriter openSchemaEntityWriter(File targetFile, SchemaArchiveFormat format,
+          String sourceNamespace, TableName sourceTableName)
+          throws IOException, JAXBException, XMLStreamException {
+    String fileTimestamp = new Timestamp(System.currentTimeMillis()).toString();
+    return openSchemaEntityWriter(targetFile, format, fileTimestamp,
+            getArchiveDescription(sourceNamespace, sourceTableName, fileTimestamp));
+  }
+
+  private static SchemaEntityWriter openSchemaEntityWriter(File targetFile,
+          SchemaArchiveFormat format, String fileTimestamp, String archiveDescription)
+          throws IOException, JAXBException, XMLStreamException {
+    if (format == SchemaArchiveFormat.XML) {
+      return new XmlSchemaEntityWriter(targetFile, archiveDescription);
+    }
+    return new BinarySchemaArchive.EntityWriter(targetFile,
+            format == SchemaArchiveFormat.COMPRESSED_BINARY, fileTimestamp, archiveDescription);
+  }
+
+  /**
+   * Opens a reader for the submitted archive file, the format of which is detected from the
+   * file's content.
+   */
+  static SchemaEntityReader openSchemaEntityReader(File sourceFile)
+          throws IOException, JAXBException {
+    if (BinarySchemaArchive.isBinaryArchive(sourceFile)) {
+      return new BinarySchemaArchive.EntityReader(sourceFile);
+    }
+    return new XmlSchemaEntityReader(sourceFile);
+  }
+
+  /**
+   * The JAXBContext is thread-safe and expensive to create, so a single instance is shared by
+   * all marshalling and unmarshalling of archive content.
+   */
+  static JAXBContext getJaxbContext() throws JAXBException {
+    if (jaxbContext == null) {
+      synchronized (HBaseSchemaArchive.class) {
+        if (jaxbContext == null) {
+          jaxbContext = JAXBContext.newInstance(HBaseSchemaArchive.class);
+        }
+      }
+    }
+    return jaxbContext;
+  }
+
+  private static Marshaller createFragmentMarshaller() throws JAXBException {
+    Marshaller marshaller = getJaxbContext().createMarshaller();
     // commented out because XMLStreamWriter does NOT support formatted output!!
     //    if (formatted) {
     //      marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
     //    }
     marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-    marshaller.marshal(hsa, xsw);
+    return marshaller;
+  }
+
+  private static String getArchiveDescription(
+          String namespace, TableName tableName, String fileTimestamp) {
+    return HBaseSchemaArchive.class.getSimpleName() + " file generated for "
+            + (namespace == null && tableName == null ?
+                    "full " + Repository.PRODUCT_NAME + " Repository, " : "")
+            + (namespace == null ? "" : "Namespace:[" + namespace + "], ")
+            + (tableName == null ? "" : "Table:[" + tableName.getNameAsString() + "], ")
+            + FILE_TIMESTAMP_LABEL + "[" + fileTimestamp + "]";
+  }
+
+  static void exportToXmlFile(HBaseSchemaArchive hsa, File targetFile)
+          throws JAXBException, XMLStreamException, IOException {
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(targetFile))) {
+      XMLStreamWriter xsw = XMLOutputFactory.newFactory().createXMLStreamWriter(outputStream);
+      xsw.writeStartDocument();
+      xsw.writeComment(getArchiveDescription(hsa.namespace, hsa.tableName, hsa.fileTimestamp));
+      createFragmentMarshaller().marshal(hsa, xsw);
+      xsw.writeEndDocument();
+      xsw.close();
+    }
+  }
+
+  /**
+   * Streaming counterpart of {@link #exportToXmlFile(HBaseSchemaArchive, File)}: the archive is
+   * written directly from the Repository one entity at a time, so that the full archive is never
+   * held in memory; in particular, the ColumnAuditors and ColumnDefinitions of each Column Family
+   * are read from the Repository via a scanner and written as they are read. XML output is in
+   * the same format (per HBaseSchemaArchive.xsd.xml) as that of the non-streaming export.
+   * <br><br>
+   * Note that the children of each entity are written in Repository row order (i.e., grouped by
+   * entity type in the order in which the Repository is scanned, and ordered by the bytes of
+   * their names within each type), whereas the non-streaming export ordered them by entity-type
+   * name and then by name String; the orders differ only for names containing non-ASCII
+   * characters. Readers of archives (including {@link #openSchemaEntityReader(File)}) make no
+   * assumption about the order of child entities.
+   */
+  static void exportToFile(String sourceNamespace, TableName sourceTableName,
+          Repository repository, File targetFile, SchemaArchiveFormat format)
+          throws IOException, JAXBException, XMLStreamException {
+    try (SchemaEntityWriter entityWriter = openSchemaEntityWriter(
+            targetFile, format, sourceNamespace, sourceTableName)) {
+      for (MNamespaceDescriptor mnd : repository.getMNamespaceDescriptors()) {
+        if (sourceNamespace != null && !sourceNamespace.equals(Bytes.toString(mnd.getName()))) {
+          continue;
+        }
+        entityWriter.writeStartEntity(new SchemaEntity(mnd));
+        for (SchemaEntity tableEntity : getSchemaEntities(
+                repository, SchemaEntityType.TABLE, mnd.getForeignKey())) {
+          MTableDescriptor mtd = new MTableDescriptor(tableEntity);
+          if (sourceTableName != null
+                  && !sourceTableName.getNameAsString().equals(mtd.getNameAsString())) {
+            continue;
+          }
+          entityWriter.writeStartEntity(new SchemaEntity(mtd));
+          for (SchemaEntity colFamilyEntity : getSchemaEntities(
+                  repository, SchemaEntityType.COLUMN_FAMILY, mtd.getForeignKey())) {
+            MColumnDescriptor mcd = new MColumnDescriptor(colFamilyEntity);
+            entityWriter.writeStartEntity(new SchemaEntity(mcd));
+            writeColumnEntities(repository, mcd.getForeignKey(), entityWriter);
+            entityWriter.writeEndEntity();
+          }
+          entityWriter.writeEndEntity();
+        }
+        entityWriter.writeEndEntity();
+      }
+    }
+  }
+
+  /**
+   * Namespace, Table, and Column Family entities are few in number, so each set of them is read
+   * in full (and its scanner closed) before any of their component entities are processed; this
+   * avoids holding a scanner open (and risking its lease expiring) during lengthy processing.
+   */
+  private static List<SchemaEntity> getSchemaEntities(Repository repository,
+          SchemaEntityType entityType, byte[] parentForeignKey) throws IOException {
+    List<SchemaEntity> entities = new ArrayList<>();
+    try (ResultScanner rows
+            = repository.getActiveRowScanner(entityType.getRecordType(), parentForeignKey)) {
+      for (Result row : rows) {
+        entities.add(repository.deserializeSchemaEntity(row));
+      }
+    }
+    return entities;
+  }
+
+  /**
+   * ColumnAuditors (of which a Column Family may have millions) and ColumnDefinitions are
+   * marshalled one at a time as they are read from the Repository.
+   */
+  private static void writeColumnEntities(Repository repository, byte[] colFamilyForeignKey,
+          SchemaEntityWriter entityWriter) throws IOException, JAXBException, XMLStreamException {
+    try (ResultScanner colAuditorRows = repository.getActiveRowScanner(
+            SchemaEntityType.COLUMN_AUDITOR.getRecordType(), colFamilyForeignKey)) {
+      for (Result colAuditorRow : colAuditorRows) {
+        entityWriter.writeEntity(new SchemaEntity(
+                new ColumnAuditor(repository.deserializeSchemaEntity(colAuditorRow))));
+      }
+    }
+    try (ResultScanner colDefinitionRows = repository.getActiveRowScanner(
+            SchemaEntityType.COLUMN_DEFINITION.getRecordType(), colFamilyForeignKey)) {
+      for (Result colDefinitionRow : colDefinitionRows) {
+        entityWriter.writeEntity(new SchemaEntity(
+                new ColumnDefinition(repository.deserializeSchemaEntity(colDefinitionRow))));
+      }
+    }
   }
 
   static HBaseSchemaArchive deserializeXmlFile(File sourceHsaFile)
           throws JAXBException {
-    return (HBaseSchemaArchive)JAXBContext.newInstance(HBaseSchemaArchive.class)
-                    .createUnmarshaller().unmarshal(sourceHsaFile);
+    return (HBaseSchemaArchive)getJaxbContext().createUnmarshaller().unmarshal(sourceHsaFile);
+  }
+
+  /**
+   * Copies the content of an archive file (in any format) to a new archive file in the
+   * designated format, one entity at a time; the header (file timestamp and description) of the
+   * source file is carried over to the target file.
+   */
+  static void convertArchiveFile(File sourceFile, File targetFile, SchemaArchiveFormat format)
+          throws IOException, JAXBException, XMLStreamException {
+    try (SchemaEntityReader entityReader = openSchemaEntityReader(sourceFile);
+            SchemaEntityWriter entityWriter = (entityReader.getArchiveDescription() == null)
+                    ? openSchemaEntityWriter(targetFile, format, null, (TableName)null)
+                    : openSchemaEntityWriter(targetFile, format,
+                            entityReader.getArchiveFileTimestampString(),
+                            entityReader.getArchiveDescription())) {
+      int openEntityCount = 0;
+      for (SchemaEntity entity = entityReader.next(); entity != null;
+              entity = entityReader.next()) {
+        for ( ; openEntityCount > entityReader.getDepth(); openEntityCount--) {
+          entityWriter.writeEndEntity();
+        }
+        if (entity.getSchemaEntityType() == SchemaEntityType.COLUMN_AUDITOR
+                || entity.getSchemaEntityType() == SchemaEntityType.COLUMN_DEFINITION) {
+          entityWriter.writeEntity(entity);
+        } else {
+          entityWriter.writeStartEntity(entity);
+          openEntityCount++;
+        }
+      }
+      for ( ; openEntityCount > 0; openEntityCount--) {
+        entityWriter.writeEndEntity();
+      }
+    }
   }
 
-  static String getSummaryReport(File sourceHsaFile) throws JAXBException {
-    HBaseSchemaArchive schemaArchive = HBaseSchemaArchive.deserializeXmlFile(sourceHsaFile);
+  static String getSummaryReport(File sourceHsaFile) throws IOException, JAXBException {
     StringBuilder stringBuilder = new StringBuilder();
-    stringBuilder.append("SUMMARY OF external HBase Schema Archive file*\n")
-            .append(BLANKS, 0, TAB).append("SOURCE FILE: ")
-            .append(sourceHsaFile.getAbsolutePath()).append("\n")
-            .append(BLANKS, 0, TAB).append("FILE TIMESTAMP: ")
-            .append(schemaArchive.getArchiveFileTimestampString()).append("\n")
-            .append(BLANKS, 0, TAB).append("FILE CONTENTS:\n");
-    for (SchemaEntity entity : schemaArchive.getSchemaEntities()) {
-      stringBuilder.append(appendSchemaEntityDescription(entity, TAB + TAB));
-    }
-    stringBuilder.append("\n").append(BLANKS, 0, TAB).append("*To examine the XML-formatted"
-            + " HBase Schema Archive file in detail, simply open it in a browser or XML editor.");
+    boolean binaryArchive;
+    try (SchemaEntityReader entityReader = openSchemaEntityReader(sourceHsaFile)) {
+      binaryArchive = !(entityReader instanceof XmlSchemaEntityReader);
+      stringBuilder.append("SUMMARY OF external HBase Schema Archive file*\n")
+              .append(BLANKS, 0, TAB).append("SOURCE FILE: ")
+              .append(sourceHsaFile.getAbsolutePath()).append("\n")
+              .append(BLANKS, 0, TAB).append("FILE TIMESTAMP: ")
+              .append(entityReader.getArchiveFileTimestampString()).append("\n")
+              .append(BLANKS, 0, TAB).append("FILE CONTENTS:\n");
+      for (SchemaEntity entity = entityReader.next(); entity != null;
+              entity = entityReader.next()) {
+        stringBuilder.append(BLANKS, 0, TAB + TAB + (entityReader.getDepth() * TAB))
+                .append(entity).append("\n");
+      }
+    }
+    stringBuilder.append("\n").append(BLANKS, 0, TAB).append(binaryArchive
+            ? "*To examine the binary HBase Schema Archive file in detail, convert it to XML format"
+                    + " via RepositoryAdmin#convertSchemaArchive, and open the result in a browser"
+                    + " or XML editor."
+            : "*To examine the XML-formatted HBase Schema Archive file in detail, simply open it"
+                    + " in a browser or XML editor.");
     return stringBuilder.toString();
   }
 
-  private static StringBuilder appendSchemaEntityDescription(SchemaEntity entity, int indentSpaces) {
-    StringBuilder stringBuilder = new StringBuilder();
-    stringBuilder.append(BLANKS, 0, indentSpaces).append(entity).append("\n");
-    if (entity.getChildren() != null) {
-      for (SchemaEntity childEntity : entity.getChildren()) {
-        stringBuilder.append(appendSchemaEntityDescription(childEntity, indentSpaces + TAB));
+  /**
+   * Writes SchemaEntity elements to an XML file via StAX one at a time. Entities which may have
+   * children are opened and closed explicitly, with their values and configurations written
+   * directly; childless entities are marshalled in full via the shared JAXBContext.
+   */
+  private static class XmlSchemaEntityWriter implements SchemaEntityWriter {
+
+    private final OutputStream outputStream;
+    private final XMLStreamWriter xsw;
+    private final Marshaller marshaller;
+    // for each open entity, whether its childEntities wrapper element has been started
+    private final Deque<Boolean> childEntitiesStarted = new ArrayDeque<>();
+
+    XmlSchemaEntityWriter(File targetFile, String archiveDescription)
+            throws IOException, JAXBException, XMLStreamException {
+      this.outputStream = new BufferedOutputStream(new FileOutputStream(targetFile));
+      this.xsw = XMLOutputFactory.newFactory().createXMLStreamWriter(outputStream);
+      this.marshaller = createFragmentMarshaller();
+      xsw.writeStartDocument();
+      xsw.writeComment(archiveDescription);
+      xsw.writeStartElement(ARCHIVE_ELEMENT);
+    }
+
+    @Override
+    public void writeStartEntity(SchemaEntity entity) throws XMLStreamException {
+      startChildEntities();
+      xsw.writeStartElement(ENTITY_ELEMENT);
+      xsw.writeAttribute(ENTITY_TYPE_ATTRIBUTE, entity.getSchemaEntityType().name());
+      xsw.writeAttribute(NAME_ATTRIBUTE, entity.getNameAsString());
+      writeEntries(VALUES_ELEMENT, entity.getValuesStringMap());
+      writeEntries(CONFIGURATIONS_ELEMENT, entity.getConfiguration());
+      childEntitiesStarted.push(false);
+    }
+
+    @Override
+    public void writeEndEntity() throws XMLStreamException {
+      if (childEntitiesStarted.pop()) {
+        xsw.writeEndElement();
+      }
+      xsw.writeEndElement();
+    }
+
+    @Override
+    public void writeEntity(SchemaEntity entity) throws JAXBException, XMLStreamException {
+      startChildEntities();
+      marshaller.marshal(new JAXBElement<>(
+              new QName(ENTITY_ELEMENT), SchemaEntity.class, entity), xsw);
+    }
+
+    private void startChildEntities() throws XMLStreamException {
+      if (!childEntitiesStarted.isEmpty() && !childEntitiesStarted.peek()) {
+        xsw.writeStartElement(CHILD_ENTITIES_ELEMENT);
+        childEntitiesStarted.pop();
+        childEntitiesStarted.push(true);
+      }
+    }
+
+    private void writeEntries(String elementName, Map<String, String> entries)
+            throws XMLStreamException {
+      xsw.writeStartElement(elementName);
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        xsw.writeStartElement(ENTRY_ELEMENT);
+        xsw.writeStartElement(KEY_ELEMENT);
+        xsw.writeCharacters(entry.getKey());
+        xsw.writeEndElement();
+        xsw.writeStartElement(VALUE_ELEMENT);
+        xsw.writeCharacters(entry.getValue());
+        xsw.writeEndElement();
+        xsw.writeEndElement();
+      }
+      xsw.writeEndElement();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        xsw.writeEndElement();
+        xsw.writeEndDocument();
+        xsw.close();
+      } catch (XMLStreamException e) {
+        throw new IOException(e);
+      } finally {
+        outputStream.close();
+      }
+    }
+  }
+
+  /**
+   * Reads the SchemaEntity elements of an XML-formatted HBaseSchemaArchive file one at a time
+   * via StAX. Childless entities (ColumnAuditors and ColumnDefinitions) are unmarshalled via the
+   * shared JAXBContext.
+   */
+  private static class XmlSchemaEntityReader implements SchemaEntityReader {
+
+    private final InputStream inputStream;
+    private final XMLStreamReader xsr;
+    private final Unmarshaller unmarshaller;
+    private final Deque<SchemaEntity> ancestors = new ArrayDeque<>();
+    private SchemaEntity pendingParent = null;
+    private boolean positionedAtNextEvent = false;
+    private String fileTimestamp = null;
+    private String archiveDescription = null;
+
+    XmlSchemaEntityReader(File sourceHsaFile) throws JAXBException {
+      try {
+        inputStream = new BufferedInputStream(new FileInputStream(sourceHsaFile));
+      } catch (FileNotFoundException e) {
+        throw new JAXBException("HBaseSchemaArchive file not found: "
+                + sourceHsaFile.getAbsolutePath(), e);
+      }
+      try {
+        xsr = XMLInputFactory.newFactory().createXMLStreamReader(inputStream);
+        unmarshaller = getJaxbContext().createUnmarshaller();
+        // position reader at root element, capturing the file timestamp from the header comment
+        while (xsr.next() != XMLStreamConstants.START_ELEMENT) {
+          if (xsr.getEventType() == XMLStreamConstants.COMMENT) {
+            String comment = xsr.getText();
+            archiveDescription = comment;
+            int labelIndex = comment.indexOf(FILE_TIMESTAMP_LABEL + "[");
+            if (labelIndex >= 0 && comment.endsWith("]")) {
+              fileTimestamp = comment.substring(
+                      labelIndex + FILE_TIMESTAMP_LABEL.length() + 1, comment.length() - 1);
+            }
+          }
+        }
+        if (!ARCHIVE_ELEMENT.equals(xsr.getLocalName())) {
+          throw new JAXBException("File is not an HBaseSchemaArchive file: "
+                  + sourceHsaFile.getAbsolutePath());
+        }
+      } catch (XMLStreamException | JAXBException e) {
+        close();
+        throw (e instanceof JAXBException) ? (JAXBException)e : new JAXBException(e);
+      }
+    }
+
+    @Override
+    public String getArchiveFileTimestampString() {
+      return (fileTimestamp == null)
+              ? new Timestamp(System.currentTimeMillis()).toString() : fileTimestamp;
+    }
+
+    @Override
+    public String getArchiveDescription() {
+      return archiveDescription;
+    }
+
+    @Override
+    public SchemaEntity next() throws JAXBException {
+      if (pendingParent != null) {
+        ancestors.push(pendingParent);
+        pendingParent = null;
+      }
+      try {
+        while (true) {
+          if (positionedAtNextEvent) {
+            positionedAtNextEvent = false;
+          } else if (xsr.hasNext()) {
+            xsr.next();
+          } else {
+            return null;
+          }
+          if (xsr.getEventType() == XMLStreamConstants.START_ELEMENT
+                  && ENTITY_ELEMENT.equals(xsr.getLocalName())) {
+            return readEntity();
+          }
+          if (xsr.getEventType() == XMLStreamConstants.END_ELEMENT
+                  && ENTITY_ELEMENT.equals(xsr.getLocalName())) {
+            ancestors.pop();
+          }
+        }
+      } catch (XMLStreamException e) {
+        throw new JAXBException(e);
+      }
+    }
+
+    private SchemaEntity readEntity() throws JAXBException, XMLStreamException {
+      SchemaEntityType entityType
+              = SchemaEntityType.valueOf(xsr.getAttributeValue(null, ENTITY_TYPE_ATTRIBUTE));
+      if (entityType == SchemaEntityType.COLUMN_AUDITOR
+              || entityType == SchemaEntityType.COLUMN_DEFINITION) {
+        SchemaEntity entity = unmarshaller.unmarshal(xsr, SchemaEntity.class).getValue();
+        // unmarshalling leaves reader positioned at the event following the element's end
+        positionedAtNextEvent = true;
+        return entity;
+      }
+      SchemaEntity entity = new SchemaEntity(
+              entityType.getRecordType(), xsr.getAttributeValue(null, NAME_ATTRIBUTE));
+      while (xsr.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        switch (xsr.getLocalName()) {
+          case VALUES_ELEMENT:
+            for (String[] entry = readEntry(); entry != null; entry = readEntry()) {
+              entity.setValue(entry[0], entry[1]);
+            }
+            break;
+          case CONFIGURATIONS_ELEMENT:
+            for (String[] entry = readEntry(); entry != null; entry = readEntry()) {
+              entity.setConfiguration(entry[0], entry[1]);
+            }
+            break;
+          case CHILD_ENTITIES_ELEMENT:
+            pendingParent = entity; // children follow
+            return entity;
+          default:
+            throw new JAXBException("Unexpected element <" + xsr.getLocalName()
+                    + "> encountered in " + entity);
+        }
+      }
+      return entity; // end of childless entity
+    }
+
+    /**
+     * Returns the next {key, value} entry of a values or configurations element, or null
+     * once the end of that element has been reached.
+     */
+    private String[] readEntry() throws XMLStreamException {
+      if (xsr.nextTag() == XMLStreamConstants.END_ELEMENT) {
+        return null;
+      }
+      String[] entry = new String[2];
+      while (xsr.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        if (KEY_ELEMENT.equals(xsr.getLocalName())) {
+          entry[0] = xsr.getElementText();
+        } else {
+          entry[1] = xsr.getElementText();
+        }
+      }
+      return entry;
+    }
+
+    @Override
+    public SchemaEntity getParent() {
+      return ancestors.peek();
+    }
+
+    @Override
+    public int getDepth() {
+      return ancestors.size();
+    }
+
+    @Override
+    public void close() {
+      try {
+        if (xsr != null) {
+          xsr.close();
+        }
+      } catch (XMLStreamException e) {
+        // nothing to be done; underlying stream closed below
+      }
+      try {
+        inputStream.close();
+      } catch (IOException e) {
+        // read-only stream; nothing to be done
       }
     }
-    return stringBuilder;
   }
 
   @Override
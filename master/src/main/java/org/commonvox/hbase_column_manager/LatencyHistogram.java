@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of operation latencies, with power-of-two buckets in microseconds (bucket
+ * <i>n</i> counts latencies of less than 2<sup>n+1</sup> microseconds not counted in a lower
+ * bucket). Recording an operation costs one striped increment of the count and total, and one
+ * atomic increment of a bucket; percentiles are reported as the upper bound of the bucket in
+ * which they fall.
+ *
+ * @author Daniel Vimont
+ */
+class LatencyHistogram {
+
+  static final int BUCKET_COUNT = 32; // last bucket counts all latencies of 2^31 micros or more
+
+  private final StripedCounter count = new StripedCounter();
+  private final StripedCounter totalMicros = new StripedCounter();
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+  /**
+   * Records an operation which began at the submitted {@link System#nanoTime()} value.
+   */
+  void recordSince(long startNanos) {
+    record((System.nanoTime() - startNanos) / 1000);
+  }
+
+  void record(long elapsedMicros) {
+    if (elapsedMicros < 0) {
+      elapsedMicros = 0;
+    }
+    count.increment();
+    totalMicros.add(elapsedMicros);
+    buckets.incrementAndGet(getBucketIndex(elapsedMicros));
+  }
+
+  static int getBucketIndex(long elapsedMicros) {
+    int bucketIndex = 63 - Long.numberOfLeadingZeros(elapsedMicros | 1);
+    return Math.min(bucketIndex, BUCKET_COUNT - 1);
+  }
+
+  long getCount() {
+    return count.sum();
+  }
+
+  long getTotalMicros() {
+    return totalMicros.sum();
+  }
+
+  double getMeanMicros() {
+    long operationCount = getCount();
+    return (operationCount == 0) ? 0 : (double) getTotalMicros() / operationCount;
+  }
+
+  /**
+   * Returns the upper bound (in microseconds) of the bucket in which the submitted percentile
+   * (e.g., 99.0) of recorded latencies falls, or zero if no operations have been recorded.
+   */
+  long getPercentileMicros(double percentile) {
+    long[] bucketCounts = new long[BUCKET_COUNT];
+    long operationCount = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      bucketCounts[i] = buckets.get(i);
+      operationCount += bucketCounts[i];
+    }
+    if (operationCount == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(operationCount * percentile / 100);
+    long cumulativeCount = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      cumulativeCount += bucketCounts[i];
+      if (cumulativeCount >= threshold && bucketCounts[i] > 0) {
+        return 1L << (i + 1);
+      }
+    }
+    return 1L << BUCKET_COUNT;
+  }
+}
@@ -17,9 +17,17 @@
 package org.commonvox.hbase_column_manager;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.ClusterStatus;
@@ -50,6 +58,7 @@ import org.apache.hadoop.hbase.snapshot.RestoreSnapshotException;
 import org.apache.hadoop.hbase.snapshot.SnapshotCreationException;
 import org.apache.hadoop.hbase.snapshot.UnknownSnapshotException;
 import org.apache.hadoop.hbase.util.Pair;
+import org.apache.log4j.Logger;
 
 /**
  * Wrapper for standard HBase Admin object; in addition to standard Admin functionality, an MAdmin
@@ -63,13 +72,19 @@ class MAdmin implements Admin {
   private final Repository repository;
   private static final String UNSUPPORTED_WHEN_COLMANAGER_ACTIVATED_MSG
           = "Method not supported when ColumnManager repository is ACTIVATED.";
-  private static final String UNSUPPORTED_MASS_DISABLE_DELETE_METHOD
-          = " This method's signature does not properly and explicitly support namespaces, "
-          + "and its use could accidently disable or delete ColumnManager table(s).";
+  static final String MAX_CONCURRENT_OPERATIONS_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "admin.maxConcurrentOperations";
+  static final int DEFAULT_MAX_CONCURRENT_OPERATIONS = 8;
+  private static final Logger logger = Logger.getLogger(MAdmin.class.getName());
+  private final int maxConcurrentOperations;
+  private final Map<TableName, SchemaChangeFuture> pendingSchemaCaptures
+          = new ConcurrentHashMap<>(); // following createTableAsync
 
   MAdmin(Admin hBaseAdmin, Repository repository) {
     wrappedHbaseAdmin = hBaseAdmin;
     this.repository = repository;
+    maxConcurrentOperations = Math.max(1, hBaseAdmin.getConfiguration().getInt(
+            MAX_CONCURRENT_OPERATIONS_KEY, DEFAULT_MAX_CONCURRENT_OPERATIONS));
   }
 
   Admin getWrappedAdmin() {
@@ -103,23 +118,58 @@ class MAdmin implements Admin {
   }
 
   /**
-   * In HBase 2.0, this method will return a Future object, which can be handed off to another
-   * thread to await completion of the table creation and then invoke the appropriate Repository
-   * logic. For now, this method not supported when Repository is ACTIVATED.
+   * When Repository is ACTIVATED, the Table's schema is captured in the Repository by a
+   * background thread once the Table comes online (see {@link AsyncMAdmin} for a Future-returning
+   * equivalent). Until the capture completes, {@link #isTableAvailable(TableName)} returns false
+   * for the Table; if the capture fails, the failure is thrown by the next
+   * {@code isTableAvailable} invocation for the Table (or else by {@link #close()}).
    *
    * @param htd
    * @param bytes
    * @throws java.io.IOException
-   * @throws UnsupportedOperationException
    */
   @Override
   public void createTableAsync(HTableDescriptor htd, byte[][] bytes)
           throws IOException {
+    wrappedHbaseAdmin.createTableAsync(htd, bytes);
     if (repository.isActivated()) {
-      throw new UnsupportedOperationException(UNSUPPORTED_WHEN_COLMANAGER_ACTIVATED_MSG);
+      SchemaChangeFuture future = new SchemaChangeFuture();
+      pendingSchemaCaptures.put(htd.getTableName(), future);
+      repository.putTableSchemaEntityWhenAvailable(htd, future);
     }
+  }
 
-    wrappedHbaseAdmin.createTableAsync(htd, bytes);
+  /**
+   * Returns false if capture of the Table's schema (following {@link #createTableAsync}) is still
+   * pending; throws if the capture failed.
+   */
+  private boolean isSchemaCaptured(TableName tn) throws IOException {
+    SchemaChangeFuture future = pendingSchemaCaptures.get(tn);
+    if (future == null) {
+      return true;
+    }
+    if (!future.isDone()) {
+      return false;
+    }
+    pendingSchemaCaptures.remove(tn, future);
+    throwIfCaptureFailed(tn, future);
+    return true;
+  }
+
+  private static void throwIfCaptureFailed(TableName tn, SchemaChangeFuture future)
+          throws IOException {
+    Throwable failure = future.getFailure();
+    if (failure == null) {
+      return;
+    }
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    }
+    ColumnManagerIOException captureFailure = new ColumnManagerIOException("Schema of Table <"
+            + tn.getNameAsString() + "> was NOT captured in the " + Repository.PRODUCT_NAME
+            + " Repository: " + failure) {};
+    captureFailure.initCause(failure);
+    throw captureFailure;
   }
 
   @Override
@@ -130,40 +180,198 @@ class MAdmin implements Admin {
     }
   }
 
+  /**
+   * When Repository is ACTIVATED, matching Tables are deleted concurrently (see
+   * {@link #deleteTables(Pattern)}).
+   *
+   * @param tableNameRegex
+   * @return Table descriptors for Tables that could not be deleted
+   * @throws IOException
+   */
   @Override
   public HTableDescriptor[] deleteTables(String tableNameRegex) throws IOException {
-    if (repository.isActivated()) {
-      throw new UnsupportedOperationException(UNSUPPORTED_WHEN_COLMANAGER_ACTIVATED_MSG + UNSUPPORTED_MASS_DISABLE_DELETE_METHOD);
-    }
-
-    return wrappedHbaseAdmin.deleteTables(tableNameRegex);
+    return deleteTables(Pattern.compile(tableNameRegex));
   }
 
+  /**
+   * When Repository is ACTIVATED, matching Tables (excluding ColumnManager's own Tables) are
+   * deleted concurrently by up to {@code [column_manager.admin.maxConcurrentOperations]} threads,
+   * and the Repository entries of all deleted Tables are then marked deleted in batched
+   * Repository mutations.
+   *
+   * @param ptrn
+   * @return Table descriptors for Tables that could not be deleted
+   * @throws IOException
+   */
   @Override
   public HTableDescriptor[] deleteTables(Pattern ptrn) throws IOException {
-    if (repository.isActivated()) {
-      throw new UnsupportedOperationException(UNSUPPORTED_WHEN_COLMANAGER_ACTIVATED_MSG + UNSUPPORTED_MASS_DISABLE_DELETE_METHOD);
+    if (!repository.isActivated()) {
+      return wrappedHbaseAdmin.deleteTables(ptrn);
     }
-
-    return wrappedHbaseAdmin.deleteTables(ptrn);
+    List<TableName> deletedTableNames = new ArrayList<>();
+    HTableDescriptor[] failedHtds;
+    try {
+      failedHtds = processTablesConcurrently(ptrn, true, deletedTableNames);
+    } catch (IOException | RuntimeException e) {
+      // Tables deleted before any interruption must still be marked deleted in the Repository;
+      //   the interrupt status is cleared meanwhile so the Repository mutations are not aborted,
+      //   and any failure to mark them is suppressed in favor of the original failure.
+      boolean interrupted = Thread.interrupted();
+      try {
+        repository.deleteTableSchemaEntities(deletedTableNames);
+      } catch (IOException | RuntimeException markingFailure) {
+        e.addSuppressed(markingFailure);
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      throw e;
+    }
+    repository.deleteTableSchemaEntities(deletedTableNames);
+    return failedHtds;
   }
 
+  /**
+   * When Repository is ACTIVATED, matching Tables are disabled concurrently (see
+   * {@link #disableTables(Pattern)}).
+   *
+   * @param string
+   * @return Table descriptors for Tables that could not be disabled
+   * @throws IOException
+   */
   @Override
   public HTableDescriptor[] disableTables(String string) throws IOException {
-    if (repository.isActivated()) {
-      throw new UnsupportedOperationException(UNSUPPORTED_WHEN_COLMANAGER_ACTIVATED_MSG + UNSUPPORTED_MASS_DISABLE_DELETE_METHOD);
-    }
-
-    return wrappedHbaseAdmin.disableTables(string);
+    return disableTables(Pattern.compile(string));
   }
 
+  /**
+   * When Repository is ACTIVATED, matching Tables (excluding ColumnManager's own Tables) are
+   * disabled concurrently by up to {@code [column_manager.admin.maxConcurrentOperations]}
+   * threads.
+   *
+   * @param ptrn
+   * @return Table descriptors for Tables that could not be disabled
+   * @throws IOException
+   */
   @Override
   public HTableDescriptor[] disableTables(Pattern ptrn) throws IOException {
-    if (repository.isActivated()) {
-      throw new UnsupportedOperationException(UNSUPPORTED_WHEN_COLMANAGER_ACTIVATED_MSG + UNSUPPORTED_MASS_DISABLE_DELETE_METHOD);
+    if (!repository.isActivated()) {
+      return wrappedHbaseAdmin.disableTables(ptrn);
     }
+    return processTablesConcurrently(ptrn, false, new ArrayList<TableName>());
+  }
 
-    return wrappedHbaseAdmin.disableTables(ptrn);
+  /**
+   * Deletes (or disables) all user Tables matching the submitted pattern, other than those in
+   * the ColumnManager Repository namespace, with each Table processed by its own Admin. Each
+   * failure is logged (with its exception) as a warning, and the failed Table is returned.
+   *
+   * @return descriptors of Tables which could not be processed
+   */
+  private HTableDescriptor[] processTablesConcurrently(Pattern ptrn, final boolean delete,
+          List<TableName> processedTableNames) throws IOException {
+    List<HTableDescriptor> matchingHtds = new ArrayList<>();
+    for (HTableDescriptor htd : wrappedHbaseAdmin.listTables(ptrn)) {
+      if (htd.getTableName().getNamespaceAsString().equals(
+              Repository.REPOSITORY_NAMESPACE_DESCRIPTOR.getName())) {
+        logger.warn(Repository.PRODUCT_NAME + " table <" + htd.getNameAsString()
+                + "> excluded from mass " + (delete ? "deletion." : "disablement."));
+        continue;
+      }
+      matchingHtds.add(htd);
+    }
+    if (matchingHtds.isEmpty()) {
+      return new HTableDescriptor[0];
+    }
+    final Connection standardConnection = wrappedHbaseAdmin.getConnection();
+    ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(matchingHtds.size(), maxConcurrentOperations));
+    List<HTableDescriptor> failedHtds = new ArrayList<>();
+    List<Future<Boolean>> futures = new ArrayList<>();
+    try {
+      for (final HTableDescriptor htd : matchingHtds) {
+        futures.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() {
+            try (Admin standardAdmin = standardConnection.getAdmin()) {
+              if (delete) {
+                standardAdmin.deleteTable(htd.getTableName());
+              } else {
+                standardAdmin.disableTable(htd.getTableName());
+              }
+              return true;
+            } catch (IOException e) {
+              logger.warn("Failed to " + (delete ? "delete" : "disable") + " table <"
+                      + htd.getNameAsString() + ">.", e);
+              return false;
+            }
+          }
+        }));
+      }
+      for (int index = 0; index < futures.size(); index++) {
+        HTableDescriptor htd = matchingHtds.get(index);
+        boolean processed;
+        try {
+          processed = futures.get(index).get();
+        } catch (ExecutionException e) {
+          logger.error("Failed to " + (delete ? "delete" : "disable") + " table <"
+                  + htd.getNameAsString() + ">.", e.getCause());
+          processed = false;
+        }
+        if (processed) {
+          processedTableNames.add(htd.getTableName());
+        } else {
+          failedHtds.add(htd);
+        }
+      }
+    } catch (InterruptedException e) {
+      // Tables whose processing was already underway are reported once it has stopped
+      executor.shutdownNow();
+      awaitTerminationUninterruptibly(executor);
+      for (int index = 0; index < futures.size(); index++) {
+        if (futures.get(index).isDone() && !futures.get(index).isCancelled()
+                && getUninterruptibly(futures.get(index))) {
+          processedTableNames.add(matchingHtds.get(index).getTableName());
+        }
+      }
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted during mass "
+              + (delete ? "deletion" : "disablement") + " of tables.");
+    } finally {
+      executor.shutdownNow();
+    }
+    return failedHtds.toArray(new HTableDescriptor[failedHtds.size()]);
+  }
+
+  private static void awaitTerminationUninterruptibly(ExecutorService executor) {
+    boolean interrupted = false;
+    while (!executor.isTerminated()) {
+      try {
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the outcome of a completed processing task (false if it failed).
+   */
+  private static boolean getUninterruptibly(Future<Boolean> completedFuture) {
+    boolean interrupted = Thread.interrupted();
+    try {
+      return completedFuture.get();
+    } catch (InterruptedException | ExecutionException e) {
+      return false;
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 
   @Override
@@ -401,12 +609,12 @@ class MAdmin implements Admin {
 
   @Override
   public boolean isTableAvailable(TableName tn) throws IOException {
-    return wrappedHbaseAdmin.isTableAvailable(tn);
+    return wrappedHbaseAdmin.isTableAvailable(tn) && isSchemaCaptured(tn);
   }
 
   @Override
   public boolean isTableAvailable(TableName tn, byte[][] bytes) throws IOException {
-    return wrappedHbaseAdmin.isTableAvailable(tn, bytes);
+    return wrappedHbaseAdmin.isTableAvailable(tn, bytes) && isSchemaCaptured(tn);
   }
 
   @Override
@@ -619,9 +827,20 @@ class MAdmin implements Admin {
     return wrappedHbaseAdmin.getTableRegions(tn);
   }
 
+  /**
+   * Schema captures still pending upon closure continue in the background; a capture failure not
+   * yet reported via {@link #isTableAvailable(TableName)} is thrown.
+   */
   @Override
   public void close() throws IOException {
     wrappedHbaseAdmin.close();
+    for (Map.Entry<TableName, SchemaChangeFuture> pendingCapture
+            : pendingSchemaCaptures.entrySet()) {
+      if (pendingCapture.getValue().isDone()) {
+        pendingSchemaCaptures.remove(pendingCapture.getKey(), pendingCapture.getValue());
+        throwIfCaptureFailed(pendingCapture.getKey(), pendingCapture.getValue());
+      }
+    }
   }
 
   @Override
@@ -36,18 +36,24 @@ class MBufferedMutator implements BufferedMutator {
   private final Repository repository;
   private final MTableDescriptor mTableDescriptor;
   private final boolean includedInRepositoryProcessing;
+  private final OperationTracer tracer;
 
   MBufferedMutator(BufferedMutator userBufferedMutator, Repository repository)
           throws IOException {
     wrappedBufferedMutator = userBufferedMutator;
     this.repository = repository;
+    tracer = repository.getOperationTracer();
+    TraceSpan span = tracer.start(wrappedBufferedMutator.getName(), "getBufferedMutator");
     if (this.repository.isActivated()) {
       mTableDescriptor = this.repository.getMTableDescriptor(wrappedBufferedMutator.getName());
+      span.lap(OperationTrace.Phase.DESCRIPTOR_LOOKUP);
       includedInRepositoryProcessing = repository.isIncludedTable(wrappedBufferedMutator.getName());
+      span.lap(OperationTrace.Phase.INCLUSION_CHECK);
     } else {
       mTableDescriptor = null;
       includedInRepositoryProcessing = false;
     }
+    span.finish();
   }
 
   @Override
@@ -62,41 +68,67 @@ class MBufferedMutator implements BufferedMutator {
 
   @Override
   public void mutate(Mutation mutation) throws IOException {
+    TraceSpan span = tracer.start(getName(), "mutate");
+    try {
+      mutate(mutation, span);
+    } finally {
+      span.finish();
+    }
+  }
+
+  private void mutate(Mutation mutation, TraceSpan span) throws IOException {
     // ColumnManager validation
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColDefinitionsEnforced()) {
       repository.validateColumns(mTableDescriptor, mutation);
+      span.lap(OperationTrace.Phase.VALIDATION);
     }
     // Alias processing
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
               = repository.getFamilyQualifierToAliasMap(mTableDescriptor, mutation);
+      span.lap(OperationTrace.Phase.ALIAS_MAP_FETCH);
       Mutation convertedMutation = (Mutation)repository.convertQualifiersToAliases(
                   mTableDescriptor, mutation, familyQualifierToAliasMap, 0);
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
       wrappedBufferedMutator.mutate(convertedMutation);
     } else {
     // Standard HBase processing
       wrappedBufferedMutator.mutate(mutation);
     }
+    span.lap(OperationTrace.Phase.HBASE_CALL);
     // ColumnManager auditing
     if (includedInRepositoryProcessing) {
       repository.putColumnAuditorSchemaEntities(mTableDescriptor, mutation);
+      span.lap(OperationTrace.Phase.AUDITING);
     }
   }
 
   @Override
   public void mutate(List<? extends Mutation> mutationList) throws IOException {
+    TraceSpan span = tracer.start(getName(), "mutateList");
+    try {
+      mutate(mutationList, span);
+    } finally {
+      span.finish();
+    }
+  }
+
+  private void mutate(List<? extends Mutation> mutationList, TraceSpan span)
+          throws IOException {
     // ColumnManager validation
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColDefinitionsEnforced()) {
       repository.validateColumns(mTableDescriptor, mutationList);
+      span.lap(OperationTrace.Phase.VALIDATION);
     }
     // Alias processing
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
               = repository.getFamilyQualifierToAliasMap(mTableDescriptor, mutationList, 0);
+      span.lap(OperationTrace.Phase.ALIAS_MAP_FETCH);
       List<Mutation> convertedMutations = new LinkedList<>();
       for (Mutation originalMutation : mutationList) {
         if (Mutation.class.isAssignableFrom(originalMutation.getClass())) {
@@ -104,14 +136,17 @@ class MBufferedMutator implements BufferedMutator {
                   mTableDescriptor, originalMutation, familyQualifierToAliasMap, 0));
         }
       }
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
       wrappedBufferedMutator.mutate(convertedMutations);
     } else {
     // Standard HBase processing
       wrappedBufferedMutator.mutate(mutationList);
     }
+    span.lap(OperationTrace.Phase.HBASE_CALL);
     // ColumnManager auditing
     if (includedInRepositoryProcessing) {
       repository.putColumnAuditorSchemaEntities(mTableDescriptor, mutationList);
+      span.lap(OperationTrace.Phase.AUDITING);
     }
   }
 
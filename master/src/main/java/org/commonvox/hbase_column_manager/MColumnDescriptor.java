@@ -43,6 +43,11 @@ class MColumnDescriptor extends HColumnDescriptor {
   private byte[] foreignKeyValue;
   static final String COL_DEFINITIONS_ENFORCED_KEY = "_ColDefinitionsEnforced";
   static final String COL_ALIASES_ENABLED_KEY = "_ColAliasesEnabled";
+  static final String COL_ALIAS_ENCODING_KEY = "_ColAliasEncoding";
+  static final String COL_ALIAS_CONVERSION_IN_PROGRESS_KEY = "_ColAliasConversionInProgress";
+  static final String COL_AUDITING_POLICY_KEY = "_ColAuditingPolicy";
+  static final String COL_AUDITOR_RETENTION_PERIOD_KEY = "_ColAuditorRetentionPeriod";
+  private ColumnAuditingPolicy columnAuditingPolicy; // parsed lazily from configuration
   /**
    *
    * @param colFamily Column Family name.
@@ -96,7 +101,12 @@ class MColumnDescriptor extends HColumnDescriptor {
     this.setForeignKey(entity.getForeignKey());
     for (Map.Entry<ImmutableBytesWritable, ImmutableBytesWritable> valueEntry
             : entity.getValues().entrySet()) {
-      this.setValue(valueEntry.getKey().get(), valueEntry.getValue().get());
+      byte[] key = valueEntry.getKey().get();
+      if (Bytes.startsWith(key, Repository.COUNTER_COLUMN_PREFIX_BYTES)
+              || Bytes.startsWith(key, Repository.TIMESTAMP_KEY_PREFIX_BYTES)) {
+        continue; // usage counters are Repository metadata, not Column Family attributes
+      }
+      this.setValue(key, valueEntry.getValue().get());
     }
     for (Map.Entry<String, String> configEntry : entity.getConfiguration().entrySet()) {
       this.setConfiguration(configEntry.getKey(), configEntry.getValue());
@@ -209,6 +219,78 @@ class MColumnDescriptor extends HColumnDescriptor {
     return enabledString == null ? false : Boolean.valueOf(enabledString);
   }
 
+  void setColumnAliasConversionInProgress(boolean inProgress) {
+    if (inProgress) {
+      this.setConfiguration(COL_ALIAS_CONVERSION_IN_PROGRESS_KEY, String.valueOf(true));
+    } else {
+      this.removeConfiguration(COL_ALIAS_CONVERSION_IN_PROGRESS_KEY);
+    }
+  }
+
+  /**
+   * While a Column Family is being converted to (or from) aliased storage, its cells may be in
+   * either form: new cells are written in the form designated by {@link #columnAliasesEnabled()},
+   * but reads must accommodate both.
+   */
+  boolean columnAliasConversionInProgress() {
+    String inProgressString = this.getConfigurationValue(COL_ALIAS_CONVERSION_IN_PROGRESS_KEY);
+    return inProgressString == null ? false : Boolean.valueOf(inProgressString);
+  }
+
+  /**
+   * Returns true if reads from the Column Family require alias processing.
+   */
+  boolean columnAliasReadProcessingRequired() {
+    return columnAliasesEnabled() || columnAliasConversionInProgress();
+  }
+
+  void setColumnAliasEncoding(ColumnAliasEncoding columnAliasEncoding) {
+    this.setConfiguration(COL_ALIAS_ENCODING_KEY, columnAliasEncoding.name());
+  }
+
+  ColumnAliasEncoding getColumnAliasEncoding() {
+    String encodingString = this.getConfigurationValue(COL_ALIAS_ENCODING_KEY);
+    return encodingString == null ?
+            ColumnAliasEncoding.FOUR_BYTE_INT : ColumnAliasEncoding.valueOf(encodingString);
+  }
+
+  void setColumnAuditingPolicy(ColumnAuditingPolicy policy) {
+    if (policy.getMode() == ColumnAuditingPolicy.Mode.ALL) {
+      this.removeConfiguration(COL_AUDITING_POLICY_KEY);
+    } else {
+      this.setConfiguration(COL_AUDITING_POLICY_KEY, policy.toConfigurationValue());
+    }
+    columnAuditingPolicy = policy;
+  }
+
+  /**
+   * Consulted upon every audited mutation, so the persisted policy is parsed only once.
+   */
+  ColumnAuditingPolicy getColumnAuditingPolicy() {
+    if (columnAuditingPolicy == null) {
+      columnAuditingPolicy = ColumnAuditingPolicy.fromConfigurationValue(
+              this.getConfigurationValue(COL_AUDITING_POLICY_KEY));
+    }
+    return columnAuditingPolicy;
+  }
+
+  void setColumnAuditorRetentionPeriod(long retentionPeriod) {
+    if (retentionPeriod <= 0) {
+      this.removeConfiguration(COL_AUDITOR_RETENTION_PERIOD_KEY);
+    } else {
+      this.setConfiguration(COL_AUDITOR_RETENTION_PERIOD_KEY, String.valueOf(retentionPeriod));
+    }
+  }
+
+  /**
+   * Returns the period (in milliseconds) for which a ColumnAuditor of this Column Family is
+   * retained after its column was last seen, or 0 if ColumnAuditors are retained indefinitely.
+   */
+  long getColumnAuditorRetentionPeriod() {
+    String retentionPeriodString = this.getConfigurationValue(COL_AUDITOR_RETENTION_PERIOD_KEY);
+    return retentionPeriodString == null ? 0 : Long.valueOf(retentionPeriodString);
+  }
+
   @Override
   public int compareTo(HColumnDescriptor other) {
     if (MColumnDescriptor.class.isAssignableFrom(other.getClass())) {
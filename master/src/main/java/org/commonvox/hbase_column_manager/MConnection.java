@@ -94,7 +94,11 @@ class MConnection implements Connection, Closeable, AutoCloseable {
 
   @Override
   public void close() throws IOException {
-    STANDARD_HBASE_CONNECTION.close();
+    try {
+      REPOSITORY.close();
+    } finally {
+      STANDARD_HBASE_CONNECTION.close();
+    }
   }
 
   @Override
@@ -21,13 +21,15 @@ import com.google.protobuf.Message;
 import com.google.protobuf.Service;
 import com.google.protobuf.ServiceException;
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.TableName;
@@ -61,19 +63,28 @@ class MTable implements Table {
   private final Repository repository;
   private final MTableDescriptor mTableDescriptor;
   private final boolean includedInRepositoryProcessing;
+  private final OperationTracer tracer;
+  private final ColumnReadUsageTracker readUsageTracker; // null if reads are not tracked
 
   MTable(Table userTable, Repository repository)
           throws IOException {
     wrappedTable = userTable;
 
     this.repository = repository;
+    tracer = repository.getOperationTracer();
+    TraceSpan span = tracer.start(wrappedTable.getName(), "getTable");
     if (repository.isActivated()) {
       mTableDescriptor = repository.getMTableDescriptor(wrappedTable.getName());
+      span.lap(OperationTrace.Phase.DESCRIPTOR_LOOKUP);
       includedInRepositoryProcessing = repository.isIncludedTable(wrappedTable.getName());
+      span.lap(OperationTrace.Phase.INCLUSION_CHECK);
     } else {
       mTableDescriptor = null;
       includedInRepositoryProcessing = false;
     }
+    readUsageTracker
+            = includedInRepositoryProcessing ? repository.getColumnReadUsageTracker() : null;
+    span.finish();
   }
 
   @Override
@@ -93,19 +104,34 @@ class MTable implements Table {
 
   @Override
   public boolean exists(Get get) throws IOException {
+    boolean exists;
     // Alias processing
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
-      return wrappedTable.exists(repository.convertQualifiersToAliases(
+      exists = wrappedTable.exists(repository.convertQualifiersToAliases(
               mTableDescriptor, get,
               repository.getFamilyQualifierToAliasMap(mTableDescriptor, get)));
     } else {
-      return wrappedTable.exists(get);
+      exists = wrappedTable.exists(get);
     }
+    if (readUsageTracker != null) {
+      readUsageTracker.recordExistenceCheck(mTableDescriptor, get);
+    }
+    return exists;
   }
 
   @Override
   public boolean[] existsAll(List<Get> listOfGets) throws IOException {
+    boolean[] existsArray = existsAllInWrappedTable(listOfGets);
+    if (readUsageTracker != null) {
+      for (Get get : listOfGets) {
+        readUsageTracker.recordExistenceCheck(mTableDescriptor, get);
+      }
+    }
+    return existsArray;
+  }
+
+  private boolean[] existsAllInWrappedTable(List<Get> listOfGets) throws IOException {
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       // convert Gets before invoking "native" method
@@ -127,7 +153,12 @@ class MTable implements Table {
   @Override
   public void batch(List<? extends Row> rowList, Object[] os)
           throws IOException, InterruptedException {
-    batchProcessing(rowList, os, null, false);
+    TraceSpan span = tracer.start(getName(), "batch");
+    try {
+      batchProcessing(rowList, os, null, false, true, span);
+    } finally {
+      span.finish();
+    }
   }
 
   @Override
@@ -141,7 +172,12 @@ class MTable implements Table {
   @Override
   public <R> void batchCallback(List<? extends Row> list, Object[] os, Callback<R> clbck)
           throws IOException, InterruptedException {
-    batchProcessing(list, os, clbck, true);
+    TraceSpan span = tracer.start(getName(), "batchCallback");
+    try {
+      batchProcessing(list, os, clbck, true, true, span);
+    } finally {
+      span.finish();
+    }
   }
 
   @Override
@@ -153,24 +189,56 @@ class MTable implements Table {
     return results;
   }
 
-  private <R> void batchProcessing(List<? extends Row> actions, Object[] results,
-          Callback<R> callback, boolean includeCallback)
+  /**
+   * Validates all submitted Mutations up front, then submits only the valid Mutations to HBase in
+   * a single batch.
+   */
+  ValidatedBatchResult batchValidMutations(List<? extends Mutation> mutations)
           throws IOException, InterruptedException {
-    // ColumnManager validation
+    SortedMap<Integer, ColumnManagerIOException> invalidMutations;
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColDefinitionsEnforced()) {
-      for (Row action : actions) {
-        if (Mutation.class.isAssignableFrom(action.getClass())) {
-          repository.validateColumns(mTableDescriptor, (Mutation) action);
-        }
+      invalidMutations = repository.getColumnValidationViolations(mTableDescriptor, mutations);
+    } else {
+      invalidMutations = new TreeMap<>();
+    }
+    List<Mutation> validMutations = new ArrayList<>(mutations.size() - invalidMutations.size());
+    for (int index = 0; index < mutations.size(); index++) {
+      if (!invalidMutations.containsKey(index)) {
+        validMutations.add(mutations.get(index));
       }
     }
+    Object[] validResults = new Object[validMutations.size()];
+    if (!validMutations.isEmpty()) {
+      batchProcessing(validMutations, validResults, null, false, false, TraceSpan.NOT_SAMPLED);
+    }
+    Object[] results = new Object[mutations.size()];
+    int validIndex = 0;
+    for (int index = 0; index < mutations.size(); index++) {
+      if (!invalidMutations.containsKey(index)) {
+        results[index] = validResults[validIndex++];
+      }
+    }
+    return new ValidatedBatchResult(invalidMutations, results);
+  }
+
+  private <R> void batchProcessing(List<? extends Row> actions, Object[] results,
+          Callback<R> callback, boolean includeCallback, boolean validationRequired,
+          TraceSpan span)
+          throws IOException, InterruptedException {
+    // ColumnManager validation
+    if (validationRequired && includedInRepositoryProcessing
+            && mTableDescriptor.hasColDescriptorWithColDefinitionsEnforced()) {
+      repository.validateColumns(mTableDescriptor, actions);
+      span.lap(OperationTrace.Phase.VALIDATION);
+    }
     // Alias processing
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       // NOTE: alias-conversion for Mutations must be done before alias-conversion for Gets
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
               = repository.getFamilyQualifierToAliasMap(mTableDescriptor, actions, 0);
+      span.lap(OperationTrace.Phase.ALIAS_MAP_FETCH);
       List<Row> convertedRows = new LinkedList<>();
       for (Row row : actions) {
         if (Mutation.class.isAssignableFrom(row.getClass())) {
@@ -187,22 +255,25 @@ class MTable implements Table {
         }
         listIndex++;
       }
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
       // invoke "native" method
       if (includeCallback) {
         wrappedTable.batchCallback(convertedRows, results, callback);
       } else {
         wrappedTable.batch(convertedRows, results);
       }
+      span.lap(OperationTrace.Phase.HBASE_CALL);
       // convert Result objects
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
-              = repository.getFamilyAliasToQualifierMap(familyQualifierToAliasMap);
+              = repository.getFamilyAliasToQualifierMap(
+                      mTableDescriptor, familyQualifierToAliasMap);
       Object[] convertedResults = new Object[results.length];
       int objectIndex = 0;
       for (Object returnedObject : results) {
         if (Result.class.isAssignableFrom(returnedObject.getClass())) {
           convertedResults[objectIndex]
-                  = repository.convertAliasesToQualifiers(
-                          (Result)returnedObject, familyAliasToQualifierMap);
+                  = Repository.convertAliasesToQualifiers(
+                          (Result)returnedObject, familyAliasToQualifierMap, mTableDescriptor);
         } else {
           convertedResults[objectIndex] = results[objectIndex];
         }
@@ -212,12 +283,14 @@ class MTable implements Table {
       for (Object convertedResult : convertedResults) {
         results[objectIndex++] = convertedResult;
       }
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
     } else { // NO alias processing
       if (includeCallback) {
         wrappedTable.batchCallback(actions, results, callback);
       } else {
         wrappedTable.batch(actions, results);
       }
+      span.lap(OperationTrace.Phase.HBASE_CALL);
     }
     // ColumnManager auditing
     if (includedInRepositoryProcessing) {
@@ -231,26 +304,60 @@ class MTable implements Table {
         }
         rowCount++;
       }
+      span.lap(OperationTrace.Phase.AUDITING);
     }
   }
 
   @Override
   public Result get(Get get) throws IOException {
+    TraceSpan span = tracer.start(getName(), "get");
+    try {
+      Result result = get(get, span);
+      if (readUsageTracker != null) {
+        readUsageTracker.recordGet(mTableDescriptor, get, result);
+      }
+      return result;
+    } finally {
+      span.finish();
+    }
+  }
+
+  private Result get(Get get, TraceSpan span) throws IOException {
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
               = repository.getFamilyQualifierToAliasMap(mTableDescriptor, get);
-      Result result = wrappedTable.get(repository.convertQualifiersToAliases(
-              mTableDescriptor, get, familyQualifierToAliasMap));
-      return repository.convertAliasesToQualifiers(result,
-              repository.getFamilyAliasToQualifierMap(familyQualifierToAliasMap));
+      span.lap(OperationTrace.Phase.ALIAS_MAP_FETCH);
+      Get convertedGet = repository.convertQualifiersToAliases(
+              mTableDescriptor, get, familyQualifierToAliasMap);
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
+      Result result = wrappedTable.get(convertedGet);
+      span.lap(OperationTrace.Phase.HBASE_CALL);
+      Result convertedResult = Repository.convertAliasesToQualifiers(result,
+              repository.getFamilyAliasToQualifierMap(
+                      mTableDescriptor, familyQualifierToAliasMap), mTableDescriptor);
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
+      return convertedResult;
     } else {
-      return wrappedTable.get(get);
+      Result result = wrappedTable.get(get);
+      span.lap(OperationTrace.Phase.HBASE_CALL);
+      return result;
     }
   }
 
   @Override
   public Result[] get(List<Get> listOfGets) throws IOException {
+    Result[] results = getFromWrappedTable(listOfGets);
+    if (readUsageTracker != null) {
+      for (int resultIndex = 0; resultIndex < results.length; resultIndex++) {
+        readUsageTracker.recordGet(
+                mTableDescriptor, listOfGets.get(resultIndex), results[resultIndex]);
+      }
+    }
+    return results;
+  }
+
+  private Result[] getFromWrappedTable(List<Get> listOfGets) throws IOException {
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       // convert Gets before invoking "native" method
@@ -268,13 +375,13 @@ class MTable implements Table {
 
         // do alias-to-qualifier conversion of Results before returning them
         NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
-                = repository.getFamilyAliasToQualifierMap(familyQualifierToAliasMap);
-        List<Result> convertedResults = new LinkedList<>();
-        for (Result originalResult : originalResults) {
-          convertedResults.add(
-                  repository.convertAliasesToQualifiers(originalResult, familyAliasToQualifierMap));
+                = repository.getFamilyAliasToQualifierMap(
+                      mTableDescriptor, familyQualifierToAliasMap);
+        for (int resultIndex = 0; resultIndex < originalResults.length; resultIndex++) {
+          originalResults[resultIndex] = Repository.convertAliasesToQualifiers(
+                  originalResults[resultIndex], familyAliasToQualifierMap, mTableDescriptor);
         }
-        return convertedResults.toArray(new Result[convertedResults.size()]);
+        return originalResults;
       }
     }
     return wrappedTable.get(listOfGets);
@@ -282,16 +389,32 @@ class MTable implements Table {
 
   @Override
   public ResultScanner getScanner(Scan scan) throws IOException {
+    ResultScanner resultScanner = getScannerFromWrappedTable(scan);
+    return (readUsageTracker == null)
+            ? resultScanner : readUsageTracker.recordScan(mTableDescriptor, scan, resultScanner);
+  }
+
+  private ResultScanner getScannerFromWrappedTable(Scan scan) throws IOException {
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
               = repository.getFamilyQualifierToAliasMap(mTableDescriptor, scan);
       if (!familyQualifierToAliasMap.isEmpty()) {
-        return new ResultScannerForAliasedFamilies(
+        // aliases are decoded (and cells reordered by qualifier) one Result at a time, so a row
+        //  returned in pieces would not be in qualifier order across its pieces
+        if (scan.getBatch() > 0 || scan.getAllowPartialResults()) {
+          throw new ColumnManagerIOException("Scan of Table <"
+                  + mTableDescriptor.getNameAsString() + "> may not designate a batch size or "
+                  + "allow partial Results, since the Table has alias-enabled Column "
+                  + "Families.") {};
+        }
+        return new AliasDecodingResultScanner(
                 wrappedTable.getScanner(
                         repository.convertQualifiersToAliases(
                                 mTableDescriptor, scan, familyQualifierToAliasMap)),
-                repository.getFamilyAliasToQualifierMap(familyQualifierToAliasMap));
+                repository.getFamilyAliasToQualifierMap(
+                        mTableDescriptor, familyQualifierToAliasMap),
+                mTableDescriptor, scan.getCaching(), repository.getScannerPrefetchExecutor());
       }
     }
     return wrappedTable.getScanner(scan);
@@ -299,11 +422,10 @@ class MTable implements Table {
 
   @Override
   public ResultScanner getScanner(byte[] colFamily) throws IOException {
-    if (includedInRepositoryProcessing
-            && mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
-      return new ResultScannerForAliasedFamilies(
-              wrappedTable.getScanner(colFamily),
-              repository.getFamilyAliasToQualifierMap(mTableDescriptor, colFamily));
+    if (includedInRepositoryProcessing && (readUsageTracker != null
+            || mTableDescriptor.getMColumnDescriptor(colFamily)
+                    .columnAliasReadProcessingRequired())) {
+      return getScanner(new Scan().addFamily(colFamily));
     } else {
       return wrappedTable.getScanner(colFamily);
     }
@@ -311,13 +433,10 @@ class MTable implements Table {
 
   @Override
   public ResultScanner getScanner(byte[] colFamily, byte[] colQualifier) throws IOException {
-    if (includedInRepositoryProcessing
-            && mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
-      return new ResultScannerForAliasedFamilies(
-              wrappedTable.getScanner(colFamily,
-                      repository.getAlias(mTableDescriptor, colFamily, colQualifier)),
-              repository.getFamilyAliasToQualifierMap(
-                      mTableDescriptor, colFamily, colQualifier));
+    if (includedInRepositoryProcessing && (readUsageTracker != null
+            || mTableDescriptor.getMColumnDescriptor(colFamily)
+                    .columnAliasReadProcessingRequired())) {
+      return getScanner(new Scan().addColumn(colFamily, colQualifier));
     } else {
       return wrappedTable.getScanner(colFamily, colQualifier);
     }
@@ -325,21 +444,36 @@ class MTable implements Table {
 
   @Override
   public void put(Put put) throws IOException {
+    TraceSpan span = tracer.start(getName(), "put");
+    try {
+      put(put, span);
+    } finally {
+      span.finish();
+    }
+  }
+
+  private void put(Put put, TraceSpan span) throws IOException {
     // ColumnManager validation
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColDefinitionsEnforced()) {
       repository.validateColumns(mTableDescriptor, put);
+      span.lap(OperationTrace.Phase.VALIDATION);
     }
     // Standard HBase processing (with aliasing, if necessary)
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
-      wrappedTable.put(repository.convertQualifiersToAliases(mTableDescriptor, put));
+      // alias map is fetched within conversion of Puts
+      Put convertedPut = repository.convertQualifiersToAliases(mTableDescriptor, put);
+      span.lap(OperationTrace.Phase.ALIAS_CONVERSION);
+      wrappedTable.put(convertedPut);
     } else {
       wrappedTable.put(put);
     }
+    span.lap(OperationTrace.Phase.HBASE_CALL);
 
     if (includedInRepositoryProcessing) {
       repository.putColumnAuditorSchemaEntities(mTableDescriptor, put); // ColumnManager auditing
+      span.lap(OperationTrace.Phase.AUDITING);
     }
   }
 
@@ -499,8 +633,9 @@ class MTable implements Table {
     // Return processing (with aliasing, if necessary)
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
-      return repository.convertAliasesToQualifiers(result,
-              repository.getFamilyAliasToQualifierMap(familyQualifierToAliasMap));
+      return Repository.convertAliasesToQualifiers(result,
+              repository.getFamilyAliasToQualifierMap(
+                      mTableDescriptor, familyQualifierToAliasMap), mTableDescriptor);
     } else {
       return result;
     }
@@ -533,8 +668,9 @@ class MTable implements Table {
     // Return processing (with aliasing, if necessary)
     if (includedInRepositoryProcessing
             && mTableDescriptor.hasColDescriptorWithColAliasesEnabled()) {
-      return repository.convertAliasesToQualifiers(result,
-              repository.getFamilyAliasToQualifierMap(familyQualifierToAliasMap));
+      return Repository.convertAliasesToQualifiers(result,
+              repository.getFamilyAliasToQualifierMap(
+                      mTableDescriptor, familyQualifierToAliasMap), mTableDescriptor);
     } else {
       return result;
     }
@@ -697,66 +833,4 @@ class MTable implements Table {
 //    return wrappedTable.getRpcTimeout();
 //  }
   // end of overrides of methods introduced in HBase 1.2.2 & removed in 1.2.3
-
-  /**
-   * ResultScannerForAliasedFamilies wraps the ResultScanner returned by Table#getScanner
-   * and converts each of its component Result objects by replacing any column-aliases with
-   * user-column-qualifiers.
-   */
-  class ResultScannerForAliasedFamilies implements ResultScanner {
-
-    private final ResultScanner wrappedResultScanner;
-    private final NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap;
-
-    ResultScannerForAliasedFamilies(ResultScanner resultScanner,
-            NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap) {
-      wrappedResultScanner = resultScanner;
-      this.familyAliasToQualifierMap = familyAliasToQualifierMap;
-    }
-
-    @Override
-    public Result next() throws IOException {
-      return repository.convertAliasesToQualifiers(
-              wrappedResultScanner.next(), familyAliasToQualifierMap);
-    }
-
-    @Override
-    public Result[] next(int i) throws IOException {
-      List<Result> convertedResultList = new LinkedList<>();
-      for (Result originalResult : wrappedResultScanner.next(i)) {
-        convertedResultList.add(repository.convertAliasesToQualifiers(
-                originalResult, familyAliasToQualifierMap));
-      }
-      return convertedResultList.toArray(new Result[convertedResultList.size()]);
-    }
-
-    @Override
-    public void close() {
-      wrappedResultScanner.close();
-    }
-
-    @Override
-    public Iterator<Result> iterator() {
-      return new MResultIterator(wrappedResultScanner.iterator());
-    }
-
-    class MResultIterator implements Iterator<Result> {
-      private final Iterator<Result> wrappedIterator;
-
-      MResultIterator(Iterator<Result> wrappedIterator) {
-        this.wrappedIterator = wrappedIterator;
-      }
-
-      @Override
-      public boolean hasNext() {
-        return wrappedIterator.hasNext();
-      }
-
-      @Override
-      public Result next() {
-        return repository.convertAliasesToQualifiers(
-                wrappedIterator.next(), familyAliasToQualifierMap);
-      }
-    }
-  }
 }
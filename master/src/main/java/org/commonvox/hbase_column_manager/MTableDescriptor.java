@@ -171,9 +171,13 @@ class MTableDescriptor extends HTableDescriptor {
     return false;
   }
 
+  /**
+   * Returns true if any Column Family has column aliases enabled, or is being converted to or from
+   * aliased storage.
+   */
   boolean hasColDescriptorWithColAliasesEnabled() {
     for (MColumnDescriptor mcd : getMColumnDescriptors()) {
-      if (mcd.columnAliasesEnabled()) {
+      if (mcd.columnAliasReadProcessingRequired()) {
         return true;
       }
     }
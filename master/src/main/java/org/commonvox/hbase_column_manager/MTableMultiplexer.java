@@ -18,6 +18,8 @@ package org.commonvox.hbase_column_manager;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.HTableMultiplexer;
@@ -26,12 +28,33 @@ import org.apache.hadoop.hbase.client.Put;
 /**
  * Extension of standard HTableMultiplexer class which (in addition to providing all superclass
  * functionality) transparently performs ColumnManager repository processing, when appropriate.
+ * Descriptors are cached so that neither enforcement nor auditing requires a Repository read per
+ * put; a cached descriptor is reloaded once it is older than
+ * {@code [column_manager.multiplexer.descriptorCacheTtlMs]} (default one minute), so that schema
+ * changes (e.g., newly added ColumnDefinitions) take effect in a long-lived multiplexer.
  *
  * @author Daniel Vimont
  */
 class MTableMultiplexer extends HTableMultiplexer {
 
+  static final String DESCRIPTOR_CACHE_TTL_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "multiplexer.descriptorCacheTtlMs";
+  static final long DEFAULT_DESCRIPTOR_CACHE_TTL = 60000; // milliseconds
+
   private final Repository repository;
+  private final long descriptorCacheTtl;
+  private final ConcurrentMap<TableName, CachedDescriptor> mTableDescriptorCache
+          = new ConcurrentHashMap<>();
+
+  private static class CachedDescriptor {
+    private final MTableDescriptor mtd;
+    private final long loadTime;
+
+    CachedDescriptor(MTableDescriptor mtd, long loadTime) {
+      this.mtd = mtd;
+      this.loadTime = loadTime;
+    }
+  }
 
   /**
    *
@@ -44,6 +67,7 @@ class MTableMultiplexer extends HTableMultiplexer {
           throws IOException {
     super(conf, perRegionServerBufferQueueSize);
     this.repository = repository;
+    descriptorCacheTtl = conf.getLong(DESCRIPTOR_CACHE_TTL_KEY, DEFAULT_DESCRIPTOR_CACHE_TTL);
   }
 
   /**
@@ -139,7 +163,7 @@ class MTableMultiplexer extends HTableMultiplexer {
             && repository.isIncludedTable(tableName)) {
       includedInRepositoryProcessing = true;
       try {
-        mtd = repository.getMTableDescriptor(tableName);
+        mtd = getMTableDescriptor(tableName);
       // must catch IOException (HTableMultiplexer#put does NOT throw such an exception)
       } catch (IOException e) {
         repository.logIOExceptionAsError(e, this.getClass().getSimpleName());
@@ -150,7 +174,7 @@ class MTableMultiplexer extends HTableMultiplexer {
     if (includedInRepositoryProcessing
             && mtd.hasColDescriptorWithColDefinitionsEnforced()) {
       try {
-        repository.validateColumns(tableName, put);
+        repository.validateColumns(mtd, put);
       // must catch IOException (HTableMultiplexer#put does NOT throw such an exception)
       } catch (IOException e) {
         repository.logIOExceptionAsError(e, this.getClass().getSimpleName());
@@ -184,7 +208,7 @@ class MTableMultiplexer extends HTableMultiplexer {
     // ColumnManager auditing
     if (includedInRepositoryProcessing && putRequestQueued) {
       try {
-        repository.putColumnAuditorSchemaEntities(tableName, put);
+        repository.putColumnAuditorSchemaEntities(mtd, put);
         // must catch IOException to enable override of HTableMultiplexer#put (which does NOT throw such an exception)
       } catch (IOException e) {
         repository.logIOExceptionAsError(e, this.getClass().getSimpleName());
@@ -193,4 +217,16 @@ class MTableMultiplexer extends HTableMultiplexer {
     }
     return putRequestQueued;
   }
+
+  private MTableDescriptor getMTableDescriptor(TableName tableName) throws IOException {
+    long currentTime = System.currentTimeMillis();
+    CachedDescriptor cachedDescriptor = mTableDescriptorCache.get(tableName);
+    if (cachedDescriptor == null || currentTime - cachedDescriptor.loadTime >= descriptorCacheTtl) {
+      // concurrent reloads are harmless: the last one loaded is retained
+      cachedDescriptor
+              = new CachedDescriptor(repository.getMTableDescriptor(tableName), currentTime);
+      mTableDescriptorCache.put(tableName, cachedDescriptor);
+    }
+    return cachedDescriptor.mtd;
+  }
 }
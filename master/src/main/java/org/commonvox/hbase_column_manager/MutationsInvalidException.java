@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+/**
+ * Thrown when a batch of {@link org.apache.hadoop.hbase.client.Mutation}s is submitted to a
+ * <i>Table</i> with one or more <i>Column Families</i> having their
+ * {@link RepositoryAdmin#enableColumnDefinitionEnforcement(boolean, org.apache.hadoop.hbase.TableName, byte[])
+ * ColumnDefinitionsEnforced} setting enabled, the
+ * <a href="package-summary.html#column-definition">
+ * {@code column_manager.validation.collectAllViolations}</a> configuration property is set to
+ * {@code true}, and one or more of the submitted {@code Mutation}s does NOT pass validation. The
+ * {@link ColumnDefinitionNotFoundException} or {@link ColumnValueInvalidException} of each invalid
+ * {@code Mutation} is available (keyed by the {@code Mutation}'s index in the submitted batch) via
+ * {@link #getInvalidMutations()}, so that the invalid {@code Mutation}s may be dropped and the
+ * remainder resubmitted.
+ *
+ * @author Daniel Vimont
+ */
+public class MutationsInvalidException extends ColumnManagerIOException {
+
+  private final SortedMap<Integer, ColumnManagerIOException> invalidMutations;
+
+  /**
+   * Constructs an instance of {@code MutationsInvalidException}.
+   *
+   * @param invalidMutations validation exceptions keyed by index of {@code Mutation} in the
+   * submitted batch
+   * @param batchSize count of {@code Mutation}s in the submitted batch
+   */
+  MutationsInvalidException(
+          SortedMap<Integer, ColumnManagerIOException> invalidMutations, int batchSize) {
+    super(buildMessage(invalidMutations, batchSize));
+    this.invalidMutations = Collections.unmodifiableSortedMap(invalidMutations);
+  }
+
+  private static String buildMessage(
+          SortedMap<Integer, ColumnManagerIOException> invalidMutations, int batchSize) {
+    Entry<Integer, ColumnManagerIOException> firstEntry
+            = invalidMutations.entrySet().iterator().next();
+    return invalidMutations.size() + " of " + batchSize
+            + " submitted Mutations failed ColumnDefinition validation. First invalid Mutation is"
+            + " at index <" + firstEntry.getKey() + ">: " + firstEntry.getValue().getMessage();
+  }
+
+  /**
+   * Returns the validation exception of each invalid {@code Mutation}, keyed by the index of the
+   * {@code Mutation} in the submitted batch.
+   *
+   * @return validation exceptions keyed by index of {@code Mutation} in the submitted batch
+   */
+  public SortedMap<Integer, ColumnManagerIOException> getInvalidMutations() {
+    return invalidMutations;
+  }
+}
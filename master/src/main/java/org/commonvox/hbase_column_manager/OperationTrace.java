@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.apache.hadoop.hbase.TableName;
+
+/**
+ * The breakdown, by phase of ColumnManager processing, of a single sampled {@code Table} or
+ * {@code BufferedMutator} operation whose latency exceeded the configured slow-operation
+ * threshold. Traces are captured only if the {@code [column_manager.tracing.sampleRate]}
+ * configuration property is set above zero, and are obtained via
+ * {@link RepositoryAdmin#getSlowOperationTraces()}.
+ *
+ * @author Daniel Vimont
+ */
+public class OperationTrace {
+
+  /**
+   * Phases of ColumnManager processing of an operation. Phases not entailed in an operation are
+   * reported as taking zero microseconds.
+   */
+  public enum Phase {
+    /** Determination of whether the <i>Table</i> is included in ColumnManager processing. */
+    INCLUSION_CHECK,
+    /** Retrieval of the <i>Table</i>'s descriptor from the Repository. */
+    DESCRIPTOR_LOOKUP,
+    /** Validation of submitted values against {@link ColumnDefinition}s. */
+    VALIDATION,
+    /** Retrieval of column-aliases from the alias table. */
+    ALIAS_MAP_FETCH,
+    /** Conversion of qualifiers to column-aliases (and of returned column-aliases back). */
+    ALIAS_CONVERSION,
+    /** The underlying ("native") HBase invocation. */
+    HBASE_CALL,
+    /** Persistence of {@link ColumnAuditor} metadata in the Repository. */
+    AUDITING
+  }
+
+  private final TableName tableName;
+  private final String operation;
+  private final long startTimestamp;
+  private final long totalMicros;
+  private final long[] phaseMicros;
+
+  OperationTrace(TableName tableName, String operation, long startTimestamp, long totalMicros,
+          long[] phaseMicros) {
+    this.tableName = tableName;
+    this.operation = operation;
+    this.startTimestamp = startTimestamp;
+    this.totalMicros = totalMicros;
+    this.phaseMicros = phaseMicros;
+  }
+
+  /**
+   * Get the name of the <i>Table</i> upon which the operation was invoked.
+   *
+   * @return name of <i>Table</i>
+   */
+  public TableName getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Get the name of the operation (e.g., "put", "batch", "get", "mutate").
+   *
+   * @return name of operation
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Get the time at which the operation was invoked.
+   *
+   * @return start timestamp (milliseconds since the epoch)
+   */
+  public long getStartTimestamp() {
+    return startTimestamp;
+  }
+
+  /**
+   * Get the total latency of the operation.
+   *
+   * @return total microseconds
+   */
+  public long getTotalMicros() {
+    return totalMicros;
+  }
+
+  /**
+   * Get the time spent in the submitted phase of the operation.
+   *
+   * @param phase phase of ColumnManager processing
+   * @return microseconds spent in phase
+   */
+  public long getPhaseMicros(Phase phase) {
+    return phaseMicros[phase.ordinal()];
+  }
+
+  @Override
+  public String toString() {
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    StringBuilder stringBuilder = new StringBuilder()
+            .append(dateFormat.format(new Date(startTimestamp)))
+            .append(' ').append(tableName.getNameAsString()).append(' ').append(operation)
+            .append(" total=").append(totalMicros).append("us");
+    for (Phase phase : Phase.values()) {
+      if (phaseMicros[phase.ordinal()] > 0) {
+        stringBuilder.append(' ').append(phase).append('=')
+                .append(phaseMicros[phase.ordinal()]).append("us");
+      }
+    }
+    return stringBuilder.toString();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+
+/**
+ * Opt-in, sampling tracer of {@link MTable} and {@link MBufferedMutator} operations. A
+ * {@code [column_manager.tracing.sampleRate]} proportion of operations (default 0, i.e.,
+ * tracing disabled) is timed phase by phase; the {@link OperationTrace}s of those taking at
+ * least {@code [column_manager.tracing.slowOperationThresholdMs]} (default 100) are retained in
+ * a ring buffer of the {@code [column_manager.tracing.bufferSize]} (default 256) most recent
+ * slow operations.
+ *
+ * @author Daniel Vimont
+ */
+class OperationTracer {
+
+  static final String SAMPLE_RATE_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "tracing.sampleRate";
+  static final String SLOW_OPERATION_THRESHOLD_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "tracing.slowOperationThresholdMs";
+  static final String BUFFER_SIZE_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "tracing.bufferSize";
+  static final long DEFAULT_SLOW_OPERATION_THRESHOLD_MS = 100;
+  static final int DEFAULT_BUFFER_SIZE = 256;
+
+  private final double sampleRate;
+  private final long slowOperationThresholdNanos;
+  private final AtomicReferenceArray<OperationTrace> ringBuffer;
+  private final AtomicLong retainedCount = new AtomicLong();
+
+  OperationTracer(Configuration conf) {
+    sampleRate = Math.min(1, conf.getDouble(SAMPLE_RATE_KEY, 0));
+    slowOperationThresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+            conf.getLong(SLOW_OPERATION_THRESHOLD_KEY, DEFAULT_SLOW_OPERATION_THRESHOLD_MS));
+    ringBuffer = new AtomicReferenceArray<>(
+            Math.max(1, conf.getInt(BUFFER_SIZE_KEY, DEFAULT_BUFFER_SIZE)));
+  }
+
+  /**
+   * Starts tracing of an operation, if it is selected for sampling.
+   *
+   * @return span of sampled operation, or {@link TraceSpan#NOT_SAMPLED}
+   */
+  TraceSpan start(TableName tableName, String operation) {
+    if (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      return TraceSpan.NOT_SAMPLED;
+    }
+    return new TraceSpan(this, tableName, operation);
+  }
+
+  boolean isSlow(long totalNanos) {
+    return totalNanos >= slowOperationThresholdNanos;
+  }
+
+  void retain(OperationTrace trace) {
+    int slot = (int) (retainedCount.getAndIncrement() % ringBuffer.length());
+    ringBuffer.set(slot, trace);
+  }
+
+  /**
+   * Returns the retained traces of slow operations, in order of start time.
+   */
+  List<OperationTrace> getSlowOperationTraces() {
+    List<OperationTrace> traces = new ArrayList<>(ringBuffer.length());
+    for (int slot = 0; slot < ringBuffer.length(); slot++) {
+      OperationTrace trace = ringBuffer.get(slot);
+      if (trace != null) {
+        traces.add(trace);
+      }
+    }
+    Collections.sort(traces, new Comparator<OperationTrace>() {
+      @Override
+      public int compare(OperationTrace trace1, OperationTrace trace2) {
+        return Long.compare(trace1.getStartTimestamp(), trace2.getStartTimestamp());
+      }
+    });
+    return traces;
+  }
+
+  /**
+   * Returns the count of slow operations retained since creation (including those since
+   * overwritten in the ring buffer).
+   */
+  long getSlowOperationCount() {
+    return retainedCount.get();
+  }
+}
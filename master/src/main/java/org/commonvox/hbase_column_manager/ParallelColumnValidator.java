@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Row;
+
+/**
+ * Validates the {@link Mutation}s of a batch against their {@link ColumnDefinition}s, splitting
+ * batches at or above a configurable size threshold into contiguous slices which are validated in
+ * parallel on a shared pool of daemon threads (created upon first use). Validation outcomes are
+ * reported per index of the submitted batch: either every violation is collected, or (fail-fast)
+ * each slice stops once a violation has been detected at a lower index, so that the
+ * lowest-indexed violation of the batch is always among those reported.
+ *
+ * @author Daniel Vimont
+ */
+class ParallelColumnValidator {
+
+  static final String PARALLEL_THRESHOLD_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "validation.parallelThreshold";
+  static final String THREAD_COUNT_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "validation.threadCount";
+  static final String COLLECT_ALL_VIOLATIONS_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "validation.collectAllViolations";
+  static final int DEFAULT_PARALLEL_THRESHOLD = 1000;
+  private static final int SLICES_PER_THREAD = 4;
+
+  private final Repository repository;
+  private final int parallelThreshold;
+  private final int threadCount;
+  private final boolean collectAllViolations;
+  private volatile ExecutorService executor = null;
+  private boolean closed = false;
+
+  ParallelColumnValidator(Repository repository, Configuration conf) {
+    this.repository = repository;
+    parallelThreshold = conf.getInt(PARALLEL_THRESHOLD_KEY, DEFAULT_PARALLEL_THRESHOLD);
+    threadCount = Math.max(1,
+            conf.getInt(THREAD_COUNT_KEY, Runtime.getRuntime().availableProcessors()));
+    collectAllViolations = conf.getBoolean(COLLECT_ALL_VIOLATIONS_KEY, false);
+  }
+
+  /**
+   * Returns true if all violations of a batch are to be collected (and reported via
+   * {@link MutationsInvalidException}), rather than the batch failing fast upon the first
+   * violation.
+   */
+  boolean collectAllViolations() {
+    return collectAllViolations;
+  }
+
+  /**
+   * Validates all {@link Mutation}s in the submitted list (other {@link Row}s are ignored).
+   *
+   * @param mtd descriptor of the <i>Table</i> to which the rows are submitted
+   * @param rows rows submitted in batch
+   * @param collectAll if false, validation stops upon the first violation detected
+   * @return validation exceptions keyed by index of the invalid {@code Mutation} in the submitted
+   * list; empty if all are valid. In fail-fast mode, the first entry is the lowest-indexed
+   * violation in the list (violations at higher indexes may also be present).
+   * @throws IOException if a failure other than a validation violation occurs
+   */
+  SortedMap<Integer, ColumnManagerIOException> validate(final MTableDescriptor mtd,
+          final List<? extends Row> rows, final boolean collectAll) throws IOException {
+    final SortedMap<Integer, ColumnManagerIOException> violations
+            = new ConcurrentSkipListMap<>();
+    final AtomicInteger stopIndex = new AtomicInteger(rows.size());
+    ExecutorService localExecutor = null;
+    if (rows.size() >= parallelThreshold && threadCount > 1) {
+      localExecutor = getExecutor();
+    }
+    if (localExecutor == null) {
+      validateSlice(mtd, rows, 0, rows.size(), collectAll, violations, stopIndex);
+      return violations;
+    }
+    int sliceCount = Math.min(rows.size(), threadCount * SLICES_PER_THREAD);
+    int sliceSize = (rows.size() + sliceCount - 1) / sliceCount;
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int start = 0; start < rows.size(); start += sliceSize) {
+      final int sliceStart = start;
+      final int sliceEnd = Math.min(rows.size(), start + sliceSize);
+      try {
+        futures.add(localExecutor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            validateSlice(mtd, rows, sliceStart, sliceEnd, collectAll, violations, stopIndex);
+            return null;
+          }
+        }));
+      } catch (RejectedExecutionException e) { // validator closed concurrently
+        validateSlice(mtd, rows, sliceStart, sliceEnd, collectAll, violations, stopIndex);
+      }
+    }
+    try {
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      stopIndex.set(0);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted during parallel column validation.");
+    } catch (ExecutionException e) {
+      stopIndex.set(0);
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      ColumnManagerIOException validationFailure = new ColumnManagerIOException(
+              "Failure in parallel column validation: " + cause) {};
+      validationFailure.initCause(cause);
+      throw validationFailure;
+    }
+    return violations;
+  }
+
+  /**
+   * In fail-fast mode, a violation lowers the {@code stopIndex} shared by all slices to its own
+   * index, so slices beyond it stop while slices below it run on until they reach it.
+   */
+  private void validateSlice(MTableDescriptor mtd, List<? extends Row> rows, int start, int end,
+          boolean collectAll, SortedMap<Integer, ColumnManagerIOException> violations,
+          AtomicInteger stopIndex) throws IOException {
+    for (int index = start; index < end && index < stopIndex.get(); index++) {
+      Row row = rows.get(index);
+      if (!Mutation.class.isAssignableFrom(row.getClass())) {
+        continue;
+      }
+      try {
+        repository.validateColumns(mtd, (Mutation) row);
+      } catch (ColumnDefinitionNotFoundException | ColumnValueInvalidException e) {
+        violations.put(index, e);
+        if (!collectAll) {
+          int currentStopIndex;
+          do {
+            currentStopIndex = stopIndex.get();
+          } while (index < currentStopIndex
+                  && !stopIndex.compareAndSet(currentStopIndex, index));
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Shuts down the validation threads; batches submitted thereafter are validated on the
+   * submitting thread.
+   */
+  synchronized void close() {
+    closed = true;
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  /**
+   * Returns null once this validator has been closed.
+   */
+  private ExecutorService getExecutor() {
+    ExecutorService localExecutor = executor;
+    if (localExecutor == null) {
+      synchronized (this) {
+        localExecutor = executor;
+        if (localExecutor == null && !closed) {
+          final AtomicInteger threadNumber = new AtomicInteger();
+          localExecutor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, Repository.PRODUCT_NAME + " "
+                      + ParallelColumnValidator.class.getSimpleName() + "-"
+                      + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+          executor = localExecutor;
+        }
+      }
+    }
+    return localExecutor;
+  }
+}
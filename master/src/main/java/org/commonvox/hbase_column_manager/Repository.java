@@ -18,10 +18,12 @@ package org.commonvox.hbase_column_manager;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -30,9 +32,19 @@ import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.xml.bind.JAXBException;
 import javax.xml.stream.XMLStreamException;
 import org.apache.hadoop.conf.Configuration;
@@ -48,8 +60,10 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Append;
 import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Consistency;
 import org.apache.hadoop.hbase.client.Delete;
 import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Increment;
 import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
@@ -91,8 +105,23 @@ class Repository {
   private Set<TableName> excludedTables;
   private final Connection hbaseConnection;
   private final Admin standardAdmin;
+  private final RepositoryLayoutGuard repositoryLayoutGuard;
   private final Table repositoryTable;
+  private final Table auditTable; // repositoryTable, unless audits are to time out sooner
   private final Table aliasTable;
+  private final ParallelColumnValidator columnValidator;
+  private final TableSchemaCapturer tableSchemaCapturer;
+  private final ColumnManagerMetrics metrics;
+  private final OperationTracer operationTracer;
+  private final AuditCircuitBreaker auditCircuitBreaker;
+  private final ColumnAuditingGate columnAuditingGate = new ColumnAuditingGate();
+  private final ColumnWriteUsageTracker columnWriteUsageTracker;
+  private final ColumnReadUsageTracker columnReadUsageTracker;
+  private final Consistency lookupConsistency;
+  private final ColumnLastSeenThrottle columnLastSeenThrottle;
+  private final RepositoryLayout repositoryLayout;
+  private ExecutorService bucketScanExecutor = null;
+  private ExecutorService scannerPrefetchExecutor = null;
   private static final byte[] ALIAS_INCREMENTOR_COLUMN = Bytes.toBytes("#$$#_aliasIncrementor");
   private static final int INVALID_ALIAS_INT = -1;
   private static final byte[] INVALID_ALIAS = Bytes.toBytes(INVALID_ALIAS_INT);
@@ -117,6 +146,8 @@ class Repository {
   static final String ALL_TABLES_WILDCARD_INDICATOR = ":*";
 
   private static final int UNIQUE_FOREIGN_KEY_LENGTH = 16;
+  private static final int REPOSITORY_MUTATION_BATCH_SIZE = 1000;
+  private static final int REENCODING_SCAN_CACHING = 500;
   private static final NamespaceDescriptor HBASE_SYSTEM_NAMESPACE_DESCRIPTOR
           = NamespaceDescriptor.create("hbase").build();
   static final NamespaceDescriptor REPOSITORY_NAMESPACE_DESCRIPTOR
@@ -126,6 +157,17 @@ class Repository {
                   "column_manager_repository_table");
   static final byte[] REPOSITORY_CF = Bytes.toBytes("se"); // ("se"="SchemaEntities")
   static final int DEFAULT_REPOSITORY_MAX_VERSIONS = 50; // should this be set higher?
+  static final String REGION_REPLICATION_KEY
+          = HBASE_CONFIG_PARM_KEY_PREFIX + "repository.regionReplication";
+  static final int DEFAULT_REGION_REPLICATION = 1; // i.e., no read replicas
+  static final String TIMELINE_CONSISTENT_READS_KEY
+          = HBASE_CONFIG_PARM_KEY_PREFIX + "repository.timelineConsistentReads";
+  static final String AUDITOR_LAST_SEEN_RESOLUTION_KEY
+          = HBASE_CONFIG_PARM_KEY_PREFIX + "auditor.lastSeenResolutionMs";
+  static final long DEFAULT_AUDITOR_LAST_SEEN_RESOLUTION = 3600000; // milliseconds
+  static final String SCANNER_PREFETCH_THREADS_KEY
+          = HBASE_CONFIG_PARM_KEY_PREFIX + "scanner.prefetchThreads";
+  static final int DEFAULT_SCANNER_PREFETCH_THREADS = 8;
 
   static final TableName ALIAS_DIRECTORY_TABLENAME
           = TableName.valueOf(REPOSITORY_NAMESPACE_DESCRIPTOR.getName(),
@@ -143,10 +185,17 @@ class Repository {
   static final byte[] COUNTER_COLUMN_PREFIX_BYTES = Bytes.toBytes(COUNTER_COLUMN_PREFIX);
   static final byte[] COL_COUNTER_QUALIFIER = Bytes.toBytes(COUNTER_COLUMN_PREFIX + "column");
   static final byte[] CELL_COUNTER_QUALIFIER = Bytes.toBytes(COUNTER_COLUMN_PREFIX + "cell");
+  static final byte[] WRITE_COUNTER_QUALIFIER = Bytes.toBytes(COUNTER_COLUMN_PREFIX + "write");
+  static final byte[] WRITE_BYTES_COUNTER_QUALIFIER
+          = Bytes.toBytes(COUNTER_COLUMN_PREFIX + "write_bytes");
+  static final byte[] READ_COUNTER_QUALIFIER = Bytes.toBytes(COUNTER_COLUMN_PREFIX + "read");
   static final String TIMESTAMP_KEY_PREFIX = "Timestamp__";
   static final byte[] TIMESTAMP_KEY_PREFIX_BYTES = Bytes.toBytes(TIMESTAMP_KEY_PREFIX);
   static final byte[] COL_COUNTER_TIMESTAMP_KEY = Bytes.toBytes(TIMESTAMP_KEY_PREFIX + "column_counter");
   static final byte[] CELL_COUNTER_TIMESTAMP_KEY = Bytes.toBytes(TIMESTAMP_KEY_PREFIX + "cell_counter");
+  static final byte[] READ_COUNTER_TIMESTAMP_KEY
+          = Bytes.toBytes(TIMESTAMP_KEY_PREFIX + "read_counter");
+  static final byte[] LAST_SEEN_TIMESTAMP_KEY = Bytes.toBytes(TIMESTAMP_KEY_PREFIX + "last_seen");
   static final byte[] MAX_VALUE_QUALIFIER
           = ByteBuffer.allocate(VALUE_COLUMN_PREFIX.length() + ColumnAuditor.MAX_VALUE_LENGTH_KEY.length())
           .put(VALUE_COLUMN_PREFIX_BYTES).put(Bytes.toBytes(ColumnAuditor.MAX_VALUE_LENGTH_KEY))
@@ -187,6 +236,7 @@ class Repository {
   private static final byte[] ACTIVE_STATUS = Bytes.toBytes("A");
   private static final byte[] DELETED_STATUS = Bytes.toBytes("D");
   static final byte[] FOREIGN_KEY_COLUMN = Bytes.toBytes("_ForeignKey");
+  static final byte[] LAST_SEEN_COLUMN = Bytes.toBytes("_LastSeen");
   private static final byte[] HEX_00_ARRAY = new byte[16];
   private static final byte[] HEX_FF_ARRAY = new byte[16];
 
@@ -201,6 +251,31 @@ class Repository {
     this.hbaseConnection = hBaseConnection;
     this.standardAdmin = getNewAdmin(this.hbaseConnection);
     Configuration conf = hbaseConnection.getConfiguration();
+    metrics = new ColumnManagerMetrics(conf);
+    operationTracer = new OperationTracer(conf);
+    lookupConsistency = conf.getBoolean(TIMELINE_CONSISTENT_READS_KEY, false)
+            ? Consistency.TIMELINE : Consistency.STRONG;
+    columnLastSeenThrottle = new ColumnLastSeenThrottle(conf.getLong(
+            AUDITOR_LAST_SEEN_RESOLUTION_KEY, DEFAULT_AUDITOR_LAST_SEEN_RESOLUTION));
+    auditCircuitBreaker = new AuditCircuitBreaker(new AuditCircuitBreaker.AuditWriter() {
+      @Override
+      public void writeAudit(TableName tableName, byte[] colFamilyForeignKey,
+              byte[] colQualifier, long valueLength) throws IOException {
+        putColumnAuditorSchemaEntity(tableName, colFamilyForeignKey, colQualifier, valueLength);
+      }
+    }, metrics, conf);
+    metrics.setAuditCircuitBreaker(auditCircuitBreaker);
+    ColumnUsageTracker.UsageWriter usageWriter = new ColumnUsageTracker.UsageWriter() {
+      @Override
+      public void writeUsage(byte[][] counterQualifiers,
+              List<ColumnUsageTracker.UsageDelta> usageDeltas) throws IOException {
+        putColumnUsage(counterQualifiers, usageDeltas);
+      }
+    };
+    columnWriteUsageTracker = new ColumnWriteUsageTracker(usageWriter, conf);
+    columnReadUsageTracker = new ColumnReadUsageTracker(usageWriter, conf);
+    columnValidator = new ParallelColumnValidator(this, conf);
+    tableSchemaCapturer = new TableSchemaCapturer(this, getStandardConnection(hbaseConnection));
     // Configuration.dumpConfiguration(conf, new PrintWriter(System.out));
     String columnManagerActivatedStatus
             = conf.get(HBASE_CONFIG_PARM_KEY_COLMANAGER_ACTIVATED,
@@ -215,8 +290,23 @@ class Repository {
       buildIncludedAndExcludedTablesSets(conf);
       boolean newInstallation = !standardAdmin.tableExists(REPOSITORY_TABLENAME);
       initializeRepositoryNamespace(standardAdmin);
-      repositoryTable = initializeRepositoryTable(standardAdmin);
-      aliasTable = initializeAliasTable(standardAdmin);
+      Table instrumentedRepositoryTable
+              = metrics.instrument(initializeRepositoryTable(standardAdmin));
+      aliasTable = metrics.instrument(initializeAliasTable(standardAdmin));
+      HTableDescriptor repositoryHtd = standardAdmin.getTableDescriptor(REPOSITORY_TABLENAME);
+      repositoryLayout = RepositoryLayout.fromTableDescriptor(repositoryHtd);
+      repositoryLayoutGuard = new RepositoryLayoutGuard(repositoryHtd,
+              new RepositoryLayoutGuard.DescriptorReader() {
+        @Override
+        public HTableDescriptor getRepositoryTableDescriptor() throws IOException {
+          return standardAdmin.getTableDescriptor(REPOSITORY_TABLENAME);
+        }
+      }, conf);
+      repositoryTable = repositoryLayoutGuard.guard(instrumentedRepositoryTable);
+      auditTable = auditCircuitBreaker.isEnabled()
+              ? repositoryLayoutGuard.guard(metrics.instrument(getAuditTable()))
+              : repositoryTable;
+      metrics.publish();
       doSyncCheck();
       if (newInstallation) {
         discoverSchema(false, false, false);
@@ -224,12 +314,40 @@ class Repository {
     } else {
 //      throw new ColumnManagerIOException(PRODUCT_NAME + " Repository is NOT ACTIVATED.") {};
       columnManagerIsActivated = false;
+      repositoryLayoutGuard = null;
       repositoryTable = null;
+      auditTable = null;
       aliasTable = null;
+      repositoryLayout = RepositoryLayout.UNSALTED;
       logger.info(PRODUCT_NAME + " Repository is NOT ACTIVATED.");
     }
   }
 
+  /**
+   * Returns a new (instrumented) Repository Table instance, guarded against a change of layout,
+   * for use by a thread other than those sharing the Repository's own Table instance.
+   */
+  private Table getGuardedRepositoryTable() throws IOException {
+    return repositoryLayoutGuard.guard(metrics.instrument(
+            getStandardConnection(hbaseConnection).getTable(REPOSITORY_TABLENAME)));
+  }
+
+  /**
+   * Returns a Repository Table instance whose operations time out after the
+   * {@link AuditCircuitBreaker}'s operation timeout (Table instances of other than the standard
+   * HTable implementation are returned with their timeouts unchanged).
+   */
+  private Table getAuditTable() throws IOException {
+    Table table = getStandardConnection(hbaseConnection).getTable(REPOSITORY_TABLENAME);
+    if (table instanceof HTable) {
+      int operationTimeout = auditCircuitBreaker.getOperationTimeout();
+      ((HTable) table).setOperationTimeout(operationTimeout);
+      ((HTable) table).setRpcTimeout(
+              Math.min(operationTimeout, ((HTable) table).getRpcTimeout()));
+    }
+    return table;
+  }
+
   private void buildIncludedAndExcludedTablesSets(Configuration conf) {
     String[] includedTablesArray
             = conf.getStrings(HBASE_CONFIG_PARM_KEY_COLMANAGER_INCLUDED_TABLES);
@@ -352,10 +470,13 @@ class Repository {
     }
 
     // Create new repositoryTable, since it doesn't already exist
-    standardAdmin.createTable(new HTableDescriptor(REPOSITORY_TABLENAME).
+    RepositoryLayout layout = RepositoryLayout.fromConfiguration(hbaseAdmin.getConfiguration());
+    standardAdmin.createTable(layout.applyTo(new HTableDescriptor(REPOSITORY_TABLENAME).
             addFamily(new HColumnDescriptor(REPOSITORY_CF).
                     setMaxVersions(DEFAULT_REPOSITORY_MAX_VERSIONS).
-                    setInMemory(true)));
+                    setInMemory(true)).
+            setRegionReplication(getConfiguredRegionReplication(hbaseAdmin))),
+            layout.getSplitKeys());
     try (Table newRepositoryTable
             = standardConnection.getTable(REPOSITORY_TABLENAME)) {
       staticLogger.info("ColumnManager Repository Table has been created (did not already exist): "
@@ -385,7 +506,8 @@ class Repository {
 
     // Create new AliasDirectory Table, since it doesn't already exist
     standardAdmin.createTable(new HTableDescriptor(ALIAS_DIRECTORY_TABLENAME).
-            addFamily(new HColumnDescriptor(ALIAS_CF).setInMemory(true)));
+            addFamily(new HColumnDescriptor(ALIAS_CF).setInMemory(true)).
+            setRegionReplication(getConfiguredRegionReplication(hbaseAdmin)));
     try (Table newAliasDirectoryTable
             = standardConnection.getTable(ALIAS_DIRECTORY_TABLENAME)) {
       staticLogger.info("ColumnManager AliasDirectory Table has been created (did not already exist): "
@@ -408,6 +530,170 @@ class Repository {
     }
   }
 
+  private static int getConfiguredRegionReplication(Admin hbaseAdmin) {
+    return Math.max(1, hbaseAdmin.getConfiguration()
+            .getInt(REGION_REPLICATION_KEY, DEFAULT_REGION_REPLICATION));
+  }
+
+  /**
+   * Sets the region replication of the Repository and AliasDirectory tables; since region
+   * replication of an enabled table may not be modified, each table is briefly disabled.
+   */
+  static void setRepositoryRegionReplication(Admin hbaseAdmin, int regionReplication)
+          throws IOException {
+    Admin standardAdmin = getStandardAdmin(hbaseAdmin);
+    for (TableName tableName : new TableName[]{REPOSITORY_TABLENAME, ALIAS_DIRECTORY_TABLENAME}) {
+      HTableDescriptor htd = standardAdmin.getTableDescriptor(tableName);
+      int oldRegionReplication = htd.getRegionReplication();
+      if (oldRegionReplication == regionReplication) {
+        continue;
+      }
+      htd.setRegionReplication(regionReplication);
+      standardAdmin.disableTable(tableName);
+      try {
+        standardAdmin.modifyTable(tableName, htd);
+      } finally {
+        standardAdmin.enableTable(tableName);
+      }
+      staticLogger.info("ColumnManager " + tableName.getNameAsString() + " Table's "
+              + "<regionReplication> setting has been changed from <" + oldRegionReplication
+              + "> to <" + regionReplication + ">.");
+    }
+  }
+
+  /**
+   * Migrates the Repository table to the layout with the submitted number of salt buckets (1 for
+   * the unsalted layout). All rows (including all retained versions of each attribute) are copied
+   * with their original timestamps to a staging table created with the new layout; the staging
+   * table then replaces the Repository table by way of a snapshot. Before copying begins, the
+   * Repository table is marked as undergoing migration and the
+   * {@link RepositoryLayoutGuard layout-check interval} is allowed to elapse, so that every
+   * connection opened before the migration refuses further Repository updates (and must be
+   * reopened) rather than writing rows in the old layout.
+   */
+  static void migrateRepositoryLayout(Admin hbaseAdmin, int saltBuckets) throws IOException {
+    Connection standardConnection = getStandardConnection(hbaseAdmin.getConnection());
+    Admin standardAdmin = getStandardAdmin(hbaseAdmin);
+    HTableDescriptor repositoryHtd = standardAdmin.getTableDescriptor(REPOSITORY_TABLENAME);
+    RepositoryLayout oldLayout = RepositoryLayout.fromTableDescriptor(repositoryHtd);
+    RepositoryLayout newLayout = RepositoryLayout.forSaltBuckets(saltBuckets);
+    if (oldLayout.getSaltBuckets() == newLayout.getSaltBuckets()) {
+      if (RepositoryLayout.isMigrationInProgress(repositoryHtd)) {
+        setLayoutMigrationInProgress(standardAdmin, false); // remnant of a failed migration
+      }
+      staticLogger.info("ColumnManager Repository Table already has the requested layout "
+              + "(version <" + newLayout.getVersion() + ">, salt buckets <" + saltBuckets + ">).");
+      return;
+    }
+    TableName stagingTableName = TableName.valueOf(REPOSITORY_NAMESPACE_DESCRIPTOR.getName(),
+            REPOSITORY_TABLENAME.getQualifierAsString() + "_migration");
+    String snapshotName = REPOSITORY_TABLENAME.getQualifierAsString() + "_migration_snapshot";
+    // remove any remnants of a previously failed migration (Repository table still intact)
+    if (standardAdmin.tableExists(stagingTableName)) {
+      if (standardAdmin.isTableEnabled(stagingTableName)) {
+        standardAdmin.disableTable(stagingTableName);
+      }
+      standardAdmin.deleteTable(stagingTableName);
+    }
+    if (!standardAdmin.listSnapshots(snapshotName).isEmpty()) {
+      standardAdmin.deleteSnapshot(snapshotName);
+    }
+    staticLogger.info("MIGRATION of ColumnManager Repository Table from layout version <"
+            + oldLayout.getVersion() + "> (salt buckets <" + oldLayout.getSaltBuckets()
+            + ">) to layout version <" + newLayout.getVersion() + "> (salt buckets <"
+            + newLayout.getSaltBuckets() + ">) has been started.");
+    setLayoutMigrationInProgress(standardAdmin, true);
+    long rowCount = 0;
+    try {
+      // once this interval has elapsed, every open connection has reread the Repository table's
+      //  descriptor before its next update, and thus refuses to update it in the old layout
+      Thread.sleep(RepositoryLayoutGuard.getCheckInterval(hbaseAdmin.getConfiguration()));
+      HTableDescriptor stagingHtd
+              = newLayout.applyTo(new HTableDescriptor(stagingTableName, repositoryHtd));
+      stagingHtd.remove(RepositoryLayout.MIGRATION_IN_PROGRESS_ATTRIBUTE);
+      standardAdmin.createTable(stagingHtd, newLayout.getSplitKeys());
+      try (Table repositoryTable = standardConnection.getTable(REPOSITORY_TABLENAME);
+              Table stagingTable = standardConnection.getTable(stagingTableName);
+              ResultScanner rows = repositoryTable.getScanner(
+                      new Scan().setMaxVersions().setCacheBlocks(false))) {
+        List<Put> puts = new ArrayList<>(REPOSITORY_MUTATION_BATCH_SIZE);
+        for (Result row : rows) {
+          Put put = new Put(newLayout.toRowKey(oldLayout.toRowId(row.getRow())));
+          for (Cell cell : row.rawCells()) {
+            put.addColumn(CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell),
+                    cell.getTimestamp(), CellUtil.cloneValue(cell));
+          }
+          puts.add(put);
+          rowCount++;
+          if (puts.size() >= REPOSITORY_MUTATION_BATCH_SIZE) {
+            stagingTable.put(puts);
+            puts = new ArrayList<>(REPOSITORY_MUTATION_BATCH_SIZE);
+          }
+        }
+        if (!puts.isEmpty()) {
+          stagingTable.put(puts);
+        }
+      }
+      standardAdmin.snapshot(snapshotName, stagingTableName);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      setLayoutMigrationInProgress(standardAdmin, false);
+      throw new InterruptedIOException("MIGRATION of " + PRODUCT_NAME
+              + " Repository Table interrupted; the original Repository Table is unchanged.");
+    } catch (IOException e) {
+      // Repository table still intact in the old layout
+      setLayoutMigrationInProgress(standardAdmin, false);
+      throw e;
+    }
+    standardAdmin.disableTable(REPOSITORY_TABLENAME);
+    standardAdmin.deleteTable(REPOSITORY_TABLENAME);
+    try {
+      standardAdmin.cloneSnapshot(snapshotName, REPOSITORY_TABLENAME);
+    } catch (IOException e) {
+      throw new ColumnManagerIOException("MIGRATION of " + PRODUCT_NAME + " Repository Table "
+              + "failed after removal of the original table; the migrated Repository is retained "
+              + "in snapshot <" + snapshotName + "> and in table <"
+              + stagingTableName.getNameAsString() + ">, and may be restored by cloning the "
+              + "snapshot to <" + REPOSITORY_TABLENAME.getNameAsString() + ">: " + e) {};
+    }
+    standardAdmin.deleteSnapshot(snapshotName);
+    standardAdmin.disableTable(stagingTableName);
+    standardAdmin.deleteTable(stagingTableName);
+    staticLogger.info("MIGRATION of ColumnManager Repository Table has been completed: "
+            + rowCount + " rows migrated.");
+  }
+
+  /**
+   * Marks (or unmarks) the Repository table as undergoing layout migration; while so marked, it
+   * is not updated by any {@link RepositoryLayoutGuard guarded} connection.
+   */
+  private static void setLayoutMigrationInProgress(Admin standardAdmin, boolean inProgress)
+          throws IOException {
+    HTableDescriptor htd = standardAdmin.getTableDescriptor(REPOSITORY_TABLENAME);
+    if (inProgress) {
+      htd.setValue(RepositoryLayout.MIGRATION_IN_PROGRESS_ATTRIBUTE, Boolean.TRUE.toString());
+    } else {
+      htd.remove(RepositoryLayout.MIGRATION_IN_PROGRESS_ATTRIBUTE);
+    }
+    standardAdmin.disableTable(REPOSITORY_TABLENAME);
+    try {
+      standardAdmin.modifyTable(REPOSITORY_TABLENAME, htd);
+    } finally {
+      standardAdmin.enableTable(REPOSITORY_TABLENAME);
+    }
+  }
+
+  static int getRepositorySaltBuckets(Admin hbaseAdmin) throws IOException {
+    return RepositoryLayout.fromTableDescriptor(
+            getStandardAdmin(hbaseAdmin).getTableDescriptor(REPOSITORY_TABLENAME))
+            .getSaltBuckets();
+  }
+
+  static int getRepositoryRegionReplication(Admin hbaseAdmin) throws IOException {
+    return getStandardAdmin(hbaseAdmin).getTableDescriptor(REPOSITORY_TABLENAME)
+            .getRegionReplication();
+  }
+
   static int getRepositoryMaxVersions(Admin hbaseAdmin)
           throws IOException {
     HColumnDescriptor repositoryHcd
@@ -442,6 +728,22 @@ class Repository {
     return this.standardAdmin;
   }
 
+  ColumnManagerMetrics getMetrics() {
+    return metrics;
+  }
+
+  RepositoryLayout getRepositoryLayout() {
+    return repositoryLayout;
+  }
+
+  OperationTracer getOperationTracer() {
+    return operationTracer;
+  }
+
+  AuditCircuitBreaker getAuditCircuitBreaker() {
+    return auditCircuitBreaker;
+  }
+
   boolean isActivated() {
     return columnManagerIsActivated;
   }
@@ -510,7 +812,10 @@ class Repository {
 
     for (Entry<String,String> configEntry : repositoryConfigurationMap.entrySet()) {
       if (configEntry.getKey().equals(MColumnDescriptor.COL_DEFINITIONS_ENFORCED_KEY)
-              || configEntry.getKey().equals(MColumnDescriptor.COL_ALIASES_ENABLED_KEY)) {
+              || configEntry.getKey().equals(MColumnDescriptor.COL_ALIASES_ENABLED_KEY)
+              || configEntry.getKey().equals(MColumnDescriptor.COL_ALIAS_ENCODING_KEY)
+              || configEntry.getKey().equals(
+                      MColumnDescriptor.COL_ALIAS_CONVERSION_IN_PROGRESS_KEY)) {
         continue;
       }
       String configValue = hbaseConfigurationMap.get(configEntry.getKey());
@@ -626,6 +931,17 @@ class Repository {
     return putSchemaEntity(namespaceRowId, entityAttributeMap, false);
   }
 
+  /**
+   * Schedule persistence of Table SchemaEntity in Repository once the asynchronously created Table
+   * comes online; the submitted future is completed upon persistence.
+   *
+   * @param htd TableDescriptor to persist in SchemaEntity format
+   * @param future future to be completed upon persistence
+   */
+  void putTableSchemaEntityWhenAvailable(HTableDescriptor htd, SchemaChangeFuture future) {
+    tableSchemaCapturer.captureWhenAvailable(htd, future);
+  }
+
   /**
    * Persist Table SchemaEntity in Repository
    *
@@ -706,37 +1022,6 @@ class Repository {
                     tableForeignKey, hcd.getName()), entityAttributeMap, false);
   }
 
-  /**
-   * Invoked during serialization process, when fully-formed MTableDescriptor is submitted for
-   * persistence (e.g., during importation of schema from external source).
-   *
-   * @param mtd MTableDescriptor
-   * @return true if all serializations complete successfully
-   * @throws IOException if a remote or network exception occurs
-   */
-  boolean putColumnAuditorSchemaEntities(MTableDescriptor mtd) throws IOException {
-    if (!isIncludedTable(mtd.getTableName())) {
-      return false;
-    }
-    byte[] tableForeignKey = getTableForeignKey(mtd);
-    boolean serializationCompleted = true;
-    for (MColumnDescriptor mcd : mtd.getMColumnDescriptorArray()) {
-      byte[] colDescForeignKey = getForeignKey(SchemaEntityType.COLUMN_FAMILY.getRecordType(),
-              tableForeignKey, mcd.getName());
-      if (colDescForeignKey == null) {
-        serializationCompleted = false;
-        continue;
-      }
-      for (ColumnAuditor columnAuditor : mcd.getColumnAuditors()) {
-        byte[] colForeignKey = putColumnAuditorSchemaEntity(colDescForeignKey, columnAuditor);
-        if (colForeignKey == null) {
-          serializationCompleted = false;
-        }
-      }
-    }
-    return serializationCompleted;
-  }
-
   /**
    * Private invocation.
    *
@@ -837,85 +1122,299 @@ class Repository {
             || Delete.class.isAssignableFrom(mutation.getClass())) {
       return;
     }
-    for (Entry<byte[], List<Cell>> colFamilyCellList : mutation.getFamilyCellMap().entrySet()) {
-      MColumnDescriptor mcd = mtd.getMColumnDescriptor(colFamilyCellList.getKey());
-      for (Cell cell : colFamilyCellList.getValue()) {
-        byte[] colQualifier = Bytes.copy(
-                cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
-        ColumnAuditor oldColAuditor = getColumnAuditor(mcd.getForeignKey(), colQualifier);
-        if (oldColAuditor != null && cell.getValueLength() <= oldColAuditor.getMaxValueLengthFound()) {
-          continue;
+    if (columnWriteUsageTracker.isEnabled()) {
+      columnWriteUsageTracker.recordWrites(mtd, mutation);
+    }
+    refreshColumnAuditorsLastSeen(mtd, mutation);
+    Map<byte[], List<Cell>> auditedFamilyCellMap = applyColumnAuditingPolicies(mtd, mutation);
+    if (auditedFamilyCellMap.isEmpty()) {
+      return;
+    }
+    if (!auditCircuitBreaker.allowsRepositoryWrites()) {
+      auditCircuitBreaker.defer(mtd, auditedFamilyCellMap);
+      return;
+    }
+    try {
+      for (Entry<byte[], List<Cell>> colFamilyCellList : auditedFamilyCellMap.entrySet()) {
+        MColumnDescriptor mcd = mtd.getMColumnDescriptor(colFamilyCellList.getKey());
+        for (Cell cell : colFamilyCellList.getValue()) {
+          byte[] colQualifier = Bytes.copy(
+                  cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+          // latency is assessed per audit, so a many-cell Mutation does not appear slow
+          long startNanos = System.nanoTime();
+          putColumnAuditorSchemaEntity(
+                  mtd.getTableName(), mcd.getForeignKey(), colQualifier, cell.getValueLength());
+          auditCircuitBreaker.recordLatency(System.nanoTime() - startNanos);
         }
-        ColumnAuditor newColAuditor = new ColumnAuditor(colQualifier);
-        if (oldColAuditor == null ||
-                cell.getValueLength() > oldColAuditor.getMaxValueLengthFound()) {
-          newColAuditor.setMaxValueLengthFound(cell.getValueLength());
+      }
+    } catch (IOException e) {
+      if (!auditCircuitBreaker.recordFailure()) {
+        throw e;
+      }
+      logger.warn(PRODUCT_NAME + " audit of table <" + mtd.getNameAsString()
+              + "> deferred due to Repository failure: " + e);
+      auditCircuitBreaker.defer(mtd, auditedFamilyCellMap);
+    }
+  }
+
+  /**
+   * Refreshes the last-seen timestamps of the ColumnAuditors of all cells of the submitted
+   * Mutation, including cells to be bypassed under their Column Family's auditing policy (so that
+   * ColumnAuditors of columns still being written never expire), each at most once per
+   * {@code [column_manager.auditor.lastSeenResolutionMs]}. A ColumnAuditor found not to be active
+   * (i.e., not yet created, or deleted upon expiry) is audited in full, so that an expired
+   * ColumnAuditor is restored whatever the auditing policy of its Column Family.
+   */
+  private void refreshColumnAuditorsLastSeen(MTableDescriptor mtd, Mutation mutation)
+          throws IOException {
+    if (!auditCircuitBreaker.allowsRepositoryWrites()) {
+      return;
+    }
+    long currentTime = System.currentTimeMillis();
+    try {
+      for (Entry<byte[], List<Cell>> colFamilyCellList
+              : mutation.getFamilyCellMap().entrySet()) {
+        MColumnDescriptor mcd = mtd.getMColumnDescriptor(colFamilyCellList.getKey());
+        if (mcd.getColumnAuditorRetentionPeriod() <= 0) {
+          continue; // ColumnAuditors of the Column Family never expire
+        }
+        for (Cell cell : colFamilyCellList.getValue()) {
+          byte[] colQualifier = Bytes.copy(
+                  cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
+          byte[] rowId = new RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
+                  mcd.getForeignKey(), colQualifier).getByteArray();
+          if (!columnLastSeenThrottle.refreshDue(rowId, currentTime)) {
+            continue;
+          }
+          try {
+            byte[] rowKey = repositoryLayout.toRowKey(rowId);
+            long startNanos = System.nanoTime();
+            if (!auditTable.checkAndPut(rowKey, REPOSITORY_CF, ENTITY_STATUS_COLUMN,
+                    ACTIVE_STATUS, new Put(rowKey).addColumn(
+                            REPOSITORY_CF, LAST_SEEN_COLUMN, Bytes.toBytes(currentTime)))) {
+              putColumnAuditorSchemaEntity(mtd.getTableName(), mcd.getForeignKey(),
+                      colQualifier, cell.getValueLength());
+            }
+            auditCircuitBreaker.recordLatency(System.nanoTime() - startNanos);
+          } catch (IOException e) {
+            columnLastSeenThrottle.refreshFailed(rowId);
+            throw e;
+          }
+        }
+      }
+    } catch (IOException e) {
+      if (!auditCircuitBreaker.recordFailure()) {
+        throw e;
+      }
+      logger.warn(PRODUCT_NAME + " refresh of ColumnAuditor last-seen timestamps of table <"
+              + mtd.getNameAsString() + "> failed: " + e);
+    }
+  }
+
+  /**
+   * Returns the cells of the submitted Mutation which are to be audited under the
+   * {@link ColumnAuditingPolicy} of their respective Column Families; the Mutation's own
+   * family-cell map is returned when all of its Column Families are audited in full.
+   */
+  private Map<byte[], List<Cell>> applyColumnAuditingPolicies(
+          MTableDescriptor mtd, Mutation mutation) {
+    NavigableMap<byte[], List<Cell>> familyCellMap = mutation.getFamilyCellMap();
+    NavigableMap<byte[], List<Cell>> auditedFamilyCellMap = null;
+    long bypassedCount = 0;
+    for (Entry<byte[], List<Cell>> colFamilyCellList : familyCellMap.entrySet()) {
+      MColumnDescriptor mcd = mtd.getMColumnDescriptor(colFamilyCellList.getKey());
+      List<Cell> auditedCells = columnAuditingGate.selectCellsToAudit(
+              mcd, colFamilyCellList.getValue());
+      if (auditedCells == colFamilyCellList.getValue() && auditedFamilyCellMap == null) {
+        continue;
+      }
+      if (auditedFamilyCellMap == null) {
+        auditedFamilyCellMap = new TreeMap<>(familyCellMap.headMap(colFamilyCellList.getKey()));
+      }
+      bypassedCount += colFamilyCellList.getValue().size() - auditedCells.size();
+      if (!auditedCells.isEmpty()) {
+        auditedFamilyCellMap.put(colFamilyCellList.getKey(), auditedCells);
+      }
+    }
+    if (auditedFamilyCellMap == null) {
+      return familyCellMap;
+    }
+    if (bypassedCount > 0) {
+      metrics.add(mtd.getTableName(),
+              ColumnManagerMetrics.Counter.AUDITOR_UPDATES_BYPASSED, bypassedCount);
+    }
+    return auditedFamilyCellMap;
+  }
+
+  /**
+   * Persists (or updates) the {@link ColumnAuditor} SchemaEntity of a single column, unless its
+   * audited metadata is unchanged. Invoked directly by user operations, or by the
+   * {@link AuditCircuitBreaker} when draining its backlog.
+   */
+  private void putColumnAuditorSchemaEntity(TableName tableName, byte[] colFamilyForeignKey,
+          byte[] colQualifier, long valueLength) throws IOException {
+    ColumnAuditor oldColAuditor = getColumnAuditorForUpdate(
+            auditTable, colFamilyForeignKey, colQualifier, valueLength);
+    if (oldColAuditor != null && valueLength <= oldColAuditor.getMaxValueLengthFound()) {
+      metrics.increment(tableName, ColumnManagerMetrics.Counter.AUDITOR_UPDATES_SKIPPED);
+      columnAuditingGate.recordAudited(colFamilyForeignKey, colQualifier);
+      return;
+    }
+    ColumnAuditor newColAuditor = new ColumnAuditor(colQualifier);
+    newColAuditor.setMaxValueLengthFound(valueLength);
+    boolean suppressUserName = (oldColAuditor == null) ? false : true;
+    Map<byte[], byte[]> entityAttributeMap
+            = buildEntityAttributeMap(newColAuditor.getValues(),
+                    newColAuditor.getConfiguration());
+    putSchemaEntity(auditTable, new RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
+            colFamilyForeignKey, newColAuditor.getName()), entityAttributeMap,
+            suppressUserName);
+    metrics.increment(tableName, ColumnManagerMetrics.Counter.AUDITOR_UPDATES_WRITTEN);
+    columnAuditingGate.recordAudited(colFamilyForeignKey, colQualifier);
+  }
+
+  /**
+   * Invoked by a {@link ColumnUsageTracker} to add accumulated usage counts to the counter columns
+   * of the corresponding schema entities, via a single batch of Increments. Flushes run on the
+   * tracker's own thread, so the batch is submitted via a dedicated (guarded) Table instance.
+   */
+  private void putColumnUsage(byte[][] counterQualifiers,
+          List<ColumnUsageTracker.UsageDelta> usageDeltas) throws IOException {
+    List<Increment> increments = new ArrayList<>(usageDeltas.size());
+    for (ColumnUsageTracker.UsageDelta usageDelta : usageDeltas) {
+      Increment increment = new Increment(repositoryLayout.toRowKey(usageDelta.rowId));
+      for (int i = 0; i < counterQualifiers.length; i++) {
+        increment.addColumn(REPOSITORY_CF, counterQualifiers[i], usageDelta.counts[i]);
+      }
+      increment.setReturnResults(false);
+      increments.add(increment);
+    }
+    try (Table usageTable = getGuardedRepositoryTable()) {
+      usageTable.batch(increments, new Object[increments.size()]);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while flushing " + PRODUCT_NAME
+              + " column usage counts.");
+    }
+  }
+
+  /**
+   * Writes all column write usage accumulated in memory to the Repository.
+   */
+  void flushColumnWriteUsage() throws IOException {
+    if (columnWriteUsageTracker.isEnabled() && isActivated()) {
+      columnWriteUsageTracker.flush();
+    }
+  }
+
+  /**
+   * Writes all column read usage accumulated in memory to the Repository.
+   */
+  void flushColumnReadUsage() throws IOException {
+    if (columnReadUsageTracker.isEnabled() && isActivated()) {
+      columnReadUsageTracker.flush();
+    }
+  }
+
+  /**
+   * Invoked upon closure of the ColumnManager Connection: flushes accumulated column usage, then
+   * shuts down all background threads of the Repository (which must not outlive the underlying
+   * standard Connection).
+   */
+  void close() throws IOException {
+    // each tracker is flushed even if the other's flush fails
+    IOException flushFailure = null;
+    try {
+      try {
+        flushColumnWriteUsage();
+      } catch (IOException e) {
+        flushFailure = e;
+      }
+      try {
+        flushColumnReadUsage();
+      } catch (IOException e) {
+        if (flushFailure == null) {
+          flushFailure = e;
         } else {
-          newColAuditor.setMaxValueLengthFound(oldColAuditor.getMaxValueLengthFound());
+          flushFailure.addSuppressed(e);
         }
-        boolean suppressUserName = (oldColAuditor == null) ? false : true;
-        Map<byte[], byte[]> entityAttributeMap
-                = buildEntityAttributeMap(newColAuditor.getValues(),
-                        newColAuditor.getConfiguration());
-        putSchemaEntity(new RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
-                mcd.getForeignKey(), newColAuditor.getName()), entityAttributeMap,
-                suppressUserName);
       }
+    } finally {
+      columnWriteUsageTracker.close();
+      columnReadUsageTracker.close();
+      auditCircuitBreaker.close();
+      columnValidator.close();
+      synchronized (this) {
+        if (bucketScanExecutor != null) {
+          bucketScanExecutor.shutdownNow();
+        }
+        if (scannerPrefetchExecutor != null) {
+          scannerPrefetchExecutor.shutdownNow();
+        }
+      }
+      metrics.unpublish();
+      tableSchemaCapturer.close();
     }
+    if (flushFailure != null) {
+      throw flushFailure;
+    }
+  }
+
+  /**
+   * Returns the tracker of column read usage, or null if read usage is not tracked.
+   */
+  ColumnReadUsageTracker getColumnReadUsageTracker() {
+    return columnReadUsageTracker.isEnabled() ? columnReadUsageTracker : null;
   }
 
   /**
-   * Invoked as part of discovery process. This method also invoked directly from mapreduce
-   * discovery.
+   * Invoked upon completion of discovery processing (including upon completion of each mapper in
+   * mapreduce discovery) to persist the accumulated discovery statistics. Statistics of
+   * alias-enabled Column Families are keyed by column-alias, and are translated to
+   * user-column-qualifiers here via a single read of the AliasDirectory per Column Family.
    *
-   * @param mtd table descriptor for parent table of columns found in row
-   * @param row Result object from which {@link ColumnAuditor} SchemaEntity is extracted
+   * @param mtd table descriptor for parent table of columns discovered
+   * @param statistics statistics accumulated during discovery scan
    * @throws IOException if a remote or network exception occurs
    */
-  void putDiscoveredColumnAuditors(
-          MTableDescriptor mtd, Result row, boolean keyOnlyFilterUsed) throws IOException {
+  void putDiscoveredColumnAuditors(MTableDescriptor mtd, ColumnDiscoveryStatistics statistics)
+          throws IOException {
     if (!isIncludedTable(mtd.getTableName())) {
       return;
     }
-    for (Entry<byte[], NavigableMap<byte[],NavigableMap<Long,byte[]>>> familyToColumnsMapEntry
-            : row.getMap().entrySet()) {
-      MColumnDescriptor mcd = mtd.getMColumnDescriptor(familyToColumnsMapEntry.getKey());
-      for (Entry<byte[],NavigableMap<Long,byte[]>> colEntry
-              : familyToColumnsMapEntry.getValue().entrySet()) {
-        byte[] colQualifier = colEntry.getKey();
+    for (Entry<byte[], NavigableMap<byte[], long[]>> familyEntry
+            : statistics.getFamilyStatisticsMap().entrySet()) {
+      MColumnDescriptor mcd = mtd.getMColumnDescriptor(familyEntry.getKey());
+      if (mcd == null) {
+        continue;
+      }
+      NavigableMap<byte[], long[]> columnStatisticsMap = familyEntry.getValue();
+      if (mcd.columnAliasReadProcessingRequired()) {
+        columnStatisticsMap = ColumnDiscoveryStatistics.translateAliases(columnStatisticsMap,
+                getFamilyAliasToQualifierMap(mtd, mcd.getName()).get(mcd.getName()));
+      }
+      for (Entry<byte[], long[]> columnEntry : columnStatisticsMap.entrySet()) {
+        byte[] colQualifier = columnEntry.getKey();
+        long[] columnStatistics = columnEntry.getValue();
         RowId rowId = new RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
                 mcd.getForeignKey(), colQualifier);
-        Set<Entry<Long,byte[]>> cellEntries = colEntry.getValue().entrySet();
-        for (Entry<Long,byte[]> cellEntry : cellEntries) {
-          int colValueLength;
-          if (keyOnlyFilterUsed) {
-            colValueLength = Bytes.toInt(cellEntry.getValue()); // value *length* returned as value
-          } else {
-            colValueLength = cellEntry.getValue().length;
-          }
-          ColumnAuditor oldColAuditor = getColumnAuditor(mcd.getForeignKey(), colQualifier);
-          if (oldColAuditor != null && colValueLength <= oldColAuditor.getMaxValueLengthFound()) {
-            continue;
-          }
+        long maxValueLength = columnStatistics[ColumnDiscoveryStatistics.MAX_VALUE_LENGTH];
+        ColumnAuditor oldColAuditor = getColumnAuditorForUpdate(
+                repositoryTable, mcd.getForeignKey(), colQualifier, maxValueLength);
+        if (oldColAuditor == null || maxValueLength > oldColAuditor.getMaxValueLengthFound()) {
           ColumnAuditor newColAuditor = new ColumnAuditor(colQualifier);
-          if (oldColAuditor == null || colValueLength > oldColAuditor.getMaxValueLengthFound()) {
-            newColAuditor.setMaxValueLengthFound(colValueLength);
-          } else {
-            newColAuditor.setMaxValueLengthFound(oldColAuditor.getMaxValueLengthFound());
-          }
-          boolean suppressUserName = false;
-          if (oldColAuditor != null) {
-            suppressUserName = true;
-          }
+          newColAuditor.setMaxValueLengthFound(maxValueLength);
+          boolean suppressUserName = (oldColAuditor != null);
           Map<byte[], byte[]> entityAttributeMap
                   = buildEntityAttributeMap(newColAuditor.getValues(),
                           newColAuditor.getConfiguration());
           putSchemaEntity(rowId, entityAttributeMap, suppressUserName);
         }
-        repositoryTable.incrementColumnValue(rowId.getByteArray(), REPOSITORY_CF,
-                COL_COUNTER_QUALIFIER, 1);
-        repositoryTable.incrementColumnValue(rowId.getByteArray(), REPOSITORY_CF,
-                CELL_COUNTER_QUALIFIER, cellEntries.size());
+        byte[] rowKey = repositoryLayout.toRowKey(rowId.getByteArray());
+        repositoryTable.incrementColumnValue(rowKey, REPOSITORY_CF,
+                COL_COUNTER_QUALIFIER, columnStatistics[ColumnDiscoveryStatistics.COLUMN_COUNT]);
+        repositoryTable.incrementColumnValue(rowKey, REPOSITORY_CF,
+                CELL_COUNTER_QUALIFIER, columnStatistics[ColumnDiscoveryStatistics.CELL_COUNT]);
       }
     }
   }
@@ -959,6 +1458,21 @@ class Repository {
             || Delete.class.isAssignableFrom(mutation.getClass())) { // Deletes not validated
       return;
     }
+    ColumnManagerMetrics.TableMetrics tableMetrics = metrics.getTableMetrics(mtd.getTableName());
+    long startNanos = System.nanoTime();
+    try {
+      validateMutationColumns(mtd, mutation);
+    } catch (ColumnDefinitionNotFoundException | ColumnValueInvalidException e) {
+      tableMetrics.getValidationCounters().recordInvalidMutation(e);
+      throw e;
+    } finally {
+      tableMetrics.getTimer(ColumnManagerMetrics.Timer.VALIDATION).recordSince(startNanos);
+    }
+    tableMetrics.getValidationCounters().recordValidMutation();
+  }
+
+  private void validateMutationColumns(MTableDescriptor mtd, Mutation mutation)
+          throws IOException {
     for (Entry<byte[], List<Cell>> colFamilyCellList : mutation.getFamilyCellMap().entrySet()) {
       MColumnDescriptor mcd = mtd.getMColumnDescriptor(colFamilyCellList.getKey());
       if (!mcd.columnDefinitionsEnforced()) {
@@ -967,34 +1481,49 @@ class Repository {
       for (Cell cell : colFamilyCellList.getValue()) {
         byte[] colQualifier = Bytes.copy(
                 cell.getQualifierArray(), cell.getQualifierOffset(), cell.getQualifierLength());
-        ColumnDefinition colDefinition = mcd.getColumnDefinition(colQualifier);
-        if (colDefinition == null) {
-          throw new ColumnDefinitionNotFoundException(mtd.getTableName().getName(),
-                  mcd.getName(), colQualifier, null);
-        }
-        if (colDefinition.getColumnLength() > 0
-                && cell.getValueLength() > colDefinition.getColumnLength()) {
-          throw new ColumnValueInvalidException(
-                  mtd.getTableName().getName(), mcd.getName(), colQualifier, null,
-                  "Value length of <" + cell.getValueLength()
-                          + "> is longer than maximum length of <"
-                          + colDefinition.getColumnLength() + "> defined for the column in its "
-                          + "corresponding ColumnDefinition.");
-        }
-        String colValidationRegex = colDefinition.getColumnValidationRegex();
-        if (colValidationRegex != null && colValidationRegex.length() > 0) {
-          byte[] colValue = Bytes.getBytes(CellUtil.getValueBufferShallowCopy(cell));
-          if (!Bytes.toString(colValue).matches(colValidationRegex)) {
-            throw new ColumnValueInvalidException(mtd.getTableName().getName(), mcd.getName(),
-                    colQualifier, colValue,
-                    "Value does not match the regular expression defined for the column in its "
-                            + "corresponding ColumnDefinition: <" + colValidationRegex + ">");
-          }
+        ColumnManagerIOException violation = getColumnViolation(
+                mtd, mcd, mcd.getColumnDefinition(colQualifier), colQualifier, cell);
+        if (violation != null && lookupConsistency == Consistency.TIMELINE) {
+          // descriptor may have been read from a stale replica: confirm against primary region
+          violation = getColumnViolation(mtd, mcd,
+                  getColumnDefinition(mcd.getForeignKey(), colQualifier, Consistency.STRONG),
+                  colQualifier, cell);
+        }
+        if (violation != null) {
+          throw violation;
         }
       }
     }
   }
 
+  /**
+   * Returns the exception to be thrown if the submitted Cell violates the submitted
+   * ColumnDefinition (or if there is no ColumnDefinition), or null if the Cell is valid.
+   */
+  private static ColumnManagerIOException getColumnViolation(MTableDescriptor mtd,
+          MColumnDescriptor mcd, ColumnDefinition colDefinition, byte[] colQualifier, Cell cell) {
+    if (colDefinition == null) {
+      return new ColumnDefinitionNotFoundException(mtd.getTableName().getName(),
+              mcd.getName(), colQualifier, null);
+    }
+    ColumnValueValidator validator = colDefinition.getColumnValueValidator();
+    String invalidityReason = validator.getLengthInvalidityReason(cell.getValueLength());
+    if (invalidityReason != null) {
+      return new ColumnValueInvalidException(
+              mtd.getTableName().getName(), mcd.getName(), colQualifier, null,
+              invalidityReason);
+    }
+    if (validator.hasValueValidations()) {
+      invalidityReason = validator.getValueInvalidityReason(
+              cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+      if (invalidityReason != null) {
+        return new ColumnValueInvalidException(mtd.getTableName().getName(), mcd.getName(),
+                colQualifier, CellUtil.cloneValue(cell), invalidityReason);
+      }
+    }
+    return null;
+  }
+
   void validateColumns(MTableDescriptor mtd, RowMutations mutations) throws IOException {
     if (isIncludedTable(mtd.getTableName())
             && mtd.hasColDescriptorWithColDefinitionsEnforced()) {
@@ -1004,14 +1533,60 @@ class Repository {
     }
   }
 
-  void validateColumns(MTableDescriptor mtd, List<? extends Mutation> mutations)
-          throws IOException {
-    if (isIncludedTable(mtd.getTableName())
-            && mtd.hasColDescriptorWithColDefinitionsEnforced()) {
-      for (Mutation mutation : mutations) {
-        validateColumns(mtd, mutation);
-      }
+  /**
+   * Validates all {@link Mutation}s in the submitted batch (other {@link Row}s are ignored),
+   * in parallel if the batch is at or above the configured size threshold. If the
+   * {@code column_manager.validation.collectAllViolations} configuration property is true, all
+   * violations are reported via a {@link MutationsInvalidException}; otherwise the violation of
+   * lowest index detected is thrown.
+   */
+  void validateColumns(MTableDescriptor mtd, List<? extends Row> rows) throws IOException {
+    if (!isIncludedTable(mtd.getTableName())
+            || !mtd.hasColDescriptorWithColDefinitionsEnforced()) {
+      return;
     }
+    boolean collectAll = columnValidator.collectAllViolations();
+    SortedMap<Integer, ColumnManagerIOException> violations
+            = columnValidator.validate(mtd, rows, collectAll);
+    if (violations.isEmpty()) {
+      return;
+    }
+    if (collectAll) {
+      throw new MutationsInvalidException(violations, rows.size());
+    }
+    throw violations.get(violations.firstKey());
+  }
+
+  /**
+   * Validates all {@link Mutation}s in the submitted batch (other {@link Row}s are ignored),
+   * collecting all violations regardless of the configured fail-fast setting.
+   *
+   * @return validation exceptions keyed by index of invalid {@code Mutation} in submitted list;
+   * empty if all are valid
+   */
+  SortedMap<Integer, ColumnManagerIOException> getColumnValidationViolations(
+          MTableDescriptor mtd, List<? extends Row> rows) throws IOException {
+    if (!isIncludedTable(mtd.getTableName())
+            || !mtd.hasColDescriptorWithColDefinitionsEnforced()) {
+      return new TreeMap<>();
+    }
+    return columnValidator.validate(mtd, rows, true);
+  }
+
+  /**
+   * Returns validation statistics accumulated for the submitted Table, or for all Tables if
+   * tableName is null.
+   */
+  ColumnValidationStatistics getColumnValidationStatistics(TableName tableName) {
+    if (tableName != null) {
+      return metrics.getTableMetrics(tableName).getValidationCounters().getStatistics();
+    }
+    ColumnValidationStatistics statistics = new ColumnValidationStatistics(0, 0, 0);
+    for (ColumnManagerMetrics.TableMetrics tableMetrics
+            : metrics.getTableMetricsMap().values()) {
+      statistics = statistics.add(tableMetrics.getValidationCounters().getStatistics());
+    }
+    return statistics;
   }
 
   void validateColumns(TableName tableName, Mutation mutation)
@@ -1031,45 +1606,11 @@ class Repository {
       return;
     }
     MTableDescriptor mtd = getMTableDescriptor(tableName);
-    if (mtd != null && mtd.hasColDescriptorWithColDefinitionsEnforced()) {
-      for (Mutation mutation : mutations) {
-        validateColumns(mtd, mutation);
-      }
+    if (mtd != null) {
+      validateColumns(mtd, mutations);
     }
   }
 
-  /**
-   * Invoked during importation (from external source) process, when fully-formed MTableDescriptor
-   * is submitted for persistence.
-   *
-   * @param mtd MTableDescriptor
-   * @return true if all serializations complete successfully
-   * @throws IOException if a remote or network exception occurs
-   */
-  private boolean putColumnDefinitionSchemaEntities(MTableDescriptor mtd) throws IOException {
-    if (!isIncludedTable(mtd.getTableName())) {
-      throw new TableNotIncludedForProcessingException(mtd.getTableName().getName(), null);
-    }
-    byte[] tableForeignKey = getTableForeignKey(mtd);
-    boolean serializationCompleted = true;
-    for (MColumnDescriptor mcd : mtd.getMColumnDescriptorArray()) {
-      byte[] colDescForeignKey = getForeignKey(SchemaEntityType.COLUMN_FAMILY.getRecordType(),
-              tableForeignKey, mcd.getName());
-      if (colDescForeignKey == null) {
-        serializationCompleted = false;
-        continue;
-      }
-      for (ColumnDefinition colDef : mcd.getColumnDefinitions()) {
-        byte[] colDefinitionForeignKey
-                = putColumnDefinitionSchemaEntity(colDescForeignKey, colDef);
-        if (colDefinitionForeignKey == null) {
-          serializationCompleted = false;
-        }
-      }
-    }
-    return serializationCompleted;
-  }
-
   /**
    * Invoked administratively to persist administrator-managed {@link ColumnDefinition}s in
    * Repository.
@@ -1152,8 +1693,15 @@ class Repository {
   private byte[] putSchemaEntity(
           RowId rowId, Map<byte[], byte[]> entityAttributeMap, boolean suppressUserName)
           throws IOException {
-    Result oldRow = repositoryTable.get(new Get(rowId.getByteArray()));
-    Put newRow = new Put(rowId.getByteArray());
+    return putSchemaEntity(repositoryTable, rowId, entityAttributeMap, suppressUserName);
+  }
+
+  private byte[] putSchemaEntity(Table table,
+          RowId rowId, Map<byte[], byte[]> entityAttributeMap, boolean suppressUserName)
+          throws IOException {
+    byte[] rowKey = repositoryLayout.toRowKey(rowId.getByteArray());
+    Result oldRow = table.get(new Get(rowKey));
+    Put newRow = new Put(rowKey);
     Map<byte[], byte[]> oldEntityAttributeMap;
 
     // ADD Columns to newRow to set foreignKey and entityStatus values appropriately
@@ -1220,10 +1768,10 @@ class Repository {
         List<Cell> maxValueLengthCells
                 = newRow.get(REPOSITORY_CF, ColumnAuditor.MAX_VALUE_LENGTH_KEY_BYTES);
         if (maxValueLengthCells == null || maxValueLengthCells.size() == 0) {
-          repositoryTable.put(newRow);
+          table.put(newRow);
         } else {
           // #checkAndPut to prevent bogus overlay of maxValueLength when submitted via mapReduce
-          repositoryTable.checkAndPut(rowId.getByteArray(), REPOSITORY_CF,
+          table.checkAndPut(rowKey, REPOSITORY_CF,
                   ColumnAuditor.MAX_VALUE_LENGTH_KEY_BYTES,
                   CompareFilter.CompareOp.LESS,
                   maxValueLengthCells.get(0).getValueArray(),
@@ -1231,7 +1779,7 @@ class Repository {
         }
 
       } else {
-        repositoryTable.put(newRow);
+        table.put(newRow);
       }
     }
     return foreignKey;
@@ -1267,6 +1815,15 @@ class Repository {
   }
 
   MTableDescriptor getMTableDescriptor(TableName tn) throws IOException {
+    long startNanos = System.nanoTime();
+    try {
+      return loadMTableDescriptor(tn);
+    } finally {
+      metrics.recordSince(tn, ColumnManagerMetrics.Timer.DESCRIPTOR_LOAD, startNanos);
+    }
+  }
+
+  private MTableDescriptor loadMTableDescriptor(TableName tn) throws IOException {
     byte[] namespaceForeignKey = getNamespaceForeignKey(tn.getNamespace());
     Result row = getActiveRow(
             SchemaEntityType.TABLE.getRecordType(), namespaceForeignKey, tn.getName(), null);
@@ -1352,6 +1909,35 @@ class Repository {
     return (row == null) ? null : new ColumnAuditor(deserializeSchemaEntity(row));
   }
 
+  /**
+   * Returns the ColumnAuditor against which an update reflecting the submitted value length is to
+   * be assessed. A possibly-stale ColumnAuditor suffices to determine that no update is needed;
+   * otherwise the ColumnAuditor is reread from the primary region, so that an update never
+   * regresses the audited metadata. The ColumnAuditor's row is read via the submitted Table.
+   */
+  private ColumnAuditor getColumnAuditorForUpdate(Table table, byte[] colFamilyForeignKey,
+          byte[] colQualifier, long valueLength) throws IOException {
+    byte[] rowKey = repositoryLayout.toRowKey(new RowId(
+            SchemaEntityType.COLUMN_AUDITOR.getRecordType(), colFamilyForeignKey, colQualifier)
+            .getByteArray());
+    ColumnAuditor colAuditor = getActiveColumnAuditor(table, rowKey, lookupConsistency);
+    if (lookupConsistency == Consistency.STRONG
+            || (colAuditor != null && valueLength <= colAuditor.getMaxValueLengthFound())) {
+      return colAuditor;
+    }
+    return getActiveColumnAuditor(table, rowKey, Consistency.STRONG);
+  }
+
+  private ColumnAuditor getActiveColumnAuditor(Table table, byte[] rowKey,
+          Consistency consistency) throws IOException {
+    Result row = table.get(new Get(rowKey).setConsistency(consistency));
+    if (row.isEmpty()
+            || !Bytes.equals(row.getValue(REPOSITORY_CF, ENTITY_STATUS_COLUMN), ACTIVE_STATUS)) {
+      return null;
+    }
+    return new ColumnAuditor(deserializeSchemaEntity(row));
+  }
+
   Set<ColumnDefinition> getColumnDefinitions(HTableDescriptor htd, HColumnDescriptor hcd)
           throws IOException {
     if (!isIncludedTable(htd.getTableName())) {
@@ -1379,12 +1965,23 @@ class Repository {
     return (row == null) ? null : new ColumnDefinition(deserializeSchemaEntity(row));
   }
 
-  private SchemaEntity deserializeSchemaEntity(Result row) {
+  private ColumnDefinition getColumnDefinition(byte[] colFamilyForeignKey, byte[] colQualifier,
+          Consistency consistency) throws IOException {
+    Result[] rows = getActiveRows(false, SchemaEntityType.COLUMN_DEFINITION.getRecordType(),
+            colFamilyForeignKey, colQualifier, null, consistency);
+    return (rows == null || rows.length == 0)
+            ? null : new ColumnDefinition(deserializeSchemaEntity(rows[0]));
+  }
+
+  SchemaEntity deserializeSchemaEntity(Result row) {
     if (row == null || row.isEmpty()) {
       return null;
     }
-    RowId rowId = new RowId(row.getRow());
+    RowId rowId = new RowId(repositoryLayout.toRowId(row.getRow()));
     SchemaEntity entity = new SchemaEntity(rowId.getEntityType(), rowId.getEntityName());
+    if (rowId.getEntityType() == SchemaEntityType.COLUMN_AUDITOR.getRecordType()) {
+      entity.setValue(LAST_SEEN_TIMESTAMP_KEY, Bytes.toBytes(getLastSeenTimestamp(row)));
+    }
     // full #getMap required to extract timestamps of counter columns
     for (Entry<byte[], NavigableMap<byte[],NavigableMap<Long,byte[]>>> familyToCellsMapEntry
             : row.getMap().entrySet()) {
@@ -1406,6 +2003,8 @@ class Repository {
               entity.setValue(COL_COUNTER_TIMESTAMP_KEY, Bytes.toBytes(cellEntry.getKey()));
             } else if (Bytes.equals(key, CELL_COUNTER_QUALIFIER)) {
               entity.setValue(CELL_COUNTER_TIMESTAMP_KEY, Bytes.toBytes(cellEntry.getKey()));
+            } else if (Bytes.equals(key, READ_COUNTER_QUALIFIER)) {
+              entity.setValue(READ_COUNTER_TIMESTAMP_KEY, Bytes.toBytes(cellEntry.getKey()));
             }
           } else if (key.length > CONFIG_COLUMN_PREFIX_BYTES.length
                   && Bytes.startsWith(key, CONFIG_COLUMN_PREFIX_BYTES)) {
@@ -1420,6 +2019,24 @@ class Repository {
     return entity;
   }
 
+  /**
+   * Returns the last-seen timestamp of a ColumnAuditor row: the latest timestamp of any of its
+   * cells, since every audit, discovery, or write-usage flush pertaining to the column writes to
+   * the row, as does the periodic refresh of its {@link #LAST_SEEN_COLUMN} upon writes of the
+   * column. The read counter is excluded, since a column which is only read (and whose reads are
+   * tracked) is not thereby seen in any written row.
+   */
+  static long getLastSeenTimestamp(Result colAuditorRow) {
+    long lastSeenTimestamp = 0;
+    for (Cell cell : colAuditorRow.rawCells()) {
+      if (CellUtil.matchingQualifier(cell, READ_COUNTER_QUALIFIER)) {
+        continue;
+      }
+      lastSeenTimestamp = Math.max(lastSeenTimestamp, cell.getTimestamp());
+    }
+    return lastSeenTimestamp;
+  }
+
   private Result getActiveRow(byte recordType, byte[] parentForeignKey, byte[] entityName,
           byte[] columnToGet)
           throws IOException {
@@ -1435,24 +2052,148 @@ class Repository {
   private Result[] getActiveRows(boolean getRowIdAndStatusOnly, byte recordType,
           byte[] parentForeignKey, byte[] entityName, byte[] columnToGet)
           throws IOException {
+    return getActiveRows(getRowIdAndStatusOnly, recordType, parentForeignKey, entityName,
+            columnToGet, lookupConsistency);
+  }
+
+  private Result[] getActiveRows(boolean getRowIdAndStatusOnly, byte recordType,
+          byte[] parentForeignKey, byte[] entityName, byte[] columnToGet, Consistency consistency)
+          throws IOException {
     SingleColumnValueFilter activeRowsOnlyFilter = new SingleColumnValueFilter(
             REPOSITORY_CF, ENTITY_STATUS_COLUMN, CompareFilter.CompareOp.EQUAL, ACTIVE_STATUS);
     activeRowsOnlyFilter.setFilterIfMissing(true);
     return getRepositoryRows(getRowIdAndStatusOnly, recordType, parentForeignKey, entityName,
-            columnToGet, activeRowsOnlyFilter);
+            columnToGet, activeRowsOnlyFilter, consistency);
   }
 
   private Result[] getRepositoryRows(byte recordType, byte[] parentForeignKey, byte[] columnToGet)
           throws IOException {
-    return getRepositoryRows(false, recordType, parentForeignKey, null, columnToGet, null);
+    return getRepositoryRows(false, recordType, parentForeignKey, null, columnToGet, null,
+            Consistency.STRONG);
   }
 
+  /**
+   * With {@link Consistency#TIMELINE} consistency, the scan may be served by a (possibly stale)
+   * region replica; a scan which finds nothing is then repeated against the primary region, so
+   * that newly-added entities are never reported as missing. (Stale non-empty results are
+   * returned as is, lest every replica-served scan be repeated; a column validation failure is
+   * confirmed against the primary region before being reported.)
+   */
   private Result[] getRepositoryRows(boolean getRowIdAndStatusOnly, byte recordType,
-          byte[] parentForeignKey, byte[] entityName, byte[] columnToGet, Filter filter)
+          byte[] parentForeignKey, byte[] entityName, byte[] columnToGet, Filter filter,
+          Consistency consistency)
           throws IOException {
     if (parentForeignKey == null) {
       return null;
     }
+    Scan scan = buildRepositoryScan(
+            getRowIdAndStatusOnly, recordType, parentForeignKey, entityName, columnToGet, filter);
+    List<Result> rows = scanRepository(repositoryLayout.toBucketScans(
+            scan.setConsistency(consistency), entityName != null));
+    if (rows.isEmpty() && consistency == Consistency.TIMELINE) {
+      return getRepositoryRows(getRowIdAndStatusOnly, recordType, parentForeignKey, entityName,
+              columnToGet, filter, Consistency.STRONG);
+    }
+    return rows.toArray(new Result[rows.size()]);
+  }
+
+  /**
+   * Returns the rows retrieved by the submitted Scans of the Repository table, in RowId order;
+   * multiple Scans (i.e., of the buckets of a salted Repository) are run in parallel.
+   */
+  private List<Result> scanRepository(List<Scan> bucketScans) throws IOException {
+    List<Result> rows = new ArrayList<>();
+    if (bucketScans.size() == 1) {
+      try (ResultScanner results = repositoryTable.getScanner(bucketScans.get(0))) {
+        for (Result row : results) {
+          rows.add(row);
+        }
+      }
+      return rows;
+    }
+    List<Future<List<Result>>> futures = new ArrayList<>(bucketScans.size());
+    for (final Scan bucketScan : bucketScans) {
+      futures.add(getBucketScanExecutor().submit(new Callable<List<Result>>() {
+        @Override
+        public List<Result> call() throws IOException {
+          // Table instances are not thread-safe, so each bucket is scanned via its own
+          List<Result> bucketRows = new ArrayList<>();
+          try (Table bucketTable = getGuardedRepositoryTable();
+                  ResultScanner results = bucketTable.getScanner(bucketScan)) {
+            for (Result row : results) {
+              bucketRows.add(row);
+            }
+          }
+          return bucketRows;
+        }
+      }));
+    }
+    try {
+      for (Future<List<Result>> future : futures) {
+        rows.addAll(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while scanning " + PRODUCT_NAME
+              + " Repository buckets.");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new ColumnManagerIOException("Failure in scan of " + PRODUCT_NAME
+              + " Repository bucket: " + e.getCause()) {};
+    } finally {
+      for (Future<List<Result>> future : futures) {
+        future.cancel(true);
+      }
+    }
+    Collections.sort(rows, repositoryLayout.getRowIdComparator());
+    return rows;
+  }
+
+  private synchronized ExecutorService getBucketScanExecutor() {
+    if (bucketScanExecutor == null) {
+      ThreadFactory threadFactory = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable,
+                  PRODUCT_NAME + " " + RepositoryLayout.class.getSimpleName());
+          thread.setDaemon(true);
+          return thread;
+        }
+      };
+      bucketScanExecutor
+              = Executors.newFixedThreadPool(repositoryLayout.getSaltBuckets(), threadFactory);
+    }
+    return bucketScanExecutor;
+  }
+
+  /**
+   * Returns the pool of threads on which {@link AliasDecodingResultScanner}s prefetch and decode
+   * Results. The pool is bounded by {@code [column_manager.scanner.prefetchThreads]} (default 8)
+   * and has no queue: a scanner opened while all threads are busy decodes on its caller's thread.
+   */
+  synchronized ExecutorService getScannerPrefetchExecutor() {
+    if (scannerPrefetchExecutor == null) {
+      ThreadFactory threadFactory = new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable,
+                  PRODUCT_NAME + " " + AliasDecodingResultScanner.class.getSimpleName());
+          thread.setDaemon(true);
+          return thread;
+        }
+      };
+      scannerPrefetchExecutor = new ThreadPoolExecutor(0,
+              Math.max(1, hbaseConnection.getConfiguration().getInt(
+                      SCANNER_PREFETCH_THREADS_KEY, DEFAULT_SCANNER_PREFETCH_THREADS)),
+              60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), threadFactory);
+    }
+    return scannerPrefetchExecutor;
+  }
+
+  private Scan buildRepositoryScan(boolean getRowIdAndStatusOnly, byte recordType,
+          byte[] parentForeignKey, byte[] entityName, byte[] columnToGet, Filter filter) {
     RowId startRowId = new RowId(recordType, parentForeignKey, entityName);
     byte[] stopRowId = startRowId.getStopRowIdByteArray();
     Scan scanParms = new Scan(startRowId.getByteArray(), stopRowId);
@@ -1466,13 +2207,33 @@ class Repository {
     if (filter != null) {
       scanParms.setFilter(filter);
     }
-    List<Result> rows = new ArrayList<>();
-    try (ResultScanner results = repositoryTable.getScanner(scanParms)) {
-      for (Result row : results) {
-        rows.add(row);
+    return scanParms;
+  }
+
+  /**
+   * Returns a scanner over the active repository rows of the designated type and parent; used
+   * (in conjunction with {@link #deserializeSchemaEntity(Result)}) when a potentially very large
+   * set of entities (e.g., the ColumnAuditors of a Column Family) is to be processed one row at
+   * a time rather than being materialized all at once.
+   */
+  ResultScanner getActiveRowScanner(byte recordType, byte[] parentForeignKey)
+          throws IOException {
+    SingleColumnValueFilter activeRowsOnlyFilter = new SingleColumnValueFilter(
+            REPOSITORY_CF, ENTITY_STATUS_COLUMN, CompareFilter.CompareOp.EQUAL, ACTIVE_STATUS);
+    activeRowsOnlyFilter.setFilterIfMissing(true);
+    List<ResultScanner> bucketScanners = new ArrayList<>();
+    try {
+      for (Scan bucketScan : repositoryLayout.toBucketScans(buildRepositoryScan(
+              false, recordType, parentForeignKey, null, null, activeRowsOnlyFilter), false)) {
+        bucketScanners.add(repositoryTable.getScanner(bucketScan));
       }
+      return repositoryLayout.mergeBucketScanners(bucketScanners);
+    } catch (IOException e) {
+      for (ResultScanner bucketScanner : bucketScanners) {
+        bucketScanner.close();
+      }
+      throw e;
     }
-    return rows.toArray(new Result[rows.size()]);
   }
 
   /**
@@ -1490,8 +2251,12 @@ class Repository {
     if (parentForeignKey == null || entityName == null) {
       return null;
     }
-    Result row = repositoryTable.get(
-            new Get(new RowId(recordType, parentForeignKey, entityName).getByteArray()));
+    Get getRow = new Get(repositoryLayout.toRowKey(
+            new RowId(recordType, parentForeignKey, entityName).getByteArray()));
+    Result row = repositoryTable.get(getRow.setConsistency(lookupConsistency));
+    if (row.isEmpty() && row.isStale()) {
+      row = repositoryTable.get(getRow.setConsistency(Consistency.STRONG));
+    }
     return row.isEmpty() ? null : row.getValue(REPOSITORY_CF, FOREIGN_KEY_COLUMN);
   }
 
@@ -1583,7 +2348,156 @@ class Repository {
     }
   }
 
-  void enableColumnAliases(boolean enabled, TableName tableName, byte[] colFamily)
+  ColumnAuditingPolicy getColumnAuditingPolicy(TableName tableName, byte[] colFamily)
+          throws IOException {
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    MColumnDescriptor mcd = getMColumnDescriptor(getTableForeignKey(tableName), colFamily);
+    return (mcd == null) ? ColumnAuditingPolicy.auditAll() : mcd.getColumnAuditingPolicy();
+  }
+
+  void setColumnAuditingPolicy(TableName tableName, byte[] colFamily, ColumnAuditingPolicy policy)
+          throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    byte[] tableForeignKey = getTableForeignKey(tableName);
+    MColumnDescriptor mcd = getMColumnDescriptor(tableForeignKey, colFamily);
+    if (mcd == null) {
+      return;
+    }
+    if (!mcd.getColumnAuditingPolicy().equals(policy)) {
+      mcd.setColumnAuditingPolicy(policy);
+      putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+    }
+  }
+
+  long getColumnAuditorRetentionPeriod(TableName tableName, byte[] colFamily) throws IOException {
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    MColumnDescriptor mcd = getMColumnDescriptor(getTableForeignKey(tableName), colFamily);
+    return (mcd == null) ? 0 : mcd.getColumnAuditorRetentionPeriod();
+  }
+
+  void setColumnAuditorRetentionPeriod(TableName tableName, byte[] colFamily,
+          long retentionPeriod) throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    byte[] tableForeignKey = getTableForeignKey(tableName);
+    MColumnDescriptor mcd = getMColumnDescriptor(tableForeignKey, colFamily);
+    if (mcd == null) {
+      return;
+    }
+    if (mcd.getColumnAuditorRetentionPeriod() != Math.max(0, retentionPeriod)) {
+      mcd.setColumnAuditorRetentionPeriod(retentionPeriod);
+      putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+    }
+  }
+
+  long sweepExpiredColumnAuditors() throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    long expiredCount = 0;
+    for (NamespaceDescriptor nd : standardAdmin.listNamespaceDescriptors()) {
+      if (isIncludedNamespace(nd.getName())) {
+        expiredCount += sweepExpiredColumnAuditors(nd.getName());
+      }
+    }
+    return expiredCount;
+  }
+
+  long sweepExpiredColumnAuditors(String namespace) throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedNamespace(namespace)) {
+      throw new TableNotIncludedForProcessingException(
+              Bytes.toBytes(namespace + ALL_TABLES_WILDCARD_INDICATOR),
+              "NO table from namespace <" + namespace + "> is included for "
+                      + PRODUCT_NAME + " processing.");
+    }
+    long expiredCount = 0;
+    for (HTableDescriptor htd : standardAdmin.listTableDescriptorsByNamespace(namespace)) {
+      if (isIncludedTable(htd.getTableName())) {
+        expiredCount += sweepExpiredColumnAuditors(htd.getTableName());
+      }
+    }
+    return expiredCount;
+  }
+
+  /**
+   * Marks as deleted each ColumnAuditor of the Table not seen within the retention period of its
+   * Column Family. The ColumnAuditors are streamed (the Table's descriptor is deliberately not
+   * loaded, since its ColumnAuditors may be too numerous) and deleted in batches. A deleted
+   * ColumnAuditor whose column is subsequently written (or discovered) is reactivated.
+   */
+  long sweepExpiredColumnAuditors(TableName tableName) throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    byte[] tableForeignKey = getTableForeignKey(tableName);
+    if (tableForeignKey == null) {
+      return 0;
+    }
+    long sweepTimestamp = System.currentTimeMillis();
+    long expiredCount = 0;
+    for (Result colFamilyRow : getActiveRows(
+            SchemaEntityType.COLUMN_FAMILY.getRecordType(), tableForeignKey)) {
+      MColumnDescriptor mcd = new MColumnDescriptor(deserializeSchemaEntity(colFamilyRow));
+      long retentionPeriod = mcd.getColumnAuditorRetentionPeriod();
+      if (retentionPeriod > 0) {
+        expiredCount += sweepExpiredColumnAuditors(
+                mcd.getForeignKey(), sweepTimestamp - retentionPeriod);
+      }
+    }
+    if (expiredCount > 0) {
+      metrics.add(tableName, ColumnManagerMetrics.Counter.AUDITORS_EXPIRED, expiredCount);
+      logger.info(PRODUCT_NAME + " sweep of table <" + tableName.getNameAsString() + "> deleted "
+              + expiredCount + " expired ColumnAuditor(s).");
+    }
+    return expiredCount;
+  }
+
+  /**
+   * Each expired ColumnAuditor is deleted via a checkAndPut conditioned upon the
+   * {@link #LAST_SEEN_COLUMN} value observed by the sweep, so that a ColumnAuditor whose last-seen
+   * timestamp is refreshed (by a write of its column) after it was scanned is not deleted.
+   */
+  private long sweepExpiredColumnAuditors(byte[] colFamilyForeignKey, long expiryTimestamp)
+          throws IOException {
+    long expiredCount = 0;
+    try (ResultScanner colAuditorRows = getActiveRowScanner(
+            SchemaEntityType.COLUMN_AUDITOR.getRecordType(), colFamilyForeignKey)) {
+      for (Result row : colAuditorRows) {
+        if (getLastSeenTimestamp(row) >= expiryTimestamp) {
+          continue;
+        }
+        if (repositoryTable.checkAndPut(row.getRow(), REPOSITORY_CF, LAST_SEEN_COLUMN,
+                row.getValue(REPOSITORY_CF, LAST_SEEN_COLUMN), new Put(row.getRow())
+                        .addColumn(REPOSITORY_CF, ENTITY_STATUS_COLUMN, DELETED_STATUS)
+                        .addColumn(REPOSITORY_CF, JAVA_USERNAME_PROPERTY_KEY, javaUsername))) {
+          expiredCount++;
+        }
+      }
+    }
+    return expiredCount;
+  }
+
+  void enableColumnAliases(boolean enabled, TableName tableName, byte[] colFamily,
+          ColumnAliasEncoding aliasEncoding)
           throws IOException {
     if (!this.isActivated()) {
       throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
@@ -1596,10 +2510,182 @@ class Repository {
     if (mcd == null) {
       return;
     }
-    if (mcd.columnAliasesEnabled() != enabled) {
+    boolean encodingChanged = enabled && aliasEncoding != null
+            && mcd.getColumnAliasEncoding() != aliasEncoding;
+    if (mcd.columnAliasesEnabled() != enabled || encodingChanged) {
       mcd.enableColumnAliases(enabled);
+      if (encodingChanged) {
+        mcd.setColumnAliasEncoding(aliasEncoding);
+      }
+      putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+    }
+  }
+
+  /**
+   * Repoints the AliasDirectory entries of an alias-enabled Column Family to column-aliases in
+   * the designated encoding, and then rewrites all cells of the Column Family so that their
+   * column-aliases are in that encoding. Throughout, the Column Family is marked as
+   * conversion-in-progress, so that reads and deletes accommodate column-aliases in either
+   * encoding. Each row is rewritten atomically (via RowMutations), and cells already in the
+   * designated encoding are bypassed, so an interrupted re-encoding may simply be rerun.
+   *
+   * @return count of cells rewritten
+   */
+  long reencodeColumnAliases(TableName tableName, byte[] colFamily,
+          ColumnAliasEncoding aliasEncoding) throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    byte[] tableForeignKey = getTableForeignKey(tableName);
+    MColumnDescriptor mcd = getMColumnDescriptor(tableForeignKey, colFamily);
+    if (mcd == null || !mcd.columnAliasesEnabled()) {
+      throw new ColumnManagerIOException("Column aliases are not enabled for Column Family <"
+              + Bytes.toString(colFamily) + "> in Table <" + tableName.getNameAsString()
+              + ">.") {};
+    }
+    logger.info("RE-ENCODING of column-aliases to " + aliasEncoding + " encoding invoked for "
+            + "Column Family <" + Bytes.toString(colFamily) + "> in Table <"
+            + tableName.getNameAsString() + ">.");
+    // every column-alias in any other encoding maps to its equivalent in the new encoding
+    NavigableMap<byte[], byte[]> oldAliasToNewAliasMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    NavigableMap<byte[], byte[]> qualifierToNewAliasMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    for (Entry<byte[], byte[]> aliasEntry
+            : getQualifierToAliasMap(tableName, colFamily, NULL_NAVIGABLE_SET, false).entrySet()) {
+      byte[] directoryAlias = aliasEntry.getValue();
+      if (directoryAlias.length == 0) {
+        continue; // empty qualifier is never aliased
+      }
+      byte[] newAlias = aliasEncoding.encode(ColumnAliasEncoding.decode(directoryAlias));
+      if (!Bytes.equals(directoryAlias, newAlias)) {
+        qualifierToNewAliasMap.put(aliasEntry.getKey(), newAlias);
+      }
+      for (byte[] oldAlias : ColumnAliasEncoding.getEquivalentAliases(directoryAlias)) {
+        if (!Bytes.equals(oldAlias, newAlias)) {
+          oldAliasToNewAliasMap.put(oldAlias, newAlias);
+        }
+      }
+    }
+    long cellCount = 0;
+    // an interrupted prior re-encoding is detected by its conversion-in-progress marking
+    if (!qualifierToNewAliasMap.isEmpty() || mcd.columnAliasConversionInProgress()) {
+      // new column-aliases are assigned in the new encoding from this point on
+      mcd.setColumnAliasEncoding(aliasEncoding);
+      mcd.setColumnAliasConversionInProgress(true);
+      putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+      if (!qualifierToNewAliasMap.isEmpty()) {
+        // writes use the new column-aliases from this point on, so no old-encoded cell is added
+        RowId rowId = new RowId(
+                SchemaEntityType.COLUMN_FAMILY.getRecordType(), tableForeignKey, colFamily);
+        Put aliasDirectoryPut = new Put(rowId.getByteArray());
+        for (Entry<byte[], byte[]> qualifierEntry : qualifierToNewAliasMap.entrySet()) {
+          aliasDirectoryPut.addColumn(
+                  ALIAS_CF, qualifierEntry.getKey(), qualifierEntry.getValue());
+        }
+        aliasTable.put(aliasDirectoryPut);
+      }
+      cellCount = reencodeColumnAliasesInCells(tableName, colFamily, oldAliasToNewAliasMap);
+      mcd.setColumnAliasConversionInProgress(false);
       putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+    } else if (mcd.getColumnAliasEncoding() != aliasEncoding) {
+      // no column-aliases yet assigned: new column-aliases are assigned in the new encoding
+      mcd.setColumnAliasEncoding(aliasEncoding);
+      putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+    }
+    logger.info("RE-ENCODING of column-aliases completed: " + qualifierToNewAliasMap.size()
+            + " column-aliases re-encoded in " + cellCount + " cells.");
+    return cellCount;
+  }
+
+  /**
+   * The old-encoded cells of each row are replaced via a single atomic
+   * {@link Table#mutateRow(RowMutations) mutateRow} (RowMutations may not be submitted via
+   * {@link Table#batch(List, Object[]) batch}), so that no read sees a column in both encodings.
+   */
+  private long reencodeColumnAliasesInCells(TableName tableName, byte[] colFamily,
+          NavigableMap<byte[], byte[]> oldAliasToNewAliasMap) throws IOException {
+    long cellCount = 0;
+    Scan scan = new Scan().addFamily(colFamily).setMaxVersions().setCacheBlocks(false)
+            .setCaching(REENCODING_SCAN_CACHING);
+    try (Table table = getStandardConnection(hbaseConnection).getTable(tableName);
+            ResultScanner rows = table.getScanner(scan)) {
+      for (Result row : rows) {
+        Put put = new Put(row.getRow());
+        Delete delete = new Delete(row.getRow());
+        for (Cell cell : row.rawCells()) {
+          byte[] newAlias = oldAliasToNewAliasMap.get(CellUtil.cloneQualifier(cell));
+          if (newAlias == null) {
+            continue; // already re-encoded
+          }
+          put.addColumn(colFamily, newAlias, cell.getTimestamp(), CellUtil.cloneValue(cell));
+          delete.addColumn(colFamily, CellUtil.cloneQualifier(cell), cell.getTimestamp());
+          cellCount++;
+        }
+        if (put.isEmpty()) {
+          continue;
+        }
+        RowMutations rowMutations = new RowMutations(row.getRow());
+        rowMutations.add(put);
+        rowMutations.add(delete);
+        table.mutateRow(rowMutations);
+      }
+    }
+    return cellCount;
+  }
+
+  /**
+   * Converts the existing cells of a Column Family to column-alias form (if toAliases) or to
+   * user-column-qualifier form, while the Column Family remains online. Throughout the
+   * conversion, the Column Family is marked as conversion-in-progress: writes are performed in
+   * the target form, while reads accept cells in either form.
+   *
+   * @return count of cells converted
+   */
+  long convertColumnAliasStorage(final TableName tableName, final byte[] colFamily,
+          boolean toAliases, ColumnAliasEncoding aliasEncoding, int threadCount,
+          int maxCellsPerSecond, File checkpointFile) throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
     }
+    byte[] tableForeignKey = getTableForeignKey(tableName);
+    MColumnDescriptor mcd = getMColumnDescriptor(tableForeignKey, colFamily);
+    if (mcd == null) {
+      throw new ColumnManagerIOException("Column Family <" + Bytes.toString(colFamily)
+              + "> not found in Table <" + tableName.getNameAsString() + ">.") {};
+    }
+    String direction = toAliases ? "TO column-aliases" : "FROM column-aliases";
+    logger.info("CONVERSION of cells " + direction + " invoked for Column Family <"
+            + Bytes.toString(colFamily) + "> in Table <" + tableName.getNameAsString() + ">.");
+    mcd.enableColumnAliases(toAliases);
+    if (toAliases && aliasEncoding != null) {
+      mcd.setColumnAliasEncoding(aliasEncoding);
+    }
+    mcd.setColumnAliasConversionInProgress(true);
+    putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+
+    ColumnAliasConverter.AliasDirectory aliasDirectory
+            = new ColumnAliasConverter.AliasDirectory() {
+      @Override
+      public NavigableMap<byte[], byte[]> getQualifierToAliasMap(
+              NavigableSet<byte[]> colQualifiers, boolean assignMissing) throws IOException {
+        return Repository.this.getQualifierToAliasMap(
+                tableName, colFamily, colQualifiers, assignMissing);
+      }
+    };
+    long cellCount = new ColumnAliasConverter(aliasDirectory,
+            getStandardConnection(hbaseConnection), tableName, colFamily, toAliases, threadCount,
+            maxCellsPerSecond, checkpointFile).convert();
+
+    mcd.setColumnAliasConversionInProgress(false);
+    putColumnFamilySchemaEntity(tableForeignKey, mcd, tableName);
+    logger.info("CONVERSION of cells " + direction + " completed: " + cellCount
+            + " cells converted.");
+    return cellCount;
   }
 
   private String buildOrderedCommaDelimitedString(List<String> list) {
@@ -1640,6 +2726,21 @@ class Repository {
     deleteTableSchemaEntity(false, false, tableName);
   }
 
+  /**
+   * Marks the SchemaEntities of all submitted Tables (and all of their descendant SchemaEntities)
+   * as deleted, with all Repository mutations submitted in batches. As with
+   * {@link #deleteTableSchemaEntity(TableName)}, Tables are not filtered for inclusion, so that
+   * entries captured while a Table was included are not left behind.
+   */
+  void deleteTableSchemaEntities(Collection<TableName> tableNames) throws IOException {
+    List<Mutation> mutations = new ArrayList<>();
+    for (TableName tableName : tableNames) {
+      collectSchemaEntityDeletions(false, false, SchemaEntityType.TABLE.getRecordType(),
+              getNamespaceForeignKey(tableName.getNamespace()), tableName.getName(), mutations);
+    }
+    submitRepositoryMutations(mutations);
+  }
+
   private void deleteTableSchemaEntity(boolean purge, boolean truncateColumns,
           TableName tableName) throws IOException {
     byte[] namespaceForeignKey = getNamespaceForeignKey(tableName.getNamespace());
@@ -1680,18 +2781,42 @@ class Repository {
   private void deleteSchemaEntity(boolean purge, boolean truncateColumns, byte recordType,
           byte[] parentForeignKey, byte[] entityName)
           throws IOException {
+    List<Mutation> mutations = new ArrayList<>();
+    collectSchemaEntityDeletions(
+            purge, truncateColumns, recordType, parentForeignKey, entityName, mutations);
+    submitRepositoryMutations(mutations);
+  }
+
+  private void submitRepositoryMutations(List<Mutation> mutations) throws IOException {
+    for (int start = 0; start < mutations.size(); start += REPOSITORY_MUTATION_BATCH_SIZE) {
+      List<Mutation> batch = mutations.subList(
+              start, Math.min(mutations.size(), start + REPOSITORY_MUTATION_BATCH_SIZE));
+      try {
+        repositoryTable.batch(batch, new Object[batch.size()]);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted during submission of mutations to "
+                + PRODUCT_NAME + " Repository.");
+      }
+    }
+  }
+
+  private void collectSchemaEntityDeletions(boolean purge, boolean truncateColumns,
+          byte recordType, byte[] parentForeignKey, byte[] entityName, List<Mutation> mutations)
+          throws IOException {
     if (parentForeignKey == null) {
       return;
     }
     for (Result row :
-            getRepositoryRows(true, recordType, parentForeignKey, entityName, null, null)) {
+            getRepositoryRows(true, recordType, parentForeignKey, entityName, null, null,
+                    Consistency.STRONG)) {
       if (!truncateColumns || (truncateColumns &&
               recordType == SchemaEntityType.COLUMN_AUDITOR.getRecordType())) {
         if (purge) {
-          repositoryTable.delete(new Delete(row.getRow()));
+          mutations.add(new Delete(row.getRow()));
         } else {
           if (!Bytes.equals(row.getValue(REPOSITORY_CF, ENTITY_STATUS_COLUMN), DELETED_STATUS)) {
-            repositoryTable.put(new Put(row.getRow())
+            mutations.add(new Put(row.getRow())
                     .addColumn(REPOSITORY_CF, ENTITY_STATUS_COLUMN, DELETED_STATUS)
                     .addColumn(REPOSITORY_CF, JAVA_USERNAME_PROPERTY_KEY, javaUsername));
           }
@@ -1715,12 +2840,12 @@ class Repository {
         default:
           continue;
       }
-      deleteSchemaEntity(purge, truncateColumns, childRecordType,
-              row.getValue(REPOSITORY_CF, FOREIGN_KEY_COLUMN), null);
+      collectSchemaEntityDeletions(purge, truncateColumns, childRecordType,
+              row.getValue(REPOSITORY_CF, FOREIGN_KEY_COLUMN), null, mutations);
       if (childRecordType == SchemaEntityType.COLUMN_AUDITOR.getRecordType()) {
-        deleteSchemaEntity(purge, truncateColumns,
+        collectSchemaEntityDeletions(purge, truncateColumns,
                 SchemaEntityType.COLUMN_DEFINITION.getRecordType(),
-                row.getValue(REPOSITORY_CF, FOREIGN_KEY_COLUMN), null);
+                row.getValue(REPOSITORY_CF, FOREIGN_KEY_COLUMN), null, mutations);
       }
     }
   }
@@ -1795,8 +2920,9 @@ class Repository {
     // for any previously-discovered ColumnAuditors, reset counters
     for (MColumnDescriptor mcd : mtd.getMColumnDescriptors()) {
       for (ColumnAuditor colAuditor : mcd.getColumnAuditors()) {
-        byte[] rowId = new RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
-                mcd.getForeignKey(), colAuditor.getColumnQualifier()).getByteArray();
+        byte[] rowId = repositoryLayout.toRowKey(
+                new RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
+                        mcd.getForeignKey(), colAuditor.getColumnQualifier()).getByteArray());
         long resetValue = repositoryTable.incrementColumnValue(
                 rowId, REPOSITORY_CF, COL_COUNTER_QUALIFIER, 0) * -1;
         repositoryTable.incrementColumnValue(
@@ -1824,16 +2950,19 @@ class Repository {
         }
       }
     } else {
-      Table table = hbaseConnection.getTable(tableName);
+      // raw scan: columns of alias-enabled families are aggregated by column-alias
       Scan colScan = new Scan().setFilter(new KeyOnlyFilter(true));
       if (includeAllCells) {
         colScan.setMaxVersions();
       }
-      try (ResultScanner rows = table.getScanner(colScan)) {
+      ColumnDiscoveryStatistics statistics = new ColumnDiscoveryStatistics();
+      try (Table table = getStandardConnection(hbaseConnection).getTable(tableName);
+              ResultScanner rows = table.getScanner(colScan)) {
         for (Result row : rows) {
-          putDiscoveredColumnAuditors(mtd, row, true);
+          statistics.addRow(row, true);
         }
       }
+      putDiscoveredColumnAuditors(mtd, statistics);
     }
   }
 
@@ -1876,8 +3005,9 @@ class Repository {
     NavigableMap<byte[], byte[]> aliasMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
     aliasMap.put(HConstants.EMPTY_BYTE_ARRAY, HConstants.EMPTY_BYTE_ARRAY); // no alias for empty qualifier
     // get existing aliases from aliasTable
-    RowId rowId = new RowId(SchemaEntityType.COLUMN_FAMILY.getRecordType(),
-            getTableForeignKey(tableName), colFamily);
+    byte[] tableForeignKey = getTableForeignKey(tableName);
+    RowId rowId = new RowId(
+            SchemaEntityType.COLUMN_FAMILY.getRecordType(), tableForeignKey, colFamily);
     Get getAliasRow = new Get(rowId.getByteArray());
     if (colQualifierSet == null) {
       getAliasRow.addFamily(ALIAS_CF);
@@ -1886,35 +3016,55 @@ class Repository {
         getAliasRow.addColumn(ALIAS_CF, colQualifier);
       }
     }
-    Result aliasRow = aliasTable.get(getAliasRow);
+    Result aliasRow = aliasTable.get(getAliasRow.setConsistency(lookupConsistency));
+    // a stale replica may lack recently-assigned aliases, so reread any miss from the primary
+    if (aliasRow.isStale() && (colQualifierSet == null
+            || aliasRow.size() < colQualifierSet.size())) {
+      aliasRow = aliasTable.get(getAliasRow.setConsistency(Consistency.STRONG));
+    }
     if (!aliasRow.isEmpty()) {
       aliasMap.putAll(aliasRow.getFamilyMap(ALIAS_CF));
     }
     if (colQualifierSet != null) {
+      ColumnAliasEncoding aliasEncoding = null;
+      int aliasLookupMisses = 0;
       for (byte[] colQualifier : colQualifierSet) {
         if (aliasMap.get(colQualifier) == null) {
+          aliasLookupMisses++;
           if (addAliasIfNotFound) {
-            aliasMap.put(colQualifier, getNewAlias(rowId.getByteArray(), colQualifier));
+            if (aliasEncoding == null) {
+              MColumnDescriptor mcd = getMColumnDescriptor(tableForeignKey, colFamily);
+              aliasEncoding = (mcd == null) ?
+                      ColumnAliasEncoding.FOUR_BYTE_INT : mcd.getColumnAliasEncoding();
+            }
+            aliasMap.put(colQualifier,
+                    getNewAlias(tableName, rowId.getByteArray(), colQualifier, aliasEncoding));
           } else {
             // invalid alias mapped to invalid alias
             aliasMap.put(colQualifier, INVALID_ALIAS);
           }
         }
       }
+      metrics.add(tableName, ColumnManagerMetrics.Counter.ALIAS_LOOKUP_HITS,
+              colQualifierSet.size() - aliasLookupMisses);
+      metrics.add(tableName, ColumnManagerMetrics.Counter.ALIAS_LOOKUP_MISSES, aliasLookupMisses);
     }
     aliasMap.remove(ALIAS_INCREMENTOR_COLUMN);
     return aliasMap;
   }
 
 
-  private byte[] getNewAlias(byte[] aliasTableRowId, byte[] colQualifier) throws IOException {
-    byte[] newAlias = Bytes.toBytes(new Long(aliasTable.incrementColumnValue(
+  private byte[] getNewAlias(TableName tableName, byte[] aliasTableRowId, byte[] colQualifier,
+          ColumnAliasEncoding aliasEncoding) throws IOException {
+    byte[] newAlias = aliasEncoding.encode(new Long(aliasTable.incrementColumnValue(
             aliasTableRowId, ALIAS_CF, ALIAS_INCREMENTOR_COLUMN, 1)).intValue());
     Put putNewAlias = new Put(aliasTableRowId).addColumn(ALIAS_CF, colQualifier, newAlias);
     boolean putSucceeded = aliasTable.checkAndPut(
             aliasTableRowId, ALIAS_CF, colQualifier, null, putNewAlias);
     // put may NOT have succeeded if concurrent thread already stored an alias for the qualifier
-    if (!putSucceeded) {
+    if (putSucceeded) {
+      metrics.increment(tableName, ColumnManagerMetrics.Counter.ALIASES_ASSIGNED);
+    } else {
       Get getAlias = new Get(aliasTableRowId).addColumn(ALIAS_CF, colQualifier);
       newAlias = aliasTable.get(getAlias).getValue(ALIAS_CF, colQualifier);
     }
@@ -1939,8 +3089,8 @@ class Repository {
     }
   }
 
-  void exportSchema(String sourceNamespace, TableName sourceTableName, File targetFile)
-          throws IOException, JAXBException, XMLStreamException {
+  void exportSchema(String sourceNamespace, TableName sourceTableName, File targetFile,
+          SchemaArchiveFormat format) throws IOException, JAXBException, XMLStreamException {
     if (!this.isActivated()) {
       throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
     }
@@ -1951,7 +3101,8 @@ class Repository {
       allLiteral = "ALL ";
     }
     logger.info("EXPORT of " + allLiteral
-            + "ColumnManager repository schema to external XML file has been invoked.");
+            + "ColumnManager repository schema to external " + format
+            + " file has been invoked.");
     if (sourceNamespace != null && !sourceNamespace.isEmpty()) {
       logger.info("EXPORT source NAMESPACE: " + sourceNamespace);
     }
@@ -1960,11 +3111,36 @@ class Repository {
     }
     logger.info("EXPORT target FILE NAME: " + targetFile.getAbsolutePath());
 
-    HBaseSchemaArchive.exportToXmlFile(
-            new HBaseSchemaArchive(sourceNamespace, sourceTableName, this), targetFile);
+    HBaseSchemaArchive.exportToFile(sourceNamespace, sourceTableName, this, targetFile, format);
     logger.info("EXPORT of ColumnManager repository schema has been completed.");
   }
 
+  void exportColumnAliasDictionary(TableName tableName, File targetFile) throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    logger.info("EXPORT of column-alias dictionary for Table <" + tableName.getNameAsString()
+            + "> to file <" + targetFile.getAbsolutePath() + "> has been invoked.");
+    NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
+            = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    MTableDescriptor mtd = getMTableDescriptor(tableName);
+    if (mtd != null) {
+      for (MColumnDescriptor mcd : mtd.getMColumnDescriptors()) {
+        if (mcd.columnAliasReadProcessingRequired()) {
+          familyQualifierToAliasMap.put(mcd.getName(), getQualifierToAliasMap(
+                  tableName, mcd.getName(), NULL_NAVIGABLE_SET, false));
+        }
+      }
+    }
+    ColumnAliasDictionary.write(
+            targetFile, tableName, System.currentTimeMillis(), familyQualifierToAliasMap);
+    logger.info("EXPORT of column-alias dictionary has been completed: "
+            + familyQualifierToAliasMap.size() + " alias-enabled Column Families exported.");
+  }
+
   void importSchema(File sourceHsaFile, String namespaceFilter, TableName tableNameFilter,
           byte[] colFamilyFilter, boolean includeColumnAuditors,
           boolean bypassNamespacesTablesAndCFs)
@@ -1976,14 +3152,105 @@ class Repository {
     submitImportMessagesToLogger(sourceHsaFile, namespaceFilter, tableNameFilter,
             colFamilyFilter, includeColumnAuditors, bypassNamespacesTablesAndCFs);
 
-    Set<Object> importedDescriptors =  new LinkedHashSet<>();
-    for (SchemaEntity entity :
-            HBaseSchemaArchive.deserializeXmlFile(sourceHsaFile).getSchemaEntities()) {
-      importedDescriptors.addAll(SchemaEntity.convertToNamespaceAndTableDescriptorSet(
-              entity, namespaceFilter, tableNameFilter, colFamilyFilter));
+    // The archive is streamed twice, so that it is never held in memory in its entirety: the
+    //  first pass creates Namespaces and Tables (with their Column Families); the second pass
+    //  persists the ColumnDefinitions (and ColumnAuditors) of those Tables one at a time.
+    Set<Object> importedDescriptors = new LinkedHashSet<>();
+    try (HBaseSchemaArchive.SchemaEntityReader entityReader
+            = HBaseSchemaArchive.openSchemaEntityReader(sourceHsaFile)) {
+      boolean namespaceSelected = false;
+      MTableDescriptor mtd = null;
+      for (SchemaEntity entity = entityReader.next(); entity != null;
+              entity = entityReader.next()) {
+        switch (entity.getSchemaEntityType()) {
+          case NAMESPACE:
+            Set<Object> convertedDescriptors = SchemaEntity.convertToNamespaceAndTableDescriptorSet(
+                    entity, namespaceFilter, tableNameFilter, colFamilyFilter);
+            namespaceSelected = !convertedDescriptors.isEmpty();
+            importedDescriptors.addAll(convertedDescriptors);
+            break;
+          case TABLE:
+            mtd = null;
+            if (namespaceSelected || entityReader.getDepth() == 0) {
+              for (Object descriptor : SchemaEntity.convertToNamespaceAndTableDescriptorSet(
+                      entity, namespaceFilter, tableNameFilter, colFamilyFilter)) {
+                mtd = (MTableDescriptor) descriptor;
+                importedDescriptors.add(mtd);
+              }
+            }
+            break;
+          case COLUMN_FAMILY:
+            if (mtd != null) {
+              for (Object descriptor : SchemaEntity.convertToNamespaceAndTableDescriptorSet(
+                      entity, namespaceFilter, tableNameFilter, colFamilyFilter)) {
+                mtd.addFamily((MColumnDescriptor) descriptor);
+              }
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    Set<TableName> createdTables = new TreeSet<>();
+    Map<TableName, Boolean> tablesForColumnImport = createImportedStructures(importedDescriptors,
+            includeColumnAuditors, bypassNamespacesTablesAndCFs, createdTables);
+    if (!tablesForColumnImport.isEmpty()) {
+      importColumnSchemaEntities(sourceHsaFile, colFamilyFilter, tablesForColumnImport);
+    }
+    // a created Table's import is only complete once its ColumnDefinitions have been persisted
+    for (TableName tableName : createdTables) {
+      logger.info("IMPORT COMPLETED FOR TABLE: " + tableName.getNameAsString()
+              + (includeColumnAuditors ? " <INCLUDING COLUMN AUDITOR METADATA>" : ""));
+    }
+  }
+
+  /**
+   * Second pass of schema importation: each ColumnDefinition (and, where so designated, each
+   * ColumnAuditor) of the designated Tables is persisted as it is read from the archive.
+   *
+   * @param tablesForColumnImport map of Tables to be processed; each Table's value designates
+   * whether its ColumnAuditors are to be imported
+   */
+  private void importColumnSchemaEntities(File sourceHsaFile, byte[] colFamilyFilter,
+          Map<TableName, Boolean> tablesForColumnImport) throws IOException, JAXBException {
+    try (HBaseSchemaArchive.SchemaEntityReader entityReader
+            = HBaseSchemaArchive.openSchemaEntityReader(sourceHsaFile)) {
+      byte[] tableForeignKey = null;
+      boolean includeColumnAuditors = false;
+      byte[] colFamilyForeignKey = null;
+      for (SchemaEntity entity = entityReader.next(); entity != null;
+              entity = entityReader.next()) {
+        switch (entity.getSchemaEntityType()) {
+          case TABLE:
+            TableName tableName = TableName.valueOf(entity.getNameAsString());
+            tableForeignKey = tablesForColumnImport.containsKey(tableName)
+                    ? getTableForeignKey(tableName) : null;
+            includeColumnAuditors = Boolean.TRUE.equals(tablesForColumnImport.get(tableName));
+            colFamilyForeignKey = null;
+            break;
+          case COLUMN_FAMILY:
+            colFamilyForeignKey = (tableForeignKey == null
+                    || (colFamilyFilter != null
+                            && !Bytes.toString(colFamilyFilter).equals(entity.getNameAsString())))
+                    ? null : getForeignKey(SchemaEntityType.COLUMN_FAMILY.getRecordType(),
+                            tableForeignKey, entity.getName());
+            break;
+          case COLUMN_DEFINITION:
+            if (colFamilyForeignKey != null) {
+              putColumnDefinitionSchemaEntity(colFamilyForeignKey, new ColumnDefinition(entity));
+            }
+            break;
+          case COLUMN_AUDITOR:
+            if (colFamilyForeignKey != null && includeColumnAuditors) {
+              putColumnAuditorSchemaEntity(colFamilyForeignKey, new ColumnAuditor(entity));
+            }
+            break;
+          default:
+            break;
+        }
+      }
     }
-    createImportedStructures(importedDescriptors,
-            includeColumnAuditors, bypassNamespacesTablesAndCFs);
   }
 
   private void submitImportMessagesToLogger(File sourceHsaFile, String namespaceFilter,
@@ -1993,7 +3260,7 @@ class Repository {
             + ((bypassNamespacesTablesAndCFs) ? "<COLUMN DEFINITION> " : "")
             + "schema "
             + ((includeColumnAuditors) ? "<INCLUDING COLUMN AUDITOR METADATA> " : "")
-            + "from external HBaseSchemaArchive (XML) file has been requested.");
+            + "from external HBaseSchemaArchive file has been requested.");
     if (namespaceFilter != null && !namespaceFilter.isEmpty()
             && (tableNameFilter == null || tableNameFilter.getNameAsString().isEmpty())) {
       logger.info("IMPORT NAMESPACE: " + namespaceFilter);
@@ -2007,9 +3274,18 @@ class Repository {
     logger.info("IMPORT source PATH/FILE-NAME: " + sourceHsaFile.getAbsolutePath());
   }
 
-  private void createImportedStructures(Set<Object> importedDescriptors,
-          boolean includeColumnAuditors, boolean bypassNamespacesTablesAndCFs)
-          throws IOException {
+  /**
+   * Creates imported Namespaces and Tables (with their Column Families).
+   *
+   * @param createdTables set to which the name of each Table created is added (Tables which
+   * already exist are not created, but in bypass mode their ColumnDefinitions are imported)
+   * @return map of Tables for which ColumnDefinitions are to be imported, with each Table's value
+   * designating whether its ColumnAuditors are also to be imported
+   */
+  private Map<TableName, Boolean> createImportedStructures(Set<Object> importedDescriptors,
+          boolean includeColumnAuditors, boolean bypassNamespacesTablesAndCFs,
+          Set<TableName> createdTables) throws IOException {
+    Map<TableName, Boolean> tablesForColumnImport = new TreeMap<>();
     for (Object descriptor : importedDescriptors) {
       if (MNamespaceDescriptor.class.isAssignableFrom(descriptor.getClass())) {
         NamespaceDescriptor nd
@@ -2027,20 +3303,17 @@ class Repository {
         }
         if (getAdmin().tableExists(mtd.getTableName())) {
           if (bypassNamespacesTablesAndCFs) {
-            putColumnDefinitionSchemaEntities(mtd);
+            tablesForColumnImport.put(mtd.getTableName(), false);
           }
         } else {
           getAdmin().createTable(mtd); // includes creation of Column Families
           putTableSchemaEntity(mtd);
-          putColumnDefinitionSchemaEntities(mtd);
-          if (includeColumnAuditors) {
-            putColumnAuditorSchemaEntities(mtd);
-          }
-          logger.info("IMPORT COMPLETED FOR TABLE: " + mtd.getNameAsString()
-                  + (includeColumnAuditors ? " <INCLUDING COLUMN AUDITOR METADATA>" : ""));
+          tablesForColumnImport.put(mtd.getTableName(), includeColumnAuditors);
+          createdTables.add(mtd.getTableName());
         }
       }
     }
+    return tablesForColumnImport;
   }
 
   void dumpRepositoryTable() throws IOException {
@@ -2049,11 +3322,11 @@ class Repository {
             = repositoryTable.getScanner(new Scan().setMaxVersions())) {
       logger.info("** START OF COMPLETE SCAN OF " + PRODUCT_NAME + " REPOSITORY TABLE **");
       for (Result result : results) {
-        byte[] rowId = result.getRow();
-        logger.info("Row type: "
-                + Bytes.toString(rowId).substring(0, 1));
-        logger.info("  Row ID: " + getPrintableString(rowId));
-        logger.info("  Element name: " + Bytes.toString(new RowId(rowId).getEntityName()));
+        byte[] rowKey = result.getRow();
+        RowId rowId = new RowId(repositoryLayout.toRowId(rowKey));
+        logger.info("Row type: " + (char) rowId.entityType);
+        logger.info("  Row ID: " + getPrintableString(rowKey));
+        logger.info("  Element name: " + Bytes.toString(rowId.getEntityName()));
         for (Entry<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> cfEntry : result.getMap().entrySet()) {
           logger.info("  Column Family: "
                   + Bytes.toString(cfEntry.getKey()));
@@ -2095,6 +3368,20 @@ class Repository {
     return columnQualifierReport.isEmpty();
   }
 
+  boolean outputReportOnColdColumns(TableName tableName, long maxReadCount, File targetFile)
+          throws IOException {
+    if (!this.isActivated()) {
+      throw new ColumnManagerIOException(REPOSITORY_NOT_ACTIVATED_MSG) {};
+    }
+    if (!isIncludedTable(tableName)) {
+      throw new TableNotIncludedForProcessingException(tableName.getName(), null);
+    }
+    flushColumnReadUsage();
+    ColdColumnReport coldColumnReport
+            = new ColdColumnReport(tableName, maxReadCount, this, targetFile);
+    return !coldColumnReport.isEmpty();
+  }
+
   boolean outputReportOnInvalidColumns (ColumnInvalidityReport.ReportType reportType,
           TableName tableName, byte[] colFamily, File targetFile, boolean verbose,
           boolean includeAllCells, boolean useMapreduce) throws Exception {
@@ -2319,13 +3606,13 @@ class Repository {
     NavigableSet<byte[]> aliasEnabledFamiliesInScan = new TreeSet<>(Bytes.BYTES_COMPARATOR);
     if (get.hasFamilies()) {
       for (byte[] colFamily : get.familySet()) {
-        if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+        if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasReadProcessingRequired()) {
           aliasEnabledFamiliesInScan.add(colFamily);
         }
       }
     } else {
       for (MColumnDescriptor mColumnDescriptor : mTableDescriptor.getMColumnDescriptors()) {
-        if (mColumnDescriptor.columnAliasesEnabled()) {
+        if (mColumnDescriptor.columnAliasReadProcessingRequired()) {
           aliasEnabledFamiliesInScan.add(mColumnDescriptor.getName());
         }
       }
@@ -2398,13 +3685,13 @@ class Repository {
     for (Get get : gets) {
       if (get.hasFamilies()) {
         for (byte[] colFamily : get.familySet()) {
-          if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+          if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasReadProcessingRequired()) {
             aliasEnabledFamiliesInScan.add(colFamily);
           }
         }
       } else {
         for (MColumnDescriptor mColumnDescriptor : mTableDescriptor.getMColumnDescriptors()) {
-          if (mColumnDescriptor.columnAliasesEnabled()) {
+          if (mColumnDescriptor.columnAliasReadProcessingRequired()) {
             aliasEnabledFamiliesInScan.add(mColumnDescriptor.getName());
           }
         }
@@ -2450,13 +3737,13 @@ class Repository {
     NavigableSet<byte[]> aliasEnabledFamiliesInScan = new TreeSet<>(Bytes.BYTES_COMPARATOR);
     if (scan.hasFamilies()) {
       for (byte[] colFamily : scan.getFamilies()) {
-        if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+        if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasReadProcessingRequired()) {
           aliasEnabledFamiliesInScan.add(colFamily);
         }
       }
     } else {
       for (MColumnDescriptor mColumnDescriptor : mTableDescriptor.getMColumnDescriptors()) {
-        if (mColumnDescriptor.columnAliasesEnabled()) {
+        if (mColumnDescriptor.columnAliasReadProcessingRequired()) {
           aliasEnabledFamiliesInScan.add(mColumnDescriptor.getName());
         }
       }
@@ -2517,16 +3804,32 @@ class Repository {
   }
 
 
+  /**
+   * Inverts the submitted qualifier-to-alias maps; for any Column Family undergoing conversion,
+   * each column-alias is mapped in all of its encodings.
+   */
   NavigableMap<byte[], NavigableMap<byte[], byte[]>>  getFamilyAliasToQualifierMap(
+          MTableDescriptor mTableDescriptor,
           NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap) {
     NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
             = new TreeMap<>(Bytes.BYTES_COMPARATOR);
     for (Entry<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasEntry
             : familyQualifierToAliasMap.entrySet()) {
+      MColumnDescriptor mcd
+              = mTableDescriptor.getMColumnDescriptor(familyQualifierToAliasEntry.getKey());
+      boolean conversionInProgress = mcd != null && mcd.columnAliasConversionInProgress();
       NavigableMap<byte[], byte[]> aliasToQualifierMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
       for (Entry<byte[], byte[]> qualifierToAliasMap
               : familyQualifierToAliasEntry.getValue().entrySet()) {
-        aliasToQualifierMap.put(qualifierToAliasMap.getValue(), qualifierToAliasMap.getKey());
+        if (conversionInProgress && qualifierToAliasMap.getValue().length > 0
+                && !Bytes.equals(qualifierToAliasMap.getValue(), INVALID_ALIAS)) {
+          for (byte[] alias
+                  : ColumnAliasEncoding.getEquivalentAliases(qualifierToAliasMap.getValue())) {
+            aliasToQualifierMap.put(alias, qualifierToAliasMap.getKey());
+          }
+        } else {
+          aliasToQualifierMap.put(qualifierToAliasMap.getValue(), qualifierToAliasMap.getKey());
+        }
       }
       familyAliasToQualifierMap.put(familyQualifierToAliasEntry.getKey(), aliasToQualifierMap);
     }
@@ -2552,13 +3855,14 @@ class Repository {
           throws IOException {
     NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
             = new TreeMap<>(Bytes.BYTES_COMPARATOR);
-    if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+    if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasReadProcessingRequired()) {
       NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
               = new TreeMap<>(Bytes.BYTES_COMPARATOR);
       familyQualifierToAliasMap.put(colFamily,
               getQualifierToAliasMap(mTableDescriptor.getTableName(),
                       colFamily, colQualifierSet, false));
-      familyAliasToQualifierMap = getFamilyAliasToQualifierMap(familyQualifierToAliasMap);
+      familyAliasToQualifierMap
+              = getFamilyAliasToQualifierMap(mTableDescriptor, familyQualifierToAliasMap);
     }
     return familyAliasToQualifierMap;
   }
@@ -2602,16 +3906,11 @@ class Repository {
       byte[] colFamily = familyToQualifiersMap.getKey();
       NavigableSet<byte[]> colQualifierSet = familyToQualifiersMap.getValue();
       if (colQualifierSet == null
-              || !mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+              || !mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasReadProcessingRequired()) {
         modifiedFamilyMap.put(colFamily, colQualifierSet); // no modifications
       } else {
-        NavigableMap<byte[], byte[]> qualifierToAliasMap = familyQualifierToAliasMap.get(colFamily);
-        NavigableSet<byte[]> aliasSet = new TreeSet<>(Bytes.BYTES_COMPARATOR);
-        for (byte[] qualifier : colQualifierSet) {
-          byte[] alias = qualifierToAliasMap.get(qualifier);
-          aliasSet.add(alias);
-        }
-        modifiedFamilyMap.put(colFamily, aliasSet);
+        modifiedFamilyMap.put(colFamily, getAliasSet(mTableDescriptor.getMColumnDescriptor(colFamily),
+                familyQualifierToAliasMap.get(colFamily), colQualifierSet));
       }
     }
     Get convertedGet = cloneGetWithoutFamilyMap(originalGet);
@@ -2674,23 +3973,49 @@ class Repository {
       byte[] colFamily = familyToQualifiersMap.getKey();
       NavigableSet<byte[]> colQualifierSet = familyToQualifiersMap.getValue();
       if (colQualifierSet == null
-              || !mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+              || !mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasReadProcessingRequired()) {
         modifiedFamilyMap.put(colFamily, colQualifierSet);
       } else {
-        NavigableMap<byte[], byte[]> qualifierToAliasMap
-                 = familyQualifierToAliasMap.get(colFamily);
-        NavigableSet<byte[]> aliasSet = new TreeSet<>(Bytes.BYTES_COMPARATOR);
-        for (byte[] qualifier : colQualifierSet) {
-          byte[] alias = qualifierToAliasMap.get(qualifier);
-          aliasSet.add(alias);
-        }
-        modifiedFamilyMap.put(colFamily, aliasSet);
+        modifiedFamilyMap.put(colFamily, getAliasSet(mTableDescriptor.getMColumnDescriptor(colFamily),
+                familyQualifierToAliasMap.get(colFamily), colQualifierSet));
       }
     }
     // clone original Scan, but assign modifiedFamilyMap that has qualifiers replaced by aliases
     return new Scan(originalScan).setFamilyMap(modifiedFamilyMap);
   }
 
+  /**
+   * Returns the set of column-aliases to be requested in place of the submitted qualifiers; while
+   * the Column Family is being converted to or from aliased storage (or re-encoded), the
+   * qualifiers themselves and the column-aliases in all encodings are also requested.
+   */
+  static NavigableSet<byte[]> getAliasSet(MColumnDescriptor mcd,
+          NavigableMap<byte[], byte[]> qualifierToAliasMap, NavigableSet<byte[]> colQualifierSet) {
+    NavigableSet<byte[]> aliasSet = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    for (byte[] qualifier : colQualifierSet) {
+      aliasSet.add(qualifierToAliasMap.get(qualifier));
+    }
+    if (mcd.columnAliasConversionInProgress()) {
+      aliasSet.addAll(getEquivalentAliases(aliasSet));
+      aliasSet.addAll(colQualifierSet);
+    }
+    return aliasSet;
+  }
+
+  /**
+   * Returns the column-aliases in all encodings equivalent to the submitted column-aliases;
+   * INVALID_ALIAS (to which a qualifier without a column-alias is mapped) has no equivalents.
+   */
+  private static List<byte[]> getEquivalentAliases(Collection<byte[]> aliases) {
+    List<byte[]> equivalentAliases = new ArrayList<>();
+    for (byte[] alias : aliases) {
+      if (alias != null && alias.length > 0 && !Bytes.equals(alias, INVALID_ALIAS)) {
+        equivalentAliases.addAll(ColumnAliasEncoding.getEquivalentAliases(alias));
+      }
+    }
+    return equivalentAliases;
+  }
+
   RowMutations convertQualifiersToAliases(MTableDescriptor mTableDescriptor,
           final RowMutations originalRowMutations)
           throws IOException{
@@ -2811,7 +4136,10 @@ class Repository {
     for (Entry<byte[], List<Cell>> familyToCellsMap : originalDelete.getFamilyCellMap().entrySet()) {
       byte[] colFamily = familyToCellsMap.getKey();
       List<Cell> cellList = familyToCellsMap.getValue();
-      if (mTableDescriptor.getMColumnDescriptor(colFamily).columnAliasesEnabled()) {
+      MColumnDescriptor mcd = mTableDescriptor.getMColumnDescriptor(colFamily);
+      if (mcd.columnAliasReadProcessingRequired()) {
+        // during conversion to/from aliased storage, a column may be stored in either form
+        boolean conversionInProgress = mcd.columnAliasConversionInProgress();
         NavigableMap<byte[], byte[]> qualifierToAliasMap
                 = getQualifierToAliasMap(
                         mTableDescriptor.getTableName(), colFamily, cellList, false);
@@ -2825,8 +4153,20 @@ class Repository {
             modifiedDelete.addFamily(colFamily);
           } else if (originalCell.getTypeByte() == KeyValue.Type.DeleteColumn.getCode()) {
             modifiedDelete.addColumns(colFamily, colAlias, originalCell.getTimestamp());
+            if (conversionInProgress) {
+              modifiedDelete.addColumns(colFamily, colQualifier, originalCell.getTimestamp());
+              for (byte[] equivalentAlias : getEquivalentAliases(Arrays.asList(colAlias))) {
+                modifiedDelete.addColumns(colFamily, equivalentAlias, originalCell.getTimestamp());
+              }
+            }
           } else if (originalCell.getTypeByte() == KeyValue.Type.Delete.getCode()) {
             modifiedDelete.addColumn(colFamily, colAlias, originalCell.getTimestamp());
+            if (conversionInProgress) {
+              modifiedDelete.addColumn(colFamily, colQualifier, originalCell.getTimestamp());
+              for (byte[] equivalentAlias : getEquivalentAliases(Arrays.asList(colAlias))) {
+                modifiedDelete.addColumn(colFamily, equivalentAlias, originalCell.getTimestamp());
+              }
+            }
           }
         }
       } else {  // colFamily NOT aliasEnabled, so "clone" cells using standard Delete interface
@@ -2848,30 +4188,72 @@ class Repository {
     return modifiedDelete;
   }
 
-  Result convertAliasesToQualifiers(Result result,
-          NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap) {
-    NavigableSet<Cell> convertedCellSet = new TreeSet<Cell>(KeyValue.COMPARATOR);
-    for (Cell originalCell : result.rawCells()) {
-      byte[] cellFamily = Bytes.copy(originalCell.getFamilyArray(),
-                      originalCell.getFamilyOffset(), originalCell.getFamilyLength());
-      NavigableMap<byte[], byte[]> aliasToQualifierMap = familyAliasToQualifierMap.get(cellFamily);
+  /**
+   * Converts the column-aliases of a Result's Cells back to user-column-qualifiers. Each converted
+   * Cell is an {@link AliasConvertedCell} view which shares the backing arrays of the original
+   * Cell, replacing only its qualifier. Cells within a family are re-sorted only if the
+   * alias order of that family differs from its qualifier order. A Cell whose qualifier is not a
+   * known column-alias is returned unchanged if its family is being converted to or from aliased
+   * storage (in which case it is a cell not yet in aliased form); otherwise it is returned with
+   * an empty qualifier.
+   */
+  static Result convertAliasesToQualifiers(Result result,
+          NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap,
+          MTableDescriptor mTableDescriptor) {
+    if (result == null || result.isEmpty()) {
+      return result;
+    }
+    Cell[] originalCells = result.rawCells();
+    Cell[] convertedCells = new Cell[originalCells.length];
+    NavigableMap<byte[], byte[]> aliasToQualifierMap = null;
+    int familyStart = 0;
+    boolean familyInQualifierOrder = true;
+    boolean familyConversionInProgress = false;
+    for (int i = 0; i < originalCells.length; i++) {
+      Cell originalCell = originalCells[i];
+      if (i == 0 || !CellUtil.matchingFamily(originalCell, originalCells[i - 1])) {
+        // cells arrive grouped by family, so the alias map is looked up once per family
+        if (!familyInQualifierOrder) {
+          Arrays.sort(convertedCells, familyStart, i, KeyValue.COMPARATOR);
+        }
+        familyStart = i;
+        familyInQualifierOrder = true;
+        byte[] colFamily = CellUtil.cloneFamily(originalCell);
+        aliasToQualifierMap = familyAliasToQualifierMap.get(colFamily);
+        MColumnDescriptor mcd = (aliasToQualifierMap == null)
+                ? null : mTableDescriptor.getMColumnDescriptor(colFamily);
+        familyConversionInProgress = mcd != null && mcd.columnAliasConversionInProgress();
+      }
       if (aliasToQualifierMap == null) {
-        convertedCellSet.add(originalCell); // if no aliasToQualifierMap, no conversion done
-      } else {
-        convertedCellSet.add(CellUtil.createCell(
-                Bytes.copy(originalCell.getRowArray(), originalCell.getRowOffset(),
-                        originalCell.getRowLength()),
-                cellFamily,
-                aliasToQualifierMap.get(Bytes.copy(originalCell.getQualifierArray(),
-                        originalCell.getQualifierOffset(), originalCell.getQualifierLength())),
-                originalCell.getTimestamp(), KeyValue.Type.codeToType(originalCell.getTypeByte()),
-                Bytes.copy(originalCell.getValueArray(), originalCell.getValueOffset(),
-                        originalCell.getValueLength()),
-                Bytes.copy(originalCell.getTagsArray(), originalCell.getTagsOffset(),
-                        originalCell.getTagsLength())));
-      }
-    }
-    return Result.create(convertedCellSet.toArray(new Cell[convertedCellSet.size()]));
+        convertedCells[i] = originalCell; // if no aliasToQualifierMap, no conversion done
+        continue;
+      }
+      byte[] colQualifier = aliasToQualifierMap.get(CellUtil.cloneQualifier(originalCell));
+      if (colQualifier == null) {
+        if (familyConversionInProgress) {
+          // cell not (yet) in aliased form: cells of the same column may be in both forms,
+          //   requiring a full sort
+          convertedCells[i] = originalCell;
+          familyInQualifierOrder = false;
+          continue;
+        }
+        colQualifier = HConstants.EMPTY_BYTE_ARRAY;
+      }
+      convertedCells[i] = new AliasConvertedCell(originalCell, colQualifier);
+      // distinct aliases map to distinct qualifiers, so only qualifiers need to be compared
+      if (familyInQualifierOrder && i > familyStart
+              && Bytes.compareTo(convertedCells[i - 1].getQualifierArray(),
+                      convertedCells[i - 1].getQualifierOffset(),
+                      convertedCells[i - 1].getQualifierLength(),
+                      convertedCells[i].getQualifierArray(), convertedCells[i].getQualifierOffset(),
+                      convertedCells[i].getQualifierLength()) > 0) {
+        familyInQualifierOrder = false;
+      }
+    }
+    if (!familyInQualifierOrder) {
+      Arrays.sort(convertedCells, familyStart, convertedCells.length, KeyValue.COMPARATOR);
+    }
+    return Result.create(convertedCells, null, result.isStale(), result.isPartial());
   }
   // ALIAS METHODS END HERE
 }
\ No newline at end of file
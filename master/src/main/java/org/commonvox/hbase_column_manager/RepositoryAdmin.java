@@ -18,6 +18,7 @@ package org.commonvox.hbase_column_manager;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -32,6 +33,8 @@ import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.HTableMultiplexer;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.apache.log4j.Logger;
 
@@ -113,6 +116,71 @@ public class RepositoryAdmin {
     return Repository.getRepositoryMaxVersions(hbaseAdmin);
   }
 
+  /**
+   * Sets the region replication of the Repository and AliasDirectory tables (each of which is
+   * briefly disabled if its setting is changed). Read replicas are used for Repository lookups
+   * only when the {@code [column_manager.repository.timelineConsistentReads]} configuration
+   * property is set to {@code true}.
+   *
+   * @param hbaseAdmin Standard Admin object
+   * @param regionReplication Number of replicas of each Repository region (1 = no replicas)
+   * @throws IOException if a remote or network exception occurs
+   */
+  public static void setRepositoryRegionReplication(Admin hbaseAdmin, int regionReplication)
+          throws IOException {
+    Repository.setRepositoryRegionReplication(hbaseAdmin, regionReplication);
+  }
+
+  /**
+   * Get the region replication setting of the Repository table.
+   *
+   * @param hbaseAdmin Standard Admin object
+   * @return Number of replicas of each Repository region (1 = no replicas)
+   * @throws IOException if a remote or network exception occurs
+   */
+  public static int getRepositoryRegionReplication(Admin hbaseAdmin) throws IOException {
+    return Repository.getRepositoryRegionReplication(hbaseAdmin);
+  }
+
+  /**
+   * Migrates the Repository table to the layout with the submitted number of salt buckets. In a
+   * salted layout, each Repository row key is prefixed with a hash-derived salt byte and the table
+   * is pre-split into one region per salt bucket, so that concurrent column auditing from many
+   * clients is spread across region servers rather than concentrated in a single key range.
+   * A salt-bucket count of 1 migrates the Repository back to the original (unsalted) layout. The
+   * layout of a newly-created Repository is taken from the
+   * {@code [column_manager.repository.saltBuckets]} configuration property.
+   * <br>
+   * Before the Repository is copied, it is marked as undergoing migration and this method waits
+   * for {@code [column_manager.repository.layoutCheckIntervalMs]} (default 10000) to elapse;
+   * each ColumnManager-enabled {@code Connection} rechecks the Repository layout within that
+   * interval before updating the Repository, so that any {@code Connection} opened before
+   * migration then refuses further Repository updates (failing with an IOException) until it is
+   * reopened. Updates submitted while the migration is under way are therefore rejected rather
+   * than lost or written in the old layout.
+   *
+   * @param hbaseAdmin Standard Admin object
+   * @param saltBuckets Number of salt buckets (between 1 and 256)
+   * @throws IOException if a remote or network exception occurs, or if an invalid number of salt
+   * buckets is submitted
+   */
+  public static void migrateRepositoryLayout(Admin hbaseAdmin, int saltBuckets)
+          throws IOException {
+    Repository.migrateRepositoryLayout(hbaseAdmin, saltBuckets);
+  }
+
+  /**
+   * Get the number of salt buckets of the Repository table's layout (1 for the original, unsalted
+   * layout).
+   *
+   * @param hbaseAdmin Standard Admin object
+   * @return Number of salt buckets of the Repository table's layout
+   * @throws IOException if a remote or network exception occurs
+   */
+  public static int getRepositorySaltBuckets(Admin hbaseAdmin) throws IOException {
+    return Repository.getRepositorySaltBuckets(hbaseAdmin);
+  }
+
   /**
    * Disable and delete Repository table and drop Repository namespace (for uninstall or reinstall
    * of ColumnManager).
@@ -153,6 +221,34 @@ public class RepositoryAdmin {
     }
   }
 
+  /**
+   * Get the traces of the most recent slow {@code Table} and {@code BufferedMutator} operations
+   * sampled via this {@code RepositoryAdmin}'s {@code Connection}, each broken down by phase of
+   * ColumnManager processing. Operations are sampled only if the
+   * {@code [column_manager.tracing.sampleRate]} configuration property is set above zero; see
+   * {@link OperationTrace}.
+   *
+   * @return traces of slow operations, in order of start time
+   */
+  public List<OperationTrace> getSlowOperationTraces() {
+    return repository.getOperationTracer().getSlowOperationTraces();
+  }
+
+  /**
+   * Causes the traces of the most recent slow operations (see {@link #getSlowOperationTraces()})
+   * to be "dumped" (written) to the logging facility, for performance analysis.
+   */
+  public void dumpSlowOperationTraces() {
+    OperationTracer tracer = repository.getOperationTracer();
+    List<OperationTrace> traces = tracer.getSlowOperationTraces();
+    logger.info("DUMP of " + traces.size() + " most recent slow operation traces (of "
+            + tracer.getSlowOperationCount() + " captured) has been requested.");
+    for (OperationTrace trace : traces) {
+      logger.info("  " + trace);
+    }
+    logger.info("DUMP of slow operation traces is complete.");
+  }
+
   Repository getRepository() {
     return repository;
   }
@@ -526,18 +622,180 @@ public class RepositoryAdmin {
     repository.enableColumnDefinitionEnforcement(enabled, tableName, colFamily);
   }
 
+  /**
+   * Get the {@link ColumnAuditingPolicy} of the specified <i>Column Family</i>.
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i>
+   * @return the auditing policy of the <i>Column Family</i>;
+   * {@link ColumnAuditingPolicy#auditAll()} if none has been set
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public ColumnAuditingPolicy getColumnAuditingPolicy(TableName tableName, byte[] colFamily)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.getColumnAuditingPolicy(tableName, colFamily);
+  }
+
+  /**
+   * Set the {@link ColumnAuditingPolicy} of the specified <i>Column Family</i>, which governs which
+   * {@code Mutation}s submitted to the <i>Column Family</i> (via the HBase API) are audited in
+   * real time when <a href="package-summary.html#activate">ColumnManager is activated</a>: every
+   * mutation (the default), a sampled fraction of mutations, at most a designated number of
+   * mutations per second per ColumnManager client, or only mutations of <i>Column Qualifier</i>s
+   * not yet known to the Repository. The policy is persisted in the Repository, and takes effect
+   * in any ColumnManager client when the <i>Table</i>'s schema is next loaded by that client
+   * (e.g., upon the next invocation of {@code Connection#getTable}).
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i> for which auditing policy is to be set
+   * @param policy auditing policy
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public void setColumnAuditingPolicy(
+          TableName tableName, byte[] colFamily, ColumnAuditingPolicy policy)
+          throws IOException, TableNotIncludedForProcessingException {
+    repository.setColumnAuditingPolicy(tableName, colFamily, policy);
+  }
+
+  /**
+   * Get the retention period of the {@link ColumnAuditor}s of the specified <i>Column Family</i>.
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i>
+   * @return retention period (in milliseconds); 0 if {@link ColumnAuditor}s are retained
+   * indefinitely (the default)
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public long getColumnAuditorRetentionPeriod(TableName tableName, byte[] colFamily)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.getColumnAuditorRetentionPeriod(tableName, colFamily);
+  }
+
+  /**
+   * Set the retention period of the {@link ColumnAuditor}s of the specified <i>Column Family</i>:
+   * a {@link ColumnAuditor} whose column-qualifier has not been
+   * {@link ColumnAuditor#getLastSeenTimestamp() seen} within the retention period is deleted
+   * upon the next {@link #sweepExpiredColumnAuditors() sweep} (and is restored should its
+   * column-qualifier be written or discovered again). A retention period suits
+   * <i>Column Family</i>s whose column-qualifiers embed transient values (e.g., dates or ids),
+   * whose {@link ColumnAuditor}s would otherwise accumulate without bound. The retention period is
+   * persisted in the Repository.
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i> for which retention period is to be set
+   * @param retentionPeriod retention period (in milliseconds); 0 to retain {@link ColumnAuditor}s
+   * indefinitely
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public void setColumnAuditorRetentionPeriod(
+          TableName tableName, byte[] colFamily, long retentionPeriod)
+          throws IOException, TableNotIncludedForProcessingException {
+    repository.setColumnAuditorRetentionPeriod(tableName, colFamily, retentionPeriod);
+  }
+
+  /**
+   * Deletes (in batches) all {@link ColumnAuditor}s of
+   * <a href="package-summary.html#config">ColumnManager-included</a> <i>Table</i>s which have
+   * not been {@link ColumnAuditor#getLastSeenTimestamp() seen} within the
+   * {@link #setColumnAuditorRetentionPeriod(TableName, byte[], long) retention period} of their
+   * <i>Column Family</i>. Deleted {@link ColumnAuditor}s are no longer loaded with their
+   * <i>Table</i>'s descriptor. This method may be invoked periodically by an administrative
+   * process, or via the {@code sweepExpiredColumnAuditors} function of the
+   * <a href="package-summary.html#command-line">command-line UtilityRunner</a>.
+   *
+   * @return count of {@link ColumnAuditor}s deleted
+   * @throws IOException if a remote or network exception occurs
+   */
+  public long sweepExpiredColumnAuditors() throws IOException {
+    return repository.sweepExpiredColumnAuditors();
+  }
+
+  /**
+   * Deletes all expired {@link ColumnAuditor}s of the <i>Table</i>s in the submitted namespace,
+   * as described in {@link #sweepExpiredColumnAuditors()}.
+   *
+   * @param namespace namespace whose <i>Table</i>s are to be swept
+   * @return count of {@link ColumnAuditor}s deleted
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if no Tables from the Namespace are
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public long sweepExpiredColumnAuditors(String namespace)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.sweepExpiredColumnAuditors(namespace);
+  }
+
+  /**
+   * Deletes all expired {@link ColumnAuditor}s of the submitted <i>Table</i>, as described in
+   * {@link #sweepExpiredColumnAuditors()}.
+   *
+   * @param tableName name of <i>Table</i> to be swept
+   * @return count of {@link ColumnAuditor}s deleted
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public long sweepExpiredColumnAuditors(TableName tableName)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.sweepExpiredColumnAuditors(tableName);
+  }
+
+  /**
+   * Writes all column write usage accumulated in this client's memory to the Repository, so that
+   * the counts returned by {@link ColumnAuditor#getWriteCount()} and
+   * {@link ColumnAuditor#getWriteBytes()} reflect all writes submitted via this client's
+   * <i>Connection</i>. Write usage is tracked only when the
+   * {@code [column_manager.writeUsage.enabled]} configuration property is set to {@code true};
+   * otherwise this method does nothing. Accumulated usage is otherwise flushed every
+   * {@code [column_manager.writeUsage.flushIntervalMs]} (default 60000), and upon closure of the
+   * <i>Connection</i>.
+   *
+   * @throws IOException if a remote or network exception occurs
+   */
+  public void flushColumnWriteUsage() throws IOException {
+    repository.flushColumnWriteUsage();
+  }
+
+  /**
+   * Writes all column read usage accumulated in this client's memory to the Repository, so that
+   * the counts returned by {@link ColumnAuditor#getReadCount()} reflect all reads submitted via
+   * this client's <i>Connection</i>. Read usage is tracked only when the
+   * {@code [column_manager.readUsage.enabled]} configuration property is set to {@code true};
+   * otherwise this method does nothing. Accumulated usage is otherwise flushed every
+   * {@code [column_manager.readUsage.flushIntervalMs]} (default 60000), and upon closure of the
+   * <i>Connection</i>.
+   *
+   * @throws IOException if a remote or network exception occurs
+   */
+  public void flushColumnReadUsage() throws IOException {
+    repository.flushColumnReadUsage();
+  }
+
   /**
    * Enable/disable column aliasing for the specified <i>Column Family</i>.
    * <br>
-   * Column-alias processing involves a 4-byte (positive integer) column-alias being stored in each
+   * Column-alias processing involves a (positive integer) column-alias being stored in each
    * cell in place of the full-length <i>Column Qualifier</i>, potentially
    * conserving considerable data storage space. This works invisibly to the application developer,
    * who continues working only with the standard hbase-client API interfaces, reading and writing
-   * full-length column-qualifiers.
+   * full-length column-qualifiers. Column-aliases are stored in the
+   * {@link ColumnAliasEncoding#FOUR_BYTE_INT} encoding, unless another encoding has been designated
+   * via {@link #enableColumnAliases(boolean, TableName, byte[], ColumnAliasEncoding)}.
    * <br>
    * Aliasing should only be activated for a newly-defined, completely empty (or freshly truncated)
    * <i>Column Family</i>, and it should not be deactivated after data has been stored in the
-   * <i>Column Family</i>.
+   * <i>Column Family</i>. To enable or disable aliasing for a <i>Column Family</i> which already
+   * contains data, use
+   * {@link #convertColumnFamilyToAliases(TableName, byte[], ColumnAliasEncoding, int, int, File)}
+   * or {@link #convertColumnFamilyFromAliases(TableName, byte[], int, int, File)}.
    *
    * @param enabled if {@code true}, column aliasing will be enabled; if {@code false}, it
    * will be disabled
@@ -550,7 +808,215 @@ public class RepositoryAdmin {
    */
   public void enableColumnAliases(boolean enabled, TableName tableName, byte[] colFamily)
           throws IOException, TableNotIncludedForProcessingException {
-    repository.enableColumnAliases(enabled, tableName, colFamily);
+    repository.enableColumnAliases(enabled, tableName, colFamily, null);
+  }
+
+  /**
+   * Enable/disable column aliasing for the specified <i>Column Family</i>, designating the
+   * {@link ColumnAliasEncoding} in which its column-aliases are to be stored. For example,
+   * {@link ColumnAliasEncoding#VARINT} encoding stores each column-alias in a single byte for the
+   * first 127 distinct <i>Column Qualifiers</i> of a <i>Column Family</i>. (See
+   * {@link #enableColumnAliases(boolean, TableName, byte[])} for further details.)
+   * <br>
+   * If the encoding of an already alias-enabled <i>Column Family</i> is changed, only
+   * column-aliases assigned subsequently are stored in the new encoding; existing column-aliases
+   * may be re-encoded via {@link #reencodeColumnAliases(TableName, byte[], ColumnAliasEncoding)}.
+   *
+   * @param enabled if {@code true}, column aliasing will be enabled; if {@code false}, it
+   * will be disabled
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i> for which column aliasing is to be
+   * enabled or disabled
+   * @param aliasEncoding encoding in which column-aliases are to be stored
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public void enableColumnAliases(boolean enabled, TableName tableName, byte[] colFamily,
+          ColumnAliasEncoding aliasEncoding)
+          throws IOException, TableNotIncludedForProcessingException {
+    repository.enableColumnAliases(enabled, tableName, colFamily, aliasEncoding);
+  }
+
+  /**
+   * Re-encode all existing column-aliases of an alias-enabled <i>Column Family</i> into the
+   * designated {@link ColumnAliasEncoding}: every cell of the <i>Column Family</i> is rewritten
+   * (retaining its timestamp and value) with its column-alias in the designated encoding, after
+   * which all column-aliases subsequently assigned for the <i>Column Family</i> are also in that
+   * encoding.
+   * <br>
+   * Writes to the <i>Column Family</i> should be suspended while re-encoding is underway. Each row
+   * is rewritten atomically, and cells already in the designated encoding are bypassed, so an
+   * interrupted re-encoding may simply be rerun.
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of alias-enabled <i>Column Family</i>
+   * @param aliasEncoding encoding into which column-aliases are to be converted
+   * @return count of cells rewritten
+   * @throws IOException if a remote or network exception occurs, or if column aliases are not
+   * enabled for the <i>Column Family</i>
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public long reencodeColumnAliases(TableName tableName, byte[] colFamily,
+          ColumnAliasEncoding aliasEncoding)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.reencodeColumnAliases(tableName, colFamily, aliasEncoding);
+  }
+
+  /**
+   * Convert the existing cells of a <i>Column Family</i> to column-alias form, enabling column
+   * aliasing for the <i>Column Family</i> (see
+   * {@link #enableColumnAliases(boolean, TableName, byte[], ColumnAliasEncoding)}) without taking
+   * it offline. The conversion proceeds as follows:
+   * <ol>
+   * <li>The <i>Column Family</i> is marked as alias-enabled with conversion in progress: from this
+   * point on, writes via ColumnManager-obtained {@code Table} objects store column-aliases, while
+   * reads accept cells in either form.</li>
+   * <li>The regions of the <i>Table</i> are processed in parallel (by up to {@code threadCount}
+   * threads), with each row rewritten atomically (retaining the timestamp and value of every
+   * cell), and with progress optionally recorded in a checkpoint file, so that an interrupted
+   * conversion resumes where it left off.</li>
+   * <li>A verification pass counts any cells remaining in <i>Column Qualifier</i> form; the
+   * conversion is repeated (up to three times) until none remain.</li>
+   * <li>The conversion-in-progress mark is removed.</li>
+   * </ol>
+   * Note that {@code Table} objects obtained before the conversion began are unaware of it, and
+   * should be closed and re-obtained. {@code Append} and {@code Increment} operations against the
+   * <i>Column Family</i> should be avoided while conversion is underway.
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i> to be converted
+   * @param aliasEncoding encoding in which column-aliases are to be stored (if {@code null}, the
+   * current encoding of the <i>Column Family</i> is retained)
+   * @param threadCount number of regions to be converted concurrently
+   * @param maxCellsPerSecond maximum rate at which cells are to be converted (if not positive,
+   * conversion is unthrottled)
+   * @param checkpointFile file in which conversion progress is to be recorded, and from which an
+   * interrupted conversion is to be resumed (may be {@code null}); the file is deleted upon
+   * successful completion
+   * @return count of cells converted
+   * @throws IOException if a remote or network exception occurs, or if verification of the
+   * conversion fails
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public long convertColumnFamilyToAliases(TableName tableName, byte[] colFamily,
+          ColumnAliasEncoding aliasEncoding, int threadCount, int maxCellsPerSecond,
+          File checkpointFile)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.convertColumnAliasStorage(tableName, colFamily, true, aliasEncoding,
+            threadCount, maxCellsPerSecond, checkpointFile);
+  }
+
+  /**
+   * Convert the existing cells of an alias-enabled <i>Column Family</i> back to
+   * <i>Column Qualifier</i> form, disabling column aliasing for the <i>Column Family</i> without
+   * taking it offline. (See
+   * {@link #convertColumnFamilyToAliases(TableName, byte[], ColumnAliasEncoding, int, int, File)}
+   * for details of online conversion.)
+   *
+   * @param tableName Name of <i>Table</i> to which <i>Column Family</i> belongs
+   * @param colFamily Name of <i>Column Family</i> to be converted
+   * @param threadCount number of regions to be converted concurrently
+   * @param maxCellsPerSecond maximum rate at which cells are to be converted (if not positive,
+   * conversion is unthrottled)
+   * @param checkpointFile file in which conversion progress is to be recorded, and from which an
+   * interrupted conversion is to be resumed (may be {@code null}); the file is deleted upon
+   * successful completion
+   * @return count of cells converted
+   * @throws IOException if a remote or network exception occurs, or if verification of the
+   * conversion fails
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public long convertColumnFamilyFromAliases(TableName tableName, byte[] colFamily,
+          int threadCount, int maxCellsPerSecond, File checkpointFile)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.convertColumnAliasStorage(tableName, colFamily, false, null,
+            threadCount, maxCellsPerSecond, checkpointFile);
+  }
+
+  /**
+   * Export an immutable, memory-mappable dictionary file of the column-aliases of all
+   * alias-enabled <i>Column Families</i> of a <i>Table</i>. The file may be opened via
+   * {@link ColumnAliasDictionary#open(File)} by processes which must decode aliased cells
+   * without a ColumnManager-enabled (or any) HBase {@code Connection} (e.g., MapReduce, Spark, or
+   * HFile-level jobs). Column-aliases assigned after the export are not contained in the file, so
+   * it should be re-exported before each such job is run.
+   *
+   * @param tableName Name of <i>Table</i> whose column-aliases are to be exported
+   * @param targetFile target File
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public void exportColumnAliasDictionary(TableName tableName, File targetFile)
+          throws IOException, TableNotIncludedForProcessingException {
+    repository.exportColumnAliasDictionary(tableName, targetFile);
+  }
+
+  /**
+   * Validate all submitted {@code Mutation}s up front against the {@link ColumnDefinition}s of
+   * their <i>Column Families</i> (if
+   * {@link #enableColumnDefinitionEnforcement(boolean, org.apache.hadoop.hbase.TableName, byte[])
+   * ColumnDefinitionsEnforced} is set to {@code true}), then submit only the valid
+   * {@code Mutation}s to HBase in a single batch. Rather than an exception being thrown upon the
+   * first invalid {@code Mutation}, every invalid {@code Mutation} is reported (by its index in
+   * the submitted list) in the returned {@link ValidatedBatchResult}, so that invalid
+   * {@code Mutation}s need not cause the valid ones to be resubmitted.
+   *
+   * Note that each invocation of this method loads the <i>Table</i>'s descriptor from the
+   * Repository; for repeated batches, use {@link #putValidMutations(Table, List)}.
+   *
+   * @param tableName Name of <i>Table</i> to which {@code Mutation}s are to be submitted
+   * @param mutations {@code Mutation}s to be validated and submitted
+   * @return per-{@code Mutation} outcome of validation and submission
+   * @throws IOException if a remote or network exception occurs, or if processing is interrupted
+   */
+  public ValidatedBatchResult putValidMutations(
+          TableName tableName, List<? extends Mutation> mutations) throws IOException {
+    try (MTable mTable = new MTable(hbaseConnection.getTable(tableName), repository)) {
+      return putValidMutations(mTable, mutations);
+    }
+  }
+
+  /**
+   * Validate all submitted {@code Mutation}s up front, then submit only the valid
+   * {@code Mutation}s to HBase in a single batch, as in
+   * {@link #putValidMutations(TableName, List)}, via a {@code Table} obtained from a
+   * ColumnManager-enabled {@code Connection} (whose descriptor, loaded once upon its creation,
+   * is reused for every batch).
+   *
+   * @param table {@code Table} to which {@code Mutation}s are to be submitted
+   * @param mutations {@code Mutation}s to be validated and submitted
+   * @return per-{@code Mutation} outcome of validation and submission
+   * @throws IOException if a remote or network exception occurs, or if processing is interrupted
+   */
+  public ValidatedBatchResult putValidMutations(Table table, List<? extends Mutation> mutations)
+          throws IOException {
+    // a standard Table is wrapped (but not closed, as it remains the caller's)
+    MTable mTable = (table instanceof MTable) ? (MTable) table : new MTable(table, repository);
+    try {
+      return mTable.batchValidMutations(mutations);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted during batch submission of Mutations to "
+              + "Table: <" + table.getName().getNameAsString() + ">.");
+    }
+  }
+
+  /**
+   * Get statistics on the {@code Mutation}s validated against {@link ColumnDefinition}s and
+   * rejected for a <i>Table</i>, accumulated via this {@code RepositoryAdmin}'s
+   * {@code Connection} since it was created.
+   *
+   * @param tableName Name of <i>Table</i>; if {@code null}, statistics are totaled for all
+   * <i>Table</i>s
+   * @return snapshot of validation statistics
+   */
+  public ColumnValidationStatistics getColumnValidationStatistics(TableName tableName) {
+    return repository.getColumnValidationStatistics(tableName);
   }
 
   /**
@@ -560,7 +1026,79 @@ public class RepositoryAdmin {
    * @throws IOException if a remote or network exception occurs
    */
   public ChangeEventMonitor getChangeEventMonitor() throws IOException {
-    return new ChangeEventMonitor(repository.getRepositoryTable());
+    return new ChangeEventMonitor(
+            repository.getRepositoryTable(), repository.getRepositoryLayout());
+  }
+
+  /**
+   * Get a {@link ChangeEventMonitor} object containing only the {@link ChangeEvent}s selected by
+   * the submitted {@link ChangeEventQuery}; the query's time-range, <i>Namespace</i>,
+   * <i>Table</i>, and entity-type restrictions are applied in the Scan of the repository, so
+   * that only the selected {@code ChangeEvent}s are retrieved and held in memory.
+   *
+   * @param query {@link ChangeEventQuery} designating which {@code ChangeEvent}s are to be
+   * retrieved
+   * @return {@link ChangeEventMonitor} object
+   * @throws IOException if a remote or network exception occurs
+   */
+  public ChangeEventMonitor getChangeEventMonitor(ChangeEventQuery query) throws IOException {
+    return new ChangeEventMonitor(
+            repository.getRepositoryTable(), repository.getRepositoryLayout(), query);
+  }
+
+  /**
+   * Get a {@link ChangeEventScanner} which streams the {@link ChangeEvent}s selected by the
+   * submitted {@link ChangeEventQuery} directly from the repository, without holding them in
+   * memory. The returned {@code ChangeEventScanner} must be closed after use.
+   *
+   * @param query {@link ChangeEventQuery} designating which {@code ChangeEvent}s are to be
+   * retrieved
+   * @return {@link ChangeEventScanner} object
+   * @throws IOException if a remote or network exception occurs
+   */
+  public ChangeEventScanner getChangeEventScanner(ChangeEventQuery query) throws IOException {
+    return new ChangeEventScanner(
+            repository.getRepositoryTable(), repository.getRepositoryLayout(), query);
+  }
+
+  /**
+   * Get a {@link ChangeEventTailer} which incrementally retrieves the {@link ChangeEvent}s
+   * selected by the submitted {@link ChangeEventQuery} that are recorded in the repository
+   * on or after the submitted initial timestamp (the time range of the query is superseded by
+   * the {@code ChangeEventTailer}'s cursor).
+   *
+   * @param query {@link ChangeEventQuery} designating which {@code ChangeEvent}s are to be
+   * retrieved
+   * @param initialTimestamp timestamp from which retrieval is to begin
+   * @return {@link ChangeEventTailer} object
+   * @throws IOException if a remote or network exception occurs
+   */
+  public ChangeEventTailer getChangeEventTailer(ChangeEventQuery query, long initialTimestamp)
+          throws IOException {
+    return getChangeEventTailer(query, initialTimestamp, null);
+  }
+
+  /**
+   * Get a {@link ChangeEventTailer} which incrementally retrieves the {@link ChangeEvent}s
+   * selected by the submitted {@link ChangeEventQuery}, persisting its cursor to the submitted
+   * file. If the cursor file already exists, retrieval resumes from the cursor persisted in it;
+   * otherwise retrieval begins at the submitted initial timestamp.
+   *
+   * @param query {@link ChangeEventQuery} designating which {@code ChangeEvent}s are to be
+   * retrieved
+   * @param initialTimestamp timestamp from which retrieval is to begin if no cursor has been
+   * persisted
+   * @param cursorFile file in which the cursor is to be persisted (may be {@code null})
+   * @return {@link ChangeEventTailer} object
+   * @throws IOException if a remote or network exception occurs, or if the cursor file cannot
+   * be read
+   */
+  public ChangeEventTailer getChangeEventTailer(ChangeEventQuery query, long initialTimestamp,
+          File cursorFile) throws IOException {
+    return new ChangeEventTailer(repository.getRepositoryTable(),
+            repository.getRepositoryLayout(), query, initialTimestamp, cursorFile,
+            hbaseConnection.getConfiguration().getLong(ChangeEventTailer.OVERLAP_WINDOW_KEY,
+                    ChangeEventTailer.DEFAULT_OVERLAP_WINDOW));
   }
 
   MTableDescriptor getMTableDescriptor(TableName tn)
@@ -732,7 +1270,26 @@ public class RepositoryAdmin {
    */
   public void exportSchema(File targetFile)
           throws IOException, JAXBException, XMLStreamException {
-    repository.exportSchema(null, null, targetFile);
+    repository.exportSchema(null, null, targetFile, SchemaArchiveFormat.XML);
+  }
+
+  /**
+   * Creates an external HBaseSchemaArchive (HSA) file in the designated {@link SchemaArchiveFormat}
+   * containing the complete metadata contents (i.e., all <i>Namespace</i>, <i>Table</i>,
+   * <i>Column Family</i>, {@link ColumnAuditor}, and {@link ColumnDefinition} metadata) of the
+   * ColumnManager metadata Repository. The binary formats are substantially more compact (and
+   * faster to read) than the XML format, and may be converted to XML format via
+   * {@link #convertSchemaArchive(java.io.File, java.io.File, SchemaArchiveFormat)}.
+   *
+   * @param targetFile target file
+   * @param format format in which the file is to be written
+   * @throws IOException if a remote or network exception occurs
+   * @throws JAXBException if an exception occurs in the context of JAXB processing
+   * @throws XMLStreamException if an exception occurs in the context of JAXB processing
+   */
+  public void exportSchema(File targetFile, SchemaArchiveFormat format)
+          throws IOException, JAXBException, XMLStreamException {
+    repository.exportSchema(null, null, targetFile, format);
   }
 
   /**
@@ -755,7 +1312,26 @@ public class RepositoryAdmin {
   public void exportSchema(File targetFile, String sourceNamespaceName)
           throws IOException, JAXBException, XMLStreamException,
           TableNotIncludedForProcessingException {
-    repository.exportSchema(sourceNamespaceName, null, targetFile);
+    repository.exportSchema(sourceNamespaceName, null, targetFile, SchemaArchiveFormat.XML);
+  }
+
+  /**
+   * Creates an external HBaseSchemaArchive (HSA) file in the designated {@link SchemaArchiveFormat}
+   * containing the complete schema contents of the specified HBase <i>Namespace</i>.
+   *
+   * @param targetFile target file
+   * @param sourceNamespaceName namespace from which to export schema entities
+   * @param format format in which the file is to be written
+   * @throws IOException if a remote or network exception occurs
+   * @throws JAXBException if an exception occurs in the context of JAXB processing
+   * @throws XMLStreamException if an exception occurs in the context of JAXB processing
+   * @throws TableNotIncludedForProcessingException if no Tables from the Namespace are
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public void exportSchema(File targetFile, String sourceNamespaceName,
+          SchemaArchiveFormat format) throws IOException, JAXBException, XMLStreamException,
+          TableNotIncludedForProcessingException {
+    repository.exportSchema(sourceNamespaceName, null, targetFile, format);
   }
 
   /**
@@ -778,14 +1354,37 @@ public class RepositoryAdmin {
   public void exportSchema(File targetFile, TableName sourceTableName)
           throws IOException, JAXBException, XMLStreamException,
           TableNotIncludedForProcessingException {
-    repository.exportSchema(sourceTableName.getNamespaceAsString(), sourceTableName, targetFile);
+    repository.exportSchema(sourceTableName.getNamespaceAsString(), sourceTableName, targetFile,
+            SchemaArchiveFormat.XML);
+  }
+
+  /**
+   * Creates an external HBaseSchemaArchive (HSA) file in the designated {@link SchemaArchiveFormat}
+   * containing the complete schema contents of the specified HBase <i>Table</i>.
+   *
+   * @param targetFile target File
+   * @param sourceTableName table to export (along with its component schema-entities)
+   * @param format format in which the file is to be written
+   * @throws IOException if a remote or network exception occurs
+   * @throws JAXBException if an exception occurs in the context of JAXB processing
+   * @throws XMLStreamException if an exception occurs in the context of JAXB processing
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public void exportSchema(File targetFile, TableName sourceTableName, SchemaArchiveFormat format)
+          throws IOException, JAXBException, XMLStreamException,
+          TableNotIncludedForProcessingException {
+    repository.exportSchema(sourceTableName.getNamespaceAsString(), sourceTableName, targetFile,
+            format);
   }
 
   /**
    * Import into HBase the complete contents of an external HBaseSchemaArchive (HSA) XML file*;
    * this process will NOT overlay any <b>existing</b> Namespace and Table structures in HBase. Only
    * Tables which are <a href="package-summary.html#config">included in ColumnManager processing</a>
-   * will be imported.
+   * will be imported. The file is read one schema entity at a time, so that archives containing
+   * very large numbers of {@link ColumnAuditor}s may be imported in bounded memory. The file's
+   * {@link SchemaArchiveFormat} is detected automatically.
    * <br><br>*An HSA file is created with the one of the
    * {@link #exportSchema(java.io.File) #exportSchema} methods and adheres to
    * the XML Schema layout in <a href="doc-files/HBaseSchemaArchive.xsd.xml" target="_blank">
@@ -948,16 +1547,44 @@ public class RepositoryAdmin {
 
   /**
    * Generates a hierarchically-indented, text-based summary report of the contents of an external
-   * HBaseSchemaArchive (HSA) XML file*.
-   * <br><br>*An HSA file adheres to the XML Schema layout in
+   * HBaseSchemaArchive (HSA) file* (in any {@link SchemaArchiveFormat}, which is detected
+   * automatically). The file is read one schema entity at a time, so the archive itself is never
+   * held in memory.
+   * <br><br>*An HSA file in XML format adheres to the XML Schema layout in
    * <a href="doc-files/HBaseSchemaArchive.xsd.xml" target="_blank">HBaseSchemaArchive.xsd.xml</a>.
    *
    * @param sourceHsaFile source HBaseSchemaArchive file
    * @return A String containing a summary report suitable for printing/viewing.
-   * @throws JAXBException if an exception occurs in the context of JAXB processing
+   * @throws JAXBException if an exception occurs in the context of JAXB processing, or if the
+   * file cannot be read or is not a valid binary HSA file (in which case the
+   * {@code IOException} is its {@link JAXBException#getLinkedException() linked exception})
    */
   public static String generateHsaFileSummary(File sourceHsaFile) throws JAXBException {
-    return HBaseSchemaArchive.getSummaryReport(sourceHsaFile);
+    try {
+      return HBaseSchemaArchive.getSummaryReport(sourceHsaFile);
+    } catch (IOException e) {
+      throw new JAXBException("Unable to read HBaseSchemaArchive file <"
+              + sourceHsaFile.getAbsolutePath() + ">: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Converts an HBaseSchemaArchive (HSA) file (in any {@link SchemaArchiveFormat}, which is detected
+   * automatically) to a new HSA file in the designated format; the content of the archive is
+   * carried over without loss. The conversion is performed one schema entity at a time, so the
+   * archive itself is never held in memory.
+   *
+   * @param sourceHsaFile source HBaseSchemaArchive file
+   * @param targetHsaFile target HBaseSchemaArchive file
+   * @param targetFormat format in which the target file is to be written
+   * @throws IOException if a file cannot be read or written, or if the source file is not a
+   * valid binary HSA file
+   * @throws JAXBException if an exception occurs in the context of JAXB processing
+   * @throws XMLStreamException if an exception occurs in the context of JAXB processing
+   */
+  public static void convertSchemaArchive(File sourceHsaFile, File targetHsaFile,
+          SchemaArchiveFormat targetFormat) throws IOException, JAXBException, XMLStreamException {
+    HBaseSchemaArchive.convertArchiveFile(sourceHsaFile, targetHsaFile, targetFormat);
   }
 
   /**
@@ -1022,6 +1649,30 @@ public class RepositoryAdmin {
             tableName.getNamespaceAsString(), tableName, colFamily, targetFile);
   }
 
+  /**
+   * Generates and outputs a CSV-formatted report on the cold columns of the submitted user
+   * <i>Table</i>: those {@link ColumnAuditor}s whose {@link ColumnAuditor#getReadCount() read
+   * count} does not exceed the submitted maximum (a maximum of zero reports on columns never read
+   * since read tracking began). Each reported column is accompanied by the read count of its
+   * <i>Column Family</i> (reads of the entire family, such as those of an unqualified
+   * <i>Scan</i>), its last-read timestamp, and its write count. Read usage accumulated in this
+   * client's memory is {@link #flushColumnReadUsage() flushed} before the report is generated;
+   * note that read usage is tracked only when the {@code [column_manager.readUsage.enabled]}
+   * configuration property is set to {@code true}.
+   *
+   * @param targetFile file to which the CSV file is to be outputted
+   * @param tableName name of the Table for which cold-column report is to be generated/outputted
+   * @param maxReadCount maximum read count of a column to be included in the report
+   * @return {@code true} if cold columns found and reported on; otherwise, {@code false}
+   * @throws IOException if a remote or network exception occurs
+   * @throws TableNotIncludedForProcessingException if Table not
+   * <a href="package-summary.html#config">included in ColumnManager processing</a>
+   */
+  public boolean outputReportOnColdColumns(File targetFile, TableName tableName, long maxReadCount)
+          throws IOException, TableNotIncludedForProcessingException {
+    return repository.outputReportOnColdColumns(tableName, maxReadCount, targetFile);
+  }
+
   /**
    * Generates and outputs a CSV-formatted report of all invalid column qualifiers stored in a
    * Table, as stipulated by the Table's {@link ColumnDefinition}s.
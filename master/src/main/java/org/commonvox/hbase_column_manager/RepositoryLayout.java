@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.client.AbstractClientScanner;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * Physical row-key layout of the Repository table. In the original (version 1) layout, the row
+ * key of each Repository row is its {@link Repository.RowId}
+ * ([recordType][parentForeignKey][entityName]), so that, for example, all ColumnAuditor rows of a
+ * Column Family occupy a single contiguous key range. In the salted (version 2) layout, each
+ * RowId is prefixed with a one-byte salt derived from a hash of the complete RowId, and the table
+ * is pre-split into one region per salt bucket, so that concurrent auditing is spread across all
+ * buckets. Point lookups go directly to the bucket of the RowId; range scans are fanned out to
+ * all buckets, and their results merged back into RowId order.
+ * <br>
+ * The layout of a Repository table is recorded in its table descriptor, so all clients of a
+ * Repository agree upon it; the number of salt buckets of a newly-created Repository is
+ * taken from the {@code [column_manager.repository.saltBuckets]} configuration property
+ * (default 1, i.e., the unsalted layout).
+ *
+ * @author Daniel Vimont
+ */
+class RepositoryLayout {
+
+  static final String SALT_BUCKETS_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "repository.saltBuckets";
+  static final String LAYOUT_VERSION_ATTRIBUTE
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "layoutVersion";
+  static final String SALT_BUCKETS_ATTRIBUTE
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "saltBuckets";
+  static final String MIGRATION_IN_PROGRESS_ATTRIBUTE
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "layoutMigrationInProgress";
+  static final int UNSALTED_LAYOUT_VERSION = 1;
+  static final int SALTED_LAYOUT_VERSION = 2;
+  static final int MAX_SALT_BUCKETS = 256; // salt is a single byte
+  static final RepositoryLayout UNSALTED = new RepositoryLayout(1);
+
+  private final int saltBuckets;
+
+  private RepositoryLayout(int saltBuckets) {
+    this.saltBuckets = saltBuckets;
+  }
+
+  static RepositoryLayout forSaltBuckets(int saltBuckets) throws ColumnManagerIOException {
+    if (saltBuckets < 1 || saltBuckets > MAX_SALT_BUCKETS) {
+      throw new ColumnManagerIOException("Invalid number of " + Repository.PRODUCT_NAME
+              + " Repository salt buckets <" + saltBuckets + ">: must be between 1 and "
+              + MAX_SALT_BUCKETS + ".") {};
+    }
+    return (saltBuckets == 1) ? UNSALTED : new RepositoryLayout(saltBuckets);
+  }
+
+  /**
+   * Returns the layout to be used when creating a new Repository table.
+   */
+  static RepositoryLayout fromConfiguration(Configuration conf) throws ColumnManagerIOException {
+    return forSaltBuckets(conf.getInt(SALT_BUCKETS_KEY, 1));
+  }
+
+  /**
+   * Returns the layout of an existing Repository table (tables created before introduction of
+   * the salted layout carry no layout attributes, and are thus unsalted).
+   */
+  static RepositoryLayout fromTableDescriptor(HTableDescriptor htd)
+          throws ColumnManagerIOException {
+    String layoutVersion = htd.getValue(LAYOUT_VERSION_ATTRIBUTE);
+    if (layoutVersion == null
+            || Integer.parseInt(layoutVersion) == UNSALTED_LAYOUT_VERSION) {
+      return UNSALTED;
+    }
+    if (Integer.parseInt(layoutVersion) != SALTED_LAYOUT_VERSION) {
+      throw new ColumnManagerIOException("Unsupported " + Repository.PRODUCT_NAME
+              + " Repository layout version <" + layoutVersion + "> found in table descriptor of <"
+              + htd.getNameAsString() + ">; a more recent release of "
+              + Repository.PRODUCT_NAME + " is required.") {};
+    }
+    return forSaltBuckets(Integer.parseInt(htd.getValue(SALT_BUCKETS_ATTRIBUTE)));
+  }
+
+  /**
+   * Returns true if the submitted (Repository) table descriptor is marked as undergoing layout
+   * migration, in which case the table is not to be updated (see {@link RepositoryLayoutGuard}).
+   */
+  static boolean isMigrationInProgress(HTableDescriptor htd) {
+    return htd.getValue(MIGRATION_IN_PROGRESS_ATTRIBUTE) != null;
+  }
+
+  /**
+   * Records this layout in the submitted (Repository) table descriptor.
+   */
+  HTableDescriptor applyTo(HTableDescriptor htd) {
+    if (isSalted()) {
+      htd.setValue(LAYOUT_VERSION_ATTRIBUTE, String.valueOf(SALTED_LAYOUT_VERSION));
+      htd.setValue(SALT_BUCKETS_ATTRIBUTE, String.valueOf(saltBuckets));
+    } else {
+      htd.remove(LAYOUT_VERSION_ATTRIBUTE);
+      htd.remove(SALT_BUCKETS_ATTRIBUTE);
+    }
+    return htd;
+  }
+
+  boolean isSalted() {
+    return saltBuckets > 1;
+  }
+
+  int getSaltBuckets() {
+    return saltBuckets;
+  }
+
+  int getVersion() {
+    return isSalted() ? SALTED_LAYOUT_VERSION : UNSALTED_LAYOUT_VERSION;
+  }
+
+  /**
+   * Returns the keys at which a new Repository table is to be pre-split (one region per salt
+   * bucket), or {@code null} if the table is not to be pre-split.
+   */
+  byte[][] getSplitKeys() {
+    if (!isSalted()) {
+      return null;
+    }
+    byte[][] splitKeys = new byte[saltBuckets - 1][];
+    for (int i = 1; i < saltBuckets; i++) {
+      splitKeys[i - 1] = new byte[]{(byte) i};
+    }
+    return splitKeys;
+  }
+
+  byte getSalt(byte[] rowId) {
+    int hash = Arrays.hashCode(rowId); // algorithm fixed by the JDK specification
+    hash ^= (hash >>> 16);
+    return (byte) ((hash & Integer.MAX_VALUE) % saltBuckets);
+  }
+
+  /**
+   * Returns the physical row key of the submitted RowId.
+   */
+  byte[] toRowKey(byte[] rowId) {
+    if (!isSalted()) {
+      return rowId;
+    }
+    return Bytes.add(new byte[]{getSalt(rowId)}, rowId);
+  }
+
+  /**
+   * Returns the RowId of the submitted physical row key.
+   */
+  byte[] toRowId(byte[] rowKey) {
+    if (!isSalted()) {
+      return rowKey;
+    }
+    return Bytes.copy(rowKey, 1, rowKey.length - 1);
+  }
+
+  /**
+   * Converts a Scan over a range of RowIds into the Scans of physical row keys that together
+   * cover that range: a single Scan of the appropriate bucket if the range is confined to a single
+   * RowId (i.e., its start row is a complete RowId), or otherwise one Scan per bucket.
+   *
+   * @param rowIdScan Scan whose start and stop rows are RowIds
+   * @param singleRowId true if the Scan is confined to the RowId of its start row
+   * @return Scans of physical row keys
+   */
+  List<Scan> toBucketScans(Scan rowIdScan, boolean singleRowId) throws IOException {
+    if (!isSalted()) {
+      return Collections.singletonList(rowIdScan);
+    }
+    byte[] startRowId = rowIdScan.getStartRow();
+    byte[] stopRowId = rowIdScan.getStopRow();
+    if (singleRowId) {
+      byte[] salt = new byte[]{getSalt(startRowId)};
+      return Collections.singletonList(new Scan(rowIdScan)
+              .setStartRow(Bytes.add(salt, startRowId))
+              .setStopRow(Bytes.add(salt, stopRowId)));
+    }
+    List<Scan> bucketScans = new ArrayList<>(saltBuckets);
+    for (int bucket = 0; bucket < saltBuckets; bucket++) {
+      byte[] salt = new byte[]{(byte) bucket};
+      bucketScans.add(new Scan(rowIdScan)
+              .setStartRow(Bytes.add(salt, startRowId))
+              .setStopRow((stopRowId.length == 0)
+                      ? ChangeEventScanner.getPrefixStopRow(salt) : Bytes.add(salt, stopRowId)));
+    }
+    return bucketScans;
+  }
+
+  /**
+   * Orders Results by RowId (i.e., in the order in which an unsalted Repository would have
+   * returned them).
+   */
+  Comparator<Result> getRowIdComparator() {
+    return new Comparator<Result>() {
+      @Override
+      public int compare(Result result1, Result result2) {
+        return Bytes.BYTES_RAWCOMPARATOR.compare(
+                toRowId(result1.getRow()), toRowId(result2.getRow()));
+      }
+    };
+  }
+
+  /**
+   * Returns a scanner which merges the results of the submitted per-bucket scanners into RowId
+   * order.
+   */
+  ResultScanner mergeBucketScanners(List<ResultScanner> bucketScanners) throws IOException {
+    return (bucketScanners.size() == 1)
+            ? bucketScanners.get(0) : new MergingResultScanner(bucketScanners);
+  }
+
+  private class MergingResultScanner extends AbstractClientScanner {
+
+    private final List<ResultScanner> bucketScanners;
+    private final PriorityQueue<ScannerHead> scannerHeads;
+
+    MergingResultScanner(List<ResultScanner> bucketScanners) throws IOException {
+      this.bucketScanners = bucketScanners;
+      scannerHeads = new PriorityQueue<>(bucketScanners.size(), new Comparator<ScannerHead>() {
+        private final Comparator<Result> rowIdComparator = getRowIdComparator();
+
+        @Override
+        public int compare(ScannerHead head1, ScannerHead head2) {
+          return rowIdComparator.compare(head1.result, head2.result);
+        }
+      });
+      try {
+        for (ResultScanner bucketScanner : bucketScanners) {
+          advance(bucketScanner);
+        }
+      } catch (IOException e) {
+        close();
+        throw e;
+      }
+    }
+
+    private void advance(ResultScanner bucketScanner) throws IOException {
+      Result result = bucketScanner.next();
+      if (result != null) {
+        scannerHeads.add(new ScannerHead(result, bucketScanner));
+      }
+    }
+
+    @Override
+    public Result next() throws IOException {
+      ScannerHead head = scannerHeads.poll();
+      if (head == null) {
+        return null;
+      }
+      advance(head.scanner);
+      return head.result;
+    }
+
+    @Override
+    public boolean renewLease() {
+      boolean renewed = true;
+      for (ResultScanner bucketScanner : bucketScanners) {
+        if (bucketScanner instanceof AbstractClientScanner) {
+          renewed &= ((AbstractClientScanner) bucketScanner).renewLease();
+        }
+      }
+      return renewed;
+    }
+
+    @Override
+    public void close() {
+      for (ResultScanner bucketScanner : bucketScanners) {
+        bucketScanner.close();
+      }
+    }
+  }
+
+  private static class ScannerHead {
+    private final Result result;
+    private final ResultScanner scanner;
+
+    ScannerHead(Result result, ResultScanner scanner) {
+      this.result = result;
+      this.scanner = scanner;
+    }
+  }
+}
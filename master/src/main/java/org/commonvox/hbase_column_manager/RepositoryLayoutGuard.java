@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+
+/**
+ * Guards reads and writes of the Repository table against a {@link RepositoryLayout} which has
+ * been migrated since the Repository was opened (see
+ * {@link RepositoryAdmin#migrateRepositoryLayout(org.apache.hadoop.hbase.client.Admin, int)
+ * RepositoryAdmin#migrateRepositoryLayout}), since writes submitted in a stale
+ * layout would be stored under row keys that no other client would ever read, and reads in a
+ * stale layout would miss rows written in the new one. Before a read or write, the layout
+ * recorded in the Repository table's descriptor is compared with the layout in use, at most once
+ * per {@code [column_manager.repository.layoutCheckIntervalMs]} (default 10000); it is also
+ * compared immediately after any failed operation (as when the Repository table is briefly
+ * unavailable during a migration), and after a read which finds nothing (at most once per
+ * second). Once a change of layout (or a migration in progress) is detected, the guard remains
+ * tripped: every subsequent read or write fails, and the connection must be reopened.
+ *
+ * @author Daniel Vimont
+ */
+class RepositoryLayoutGuard {
+
+  static final String CHECK_INTERVAL_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "repository.layoutCheckIntervalMs";
+  static final long DEFAULT_CHECK_INTERVAL = 10000; // milliseconds
+  private static final Set<String> REPOSITORY_WRITE_METHOD_NAMES = new HashSet<>(Arrays.asList(
+          "put", "checkAndPut", "delete", "checkAndDelete", "checkAndMutate", "mutateRow",
+          "append", "increment", "incrementColumnValue", "batch", "batchCallback"));
+  private static final Set<String> REPOSITORY_READ_METHOD_NAMES = new HashSet<>(Arrays.asList(
+          "get", "exists", "existsAll", "getScanner"));
+  private static final long EMPTY_READ_RECHECK_INTERVAL = 1000; // milliseconds
+
+  /**
+   * Reads the current descriptor of the Repository table (implemented by {@link Repository}).
+   */
+  interface DescriptorReader {
+    HTableDescriptor getRepositoryTableDescriptor() throws IOException;
+  }
+
+  private final RepositoryLayout repositoryLayout;
+  private final DescriptorReader descriptorReader;
+  private final long checkInterval;
+  private volatile long lastCheckTime;
+  private volatile boolean tripped;
+
+  /**
+   * @param repositoryHtd the Repository table's descriptor as read at the time of opening, from
+   * which the layout in use is taken
+   */
+  RepositoryLayoutGuard(HTableDescriptor repositoryHtd, DescriptorReader descriptorReader,
+          Configuration conf) throws ColumnManagerIOException {
+    repositoryLayout = RepositoryLayout.fromTableDescriptor(repositoryHtd);
+    this.descriptorReader = descriptorReader;
+    checkInterval = getCheckInterval(conf);
+    lastCheckTime = System.currentTimeMillis();
+    // a Repository opened while its migration is in progress may never be updated
+    tripped = RepositoryLayout.isMigrationInProgress(repositoryHtd);
+  }
+
+  static long getCheckInterval(Configuration conf) {
+    return Math.max(0, conf.getLong(CHECK_INTERVAL_KEY, DEFAULT_CHECK_INTERVAL));
+  }
+
+  /**
+   * Throws an exception if the Repository layout has changed (or is being migrated); the
+   * descriptor is reread only if the check interval has elapsed since it was last read.
+   */
+  void verify() throws IOException {
+    if (!tripped && System.currentTimeMillis() - lastCheckTime < checkInterval) {
+      return;
+    }
+    check();
+  }
+
+  /**
+   * Invoked after a read which found nothing, as a read in a stale layout would: the descriptor is
+   * reread regardless of the check interval (unless it was read within the last second), and an
+   * exception is thrown if the layout has changed.
+   */
+  void verifyAfterEmptyRead() throws IOException {
+    if (System.currentTimeMillis() - lastCheckTime < EMPTY_READ_RECHECK_INTERVAL) {
+      return;
+    }
+    verifyAfterFailure();
+  }
+
+  /**
+   * Invoked after a failed operation: the descriptor is reread regardless of the check interval, and
+   * an exception is thrown if the layout has changed. A descriptor which cannot be read (e.g.,
+   * during the interval of a migration in which the Repository table does not exist) leaves the
+   * original failure to be reported by the caller.
+   */
+  void verifyAfterFailure() throws IOException {
+    try {
+      check();
+    } catch (ColumnManagerIOException e) {
+      throw e;
+    } catch (IOException e) {
+      // the original failure is to be reported
+    }
+  }
+
+  boolean isTripped() {
+    return tripped;
+  }
+
+  private void check() throws IOException {
+    if (!tripped) {
+      long checkTime = System.currentTimeMillis();
+      HTableDescriptor htd = descriptorReader.getRepositoryTableDescriptor();
+      tripped = RepositoryLayout.isMigrationInProgress(htd)
+              || RepositoryLayout.fromTableDescriptor(htd).getSaltBuckets()
+                      != repositoryLayout.getSaltBuckets();
+      lastCheckTime = checkTime;
+    }
+    if (tripped) {
+      throw new ColumnManagerIOException("Layout of the " + Repository.PRODUCT_NAME
+              + " Repository table has been migrated (or is being migrated) since this connection "
+              + "was opened; the connection must be reopened before the Repository may be "
+              + "read or updated.") {};
+    }
+  }
+
+  /**
+   * Returns a {@link Table} which passes all invocations to the submitted Repository table,
+   * verifying the Repository layout before (and after any failure of) each read or write, and
+   * after each read which finds nothing.
+   */
+  Table guard(final Table repositoryTable) {
+    return (Table) Proxy.newProxyInstance(Table.class.getClassLoader(),
+            new Class<?>[]{Table.class}, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        boolean read = REPOSITORY_READ_METHOD_NAMES.contains(method.getName());
+        boolean guarded = read || REPOSITORY_WRITE_METHOD_NAMES.contains(method.getName());
+        if (guarded) {
+          verify();
+        }
+        Object returnValue;
+        try {
+          returnValue = method.invoke(repositoryTable, args);
+        } catch (InvocationTargetException e) {
+          if (guarded && e.getCause() instanceof IOException) {
+            verifyAfterFailure();
+          }
+          throw e.getCause();
+        }
+        if (read && foundNothing(returnValue)) {
+          verifyAfterEmptyRead();
+        }
+        return returnValue;
+      }
+    });
+  }
+
+  /**
+   * Returns true if the value returned by a read indicates that any of its rows was not found.
+   */
+  private static boolean foundNothing(Object readReturnValue) {
+    if (readReturnValue instanceof Result) {
+      return ((Result) readReturnValue).isEmpty();
+    }
+    if (readReturnValue instanceof Result[]) {
+      for (Result result : (Result[]) readReturnValue) {
+        if (result == null || result.isEmpty()) {
+          return true;
+        }
+      }
+    } else if (readReturnValue instanceof Boolean) {
+      return !((Boolean) readReturnValue);
+    } else if (readReturnValue instanceof boolean[]) {
+      for (boolean exists : (boolean[]) readReturnValue) {
+        if (!exists) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
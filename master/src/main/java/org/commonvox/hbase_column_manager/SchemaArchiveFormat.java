@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+/**
+ * Formats in which an HBaseSchemaArchive (HSA) file may be written by the
+ * {@link RepositoryAdmin#exportSchema(java.io.File, SchemaArchiveFormat) exportSchema} methods of
+ * {@link RepositoryAdmin}. The format of an existing HSA file is detected automatically when the
+ * file is read (e.g., by the {@link RepositoryAdmin#importSchema(java.io.File, boolean)
+ * importSchema} methods), and an HSA file may be converted from one format to another via
+ * {@link RepositoryAdmin#convertSchemaArchive(java.io.File, java.io.File, SchemaArchiveFormat)}
+ * without loss of content.
+ *
+ * @author Daniel Vimont
+ */
+public enum SchemaArchiveFormat {
+  /**
+   * XML format, adhering to the XML Schema layout in
+   * <a href="doc-files/HBaseSchemaArchive.xsd.xml" target="_blank">HBaseSchemaArchive.xsd.xml</a>.
+   */
+  XML,
+  /**
+   * Compact binary format, in which each schema entity is written as a length-prefixed record,
+   * and repeated names and values are written as references to a dictionary.
+   */
+  BINARY,
+  /**
+   * {@link #BINARY} format, with all records deflate-compressed.
+   */
+  COMPRESSED_BINARY
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+/**
+ * A {@code Future} representing a schema change (an HBase DDL operation together with its
+ * persistence in the ColumnManager Repository) whose stages may run on different threads; it is
+ * settled explicitly by the final stage (or by cancellation), and waiting threads are released
+ * via an {@link AbstractQueuedSynchronizer} whose state is the outcome.
+ *
+ * @author Daniel Vimont
+ */
+class SchemaChangeFuture implements Future<Void> {
+
+  private final Sync sync = new Sync();
+
+  /**
+   * Returns true if this future is settled by this invocation (i.e., was not already settled).
+   */
+  boolean complete() {
+    return sync.settle(Sync.COMPLETED, null);
+  }
+
+  /**
+   * Returns true if this future is settled by this invocation (i.e., was not already settled).
+   */
+  boolean fail(Throwable failure) {
+    return sync.settle(Sync.FAILED, failure);
+  }
+
+  /**
+   * Returns the failure with which this future was settled, or null if it is unsettled,
+   * completed, or cancelled.
+   */
+  Throwable getFailure() {
+    return (sync.getOutcome() == Sync.FAILED) ? sync.failure : null;
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    return sync.settle(Sync.CANCELLED, null);
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return sync.getOutcome() == Sync.CANCELLED;
+  }
+
+  @Override
+  public boolean isDone() {
+    return sync.getOutcome() > Sync.SETTLING;
+  }
+
+  @Override
+  public Void get() throws InterruptedException, ExecutionException {
+    sync.acquireSharedInterruptibly(0);
+    return getSettledValue();
+  }
+
+  @Override
+  public Void get(long timeout, TimeUnit unit)
+          throws InterruptedException, ExecutionException, TimeoutException {
+    if (!sync.tryAcquireSharedNanos(0, unit.toNanos(timeout))) {
+      throw new TimeoutException();
+    }
+    return getSettledValue();
+  }
+
+  private Void getSettledValue() throws ExecutionException {
+    switch (sync.getOutcome()) {
+      case Sync.FAILED:
+        throw new ExecutionException(sync.failure);
+      case Sync.CANCELLED:
+        throw new CancellationException("Schema change was cancelled.");
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * The failure is written while the state is SETTLING, before the final state is published, so
+   * any thread observing the FAILED state also observes the failure.
+   */
+  private static final class Sync extends AbstractQueuedSynchronizer {
+
+    private static final long serialVersionUID = 1L;
+    static final int PENDING = 0;
+    static final int SETTLING = 1;
+    static final int COMPLETED = 2;
+    static final int FAILED = 3;
+    static final int CANCELLED = 4;
+    private Throwable failure = null;
+
+    int getOutcome() {
+      return getState();
+    }
+
+    boolean settle(int outcome, Throwable failure) {
+      if (!compareAndSetState(PENDING, SETTLING)) {
+        return false;
+      }
+      this.failure = failure;
+      releaseShared(outcome);
+      return true;
+    }
+
+    @Override
+    protected int tryAcquireShared(int ignored) {
+      return (getState() > SETTLING) ? 1 : -1;
+    }
+
+    @Override
+    protected boolean tryReleaseShared(int outcome) {
+      setState(outcome);
+      return true;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter for hot paths updated concurrently by many threads: increments are spread over a
+ * small number of stripes (each on its own cache line, selected by thread id), and are only
+ * summed when the counter is read.
+ *
+ * @author Daniel Vimont
+ */
+class StripedCounter {
+
+  private static final int LONGS_PER_CACHE_LINE = 8;
+  private static final int STRIPE_COUNT;
+
+  static {
+    int stripeCount = 1;
+    while (stripeCount < Runtime.getRuntime().availableProcessors() && stripeCount < 16) {
+      stripeCount <<= 1;
+    }
+    STRIPE_COUNT = stripeCount;
+  }
+
+  private final AtomicLongArray stripes
+          = new AtomicLongArray(STRIPE_COUNT * LONGS_PER_CACHE_LINE);
+
+  void increment() {
+    add(1);
+  }
+
+  void add(long delta) {
+    stripes.getAndAdd(getStripeIndex() * LONGS_PER_CACHE_LINE, delta);
+  }
+
+  long sum() {
+    long sum = 0;
+    for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+      sum += stripes.get(stripe * LONGS_PER_CACHE_LINE);
+    }
+    return sum;
+  }
+
+  private static int getStripeIndex() {
+    long threadId = Thread.currentThread().getId();
+    int hash = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9; // spread sequential ids
+    return (hash >>> 16) & (STRIPE_COUNT - 1);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.Connection;
+
+/**
+ * Captures the schema of asynchronously created <i>Table</i>s in the ColumnManager Repository
+ * once they come online. Availability of all pending <i>Table</i>s is polled (with exponential
+ * backoff) by a single scheduler thread, so that any number of creations may be in flight without
+ * a thread being blocked for each.
+ *
+ * @author Daniel Vimont
+ */
+class TableSchemaCapturer {
+
+  static final String CREATE_TABLE_TIMEOUT_KEY
+          = Repository.HBASE_CONFIG_PARM_KEY_PREFIX + "admin.createTableTimeout";
+  static final long DEFAULT_CREATE_TABLE_TIMEOUT = 600000; // milliseconds
+  private static final long INITIAL_POLL_INTERVAL = 100; // milliseconds
+  private static final long MAX_POLL_INTERVAL = 2000; // milliseconds
+
+  private final Repository repository;
+  private final Connection standardConnection;
+  private final long createTableTimeout;
+  private ScheduledExecutorService scheduler = null;
+  private Admin pollingAdmin = null; // used only by scheduler thread
+  private final Map<SchemaChangeFuture, String> pendingFutures
+          = new ConcurrentHashMap<>(); // value is name of Table awaited
+  private boolean closed = false; // guarded by this
+
+  TableSchemaCapturer(Repository repository, Connection standardConnection) {
+    this.repository = repository;
+    this.standardConnection = standardConnection;
+    createTableTimeout = standardConnection.getConfiguration()
+            .getLong(CREATE_TABLE_TIMEOUT_KEY, DEFAULT_CREATE_TABLE_TIMEOUT);
+  }
+
+  /**
+   * Schedules capture of the submitted <i>Table</i>'s schema once the <i>Table</i> comes online;
+   * the submitted future is completed upon capture, or failed if the <i>Table</i> does not come
+   * online within the configured timeout.
+   */
+  void captureWhenAvailable(HTableDescriptor htd, SchemaChangeFuture future) {
+    pendingFutures.put(future, htd.getNameAsString());
+    getScheduler().execute(new CaptureTask(htd, future));
+  }
+
+  /**
+   * Shuts down the scheduler thread and closes its Admin, failing the futures of any captures
+   * still pending.
+   */
+  void close() throws IOException {
+    synchronized (this) {
+      closed = true;
+      if (scheduler == null) {
+        return;
+      }
+      scheduler.shutdownNow();
+    }
+    try {
+      scheduler.awaitTermination(MAX_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Map.Entry<SchemaChangeFuture, String> pending : pendingFutures.entrySet()) {
+      pending.getKey().fail(new ColumnManagerIOException("Connection closed before Table <"
+              + pending.getValue() + "> came online; its schema has NOT been captured in the "
+              + Repository.PRODUCT_NAME + " Repository.") {});
+    }
+    pendingFutures.clear();
+    if (pollingAdmin != null) {
+      pollingAdmin.close();
+    }
+  }
+
+  private synchronized ScheduledExecutorService getScheduler() {
+    if (closed) {
+      throw new IllegalStateException(
+              TableSchemaCapturer.class.getSimpleName() + " has been closed.");
+    }
+    if (scheduler == null) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable,
+                  Repository.PRODUCT_NAME + " " + TableSchemaCapturer.class.getSimpleName());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return scheduler;
+  }
+
+  private class CaptureTask implements Runnable {
+
+    private final HTableDescriptor htd;
+    private final SchemaChangeFuture future;
+    private final long deadline;
+    private long pollInterval = INITIAL_POLL_INTERVAL;
+
+    CaptureTask(HTableDescriptor htd, SchemaChangeFuture future) {
+      this.htd = htd;
+      this.future = future;
+      deadline = System.currentTimeMillis() + createTableTimeout;
+    }
+
+    @Override
+    public void run() {
+      if (future.isDone()) { // cancelled
+        pendingFutures.remove(future);
+        return;
+      }
+      try {
+        if (pollingAdmin == null) {
+          pollingAdmin = standardConnection.getAdmin();
+        }
+        if (pollingAdmin.isTableAvailable(htd.getTableName())) {
+          if (repository.isActivated()) {
+            repository.putTableSchemaEntity(htd);
+          }
+          pendingFutures.remove(future);
+          future.complete();
+        } else if (System.currentTimeMillis() >= deadline) {
+          throw new ColumnManagerIOException("Table <" + htd.getNameAsString()
+                  + "> did not come online within " + createTableTimeout
+                  + " milliseconds; its schema has NOT been captured in the "
+                  + Repository.PRODUCT_NAME + " Repository.") {};
+        } else {
+          getScheduler().schedule(this, pollInterval, TimeUnit.MILLISECONDS);
+          pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL);
+        }
+      } catch (IOException e) {
+        repository.logIOExceptionAsError(e, TableSchemaCapturer.class.getSimpleName());
+        pendingFutures.remove(future);
+        future.fail(e);
+      } catch (RuntimeException e) {
+        pendingFutures.remove(future);
+        future.fail(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import org.apache.hadoop.hbase.TableName;
+
+/**
+ * The in-flight timing of a single operation being traced by an {@link OperationTracer}. Time
+ * elapsed since the previous lap (or since the start of the operation) is attributed to the
+ * phase submitted to {@link #lap}. Operations which are not sampled are given the shared
+ * {@link #NOT_SAMPLED} span, upon which all methods return immediately.
+ *
+ * @author Daniel Vimont
+ */
+class TraceSpan {
+
+  static final TraceSpan NOT_SAMPLED = new TraceSpan(null, null, null);
+
+  private final OperationTracer tracer;
+  private final TableName tableName;
+  private final String operation;
+  private final long startTimestamp;
+  private final long startNanos;
+  private long lapNanos;
+  private final long[] phaseNanos;
+
+  TraceSpan(OperationTracer tracer, TableName tableName, String operation) {
+    this.tracer = tracer;
+    this.tableName = tableName;
+    this.operation = operation;
+    if (tracer == null) {
+      startTimestamp = 0;
+      startNanos = 0;
+      phaseNanos = null;
+    } else {
+      startTimestamp = System.currentTimeMillis();
+      startNanos = System.nanoTime();
+      lapNanos = startNanos;
+      phaseNanos = new long[OperationTrace.Phase.values().length];
+    }
+  }
+
+  /**
+   * Attributes the time elapsed since the previous lap to the submitted phase.
+   */
+  void lap(OperationTrace.Phase phase) {
+    if (tracer == null) {
+      return;
+    }
+    long nowNanos = System.nanoTime();
+    phaseNanos[phase.ordinal()] += nowNanos - lapNanos;
+    lapNanos = nowNanos;
+  }
+
+  /**
+   * Completes the trace, which is retained by the tracer if the operation was slow.
+   */
+  void finish() {
+    if (tracer == null) {
+      return;
+    }
+    long totalNanos = System.nanoTime() - startNanos;
+    if (!tracer.isSlow(totalNanos)) {
+      return;
+    }
+    long[] phaseMicros = new long[phaseNanos.length];
+    for (int i = 0; i < phaseNanos.length; i++) {
+      phaseMicros[i] = phaseNanos[i] / 1000;
+    }
+    tracer.retain(new OperationTrace(
+            tableName, operation, startTimestamp, totalNanos / 1000, phaseMicros));
+  }
+}
@@ -61,6 +61,7 @@ class UtilityRunner {
           = "getColumnQualifiersViaMapReduce";
   public static final String GET_CHANGE_EVENTS_UTILITY = "getChangeEventsForTable";
   public static final String UNINSTALL_REPOSITORY = "uninstallRepository";
+  public static final String SWEEP_EXPIRED_COLUMN_AUDITORS_UTILITY = "sweepExpiredColumnAuditors";
   private static final Set<String> UTILITY_LIST;
   static {
     HELP_FORMATTER = new HelpFormatter();
@@ -72,6 +73,7 @@ class UtilityRunner {
     UTILITY_LIST.add(GET_COLUMN_QUALIFIERS_UTILITY_DIRECT_SCAN);
     UTILITY_LIST.add(GET_COLUMN_QUALIFIERS_UTILITY_MAP_REDUCE);
     UTILITY_LIST.add(UNINSTALL_REPOSITORY);
+    UTILITY_LIST.add(SWEEP_EXPIRED_COLUMN_AUDITORS_UTILITY);
     StringBuilder validUtilities = new StringBuilder();
     for (String utility : UTILITY_LIST) {
       if (validUtilities.length() > 0) {
@@ -140,6 +142,14 @@ class UtilityRunner {
       return;
     }
 
+    if (selectedUtility.equals(SWEEP_EXPIRED_COLUMN_AUDITORS_UTILITY)) {
+      logParmInfo(commandLine);
+      LOG.info(this.getClass().getSimpleName()
+              + " is invoking the following utility: <" + selectedUtility + ">");
+      sweepExpiredColumnAuditors(commandLine.getOptionValue(TABLE_OPTION.getOpt()));
+      return;
+    }
+
     try {
       parser = new DefaultParser();
       commandLine = parser.parse(OPTIONS_SET_2, args);
@@ -237,6 +247,35 @@ class UtilityRunner {
     }
   }
 
+  /**
+   * Sweeps the designated table, or all tables of the designated namespace (submitted in the form
+   * 'myNamespace:*'), or all included tables if none is designated.
+   */
+  private void sweepExpiredColumnAuditors(String selectedTableString) throws IOException {
+    Configuration mConf = MConfiguration.create();
+    // invoking UtilityRunner overrides possible inactive state of ColumnManager
+    mConf.setBoolean(Repository.HBASE_CONFIG_PARM_KEY_COLMANAGER_ACTIVATED, true);
+    try (Connection mConnection = MConnectionFactory.createConnection(mConf)) {
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      long expiredCount;
+      if (selectedTableString == null) {
+        expiredCount = repositoryAdmin.sweepExpiredColumnAuditors();
+      } else if (selectedTableString.endsWith(Repository.ALL_TABLES_WILDCARD_INDICATOR)) {
+        String selectedNamespaceString
+                = selectedTableString.substring(0, selectedTableString.length() - 2);
+        if (selectedNamespaceString.isEmpty()) {
+          selectedNamespaceString = Bytes.toString(Repository.HBASE_DEFAULT_NAMESPACE);
+        }
+        expiredCount = repositoryAdmin.sweepExpiredColumnAuditors(selectedNamespaceString);
+      } else {
+        expiredCount = repositoryAdmin.sweepExpiredColumnAuditors(
+                TableName.valueOf(selectedTableString));
+      }
+      LOG.info(this.getClass().getSimpleName() + " deleted " + expiredCount
+              + " expired ColumnAuditor(s).");
+    }
+  }
+
   private void logParmInfo(CommandLine commandLine) {
     StringBuilder parmInfo = new StringBuilder(this.getClass().getSimpleName()
             + " has been invoked with the following <option=argument> combinations:");
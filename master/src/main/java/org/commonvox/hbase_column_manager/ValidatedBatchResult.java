@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016 Daniel Vimont
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.Collections;
+import java.util.SortedMap;
+
+/**
+ * The outcome of a batch submitted via
+ * {@link RepositoryAdmin#putValidMutations(org.apache.hadoop.hbase.TableName, java.util.List)}:
+ * the validation exception of each {@code Mutation} that was rejected (and therefore NOT
+ * submitted to HBase), and the HBase results of those that were submitted.
+ *
+ * @author Daniel Vimont
+ */
+public class ValidatedBatchResult {
+
+  private final SortedMap<Integer, ColumnManagerIOException> invalidMutations;
+  private final Object[] results;
+
+  ValidatedBatchResult(
+          SortedMap<Integer, ColumnManagerIOException> invalidMutations, Object[] results) {
+    this.invalidMutations = Collections.unmodifiableSortedMap(invalidMutations);
+    this.results = results;
+  }
+
+  /**
+   * Returns true if all submitted {@code Mutation}s passed validation.
+   *
+   * @return true if all submitted {@code Mutation}s passed validation
+   */
+  public boolean allMutationsValid() {
+    return invalidMutations.isEmpty();
+  }
+
+  /**
+   * Get the count of {@code Mutation}s in the submitted batch.
+   *
+   * @return count of {@code Mutation}s in the submitted batch
+   */
+  public int getSubmittedMutationCount() {
+    return results.length;
+  }
+
+  /**
+   * Get the count of {@code Mutation}s which passed validation and were submitted to HBase.
+   *
+   * @return count of valid {@code Mutation}s
+   */
+  public int getValidMutationCount() {
+    return results.length - invalidMutations.size();
+  }
+
+  /**
+   * Get the {@link ColumnDefinitionNotFoundException} or {@link ColumnValueInvalidException} of
+   * each rejected {@code Mutation}, keyed by the index of the {@code Mutation} in the submitted
+   * batch.
+   *
+   * @return validation exceptions keyed by index of {@code Mutation} in the submitted batch
+   */
+  public SortedMap<Integer, ColumnManagerIOException> getInvalidMutations() {
+    return invalidMutations;
+  }
+
+  /**
+   * Get the results returned by HBase (as in {@code Table#batch(List, Object[])}), positioned by
+   * the index of each {@code Mutation} in the submitted batch; the position of each rejected
+   * {@code Mutation} contains {@code null}. Each invocation returns a new copy of the results.
+   *
+   * @return results positioned by index of {@code Mutation} in the submitted batch
+   */
+  public Object[] getResults() {
+    return results.clone();
+  }
+}
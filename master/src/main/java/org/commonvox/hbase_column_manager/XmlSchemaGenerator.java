@@ -64,7 +64,7 @@ class XmlSchemaGenerator {
   }
 
   private void outputSchema() throws IOException, JAXBException {
-    JAXBContext jaxbContext = JAXBContext.newInstance(HBaseSchemaArchive.class);
+    JAXBContext jaxbContext = HBaseSchemaArchive.getJaxbContext();
     SchemaOutputResolver sor = new SchemaOutputResolverClass();
     jaxbContext.generateSchema(sor);
   }
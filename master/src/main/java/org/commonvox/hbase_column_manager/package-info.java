@@ -339,6 +339,15 @@
  * In such cases, exceptions of this abstract
  * type (or its concrete subclasses) may be caught, and appropriate processing performed.
  * </BLOCKQUOTE>
+ * <b>C. OPTIONALLY MONITOR ColumnManager OVERHEAD</b>
+ * <BLOCKQUOTE>
+ * Each ColumnManager-enabled {@code Connection} records metrics of its ColumnManager processing,
+ * broken down by <i>Table</i>: validation latency and rejections, column-alias lookups and
+ * assignments, <i>ColumnAuditor</i> updates written and skipped, table-descriptor loads, and the
+ * latency of each type of RPC issued against the ColumnManager Repository. These are published
+ * via Hadoop metrics2 (and JMX, under {@code Hadoop:service=ColumnManager}) unless the
+ * {@code [column_manager.metrics.published]} configuration property is set to {@code false}.
+ * </BLOCKQUOTE>
  * </BLOCKQUOTE>
  *
  * <a name="column-auditing"></a>
@@ -356,6 +365,64 @@
  * <a href="RepositoryAdmin.html#getColumnQualifiers-org.apache.hadoop.hbase.HTableDescriptor-org.apache.hadoop.hbase.HColumnDescriptor-">
  * RepositoryAdmin#getColumnQualifiers</a> methods.
  * <br><br>
+ * So that a slow or unavailable Repository does not stall user Mutations, real-time auditing may
+ * be placed behind a circuit breaker by setting the
+ * {@code [column_manager.auditing.circuitBreaker.enabled]} configuration property to
+ * {@code true}. When consecutive audits fail or exceed
+ * {@code [column_manager.auditing.circuitBreaker.latencyThresholdMs]}, audits are accumulated in a
+ * bounded local backlog ({@code [column_manager.auditing.backlogSize]}) which is written to the
+ * Repository in the background once it recovers; column-definition enforcement continues
+ * throughout, using the table descriptors already cached by each {@code Table},
+ * {@code BufferedMutator}, and {@code HTableMultiplexer}. Each audit written behind the circuit
+ * breaker times out after {@code [column_manager.auditing.circuitBreaker.operationTimeoutMs]}
+ * (default 2000).
+ * <br><br>
+ * For write-intensive <i>Column Family</i>s, the volume of real-time auditing may be reduced by
+ * setting a <a href="ColumnAuditingPolicy.html">ColumnAuditingPolicy</a> via the
+ * <a href="RepositoryAdmin.html#setColumnAuditingPolicy-org.apache.hadoop.hbase.TableName-byte:A-org.commonvox.hbase_column_manager.ColumnAuditingPolicy-">
+ * RepositoryAdmin#setColumnAuditingPolicy</a> method: a sampled fraction of Mutations, at most a
+ * designated number of Mutations per second per ColumnManager client, or only Mutations of
+ * <i>Column Qualifier</i>s not yet known to the Repository may be audited.
+ * <br><br>
+ * When the {@code [column_manager.writeUsage.enabled]} configuration property is set to
+ * {@code true}, each ColumnManager client also counts the writes (and bytes written) of each
+ * <i>Column</i> in memory, flushing them to the Repository every
+ * {@code [column_manager.writeUsage.flushIntervalMs]} (default 60000) and upon closure of its
+ * <i>Connection</i>. The accumulated counts are returned by the
+ * <a href="ColumnAuditor.html#getWriteCount--">ColumnAuditor#getWriteCount</a> and
+ * <a href="ColumnAuditor.html#getWriteBytes--">ColumnAuditor#getWriteBytes</a> methods, and are
+ * included in the output of the
+ * <a href="RepositoryAdmin.html#outputReportOnColumnQualifiers-java.io.File-org.apache.hadoop.hbase.TableName-">
+ * RepositoryAdmin#outputReportOnColumnQualifiers</a> methods.
+ * <br><br>
+ * Similarly, when the {@code [column_manager.readUsage.enabled]} configuration property is set
+ * to {@code true}, each ColumnManager client counts the reads of each <i>Column</i> (i.e., each
+ * returned row containing it) and of each <i>Column Family</i> (i.e., each <i>Get</i> or
+ * <i>Scan</i> designating it), flushing them to the Repository every
+ * {@code [column_manager.readUsage.flushIntervalMs]} (default 60000). The accumulated counts are
+ * returned by the <a href="ColumnAuditor.html#getReadCount--">ColumnAuditor#getReadCount</a>
+ * method, and <i>Column</i>s never (or rarely) read may be listed via the
+ * <a href="RepositoryAdmin.html#outputReportOnColdColumns-java.io.File-org.apache.hadoop.hbase.TableName-long-">
+ * RepositoryAdmin#outputReportOnColdColumns</a> method.
+ * <br><br>
+ * Each ColumnAuditor also records when its <i>Column</i> was last seen (i.e., last written,
+ * whatever the auditing policy of its <i>Column Family</i>, discovered, or had usage counts
+ * flushed), as returned by the
+ * <a href="ColumnAuditor.html#getLastSeenTimestamp--">ColumnAuditor#getLastSeenTimestamp</a>
+ * method; so that writes of a <i>Column</i> do not each require a Repository write, each client
+ * refreshes the last-seen time at most once per
+ * {@code [column_manager.auditor.lastSeenResolutionMs]} (default 3600000), which should thus be
+ * well short of any retention period. Where
+ * <i>Column Qualifier</i>s embed transient values (e.g., dates or ids), a retention period may be
+ * set for a <i>Column Family</i> via the
+ * <a href="RepositoryAdmin.html#setColumnAuditorRetentionPeriod-org.apache.hadoop.hbase.TableName-byte:A-long-">
+ * RepositoryAdmin#setColumnAuditorRetentionPeriod</a> method; ColumnAuditors not seen within the
+ * retention period are then deleted by the
+ * <a href="RepositoryAdmin.html#sweepExpiredColumnAuditors--">
+ * RepositoryAdmin#sweepExpiredColumnAuditors</a> methods (also invocable via the
+ * <a href="#command-line">command-line UtilityRunner</a>), so that the ColumnAuditors loaded with
+ * each <i>Table</i>'s descriptor reflect its live schema rather than its full history.
+ * <br><br>
  * Note that <a href="ColumnAuditor.html">ColumnAuditor</a> metadata may also be
  * gathered for previously-existing <i>Column</i>s via the
  * <a href="#discovery">RepositoryAdmin discovery methods</a>.
@@ -378,6 +445,12 @@
  * RepositoryAdmin#enableColumnAliases</a> method. Aliasing should only be activated for a
  * newly-defined, completely empty (or freshly truncated) <i>Column Family</i>, and it should not
  * be deactivated after data has been stored in the <i>Column Family</i>.
+ * <br><br>
+ * <b>Scanning aliased Column Families:</b> Results of a <i>Scan</i> are decoded from aliased form
+ * in batches on a prefetching thread, taken from a pool of at most
+ * {@code [column_manager.scanner.prefetchThreads]} (default 8) threads per connection. A
+ * <i>Scan</i> of a <i>Table</i> with alias-enabled <i>Column Families</i> may not designate a
+ * batch size or allow partial Results.
  *
  * </BLOCKQUOTE>
  *
@@ -420,7 +493,26 @@
  * <a href="ColumnManagerIOException.html">ColumnManagerIOException</a>
  * (a subclass of the standard {@code IOException} class) being thrown: specifically, either a
  * <a href="ColumnDefinitionNotFoundException.html">ColumnDefinitionNotFoundException</a> or a
- * <a href="ColumnValueInvalidException.html">ColumnValueInvalidException</a>.
+ * <a href="ColumnValueInvalidException.html">ColumnValueInvalidException</a>.<br><br>
+ * <b>Validation of batches</b>: The {@code Mutation}s of a batch (submitted via
+ * {@code Table#batch} or {@code BufferedMutator#mutate(List)}) are all validated before the batch
+ * is passed on to HBase. Batches of at least {@code [column_manager.validation.parallelThreshold]}
+ * {@code Mutation}s (default 1000) are validated in parallel by a pool of
+ * {@code [column_manager.validation.threadCount]} threads (default: the number of available
+ * processors). By default, the first violation encountered is thrown; if the
+ * {@code [column_manager.validation.collectAllViolations]} property is set to {@code true}, all
+ * violations are instead reported (keyed by index of {@code Mutation} within the batch) via a
+ * <a href="MutationsInvalidException.html">MutationsInvalidException</a>, so that the invalid
+ * {@code Mutation}s may be dropped and the remainder resubmitted. All of these properties are
+ * set in the same manner as the {@code [column_manager.includedTables]} property described in the
+ * <a href="#config">configuration section</a> above.<br><br>
+ * Alternatively, a batch may be submitted via
+ * <a href="RepositoryAdmin.html#putValidMutations-org.apache.hadoop.hbase.TableName-java.util.List-">
+ * RepositoryAdmin#putValidMutations</a>, which submits only the valid {@code Mutation}s to HBase
+ * and returns a per-{@code Mutation} report of those rejected. Counts of validated and rejected
+ * {@code Mutation}s are available via
+ * <a href="RepositoryAdmin.html#getColumnValidationStatistics-org.apache.hadoop.hbase.TableName-">
+ * RepositoryAdmin#getColumnValidationStatistics</a>.
  * </BLOCKQUOTE>
  *
  * <a name="query"></a>
@@ -528,6 +620,38 @@
  * RepositoryAdmin#setRepositoryMaxVersions</a>.
  * </BLOCKQUOTE>
  * </li>
+ * <li>Spread Repository read load across region replicas
+ * <BLOCKQUOTE>
+ * In deployments with many application servers, Repository and AliasDirectory lookups may
+ * concentrate on the few regions which hold those <i>Table</i>s. Their region replication may be
+ * set via the {@code [column_manager.repository.regionReplication]} configuration property (applied
+ * when the Repository is first created) or via the static method
+ * <a href="RepositoryAdmin.html#setRepositoryRegionReplication-org.apache.hadoop.hbase.client.Admin-int-">
+ * RepositoryAdmin#setRepositoryRegionReplication</a>. When the
+ * {@code [column_manager.repository.timelineConsistentReads]} property is set to {@code true},
+ * descriptor, ColumnAuditor, and column-alias lookups are then submitted with
+ * {@code Consistency.TIMELINE}, so that a slow primary region may be bypassed. Any lookup that
+ * comes back empty from a (possibly stale) replica is repeated against the primary region, as is
+ * any ColumnAuditor read in the course of updating it; likewise, any column validation failure
+ * is confirmed against the primary region before the Mutation is rejected. Note that region
+ * replicas see new Repository content promptly only when async WAL replication
+ * ({@code hbase.region.replica.replication.enabled}) is enabled on the cluster.
+ * </BLOCKQUOTE>
+ * </li>
+ * <li>Salt and pre-split the ColumnManager Repository
+ * <BLOCKQUOTE>
+ * In the original Repository layout, all <i>ColumnAuditor</i> rows of a <i>Column Family</i>
+ * occupy a single contiguous key range, which may become a write hotspot when many clients audit
+ * concurrently. A Repository created with the {@code [column_manager.repository.saltBuckets]}
+ * configuration property set to a value greater than 1 (maximum 256) instead prefixes each row key
+ * with a hash-derived salt byte, and is pre-split into one region per salt bucket; point lookups
+ * go directly to the appropriate bucket, while range scans are run against all buckets in
+ * parallel. An existing Repository may be migrated between layouts via the static method
+ * <a href="RepositoryAdmin.html#migrateRepositoryLayout-org.apache.hadoop.hbase.client.Admin-int-">
+ * RepositoryAdmin#migrateRepositoryLayout</a> (while no ColumnManager-enabled application is
+ * updating the Repository).
+ * </BLOCKQUOTE>
+ * </li>
  * </ul>
  *
  * <a name="command-line"></a>
@@ -558,6 +682,11 @@
  * <li><b>importSchema</b>: invokes the
  * <a href="RepositoryAdmin.html#importSchema-java.io.File-org.apache.hadoop.hbase.TableName-boolean-">
  * RepositoryAdmin#importSchema</a> method for a specified <i>Table</i> or <i>Namespace</i>.</li>
+ * <li><b>sweepExpiredColumnAuditors</b>: invokes the
+ * <a href="RepositoryAdmin.html#sweepExpiredColumnAuditors--">
+ * RepositoryAdmin#sweepExpiredColumnAuditors</a> method for a specified <i>Table</i> or
+ * <i>Namespace</i> (or for all included <i>Table</i>s if none is specified); no file is
+ * specified for this function.</li>
  * <li><b>uninstallRepository</b>: invokes the
  * <a href="RepositoryAdmin.html#uninstallRepositoryStructures-org.apache.hadoop.hbase.client.Admin-">
  * RepositoryAdmin#uninstallRepositoryStructures</a> method to remove the Repository Table and
@@ -594,7 +723,7 @@
  *                             exportSchema, getChangeEventsForTable,
  *                             getColumnQualifiers,
  *                             getColumnQualifiersViaMapReduce, importSchema,
- *                             uninstallRepository
+ *                             sweepExpiredColumnAuditors, uninstallRepository
  *        -t,--table <arg>     Fully-qualified table name; or submit '*' in place
  *                             of table qualifier (e.g., 'myNamespace:*') to
  *                             process all tables in a given namespace.
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test that aliased Cells of a Result are presented under their column qualifiers in qualifier
+ * order, including Results mixing aliased and unaliased Cells, and that an alias unknown to the
+ * converter yields an empty qualifier rather than an exception.
+ *
+ * @author Daniel Vimont
+ */
+public class TestAliasConvertedCell {
+
+  private static final byte[] ROW_ID = Bytes.toBytes("rowId01");
+  private static final byte[] CF01 = Bytes.toBytes("CF1");
+  private static final byte[] CF02 = Bytes.toBytes("CF2");
+  private static final byte[] CF03 = Bytes.toBytes("CF3");
+
+  @Test
+  public void testConvertAliasesToQualifiers() {
+    // CF1 aliases are assigned in reverse of qualifier order; CF2 is not aliased;
+    //   CF3 aliases are assigned in qualifier order.
+    NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
+            = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    NavigableMap<byte[], byte[]> cf01AliasMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    NavigableMap<byte[], byte[]> cf03AliasMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    for (int i = 1; i <= 5; i++) {
+      cf01AliasMap.put(Bytes.toBytes(i), Bytes.toBytes("column0" + (6 - i)));
+      cf03AliasMap.put(Bytes.toBytes(i), Bytes.toBytes("column0" + i));
+    }
+    familyAliasToQualifierMap.put(CF01, cf01AliasMap);
+    familyAliasToQualifierMap.put(CF03, cf03AliasMap);
+
+    List<Cell> aliasedCells = new ArrayList<>();
+    List<Cell> expectedCells = new ArrayList<>();
+    for (byte[] colFamily : new byte[][]{CF01, CF02, CF03}) {
+      for (int i = 1; i <= 5; i++) {
+        byte[] value = Bytes.toBytes("value" + Bytes.toString(colFamily) + i);
+        for (long timestamp = 2; timestamp >= 1; timestamp--) {
+          if (Bytes.equals(colFamily, CF02)) {
+            Cell cell = new KeyValue(ROW_ID, colFamily, Bytes.toBytes("col0" + i), timestamp, value);
+            aliasedCells.add(cell);
+            expectedCells.add(cell);
+          } else {
+            byte[] alias = Bytes.toBytes(i);
+            aliasedCells.add(new KeyValue(ROW_ID, colFamily, alias, timestamp, value));
+            expectedCells.add(new KeyValue(ROW_ID, colFamily,
+                    familyAliasToQualifierMap.get(colFamily).get(alias), timestamp, value));
+          }
+        }
+      }
+    }
+    Collections.sort(expectedCells, KeyValue.COMPARATOR);
+
+    Result aliasedResult = Result.create(aliasedCells);
+    Result convertedResult
+            = Repository.convertAliasesToQualifiers(
+                    aliasedResult, familyAliasToQualifierMap, getTableDescriptor(false));
+    Cell[] convertedCells = convertedResult.rawCells();
+    assertEquals("unexpected Cell count",
+            expectedCells.size(), convertedCells.length);
+    for (int i = 0; i < convertedCells.length; i++) {
+      Cell expectedCell = expectedCells.get(i);
+      Cell convertedCell = convertedCells[i];
+      assertEquals("Cells out of order or incorrectly converted",
+              0, KeyValue.COMPARATOR.compare(expectedCell, convertedCell));
+      assertArrayEquals("unexpected Cell value",
+              CellUtil.cloneValue(expectedCell), CellUtil.cloneValue(convertedCell));
+      if (!Bytes.equals(CellUtil.cloneFamily(convertedCell), CF02)) {
+        assertTrue("converted Cell not a view of aliased Cell",
+                convertedCell instanceof AliasConvertedCell);
+      }
+    }
+    for (int i = 1; i <= 5; i++) {
+      assertArrayEquals("unexpected value retrieved by qualifier",
+              Bytes.toBytes("value" + Bytes.toString(CF01) + (6 - i)),
+              convertedResult.getValue(CF01, Bytes.toBytes("column0" + i)));
+    }
+
+    Result emptyResult = Result.create(new Cell[0]);
+    assertSame("empty Result unexpectedly converted", emptyResult,
+            Repository.convertAliasesToQualifiers(
+                    emptyResult, familyAliasToQualifierMap, getTableDescriptor(false)));
+  }
+
+  @Test
+  public void testConvertMixedFormResult() {
+    // during online conversion, a family may contain both aliased and unaliased cells
+    NavigableMap<byte[], byte[]> cf01AliasMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    cf01AliasMap.put(Bytes.toBytes(1), Bytes.toBytes("column03"));
+    NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
+            = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    familyAliasToQualifierMap.put(CF01, cf01AliasMap);
+
+    List<Cell> mixedCells = new ArrayList<>();
+    mixedCells.add(new KeyValue(ROW_ID, CF01, Bytes.toBytes(1), Bytes.toBytes("value03")));
+    mixedCells.add(new KeyValue(ROW_ID, CF01, Bytes.toBytes("column01"), Bytes.toBytes("value01")));
+    mixedCells.add(new KeyValue(ROW_ID, CF01, Bytes.toBytes("column05"), Bytes.toBytes("value05")));
+    Collections.sort(mixedCells, KeyValue.COMPARATOR);
+
+    Result convertedResult = Repository.convertAliasesToQualifiers(
+            Result.create(mixedCells), familyAliasToQualifierMap, getTableDescriptor(true));
+    Cell[] convertedCells = convertedResult.rawCells();
+    assertEquals("unexpected Cell count", 3, convertedCells.length);
+    for (int i = 0; i < convertedCells.length; i++) {
+      String expectedSuffix = "0" + (i * 2 + 1);
+      assertArrayEquals("Cells out of order or incorrectly converted",
+              Bytes.toBytes("column" + expectedSuffix), CellUtil.cloneQualifier(convertedCells[i]));
+      assertArrayEquals("unexpected Cell value",
+              Bytes.toBytes("value" + expectedSuffix), CellUtil.cloneValue(convertedCells[i]));
+    }
+  }
+
+  @Test
+  public void testConvertUnknownAlias() {
+    // outside of online conversion, a Cell with no known alias is returned with empty qualifier
+    NavigableMap<byte[], byte[]> cf01AliasMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    cf01AliasMap.put(Bytes.toBytes(1), Bytes.toBytes("column01"));
+    NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
+            = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    familyAliasToQualifierMap.put(CF01, cf01AliasMap);
+
+    List<Cell> cells = new ArrayList<>();
+    cells.add(new KeyValue(ROW_ID, CF01, Bytes.toBytes(1), Bytes.toBytes("value01")));
+    cells.add(new KeyValue(ROW_ID, CF01, Bytes.toBytes(2), Bytes.toBytes("value02")));
+
+    Cell[] convertedCells = Repository.convertAliasesToQualifiers(Result.create(cells),
+            familyAliasToQualifierMap, getTableDescriptor(false)).rawCells();
+    assertEquals("unexpected Cell count", 2, convertedCells.length);
+    assertArrayEquals("unknown alias not mapped to empty qualifier",
+            HConstants.EMPTY_BYTE_ARRAY, CellUtil.cloneQualifier(convertedCells[0]));
+    assertArrayEquals("unexpected value of unknown-alias Cell",
+            Bytes.toBytes("value02"), CellUtil.cloneValue(convertedCells[0]));
+    assertArrayEquals("known alias incorrectly converted",
+            Bytes.toBytes("column01"), CellUtil.cloneQualifier(convertedCells[1]));
+  }
+
+  private static MTableDescriptor getTableDescriptor(boolean cf01ConversionInProgress) {
+    MTableDescriptor mtd = new MTableDescriptor("testTable");
+    for (byte[] colFamily : new byte[][]{CF01, CF02, CF03}) {
+      MColumnDescriptor mcd = new MColumnDescriptor(colFamily);
+      mcd.setColumnAliasConversionInProgress(
+              cf01ConversionInProgress && Bytes.equals(colFamily, CF01));
+      mtd.addFamily(mcd);
+    }
+    return mtd;
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that an AliasDecodingResultScanner prefetching from an in-memory ResultScanner delivers
+ * every Result in order, reports a failure of the underlying scanner (checked or unchecked) only
+ * after the Results which preceded it, and falls back to decoding on the caller's thread when its
+ * prefetch pool is saturated.
+ *
+ * @author Daniel Vimont
+ */
+public class TestAliasDecodingResultScanner {
+
+  private static final byte[] CF01 = Bytes.toBytes("CF1");
+  private static final byte[] ALIAS = Bytes.toBytes(1);
+  private static final byte[] COLQUALIFIER = Bytes.toBytes("column01");
+  private static final int ROW_COUNT = 1000;
+  private static final int BATCH_SIZE = 7;
+  private static final MTableDescriptor TABLE_DESCRIPTOR = new MTableDescriptor("testTable");
+
+  static {
+    TABLE_DESCRIPTOR.addFamily(new MColumnDescriptor(CF01));
+  }
+  private static final ExecutorService PREFETCH_EXECUTOR = Executors.newCachedThreadPool();
+
+  @Test
+  public void testPrefetchingScanner() throws IOException {
+    // Result-at-a-time retrieval
+    int rowCount = 0;
+    try (ResultScanner scanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, -1), BATCH_SIZE, PREFETCH_EXECUTOR)) {
+      for (Result result = scanner.next(); result != null; result = scanner.next()) {
+        assertConvertedResult(rowCount++, result);
+      }
+      assertNull("Result returned after end of scan", scanner.next());
+    }
+    assertEquals("unexpected Result count", ROW_COUNT, rowCount);
+
+    // batched retrieval, with batches not aligned to prefetch batches
+    rowCount = 0;
+    try (ResultScanner scanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, -1), BATCH_SIZE, PREFETCH_EXECUTOR)) {
+      for (Result[] results = scanner.next(BATCH_SIZE * 3 - 1); results.length > 0;
+              results = scanner.next(BATCH_SIZE * 3 - 1)) {
+        for (Result result : results) {
+          assertConvertedResult(rowCount++, result);
+        }
+      }
+    }
+    assertEquals("unexpected Result count", ROW_COUNT, rowCount);
+
+    // iterator-based retrieval
+    rowCount = 0;
+    try (ResultScanner scanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, -1), 0, PREFETCH_EXECUTOR)) {
+      for (Result result : scanner) {
+        assertConvertedResult(rowCount++, result);
+      }
+    }
+    assertEquals("unexpected Result count", ROW_COUNT, rowCount);
+
+    // early close, with prefetch thread awaiting space in buffer
+    InMemoryResultScanner wrappedScanner = new InMemoryResultScanner(ROW_COUNT, -1);
+    ResultScanner scanner = newScanner(wrappedScanner, BATCH_SIZE, PREFETCH_EXECUTOR);
+    assertConvertedResult(0, scanner.next());
+    scanner.close();
+    assertNull("Result returned after close", scanner.next());
+    for (int i = 0; i < 100 && !wrappedScanner.closed; i++) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+    assertTrue("wrapped scanner not closed", wrappedScanner.closed);
+  }
+
+  @Test
+  public void testPrefetchFailure() {
+    int rowCount = 0;
+    try (ResultScanner scanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, BATCH_SIZE * 2), BATCH_SIZE, PREFETCH_EXECUTOR)) {
+      for (Result result = scanner.next(); result != null; result = scanner.next()) {
+        assertConvertedResult(rowCount++, result);
+      }
+      fail("expected IOException not thrown");
+    } catch (IOException e) {
+      assertEquals("Results preceding failure not delivered",
+              BATCH_SIZE * 2, rowCount);
+    }
+  }
+
+  @Test
+  public void testPrefetchRuntimeFailure() {
+    int rowCount = 0;
+    try (ResultScanner scanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, BATCH_SIZE * 2) {
+              @Override
+              public Result next() throws IOException {
+                try {
+                  return super.next();
+                } catch (IOException e) {
+                  throw new IllegalStateException("Simulated unchecked scanner failure.");
+                }
+              }
+            }, BATCH_SIZE, PREFETCH_EXECUTOR)) {
+      for (Result result = scanner.next(); result != null; result = scanner.next()) {
+        assertConvertedResult(rowCount++, result);
+      }
+      fail("scan silently truncated by unchecked exception");
+    } catch (IOException e) {
+      assertTrue("unchecked exception not retained as cause",
+              e.getCause() instanceof IllegalStateException);
+      assertEquals("Results preceding failure not delivered",
+              BATCH_SIZE * 2, rowCount);
+    }
+  }
+
+  @Test
+  public void testSaturatedPrefetchPool() throws IOException {
+    ExecutorService singleThreadPool = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>());
+    try (ResultScanner prefetchingScanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, -1), BATCH_SIZE, singleThreadPool)) {
+      // the pool's only thread now awaits space in the prefetching scanner's buffer
+      assertConvertedResult(0, prefetchingScanner.next());
+      int rowCount = 0;
+      try (ResultScanner scanner = newScanner(
+              new InMemoryResultScanner(ROW_COUNT, -1), BATCH_SIZE, singleThreadPool)) {
+        for (Result result : scanner) {
+          assertConvertedResult(rowCount++, result);
+        }
+      }
+      assertEquals("unexpected Result count when decoded on caller's "
+              + "thread", ROW_COUNT, rowCount);
+      for (rowCount = 1; prefetchingScanner.next() != null; rowCount++) {
+      }
+      assertEquals("unexpected Result count when prefetched",
+              ROW_COUNT, rowCount);
+    } finally {
+      singleThreadPool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testIteratorRuntimeFailure() {
+    int rowCount = 0;
+    try (ResultScanner scanner = newScanner(
+            new InMemoryResultScanner(ROW_COUNT, BATCH_SIZE * 2) {
+              @Override
+              public Result next() throws IOException {
+                try {
+                  return super.next();
+                } catch (IOException e) {
+                  throw new IllegalStateException("Simulated unchecked scanner failure.");
+                }
+              }
+            }, BATCH_SIZE, PREFETCH_EXECUTOR)) {
+      for (Result result : scanner) {
+        assertConvertedResult(rowCount++, result);
+      }
+      fail("scan silently truncated by unchecked exception");
+    } catch (IllegalStateException e) {
+      assertEquals("Results preceding failure not delivered",
+              BATCH_SIZE * 2, rowCount);
+    }
+  }
+
+  private static ResultScanner newScanner(
+          ResultScanner wrappedScanner, int batchSize, Executor prefetchExecutor) {
+    return new AliasDecodingResultScanner(wrappedScanner, getFamilyAliasToQualifierMap(),
+            TABLE_DESCRIPTOR, batchSize, prefetchExecutor);
+  }
+
+  private static NavigableMap<byte[], NavigableMap<byte[], byte[]>>
+        getFamilyAliasToQualifierMap() {
+    NavigableMap<byte[], byte[]> aliasToQualifierMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    aliasToQualifierMap.put(ALIAS, COLQUALIFIER);
+    NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyAliasToQualifierMap
+            = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    familyAliasToQualifierMap.put(CF01, aliasToQualifierMap);
+    return familyAliasToQualifierMap;
+  }
+
+  private static void assertConvertedResult(int rowIndex, Result result) {
+    assertArrayEquals("Results out of order",
+            Bytes.toBytes(rowIndex), result.getRow());
+    assertArrayEquals("alias not converted to qualifier",
+            Bytes.toBytes(rowIndex), result.getValue(CF01, COLQUALIFIER));
+  }
+
+  /**
+   * Returns aliased Results for rows 0 through rowCount - 1; throws IOException upon any attempt
+   * to retrieve the row at failureIndex (if not negative).
+   */
+  private static class InMemoryResultScanner implements ResultScanner {
+
+    private final int rowCount;
+    private final int failureIndex;
+    private int nextIndex = 0;
+    private volatile boolean closed = false;
+
+    InMemoryResultScanner(int rowCount, int failureIndex) {
+      this.rowCount = rowCount;
+      this.failureIndex = failureIndex;
+    }
+
+    @Override
+    public Result next() throws IOException {
+      if (nextIndex == failureIndex) {
+        throw new IOException("Simulated scanner failure.");
+      }
+      if (nextIndex >= rowCount) {
+        return null;
+      }
+      byte[] rowId = Bytes.toBytes(nextIndex++);
+      return Result.create(new Cell[]{new KeyValue(rowId, CF01, ALIAS, rowId)});
+    }
+
+    @Override
+    public Result[] next(int nbRows) throws IOException {
+      List<Result> results = new ArrayList<>();
+      for (Result result = null; results.size() < nbRows && (result = next()) != null; ) {
+        results.add(result);
+      }
+      return results.toArray(new Result[results.size()]);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public Iterator<Result> iterator() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test the CLOSED, OPEN, and HALF_OPEN transitions of an {@link AuditCircuitBreaker} driven by
+ * simulated Repository failures, the merging and bounding of its backlog of deferred audits, the
+ * retention of audits deferred while the backlog is being drained, and the pass-through behavior
+ * of a disabled breaker.
+ *
+ * @author Daniel Vimont
+ */
+public class TestAuditCircuitBreaker {
+
+  private static final TableName TABLE01 = TableName.valueOf("testNamespace01", "testTable01");
+  private static final byte[] CF01 = Bytes.toBytes("cf01");
+
+  @Test
+  public void testStateTransitions() throws Exception {
+    SimulatedAuditWriter auditWriter = new SimulatedAuditWriter();
+    ColumnManagerMetrics metrics = new ColumnManagerMetrics(getConfiguration(1000));
+    AuditCircuitBreaker breaker
+            = new AuditCircuitBreaker(auditWriter, metrics, getConfiguration(1000));
+    MTableDescriptor mtd = getMTableDescriptor();
+
+    assertTrue("breaker not initially CLOSED",
+            breaker.allowsRepositoryWrites());
+    breaker.recordFailure();
+    breaker.recordLatency(0); // a fast audit resets the failure count
+    breaker.recordFailure();
+    assertTrue("breaker opened before failure threshold reached",
+            breaker.allowsRepositoryWrites());
+    breaker.recordFailure();
+    assertEquals("breaker not OPEN after failure threshold reached",
+            AuditCircuitBreaker.State.OPEN, breaker.getState());
+
+    breaker.defer(mtd, new Put(Bytes.toBytes("row01"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("short"))
+            .addColumn(CF01, Bytes.toBytes("col02"), Bytes.toBytes("value")));
+    breaker.defer(mtd, new Put(Bytes.toBytes("row02"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("longer value")));
+    assertEquals("unexpected backlog size", 2, breaker.getBacklogSize());
+
+    auditWriter.failing = true;
+    breaker.drainBacklog();
+    assertEquals("breaker not re-OPENed after failed drain",
+            AuditCircuitBreaker.State.OPEN, breaker.getState());
+    assertEquals("failed audit not returned to backlog",
+            2, breaker.getBacklogSize());
+
+    auditWriter.failing = false;
+    breaker.drainBacklog();
+    assertEquals("breaker not CLOSED after backlog drained",
+            AuditCircuitBreaker.State.CLOSED, breaker.getState());
+    assertEquals("backlog not empty after drain", 0, breaker.getBacklogSize());
+    assertEquals("unexpected audits written",
+            2, auditWriter.writtenAudits.size());
+    assertTrue("merged audit did not retain max value length",
+            auditWriter.writtenAudits.contains("col01=" + "longer value".length()));
+
+    ColumnManagerMetrics.TableMetrics repositoryMetrics
+            = metrics.getTableMetrics(Repository.REPOSITORY_TABLENAME);
+    assertEquals("unexpected OPEN transition count", 2, repositoryMetrics
+            .getCounter(ColumnManagerMetrics.Counter.AUDIT_CIRCUIT_OPENED).sum());
+    assertEquals("unexpected HALF_OPEN transition count", 2, repositoryMetrics
+            .getCounter(ColumnManagerMetrics.Counter.AUDIT_CIRCUIT_HALF_OPENED).sum());
+    assertEquals("unexpected CLOSED transition count", 1, repositoryMetrics
+            .getCounter(ColumnManagerMetrics.Counter.AUDIT_CIRCUIT_CLOSED).sum());
+  }
+
+  @Test
+  public void testBacklogBound() throws Exception {
+    Configuration conf = getConfiguration(2);
+    ColumnManagerMetrics metrics = new ColumnManagerMetrics(conf);
+    AuditCircuitBreaker breaker
+            = new AuditCircuitBreaker(new SimulatedAuditWriter(), metrics, conf);
+    Put put = new Put(Bytes.toBytes("row01"));
+    for (int i = 0; i < 5; i++) {
+      put.addColumn(CF01, Bytes.toBytes("col0" + i), Bytes.toBytes("value"));
+    }
+    breaker.defer(getMTableDescriptor(), put);
+    assertEquals("backlog exceeded its bound", 2, breaker.getBacklogSize());
+    assertEquals("unexpected dropped-audit count", 3, metrics.getTableMetrics(
+            TABLE01).getCounter(ColumnManagerMetrics.Counter.AUDITOR_UPDATES_DROPPED).sum());
+  }
+
+  @Test
+  public void testDeferDuringDrain() throws Exception {
+    Configuration conf = getConfiguration(1000);
+    final AuditCircuitBreaker[] breakerHolder = new AuditCircuitBreaker[1];
+    final MTableDescriptor mtd = getMTableDescriptor();
+    SimulatedAuditWriter auditWriter = new SimulatedAuditWriter() {
+      @Override
+      public void writeAudit(TableName tableName, byte[] colFamilyForeignKey,
+              byte[] colQualifier, long valueLength) throws IOException {
+        super.writeAudit(tableName, colFamilyForeignKey, colQualifier, valueLength);
+        if (writtenAudits.size() == 1) { // a user write of the column while its audit is drained
+          breakerHolder[0].defer(mtd, new Put(Bytes.toBytes("row02"))
+                  .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("longer value")));
+        }
+      }
+    };
+    AuditCircuitBreaker breaker
+            = new AuditCircuitBreaker(auditWriter, new ColumnManagerMetrics(conf), conf);
+    breakerHolder[0] = breaker;
+    breaker.defer(mtd, new Put(Bytes.toBytes("row01"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("short")));
+    breaker.drainBacklog();
+    breaker.drainBacklog();
+    assertEquals("backlog not empty after drains", 0, breaker.getBacklogSize());
+    assertTrue("audit deferred during drain was lost",
+            auditWriter.writtenAudits.contains("col01=" + "longer value".length()));
+  }
+
+  @Test
+  public void testDisabledBreaker() {
+    Configuration conf = getConfiguration(2);
+    conf.unset(AuditCircuitBreaker.ENABLED_KEY);
+    AuditCircuitBreaker breaker = new AuditCircuitBreaker(
+            new SimulatedAuditWriter(), new ColumnManagerMetrics(conf), conf);
+    assertFalse("disabled breaker deferred a failed audit",
+            breaker.recordFailure());
+    assertTrue("disabled breaker disallowed Repository writes",
+            breaker.allowsRepositoryWrites());
+  }
+
+  private static Configuration getConfiguration(int backlogSize) {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(ColumnManagerMetrics.METRICS_PUBLISHED_KEY, false);
+    conf.setBoolean(AuditCircuitBreaker.ENABLED_KEY, true);
+    conf.setInt(AuditCircuitBreaker.FAILURE_THRESHOLD_KEY, 2);
+    conf.setLong(AuditCircuitBreaker.OPEN_INTERVAL_KEY, 3600000); // drained manually by tests
+    conf.setInt(AuditCircuitBreaker.BACKLOG_SIZE_KEY, backlogSize);
+    return conf;
+  }
+
+  private static MTableDescriptor getMTableDescriptor() {
+    MTableDescriptor mtd = new MTableDescriptor(TABLE01);
+    MColumnDescriptor mcd = new MColumnDescriptor(CF01);
+    mcd.setForeignKey(Bytes.toBytes(1L));
+    mtd.addFamily(mcd);
+    return mtd;
+  }
+
+  private static class SimulatedAuditWriter implements AuditCircuitBreaker.AuditWriter {
+
+    private volatile boolean failing = false;
+    protected final List<String> writtenAudits = new ArrayList<>();
+
+    @Override
+    public void writeAudit(TableName tableName, byte[] colFamilyForeignKey,
+            byte[] colQualifier, long valueLength) throws IOException {
+      if (failing) {
+        throw new IOException("simulated Repository failure");
+      }
+      writtenAudits.add(Bytes.toString(colQualifier) + "=" + valueLength);
+    }
+  }
+}
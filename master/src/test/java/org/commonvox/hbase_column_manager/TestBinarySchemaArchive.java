@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that a binary HBaseSchemaArchive file written by {@link BinarySchemaArchive} reads back
+ * with the same header and schema entities, and that a file truncated at any point is rejected
+ * with an exception instead of yielding partial content.
+ *
+ * @author Daniel Vimont
+ */
+public class TestBinarySchemaArchive {
+
+  private static final String FILE_TIMESTAMP = "2016-01-01 00:00:00";
+  private static final String DESCRIPTION = "test archive";
+  private static final int TABLE_COUNT = 3;
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    for (boolean compressed : new boolean[]{false, true}) {
+      File archiveFile = writeArchive(compressed);
+      try (BinarySchemaArchive.EntityReader reader
+              = new BinarySchemaArchive.EntityReader(archiveFile)) {
+        assertEquals("unexpected file timestamp",
+                FILE_TIMESTAMP, reader.getArchiveFileTimestampString());
+        assertEquals("unexpected description",
+                DESCRIPTION, reader.getArchiveDescription());
+        SchemaEntity namespace = reader.next();
+        assertEquals("unexpected namespace",
+                "testNamespace", namespace.getNameAsString());
+        for (int i = 0; i < TABLE_COUNT; i++) {
+          SchemaEntity table = reader.next();
+          assertEquals("unexpected table depth", 1, reader.getDepth());
+          assertEquals("unexpected table",
+                  "testTable" + i, table.getNameAsString());
+          assertEquals("unexpected table value",
+                  "value" + i, table.getValue("key"));
+          assertEquals("unexpected table configuration",
+                  "config" + i, table.getConfigurationValue("configKey"));
+          SchemaEntity colFamily = reader.next();
+          assertEquals("unexpected family depth", 2, reader.getDepth());
+          assertEquals("unexpected family parent",
+                  table, reader.getParent());
+          assertEquals("unexpected family",
+                  "CF1", colFamily.getNameAsString());
+        }
+        assertNull("entity returned after end of archive",
+                reader.next());
+      }
+    }
+  }
+
+  @Test
+  public void testCorruptArchive() throws Exception {
+    byte[] archiveBytes = Files.readAllBytes(writeArchive(false).toPath());
+    File corruptFile = File.createTempFile("testCorruptSchemaArchive", ".bin");
+    corruptFile.deleteOnExit();
+    // every truncation must be reported as such
+    for (int length = 0; length < archiveBytes.length; length++) {
+      Files.write(corruptFile.toPath(), Arrays.copyOf(archiveBytes, length));
+      try {
+        readArchive(corruptFile);
+        fail("truncation at " + length + " not detected");
+      } catch (ColumnManagerIOException e) {
+      }
+    }
+    // a corrupted byte must never surface as anything but a ColumnManagerIOException
+    for (int index = 0; index < archiveBytes.length; index++) {
+      for (byte corruptByte : new byte[]{(byte) 0xFF, (byte) 0x7F, 0}) {
+        byte[] corruptBytes = archiveBytes.clone();
+        corruptBytes[index] = corruptByte;
+        Files.write(corruptFile.toPath(), corruptBytes);
+        try {
+          readArchive(corruptFile);
+        } catch (ColumnManagerIOException e) {
+        } catch (RuntimeException e) {
+          throw new AssertionError("corruption at " + index
+                  + " surfaced as " + e, e);
+        }
+      }
+    }
+  }
+
+  private static File writeArchive(boolean compressed) throws IOException {
+    File archiveFile = File.createTempFile("testSchemaArchive", ".bin");
+    archiveFile.deleteOnExit();
+    try (BinarySchemaArchive.EntityWriter writer = new BinarySchemaArchive.EntityWriter(
+            archiveFile, compressed, FILE_TIMESTAMP, DESCRIPTION)) {
+      writer.writeStartEntity(
+              new SchemaEntity(SchemaEntityType.NAMESPACE.getRecordType(), "testNamespace"));
+      for (int i = 0; i < TABLE_COUNT; i++) {
+        writer.writeStartEntity(
+                new SchemaEntity(SchemaEntityType.TABLE.getRecordType(), "testTable" + i)
+                        .setValue("key", "value" + i).setConfiguration("configKey", "config" + i));
+        writer.writeEntity(
+                new SchemaEntity(SchemaEntityType.COLUMN_FAMILY.getRecordType(), "CF1"));
+        writer.writeEndEntity();
+      }
+      writer.writeEndEntity();
+    }
+    return archiveFile;
+  }
+
+  private static void readArchive(File archiveFile) throws IOException {
+    try (BinarySchemaArchive.EntityReader reader
+            = new BinarySchemaArchive.EntityReader(archiveFile)) {
+      while (reader.next() != null) {
+      }
+    }
+  }
+}
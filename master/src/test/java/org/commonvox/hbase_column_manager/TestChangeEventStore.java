@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test each ordering maintained by a {@link ChangeEventStore} against the same
+ * {@link ChangeEvent}s held in a TreeSet with the equivalent Comparator, and the placement of
+ * ChangeEvents recorded without a user name.
+ *
+ * @author Daniel Vimont
+ */
+public class TestChangeEventStore {
+
+  private static final byte[] PARENT_FOREIGN_KEY = Bytes.toBytes("0123456789abcdef");
+  private static final int EVENT_COUNT = 5000;
+
+  @Test
+  public void testOrderings() {
+    Random random = new Random(17);
+    List<ChangeEvent.Entity> entities = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      ChangeEvent.Entity entity = new ChangeEvent.Entity(
+              SchemaEntityType.COLUMN_AUDITOR.getRecordType(), PARENT_FOREIGN_KEY,
+              Bytes.toBytes("qualifier" + random.nextInt(1000)));
+      entity.setEntityForeignKey(Bytes.toBytes(i));
+      entities.add(entity);
+    }
+    ChangeEventStore store = new ChangeEventStore();
+    Set<ChangeEvent> byTimestamp = new TreeSet<>();
+    Set<ChangeEvent> byUserName = new TreeSet<>(new Comparator<ChangeEvent>() {
+      @Override
+      public int compare(ChangeEvent ce1, ChangeEvent ce2) {
+        int result = ce1.getUserNameObject().compareTo(ce2.getUserNameObject());
+        return (result == 0) ? ce1.compareTo(ce2) : result;
+      }
+    });
+    for (int i = 0; i < EVENT_COUNT; i++) {
+      ChangeEvent changeEvent = new ChangeEvent(entities.get(random.nextInt(entities.size())),
+              Bytes.toBytes("Value__attribute" + random.nextInt(7)), random.nextInt(100000),
+              Bytes.toBytes(random.nextInt(3)), Bytes.toBytes("user" + random.nextInt(5)));
+      if (byTimestamp.add(changeEvent)) {
+        byUserName.add(changeEvent);
+        store.add(changeEvent);
+      }
+    }
+    assertEquals("unexpected size",
+            byTimestamp.size(), store.size());
+    assertSameOrder("timestamp order", byTimestamp, store.getChangeEventsInTimestampOrder());
+    assertSameOrder("user-name order", byUserName, store.getChangeEventsInUserNameOrder());
+
+    int eventsForUser = 0;
+    for (ChangeEvent changeEvent : byUserName) {
+      if (changeEvent.getUserNameAsString().equals("user3")) {
+        eventsForUser++;
+      }
+    }
+    assertEquals("unexpected count of events for user name",
+            eventsForUser, store.getChangeEventsForUserName(Bytes.toBytes("user3")).size());
+
+    ChangeEvent.Entity entity = entities.get(0);
+    ChangeEvent previousEvent = null;
+    int eventsForEntity = 0;
+    for (ChangeEvent changeEvent : store.getChangeEventsForEntity(entity)) {
+      assertTrue("event returned for wrong entity",
+              changeEvent.getEntity().equals(entity));
+      assertTrue("events for entity not in timestamp order",
+              previousEvent == null || previousEvent.getTimestamp() <= changeEvent.getTimestamp());
+      previousEvent = changeEvent;
+      eventsForEntity++;
+    }
+    int expectedEventsForEntity = 0;
+    for (ChangeEvent changeEvent : byTimestamp) {
+      if (changeEvent.getEntity().equals(entity)) {
+        expectedEventsForEntity++;
+      }
+    }
+    assertEquals("unexpected count of events for entity",
+            expectedEventsForEntity, eventsForEntity);
+  }
+
+  @Test
+  public void testAbsentUserName() {
+    ChangeEvent.Entity entity = new ChangeEvent.Entity(
+            SchemaEntityType.COLUMN_AUDITOR.getRecordType(), PARENT_FOREIGN_KEY,
+            Bytes.toBytes("qualifier"));
+    entity.setEntityForeignKey(Bytes.toBytes(0));
+    ChangeEventStore store = new ChangeEventStore();
+    store.add(new ChangeEvent(entity, Bytes.toBytes("Value__attribute"), 1,
+            Bytes.toBytes(1), null));
+    store.add(new ChangeEvent(entity, Bytes.toBytes("Value__attribute"), 2,
+            Bytes.toBytes(2), Bytes.toBytes("user")));
+    assertEquals("unexpected count of events without user name",
+            1, store.getChangeEventsForUserName(null).size());
+    assertEquals("event without user name not first in user-name "
+            + "order", 1, store.getChangeEventsInUserNameOrder().iterator().next().getTimestamp());
+  }
+
+  private void assertSameOrder(
+          String orderName, Set<ChangeEvent> expected, Set<ChangeEvent> actual) {
+    Iterator<ChangeEvent> actualIterator = actual.iterator();
+    for (ChangeEvent expectedEvent : expected) {
+      assertEquals("unexpected event in " + orderName,
+              expectedEvent, actualIterator.next());
+    }
+  }
+}
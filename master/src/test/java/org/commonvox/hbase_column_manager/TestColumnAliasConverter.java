@@ -0,0 +1,451 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test conversion of a Table from qualifier form to alias form and back by
+ * {@link ColumnAliasConverter}, using an in-memory Table: resumption of an interrupted conversion
+ * after its last checkpointed row, conversion of cells written during the conversion by the
+ * verification passes, and throttling of the cells converted per second.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnAliasConverter {
+
+  private static final TableName TABLE_NAME = TableName.valueOf("testNamespace:testTable");
+  private static final byte[] CF01 = Bytes.toBytes("CF1");
+  private static final byte[][] QUALIFIERS
+          = {Bytes.toBytes("column01"), Bytes.toBytes("column02"), Bytes.toBytes("column03")};
+  private static final byte[] REGION_BOUNDARY = Bytes.toBytes(5000);
+  private static final int ROWS_PER_REGION = 2500;
+  private static final long TIMESTAMP = 1000;
+
+  @Test
+  public void testConversion() throws IOException {
+    InMemoryTable table = new InMemoryTable();
+    InMemoryAliasDirectory aliasDirectory = new InMemoryAliasDirectory();
+    long cellCount = table.loadRows(0, ROWS_PER_REGION)
+            + table.loadRows(Bytes.toInt(REGION_BOUNDARY), ROWS_PER_REGION);
+
+    assertEquals("unexpected count of cells converted to aliases",
+            cellCount, new ColumnAliasConverter(aliasDirectory, table.getConnection(),
+                    TABLE_NAME, CF01, true, 2, 0, null).convert());
+    assertEquals("cells remain in qualifier form",
+            0, table.countCells(aliasDirectory.qualifierToAliasMap.navigableKeySet()));
+    assertEquals("cells lost or duplicated in conversion",
+            cellCount, table.countCells(null));
+    for (Entry<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> row
+            : table.rows.entrySet()) {
+      for (byte[] colQualifier : QUALIFIERS) {
+        NavigableMap<Long, byte[]> versions
+                = row.getValue().get(aliasDirectory.qualifierToAliasMap.get(colQualifier));
+        assertNotNull("aliased cell missing", versions);
+        assertTrue("timestamp or value not retained", Bytes.equals(
+                row.getKey(), versions.get(TIMESTAMP)));
+      }
+    }
+
+    assertEquals("unexpected count of cells converted to qualifiers",
+            cellCount, new ColumnAliasConverter(aliasDirectory, table.getConnection(),
+                    TABLE_NAME, CF01, false, 2, 0, null).convert());
+    assertEquals("cells remain in alias form",
+            0, table.countCells(aliasDirectory.aliasToQualifierMap.navigableKeySet()));
+  }
+
+  @Test
+  public void testCheckpointResume() throws IOException {
+    InMemoryTable table = new InMemoryTable();
+    InMemoryAliasDirectory aliasDirectory = new InMemoryAliasDirectory();
+    long cellCount = table.loadRows(0, ROWS_PER_REGION)
+            + table.loadRows(Bytes.toInt(REGION_BOUNDARY), ROWS_PER_REGION);
+    File checkpointFile = File.createTempFile("testColumnAliasConverter", ".checkpoint");
+    checkpointFile.delete();
+    checkpointFile.deleteOnExit();
+
+    // interrupt the conversion upon the first row of its second batch in the second region
+    table.failingMutation = ColumnAliasConverter.ROWS_PER_BATCH + 1;
+    table.failingMutationStartRow = REGION_BOUNDARY;
+    try {
+      new ColumnAliasConverter(aliasDirectory, table.getConnection(), TABLE_NAME, CF01, true, 1,
+              0, checkpointFile).convert();
+      fail("expected IOException not thrown");
+    } catch (IOException e) {
+    }
+    assertTrue("checkpoint file not persisted", checkpointFile.exists());
+    assertFalse("temporary checkpoint file not moved into place",
+            new File(checkpointFile.getPath() + ".tmp").exists());
+    Properties checkpoints = new Properties();
+    try (InputStream inputStream = Files.newInputStream(checkpointFile.toPath())) {
+      checkpoints.load(inputStream);
+    }
+    assertEquals("first region not checkpointed as complete",
+            "COMPLETE", checkpoints.getProperty("region."));
+    byte[] lastRowConverted = Bytes.toBytes(
+            Bytes.toInt(REGION_BOUNDARY) + ColumnAliasConverter.ROWS_PER_BATCH - 1);
+    assertEquals("second region not checkpointed at last batch",
+            Bytes.toHex(lastRowConverted),
+            checkpoints.getProperty("region." + Bytes.toHex(REGION_BOUNDARY)));
+
+    // a checkpoint file of another conversion is rejected
+    try {
+      new ColumnAliasConverter(aliasDirectory, table.getConnection(), TABLE_NAME, CF01, false, 1,
+              0, checkpointFile).convert();
+      fail("expected ColumnManagerIOException not thrown");
+    } catch (ColumnManagerIOException e) {
+    }
+
+    // resumed conversion rescans neither the completed region nor the converted rows
+    table.failingMutation = 0;
+    table.scanStartRows.clear();
+    long cellsConvertedBeforeInterruption
+            = cellCount - table.countCells(aliasDirectory.qualifierToAliasMap.navigableKeySet());
+    assertEquals("unexpected count of cells converted upon resumption",
+            cellCount - cellsConvertedBeforeInterruption,
+            new ColumnAliasConverter(aliasDirectory, table.getConnection(), TABLE_NAME, CF01,
+                    true, 1, 0, checkpointFile).convert());
+    assertTrue("conversion not resumed after last checkpointed row",
+            Bytes.equals(Bytes.add(lastRowConverted, new byte[]{0}),
+                    table.scanStartRows.get(0)));
+    assertEquals("unexpected scan count (one conversion scan and "
+            + "one verification scan per region expected)", 3, table.scanStartRows.size());
+    assertEquals("cells remain in qualifier form",
+            0, table.countCells(aliasDirectory.qualifierToAliasMap.navigableKeySet()));
+    assertFalse("checkpoint file not removed upon completion",
+            checkpointFile.exists());
+  }
+
+  @Test
+  public void testVerificationPasses() throws IOException {
+    // cells written in qualifier form during the first pass are converted by a second pass
+    InMemoryTable table = new InMemoryTable();
+    InMemoryAliasDirectory aliasDirectory = new InMemoryAliasDirectory();
+    long cellCount = table.loadRows(0, 10);
+    table.lateWritesRemaining = 1;
+    assertEquals("late-written cell not converted",
+            cellCount + 1, new ColumnAliasConverter(aliasDirectory, table.getConnection(),
+                    TABLE_NAME, CF01, true, 1, 0, null).convert());
+    assertEquals("cells remain in qualifier form",
+            0, table.countCells(aliasDirectory.qualifierToAliasMap.navigableKeySet()));
+
+    // cells written in qualifier form during every pass cause verification to fail
+    table = new InMemoryTable();
+    table.loadRows(0, 10);
+    table.lateWritesRemaining = ColumnAliasConverter.MAX_CONVERSION_PASSES;
+    try {
+      new ColumnAliasConverter(new InMemoryAliasDirectory(), table.getConnection(), TABLE_NAME,
+              CF01, true, 1, 0, null).convert();
+      fail("expected ColumnManagerIOException not thrown");
+    } catch (ColumnManagerIOException e) {
+    }
+    // first pass converts every row; each later pass converts only the late-written cell
+    assertEquals("unexpected count of row mutations submitted",
+            10 + ColumnAliasConverter.MAX_CONVERSION_PASSES - 1, table.mutationCount);
+  }
+
+  @Test
+  public void testCellThrottle() throws IOException {
+    final int maxCellsPerSecond = 1000;
+    final int cellsPerAcquisition = 100;
+    final int acquisitionCount = 6;
+    ColumnAliasConverter.CellThrottle cellThrottle
+            = new ColumnAliasConverter.CellThrottle(maxCellsPerSecond);
+    long startNanos = System.nanoTime();
+    for (int i = 0; i < acquisitionCount; i++) {
+      cellThrottle.acquire(cellsPerAcquisition);
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    // first acquisition is immediate; each subsequent one awaits the preceding one's allotment
+    long expectedMinMillis = TimeUnit.SECONDS.toMillis(1)
+            * (acquisitionCount - 1) * cellsPerAcquisition / maxCellsPerSecond;
+    assertTrue("throttle did not limit rate: " + elapsedMillis
+            + " ms elapsed", elapsedMillis >= expectedMinMillis - 20);
+    assertTrue("throttle overly restrictive: " + elapsedMillis
+            + " ms elapsed", elapsedMillis < expectedMinMillis * 4);
+  }
+
+  /**
+   * Assigns VARINT column-aliases in order of request.
+   */
+  private static class InMemoryAliasDirectory implements ColumnAliasConverter.AliasDirectory {
+
+    private final NavigableMap<byte[], byte[]> qualifierToAliasMap
+            = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    private final NavigableMap<byte[], byte[]> aliasToQualifierMap
+            = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+
+    @Override
+    public synchronized NavigableMap<byte[], byte[]> getQualifierToAliasMap(
+            NavigableSet<byte[]> colQualifiers, boolean assignMissing) {
+      if (colQualifiers == null) {
+        return new TreeMap<>(qualifierToAliasMap);
+      }
+      NavigableMap<byte[], byte[]> aliasMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+      for (byte[] colQualifier : colQualifiers) {
+        if (assignMissing && !qualifierToAliasMap.containsKey(colQualifier)) {
+          byte[] alias = ColumnAliasEncoding.VARINT.encode(qualifierToAliasMap.size() + 1);
+          qualifierToAliasMap.put(colQualifier, alias);
+          aliasToQualifierMap.put(alias, colQualifier);
+        }
+        aliasMap.put(colQualifier, qualifierToAliasMap.get(colQualifier));
+      }
+      return aliasMap;
+    }
+  }
+
+  /**
+   * A single-family, two-region Table held in memory, accessed via a Connection proxy.
+   */
+  private static class InMemoryTable {
+
+    // row -> qualifier -> timestamp -> value
+    private final NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> rows
+            = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    private final List<byte[]> scanStartRows = new ArrayList<>();
+    private int mutationCount = 0;
+    private int lateWritesRemaining = 0; // cells written in qualifier form upon mutateRow of row 0
+    private int failingMutation = 0; // ordinal of mutateRow to fail within region
+    private byte[] failingMutationStartRow = null;
+    private int mutationCountInFailingRegion = 0;
+
+    long loadRows(int firstRow, int rowCount) {
+      for (int i = firstRow; i < firstRow + rowCount; i++) {
+        byte[] rowId = Bytes.toBytes(i);
+        for (byte[] colQualifier : QUALIFIERS) {
+          putCell(rowId, colQualifier, TIMESTAMP, rowId);
+        }
+      }
+      return rowCount * QUALIFIERS.length;
+    }
+
+    /**
+     * Counts cells with the submitted qualifiers (or all cells, if null).
+     */
+    synchronized long countCells(NavigableSet<byte[]> colQualifiers) {
+      long cellCount = 0;
+      for (NavigableMap<byte[], NavigableMap<Long, byte[]>> row : rows.values()) {
+        for (Entry<byte[], NavigableMap<Long, byte[]>> column : row.entrySet()) {
+          if (colQualifiers == null || colQualifiers.contains(column.getKey())) {
+            cellCount += column.getValue().size();
+          }
+        }
+      }
+      return cellCount;
+    }
+
+    private synchronized void putCell(
+            byte[] rowId, byte[] colQualifier, long timestamp, byte[] value) {
+      NavigableMap<byte[], NavigableMap<Long, byte[]>> row = rows.get(rowId);
+      if (row == null) {
+        row = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+        rows.put(rowId, row);
+      }
+      NavigableMap<Long, byte[]> versions = row.get(colQualifier);
+      if (versions == null) {
+        versions = new TreeMap<>();
+        row.put(colQualifier, versions);
+      }
+      versions.put(timestamp, value);
+    }
+
+    private synchronized void deleteCell(byte[] rowId, byte[] colQualifier, long timestamp) {
+      NavigableMap<Long, byte[]> versions = rows.get(rowId).get(colQualifier);
+      versions.remove(timestamp);
+      if (versions.isEmpty()) {
+        rows.get(rowId).remove(colQualifier);
+      }
+    }
+
+    private synchronized ResultScanner getScanner(Scan scan) {
+      scanStartRows.add(scan.getStartRow());
+      NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> scannedRows
+              = scan.getStopRow().length == 0 ? rows.tailMap(scan.getStartRow(), true)
+                      : rows.subMap(scan.getStartRow(), true, scan.getStopRow(), false);
+      final List<Result> results = new ArrayList<>();
+      for (Entry<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> row
+              : scannedRows.entrySet()) {
+        List<Cell> cells = new ArrayList<>();
+        for (Entry<byte[], NavigableMap<Long, byte[]>> column : row.getValue().entrySet()) {
+          for (Entry<Long, byte[]> version : column.getValue().descendingMap().entrySet()) {
+            cells.add(new KeyValue(row.getKey(), CF01, column.getKey(), version.getKey(),
+                    version.getValue()));
+          }
+        }
+        results.add(Result.create(cells));
+      }
+      return new ResultScanner() {
+        private final Iterator<Result> iterator = results.iterator();
+
+        @Override
+        public Result next() {
+          return iterator.hasNext() ? iterator.next() : null;
+        }
+
+        @Override
+        public Result[] next(int nbRows) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Iterator<Result> iterator() {
+          return iterator;
+        }
+      };
+    }
+
+    /**
+     * As in HBase 1.2, RowMutations may not be submitted via Table#batch.
+     */
+    private void batch(List<?> actions) throws IOException {
+      for (Object action : actions) {
+        if (action instanceof RowMutations) {
+          throw new DoNotRetryIOException(
+                  "Multi doesn't support " + action.getClass().getName());
+        }
+      }
+      throw new UnsupportedOperationException("batch");
+    }
+
+    private synchronized void mutateRow(RowMutations rowMutations) throws IOException {
+      mutationCount++;
+      if (failingMutationStartRow != null
+              && Bytes.compareTo(rowMutations.getRow(), failingMutationStartRow) >= 0
+              && ++mutationCountInFailingRegion == failingMutation) {
+        throw new IOException("Simulated mutateRow failure.");
+      }
+      for (Mutation mutation : rowMutations.getMutations()) {
+        for (Cell cell : mutation.getFamilyCellMap().get(CF01)) {
+          if (mutation instanceof Put) {
+            putCell(mutation.getRow(), CellUtil.cloneQualifier(cell), cell.getTimestamp(),
+                    CellUtil.cloneValue(cell));
+          } else if (mutation instanceof Delete) {
+            deleteCell(mutation.getRow(), CellUtil.cloneQualifier(cell), cell.getTimestamp());
+          }
+        }
+      }
+      if (lateWritesRemaining > 0 && Bytes.equals(rowMutations.getRow(), Bytes.toBytes(0))) {
+        lateWritesRemaining--;
+        putCell(rowMutations.getRow(), QUALIFIERS[0], TIMESTAMP + mutationCount,
+                HConstants.EMPTY_BYTE_ARRAY);
+      }
+    }
+
+    Connection getConnection() {
+      return proxy(Connection.class, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          switch (method.getName()) {
+            case "getTable":
+              return getTableProxy();
+            case "getRegionLocator":
+              return getRegionLocatorProxy();
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      });
+    }
+
+    private Table getTableProxy() {
+      return proxy(Table.class, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws IOException {
+          switch (method.getName()) {
+            case "getScanner":
+              return getScanner((Scan) args[0]);
+            case "batch":
+              batch((List<?>) args[0]);
+              return null;
+            case "mutateRow":
+              mutateRow((RowMutations) args[0]);
+              return null;
+            case "close":
+              return null;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      });
+    }
+
+    private RegionLocator getRegionLocatorProxy() {
+      return proxy(RegionLocator.class, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          switch (method.getName()) {
+            case "getStartEndKeys":
+              return new Pair<>(new byte[][]{HConstants.EMPTY_START_ROW, REGION_BOUNDARY},
+                      new byte[][]{REGION_BOUNDARY, HConstants.EMPTY_END_ROW});
+            case "close":
+              return null;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      });
+    }
+
+    private static <T> T proxy(Class<T> proxiedInterface, InvocationHandler handler) {
+      return proxiedInterface.cast(Proxy.newProxyInstance(
+              TestColumnAliasConverter.class.getClassLoader(),
+              new Class<?>[]{proxiedInterface}, handler));
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that a column-alias dictionary file read back via memory mapping resolves every alias and
+ * qualifier that was written to it, and that a file lacking a valid dictionary header is
+ * rejected.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnAliasDictionary {
+
+  private static final TableName TABLE_NAME = TableName.valueOf("testNamespace:testTable");
+  private static final byte[] CF01 = Bytes.toBytes("CF1");
+  private static final byte[] CF02 = Bytes.toBytes("CF2");
+  private static final byte[] CF03 = Bytes.toBytes("CF3");
+  private static final int ALIAS_COUNT = 300;
+  private static final long EXPORT_TIMESTAMP = 1234567890L;
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    // CF1 aliases are FOUR_BYTE_INT, assigned in reverse of qualifier order; CF2 aliases are VARINT
+    NavigableMap<byte[], NavigableMap<byte[], byte[]>> familyQualifierToAliasMap
+            = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    NavigableMap<byte[], byte[]> cf01AliasMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    NavigableMap<byte[], byte[]> cf02AliasMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    cf01AliasMap.put(HConstants.EMPTY_BYTE_ARRAY, HConstants.EMPTY_BYTE_ARRAY);
+    for (int i = 1; i <= ALIAS_COUNT; i++) {
+      cf01AliasMap.put(getColQualifier(i),
+              ColumnAliasEncoding.FOUR_BYTE_INT.encode(ALIAS_COUNT + 1 - i));
+      cf02AliasMap.put(getColQualifier(i), ColumnAliasEncoding.VARINT.encode(i));
+    }
+    familyQualifierToAliasMap.put(CF01, cf01AliasMap);
+    familyQualifierToAliasMap.put(CF02, cf02AliasMap);
+
+    File dictionaryFile = File.createTempFile("testAliasDictionary", ".hcad");
+    dictionaryFile.deleteOnExit();
+    ColumnAliasDictionary.write(
+            dictionaryFile, TABLE_NAME, EXPORT_TIMESTAMP, familyQualifierToAliasMap);
+    ColumnAliasDictionary dictionary = ColumnAliasDictionary.open(dictionaryFile);
+
+    assertEquals("unexpected TableName",
+            TABLE_NAME, dictionary.getTableName());
+    assertEquals("unexpected export timestamp",
+            EXPORT_TIMESTAMP, dictionary.getExportTimestamp());
+    assertEquals("unexpected Column Family count",
+            2, dictionary.getColumnFamilies().size());
+    assertEquals("empty qualifier unexpectedly included",
+            ALIAS_COUNT, dictionary.getAliasCount(CF01));
+    assertEquals("unexpected alias count",
+            ALIAS_COUNT, dictionary.getAliasCount(CF02));
+    assertEquals("unexpected alias count for absent Column Family",
+            0, dictionary.getAliasCount(CF03));
+
+    for (byte[] colFamily : new byte[][]{CF01, CF02}) {
+      for (int i = 1; i <= ALIAS_COUNT; i++) {
+        byte[] colQualifier = getColQualifier(i);
+        byte[] alias = familyQualifierToAliasMap.get(colFamily).get(colQualifier);
+        assertArrayEquals("alias not decoded to qualifier",
+                colQualifier, Bytes.getBytes(dictionary.getColumnQualifier(colFamily, alias)));
+        assertArrayEquals("qualifier not encoded to alias",
+                alias, Bytes.getBytes(dictionary.getColumnAlias(colFamily, colQualifier)));
+        assertArrayEquals("alias in Cell not decoded to qualifier",
+                colQualifier, Bytes.getBytes(dictionary.getColumnQualifier(
+                        new KeyValue(Bytes.toBytes("row"), colFamily, alias, alias))));
+      }
+    }
+    assertNull("unknown alias unexpectedly decoded",
+            dictionary.getColumnQualifier(CF01, Bytes.toBytes(ALIAS_COUNT + 1)));
+    assertNull("unknown qualifier unexpectedly encoded",
+            dictionary.getColumnAlias(CF02, Bytes.toBytes("unknownColumn")));
+    assertNull("alias of absent Column Family unexpectedly decoded",
+            dictionary.getColumnQualifier(CF03, Bytes.toBytes(1)));
+    ByteBuffer colQualifierView
+            = dictionary.getColumnQualifier(CF02, ColumnAliasEncoding.VARINT.encode(1));
+    assertTrue("qualifier view not read-only",
+            colQualifierView.isReadOnly());
+  }
+
+  @Test
+  public void testInvalidDictionaryFile() throws IOException {
+    File invalidFile = File.createTempFile("testInvalidAliasDictionary", ".hcad");
+    invalidFile.deleteOnExit();
+    Files.write(invalidFile.toPath(), Bytes.toBytes("not a dictionary"));
+    try {
+      ColumnAliasDictionary.open(invalidFile);
+      fail("expected ColumnManagerIOException not thrown");
+    } catch (ColumnManagerIOException e) {
+    }
+  }
+
+  private static byte[] getColQualifier(int index) {
+    return Bytes.toBytes(String.format("column%05d", index));
+  }
+}
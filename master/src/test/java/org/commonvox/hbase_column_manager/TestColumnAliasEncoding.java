@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test that VARINT aliases round-trip, grow in length only at the expected boundaries, preserve
+ * the order of alias numbers, and never collide with FOUR_BYTE_INT aliases; that each alias has
+ * one equivalent per {@link ColumnAliasEncoding}; and that the aliases requested while a family
+ * is being re-encoded include every encoding of each alias, as well as the qualifiers themselves.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnAliasEncoding {
+
+  private static final int[] BOUNDARY_VALUES = {1, 0x7F, 0x80, 0x3FFF, 0x4000, 0x1FFFFF,
+    0x200000, 0xFFFFFFF, 0x10000000, Integer.MAX_VALUE};
+
+  @Test
+  public void testEncodings() {
+    int[] expectedVarintLengths = {1, 1, 2, 2, 3, 3, 4, 4, 5, 5};
+    byte[] previousVarint = null;
+    for (int i = 0; i < BOUNDARY_VALUES.length; i++) {
+      int aliasNumber = BOUNDARY_VALUES[i];
+      byte[] varint = ColumnAliasEncoding.VARINT.encode(aliasNumber);
+      byte[] fourByteInt = ColumnAliasEncoding.FOUR_BYTE_INT.encode(aliasNumber);
+      assertEquals("unexpected VARINT length for " + aliasNumber,
+              expectedVarintLengths[i], varint.length);
+      assertEquals("VARINT decoding failed for " + aliasNumber,
+              aliasNumber, ColumnAliasEncoding.decode(varint));
+      assertEquals("FOUR_BYTE_INT decoding failed for " + aliasNumber,
+              aliasNumber, ColumnAliasEncoding.decode(fourByteInt));
+      if (previousVarint != null) {
+        assertTrue("VARINT encoding not order-preserving at "
+                + aliasNumber, Bytes.compareTo(previousVarint, varint) < 0);
+      }
+      previousVarint = varint;
+    }
+    // encodings must never overlap (for values assignable by the alias incrementor)
+    for (int aliasNumber = 1; aliasNumber < 0x300000; aliasNumber += 97) {
+      byte[] varint = ColumnAliasEncoding.VARINT.encode(aliasNumber);
+      assertEquals("VARINT decoding failed for " + aliasNumber,
+              aliasNumber, ColumnAliasEncoding.decode(varint));
+      for (int otherNumber : new int[]{aliasNumber, aliasNumber + 1}) {
+        assertFalse("encodings overlap at " + aliasNumber,
+                Bytes.equals(varint, ColumnAliasEncoding.FOUR_BYTE_INT.encode(otherNumber)));
+      }
+    }
+  }
+
+  @Test
+  public void testEquivalentAliases() {
+    for (int aliasNumber : BOUNDARY_VALUES) {
+      for (ColumnAliasEncoding encoding : ColumnAliasEncoding.values()) {
+        List<byte[]> equivalentAliases
+                = ColumnAliasEncoding.getEquivalentAliases(encoding.encode(aliasNumber));
+        assertEquals("unexpected equivalent alias count",
+                ColumnAliasEncoding.values().length, equivalentAliases.size());
+        for (ColumnAliasEncoding otherEncoding : ColumnAliasEncoding.values()) {
+          assertTrue(otherEncoding + " equivalent missing for "
+                  + aliasNumber, Bytes.equals(otherEncoding.encode(aliasNumber),
+                          equivalentAliases.get(otherEncoding.ordinal())));
+        }
+      }
+    }
+  }
+
+  /**
+   * While a Column Family is being re-encoded, the aliases requested for a Get or Scan include
+   * the equivalents of each qualifier's alias in all encodings; a qualifier not (yet) in the
+   * AliasDirectory is mapped to the invalid alias (-1), which has no equivalents.
+   */
+  @Test
+  public void testAliasSetDuringReencoding() {
+    byte[] knownQualifier = Bytes.toBytes("knownColumn");
+    byte[] unknownQualifier = Bytes.toBytes("unknownColumn");
+    byte[] invalidAlias = Bytes.toBytes(-1);
+    NavigableMap<byte[], byte[]> qualifierToAliasMap = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    qualifierToAliasMap.put(knownQualifier, ColumnAliasEncoding.VARINT.encode(5));
+    qualifierToAliasMap.put(unknownQualifier, invalidAlias);
+    NavigableSet<byte[]> colQualifierSet = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    colQualifierSet.add(knownQualifier);
+    colQualifierSet.add(unknownQualifier);
+    MColumnDescriptor mcd = new MColumnDescriptor(Bytes.toBytes("CF1"));
+    mcd.setColumnAliasConversionInProgress(true);
+
+    NavigableSet<byte[]> aliasSet
+            = Repository.getAliasSet(mcd, qualifierToAliasMap, colQualifierSet);
+    for (ColumnAliasEncoding encoding : ColumnAliasEncoding.values()) {
+      assertTrue(encoding + " equivalent alias not requested",
+              aliasSet.contains(encoding.encode(5)));
+    }
+    assertTrue("qualifier not requested during re-encoding",
+            aliasSet.containsAll(colQualifierSet));
+    assertTrue("invalid alias not requested",
+            aliasSet.contains(invalidAlias));
+    assertEquals("unexpected alias count",
+            ColumnAliasEncoding.values().length + 3, aliasSet.size());
+  }
+}
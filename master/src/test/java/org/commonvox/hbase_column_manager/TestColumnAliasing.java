@@ -15,7 +15,9 @@
  */
 package org.commonvox.hbase_column_manager;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -27,6 +29,8 @@ import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.NamespaceDescriptor;
@@ -211,6 +215,7 @@ public class TestColumnAliasing {
     List<Result> resultListForListOfGetsWithAliases
             = getResultListUsingGetList(configuration);
     testExistsMethods(configuration);
+    testColumnAliasDictionaryExport(configuration);
 
     // STEP 3: Compare Step 1 results with Step 2 results
     compareResultLists(
@@ -311,7 +316,9 @@ public class TestColumnAliasing {
       if (enableColumnAliases) {
         RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mAdmin.getConnection());
         enableColumnAliases(repositoryAdmin, true, NAMESPACE01_TABLE01, CF01);
-        enableColumnAliases(repositoryAdmin, true, NAMESPACE01_TABLE01, CF02);
+        // variable-length alias encoding exercised in one family
+        repositoryAdmin.enableColumnAliases(
+                true, NAMESPACE01_TABLE01, CF02, ColumnAliasEncoding.VARINT);
         enableColumnAliases(repositoryAdmin, true, NAMESPACE01_TABLE02, CF01);
         enableColumnAliases(repositoryAdmin, false, NAMESPACE01_TABLE02, CF02);
         enableColumnAliases(repositoryAdmin, false, NAMESPACE01_TABLE03, CF01);
@@ -334,6 +341,42 @@ public class TestColumnAliasing {
     }
   }
 
+  private void testColumnAliasDictionaryExport(Configuration configuration)
+          throws IOException {
+    File dictionaryFile = File.createTempFile("testColumnAliasDictionary", ".hcad");
+    dictionaryFile.deleteOnExit();
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      new RepositoryAdmin(mConnection).exportColumnAliasDictionary(
+              NAMESPACE01_TABLE01, dictionaryFile);
+    }
+    ColumnAliasDictionary dictionary = ColumnAliasDictionary.open(dictionaryFile);
+    assertEquals("FAILURE IN ALIAS DICTIONARY EXPORT: unexpected Column Family count",
+            2, dictionary.getColumnFamilies().size());
+    // raw cells read via standard connection must all be decodable via the dictionary
+    int aliasedCellCount = 0;
+    try (Connection standardConnection = ConnectionFactory.createConnection(configuration);
+            Table table = standardConnection.getTable(NAMESPACE01_TABLE01);
+            ResultScanner rows = table.getScanner(new Scan().setMaxVersions())) {
+      for (Result row : rows) {
+        for (Cell cell : row.rawCells()) {
+          if (cell.getQualifierLength() == 0) {
+            continue;
+          }
+          ByteBuffer colQualifier = dictionary.getColumnQualifier(cell);
+          assertTrue("FAILURE IN ALIAS DICTIONARY EXPORT: alias not found in dictionary: "
+                  + Bytes.toStringBinary(CellUtil.cloneQualifier(cell)), colQualifier != null);
+          assertTrue("FAILURE IN ALIAS DICTIONARY EXPORT: alias not round-tripped",
+                  Bytes.equals(CellUtil.cloneQualifier(cell), Bytes.getBytes(
+                          dictionary.getColumnAlias(CellUtil.cloneFamily(cell),
+                                  Bytes.getBytes(colQualifier)))));
+          aliasedCellCount++;
+        }
+      }
+    }
+    assertTrue("FAILURE IN ALIAS DICTIONARY EXPORT: no aliased cells found",
+            aliasedCellCount > 0);
+  }
+
   private void enableColumnAliases(RepositoryAdmin repositoryAdmin, boolean enabled,
           TableName tableName, byte[] colFamily) throws IOException {
     try {
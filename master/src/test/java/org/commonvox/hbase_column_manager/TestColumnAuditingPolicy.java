@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.List;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that each {@link ColumnAuditingPolicy} survives persistence in an
+ * {@link MColumnDescriptor} (where an invalid sample fraction is rejected), and that
+ * {@link ColumnAuditingGate} enforces the rate limit of a rate-limited policy per window and
+ * passes only unaudited qualifiers under the new-qualifiers-only policy.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnAuditingPolicy {
+
+  private static final byte[] CF01 = Bytes.toBytes("cf01");
+  private static final byte[] CF01_FOREIGN_KEY = Bytes.toBytes("cf01ForeignKey");
+
+  @Test
+  public void testPolicyPersistence() {
+    MColumnDescriptor mcd = new MColumnDescriptor(CF01);
+    assertEquals("default policy not ALL",
+            ColumnAuditingPolicy.auditAll(), mcd.getColumnAuditingPolicy());
+    for (ColumnAuditingPolicy policy : new ColumnAuditingPolicy[]{
+      ColumnAuditingPolicy.sampled(0.25), ColumnAuditingPolicy.rateLimited(50),
+      ColumnAuditingPolicy.newQualifiersOnly()}) {
+      mcd.setColumnAuditingPolicy(policy);
+      assertEquals("policy not restored from persisted configuration", policy,
+              new MColumnDescriptor(mcd).getColumnAuditingPolicy());
+    }
+    mcd.setColumnAuditingPolicy(ColumnAuditingPolicy.auditAll());
+    assertEquals("configuration not removed for default policy", null,
+            mcd.getConfigurationValue(MColumnDescriptor.COL_AUDITING_POLICY_KEY));
+    try {
+      ColumnAuditingPolicy.sampled(1.5);
+      fail("invalid sample fraction accepted");
+    } catch (IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testRateLimitedPolicy() {
+    ColumnAuditingGate gate = new ColumnAuditingGate();
+    long startTime = 1000000;
+    for (int i = 0; i < 3; i++) {
+      assertTrue("mutation within rate limit not audited",
+              gate.tryAcquire(CF01_FOREIGN_KEY, 3, startTime + i));
+    }
+    assertFalse("mutation exceeding rate limit audited",
+            gate.tryAcquire(CF01_FOREIGN_KEY, 3, startTime + 999));
+    assertTrue("rate limit not reset in next window",
+            gate.tryAcquire(CF01_FOREIGN_KEY, 3, startTime + 1000));
+  }
+
+  @Test
+  public void testNewQualifiersOnlyPolicy() {
+    ColumnAuditingGate gate = new ColumnAuditingGate();
+    MColumnDescriptor mcd = new MColumnDescriptor(CF01);
+    mcd.setForeignKey(CF01_FOREIGN_KEY);
+    mcd.addColumnAuditor(new ColumnAuditor(Bytes.toBytes("knownCol")));
+    mcd.setColumnAuditingPolicy(ColumnAuditingPolicy.newQualifiersOnly());
+    List<Cell> cells = new Put(Bytes.toBytes("row01"))
+            .addColumn(CF01, Bytes.toBytes("knownCol"), Bytes.toBytes("value"))
+            .addColumn(CF01, Bytes.toBytes("newCol"), Bytes.toBytes("value"))
+            .getFamilyCellMap().get(CF01);
+
+    List<Cell> auditedCells = gate.selectCellsToAudit(mcd, cells);
+    assertEquals("unexpected count of audited cells", 1, auditedCells.size());
+    assertEquals("new qualifier not audited", "newCol",
+            Bytes.toString(auditedCells.get(0).getQualifierArray(),
+                    auditedCells.get(0).getQualifierOffset(),
+                    auditedCells.get(0).getQualifierLength()));
+    assertEquals("qualifier whose audit did not succeed not audited again",
+            1, gate.selectCellsToAudit(mcd, cells).size());
+    gate.recordAudited(CF01_FOREIGN_KEY, Bytes.toBytes("newCol"));
+    assertTrue("already-audited qualifier audited again",
+            gate.selectCellsToAudit(mcd, cells).isEmpty());
+
+    gate.recordAudited(Bytes.toBytes("otherForeignKey"), Bytes.toBytes("otherCol"));
+    assertEquals("qualifier of other Column Family recorded",
+            1, gate.getAuditedQualifierCount());
+    for (int i = 0; i < ColumnAuditingGate.MAX_AUDITED_QUALIFIERS; i++) {
+      gate.recordAudited(CF01_FOREIGN_KEY, Bytes.toBytes(i));
+    }
+    assertTrue("audited qualifiers exceeded their bound",
+            gate.getAuditedQualifierCount() <= ColumnAuditingGate.MAX_AUDITED_QUALIFIERS);
+
+    mcd.setColumnAuditingPolicy(ColumnAuditingPolicy.auditAll());
+    assertSame("cells filtered under default policy",
+            cells, gate.selectCellsToAudit(mcd, cells));
+  }
+}
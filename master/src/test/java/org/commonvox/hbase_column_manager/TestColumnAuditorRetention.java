@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test the persistence of ColumnAuditor retention periods in an {@link MColumnDescriptor}, the
+ * derivation of a ColumnAuditor's last-seen timestamp from the cells of its Repository row, and
+ * the throttling (and bounded memory) of last-seen refreshes by {@link ColumnLastSeenThrottle}.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnAuditorRetention {
+
+  private static final byte[] CF01 = Bytes.toBytes("cf01");
+
+  @Test
+  public void testRetentionPeriodPersistence() {
+    MColumnDescriptor mcd = new MColumnDescriptor(CF01);
+    assertEquals("unexpected default retention period",
+            0, mcd.getColumnAuditorRetentionPeriod());
+    mcd.setColumnAuditorRetentionPeriod(86400000);
+    assertEquals("retention period not persisted",
+            86400000, new MColumnDescriptor(mcd).getColumnAuditorRetentionPeriod());
+    mcd.setColumnAuditorRetentionPeriod(0);
+    assertNull("indefinite retention period not removed from configuration",
+            mcd.getConfigurationValue(MColumnDescriptor.COL_AUDITOR_RETENTION_PERIOD_KEY));
+  }
+
+  @Test
+  public void testLastSeenTimestampDerivation() {
+    byte[] rowKey = Bytes.toBytes("row01");
+    Result colAuditorRow = Result.create(new Cell[]{
+      new KeyValue(rowKey, Repository.REPOSITORY_CF, Repository.LAST_SEEN_COLUMN, 3000L,
+              Bytes.toBytes(2999L)),
+      new KeyValue(rowKey, Repository.REPOSITORY_CF, Repository.READ_COUNTER_QUALIFIER, 9000L,
+              Bytes.toBytes(40L)),
+      new KeyValue(rowKey, Repository.REPOSITORY_CF, Repository.WRITE_COUNTER_QUALIFIER, 5000L,
+              Bytes.toBytes(12L)),
+      new KeyValue(rowKey, Repository.REPOSITORY_CF, ColumnAuditor.MAX_VALUE_LENGTH_KEY_BYTES,
+              1000L, Bytes.toBytes(8L))});
+    assertEquals("last-seen timestamp not derived from latest non-read cell",
+            5000L, Repository.getLastSeenTimestamp(colAuditorRow));
+    assertEquals("unexpected last-seen timestamp of empty row",
+            0L, Repository.getLastSeenTimestamp(Result.create(new Cell[0])));
+  }
+
+  @Test
+  public void testLastSeenRefreshThrottling() {
+    ColumnLastSeenThrottle throttle = new ColumnLastSeenThrottle(1000);
+    byte[] rowId01 = Bytes.toBytes("rowId01");
+    byte[] rowId02 = Bytes.toBytes("rowId02");
+    assertTrue("first refresh of column not due",
+            throttle.refreshDue(rowId01, 10000));
+    assertFalse("refresh due within resolution interval",
+            throttle.refreshDue(rowId01, 10999));
+    assertTrue("refresh of other column not due",
+            throttle.refreshDue(rowId02, 10999));
+    assertTrue("refresh not due after resolution interval",
+            throttle.refreshDue(rowId01, 11000));
+    throttle.refreshFailed(rowId01);
+    assertTrue("failed refresh not retried",
+            throttle.refreshDue(rowId01, 11001));
+  }
+
+  @Test
+  public void testLastSeenThrottleBound() {
+    ColumnLastSeenThrottle throttle = new ColumnLastSeenThrottle(1000);
+    for (int i = 0; i <= ColumnLastSeenThrottle.MAX_TRACKED_COLUMNS; i++) {
+      throttle.refreshDue(Bytes.toBytes(i), 10000);
+    }
+    assertTrue("tracked columns not bounded",
+            throttle.getTrackedColumnCount() <= ColumnLastSeenThrottle.MAX_TRACKED_COLUMNS);
+  }
+}
@@ -19,6 +19,9 @@ import org.apache.hadoop.hbase.io.ImmutableBytesWritable;
 import org.apache.hadoop.hbase.util.Bytes;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 /**
@@ -110,11 +113,101 @@ public class TestColumnDefinition {
             VALUE_STRING, columnDefinition.getColumnValidationRegex());
   }
 
+  @Test
+  public void testSetColumnValueTypeAttributes() {
+    columnDefinition = new ColumnDefinition(COLUMN_QUALIFIER)
+            .setColumnValueType(ColumnValueType.LONG).setColumnValueRange(-5L, 1.5E3)
+            .setColumnAllowedValues(Bytes.toBytes(1L), Bytes.toBytes(2L));
+    // deserialization constructor emulates retrieval from Repository or archive
+    ColumnDefinition copiedDefinition = new ColumnDefinition((SchemaEntity) columnDefinition);
+    assertEquals(COLUMN_DEFINITION_FAILURE + "Inconsistency in column value type",
+            ColumnValueType.LONG, copiedDefinition.getColumnValueType());
+    assertEquals(COLUMN_DEFINITION_FAILURE + "Inconsistency in column min value",
+            -5L, copiedDefinition.getColumnMinValue());
+    assertEquals(COLUMN_DEFINITION_FAILURE + "Inconsistency in column max value",
+            1.5E3, copiedDefinition.getColumnMaxValue());
+    assertEquals(COLUMN_DEFINITION_FAILURE + "Inconsistency in column allowed values",
+            2, copiedDefinition.getColumnAllowedValues().size());
+    assertArrayEquals(COLUMN_DEFINITION_FAILURE + "Inconsistency in column allowed values",
+            Bytes.toBytes(2L), copiedDefinition.getColumnAllowedValues().get(1));
+
+    columnDefinition.setColumnValueType(null).setColumnValueRange(null, null)
+            .setColumnAllowedValues(new byte[0][]);
+    assertNull(COLUMN_DEFINITION_FAILURE + "column value type not removed",
+            columnDefinition.getColumnValueType());
+    assertNull(COLUMN_DEFINITION_FAILURE + "column min value not removed",
+            columnDefinition.getColumnMinValue());
+    assertTrue(COLUMN_DEFINITION_FAILURE + "column allowed values not removed",
+            columnDefinition.getColumnAllowedValues().isEmpty());
+  }
+
+  @Test
+  public void testColumnValueValidator() {
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER).setColumnValueType(ColumnValueType.INT)
+            .setColumnValueRange(0, 100),
+            new byte[][]{Bytes.toBytes(0), Bytes.toBytes(100)},
+            new byte[][]{Bytes.toBytes(-1), Bytes.toBytes(101), Bytes.toBytes(5L)});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER).setColumnValueType(ColumnValueType.LONG)
+            .setColumnValueRange(null, 10.5),
+            new byte[][]{Bytes.toBytes(Long.MIN_VALUE), Bytes.toBytes(10L)},
+            new byte[][]{Bytes.toBytes(11L), Bytes.toBytes(5)});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER)
+            .setColumnValueType(ColumnValueType.DOUBLE).setColumnValueRange(-1.5, 1.5),
+            new byte[][]{Bytes.toBytes(-1.5), Bytes.toBytes(0.25)},
+            new byte[][]{Bytes.toBytes(1.75), Bytes.toBytes(Double.NaN), Bytes.toBytes(1)});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER)
+            .setColumnValueType(ColumnValueType.BOOLEAN),
+            new byte[][]{Bytes.toBytes(true), Bytes.toBytes(false)},
+            new byte[][]{new byte[]{1}, new byte[0], Bytes.toBytes(1)});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER).setColumnValueType(ColumnValueType.UTF8),
+            new byte[][]{Bytes.toBytes("plain"), Bytes.toBytes("\u00e9\u4e2d\ud83d\ude00")},
+            new byte[][]{new byte[]{(byte) 0xC0, (byte) 0xAF}, new byte[]{(byte) 0xE2, 0x28},
+              new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER)
+            .setColumnValueType(ColumnValueType.BINARY).setColumnBinaryWidth(3),
+            new byte[][]{new byte[3]}, new byte[][]{new byte[2], new byte[4]});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER)
+            .setColumnValueType(ColumnValueType.UTF8).setColumnAllowedValues("red", "green"),
+            new byte[][]{Bytes.toBytes("red"), Bytes.toBytes("green")},
+            new byte[][]{Bytes.toBytes("blue"), Bytes.toBytes("re")});
+    assertValidity(new ColumnDefinition(COLUMN_QUALIFIER).setColumnValidationRegex("https?://.*"),
+            new byte[][]{Bytes.toBytes("http://google.com")},
+            new byte[][]{Bytes.toBytes("ftp://google.com")});
+
+    // validator is recompiled after any change to ColumnDefinition
+    columnDefinition = new ColumnDefinition(COLUMN_QUALIFIER).setColumnLength(4L);
+    assertTrue(COLUMN_DEFINITION_FAILURE + "valid length rejected",
+            columnDefinition.getColumnValueValidator().isLengthValid(4));
+    columnDefinition.setColumnLength(3L);
+    assertTrue(COLUMN_DEFINITION_FAILURE + "invalid length accepted",
+            !columnDefinition.getColumnValueValidator().isLengthValid(4));
+  }
+
+  private static void assertValidity(ColumnDefinition colDefinition,
+          byte[][] validValues, byte[][] invalidValues) {
+    ColumnValueValidator validator = colDefinition.getColumnValueValidator();
+    for (byte[] validValue : validValues) {
+      // validate value embedded within a larger array, as it would be within a Cell
+      byte[] array = Bytes.add(new byte[]{9}, validValue, new byte[]{9});
+      assertNull(COLUMN_DEFINITION_FAILURE + "valid value rejected: "
+              + Bytes.toStringBinary(validValue),
+              validator.getValueInvalidityReason(array, 1, validValue.length));
+    }
+    for (byte[] invalidValue : invalidValues) {
+      byte[] array = Bytes.add(new byte[]{9}, invalidValue, new byte[]{9});
+      assertNotNull(COLUMN_DEFINITION_FAILURE + "invalid value accepted: "
+              + Bytes.toStringBinary(invalidValue),
+              validator.getValueInvalidityReason(array, 1, invalidValue.length));
+    }
+  }
+
   public static void main(String[] args) throws Exception {
     new TestColumnDefinition().testPublicConstructors();
     new TestColumnDefinition().testSetValue();
     new TestColumnDefinition().testSetConfiguration();
     new TestColumnDefinition().testSetColumnLength();
     new TestColumnDefinition().testSetColumnValidationRegex();
+    new TestColumnDefinition().testSetColumnValueTypeAttributes();
+    new TestColumnDefinition().testColumnValueValidator();
   }
 }
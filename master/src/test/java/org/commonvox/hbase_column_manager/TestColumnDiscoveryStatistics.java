@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Test that column-discovery statistics gathered from aliased, unaliased, and not-yet-converted
+ * cells are translated to column qualifiers, with the statistics of an alias and its qualifier
+ * merged and no aliases left behind.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnDiscoveryStatistics {
+
+  private static final byte[] CF01 = Bytes.toBytes("CF1");
+  private static final byte[] CF02 = Bytes.toBytes("CF2");
+  private static final byte[] ALIAS01 = Bytes.toBytes(1);
+  private static final byte[] ALIAS02 = Bytes.toBytes(2);
+  private static final byte[] COLQUALIFIER01 = Bytes.toBytes("column01");
+  private static final byte[] COLQUALIFIER02 = Bytes.toBytes("column02");
+
+  @Test
+  public void testAddRowAndTranslateAliases() {
+    ColumnDiscoveryStatistics statistics = new ColumnDiscoveryStatistics();
+    // CF1 is aliased (but row03 holds an unconverted cell); CF2 is not aliased
+    for (String rowId : new String[]{"row01", "row02", "row03"}) {
+      List<Cell> cells = new ArrayList<>();
+      byte[] row = Bytes.toBytes(rowId);
+      cells.add(new KeyValue(row, CF01, ALIAS01, 2L, Bytes.toBytes(5)));
+      cells.add(new KeyValue(row, CF01, ALIAS01, 1L, Bytes.toBytes(10)));
+      cells.add(new KeyValue(row, CF02, COLQUALIFIER02, 1L, Bytes.toBytes(7)));
+      if (rowId.equals("row03")) {
+        cells.add(new KeyValue(row, CF01, COLQUALIFIER01, 1L, Bytes.toBytes(20)));
+      }
+      Collections.sort(cells, KeyValue.COMPARATOR);
+      statistics.addRow(Result.create(cells), true);
+    }
+
+    NavigableMap<byte[], long[]> cf01Statistics
+            = statistics.getFamilyStatisticsMap().get(CF01);
+    assertColumnStatistics("aliased column", cf01Statistics.get(ALIAS01), 3, 6, 10);
+    assertColumnStatistics("unconverted column", cf01Statistics.get(COLQUALIFIER01), 1, 1, 20);
+    assertColumnStatistics("unaliased column",
+            statistics.getFamilyStatisticsMap().get(CF02).get(COLQUALIFIER02), 3, 3, 7);
+
+    NavigableMap<byte[], byte[]> aliasToQualifierMap = new TreeMap<>(Bytes.BYTES_RAWCOMPARATOR);
+    aliasToQualifierMap.put(ALIAS01, COLQUALIFIER01);
+    aliasToQualifierMap.put(ALIAS02, COLQUALIFIER02);
+    NavigableMap<byte[], long[]> translatedStatistics
+            = ColumnDiscoveryStatistics.translateAliases(cf01Statistics, aliasToQualifierMap);
+    assertEquals("unexpected translated column count",
+            1, translatedStatistics.size());
+    assertColumnStatistics("merged translated column",
+            translatedStatistics.get(COLQUALIFIER01), 4, 7, 20);
+    assertNull("alias retained after translation",
+            translatedStatistics.get(ALIAS01));
+  }
+
+  private static void assertColumnStatistics(String description, long[] columnStatistics,
+          long columnCount, long cellCount, long maxValueLength) {
+    assertEquals("unexpected column count for " + description,
+            columnCount, columnStatistics[ColumnDiscoveryStatistics.COLUMN_COUNT]);
+    assertEquals("unexpected cell count for " + description,
+            cellCount, columnStatistics[ColumnDiscoveryStatistics.CELL_COUNT]);
+    assertEquals("unexpected max length for " + description,
+            maxValueLength, columnStatistics[ColumnDiscoveryStatistics.MAX_VALUE_LENGTH]);
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test the {@link StripedCounter} and {@link LatencyHistogram} primitives underlying
+ * {@link ColumnManagerMetrics}, the lazily created per-table metrics built on them, and the
+ * counting of RPCs (but not of other calls) made through an instrumented Repository table.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnManagerMetrics {
+
+  private static final TableName TABLE01 = TableName.valueOf("testNamespace01", "testTable01");
+  private static final TableName TABLE02 = TableName.valueOf("testNamespace01", "testTable02");
+
+  @Test
+  public void testStripedCounter() throws Exception {
+    final StripedCounter counter = new StripedCounter();
+    final int threadCount = 8;
+    final int incrementsPerThread = 10000;
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < incrementsPerThread; j++) {
+            counter.increment();
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    counter.add(5);
+    assertEquals("unexpected striped counter sum",
+            threadCount * incrementsPerThread + 5, counter.sum());
+  }
+
+  @Test
+  public void testLatencyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals("unexpected percentile of empty histogram",
+            0, histogram.getPercentileMicros(99));
+    assertEquals("unexpected bucket index",
+            0, LatencyHistogram.getBucketIndex(0));
+    assertEquals("unexpected bucket index",
+            0, LatencyHistogram.getBucketIndex(1));
+    assertEquals("unexpected bucket index", 10,
+            LatencyHistogram.getBucketIndex(1024));
+    assertEquals("unexpected bucket index", LatencyHistogram.BUCKET_COUNT - 1,
+            LatencyHistogram.getBucketIndex(Long.MAX_VALUE));
+    for (int i = 0; i < 98; i++) {
+      histogram.record(100); // bucket 6: [64, 128)
+    }
+    histogram.record(5000); // bucket 12: [4096, 8192)
+    histogram.record(5000);
+    assertEquals("unexpected count", 100, histogram.getCount());
+    assertEquals("unexpected mean", 198.0, histogram.getMeanMicros(), 0.001);
+    assertEquals("unexpected median", 128, histogram.getPercentileMicros(50));
+    assertEquals("unexpected 99th percentile",
+            8192, histogram.getPercentileMicros(99));
+  }
+
+  @Test
+  public void testTableMetrics() {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(ColumnManagerMetrics.METRICS_PUBLISHED_KEY, false);
+    ColumnManagerMetrics metrics = new ColumnManagerMetrics(conf);
+    metrics.increment(TABLE01, ColumnManagerMetrics.Counter.AUDITOR_UPDATES_WRITTEN);
+    metrics.add(TABLE01, ColumnManagerMetrics.Counter.ALIAS_LOOKUP_HITS, 3);
+    metrics.add(TABLE02, ColumnManagerMetrics.Counter.ALIAS_LOOKUP_HITS, 0);
+    metrics.recordSince(TABLE01, ColumnManagerMetrics.Timer.DESCRIPTOR_LOAD, System.nanoTime());
+    assertEquals("unexpected auditor count", 1, metrics.getTableMetrics(TABLE01)
+            .getCounter(ColumnManagerMetrics.Counter.AUDITOR_UPDATES_WRITTEN).sum());
+    assertEquals("unexpected alias hit count", 3, metrics.getTableMetrics(TABLE01)
+            .getCounter(ColumnManagerMetrics.Counter.ALIAS_LOOKUP_HITS).sum());
+    assertEquals("unexpected descriptor load count", 1,
+            metrics.getTableMetrics(TABLE01)
+                    .getTimer(ColumnManagerMetrics.Timer.DESCRIPTOR_LOAD).getCount());
+    assertNull("metrics created for Table with no recorded events",
+            metrics.getTableMetricsMap().get(TABLE02));
+  }
+
+  @Test
+  public void testInstrumentedRepositoryTable() throws Exception {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(ColumnManagerMetrics.METRICS_PUBLISHED_KEY, false);
+    ColumnManagerMetrics metrics = new ColumnManagerMetrics(conf);
+    final TableName repositoryTableName = Repository.REPOSITORY_TABLENAME;
+    Table stubTable = (Table) Proxy.newProxyInstance(Table.class.getClassLoader(),
+            new Class<?>[]{Table.class}, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+          case "getName":
+            return repositoryTableName;
+          case "get":
+            return Result.EMPTY_RESULT;
+          default:
+            return null;
+        }
+      }
+    });
+    Table instrumentedTable = metrics.instrument(stubTable);
+    assertEquals("unexpected Table name",
+            repositoryTableName, instrumentedTable.getName());
+    instrumentedTable.get(new Get(Bytes.toBytes("row01")));
+    instrumentedTable.get(new Get(Bytes.toBytes("row02")));
+    ColumnManagerMetrics.TableMetrics tableMetrics
+            = metrics.getTableMetricsMap().get(repositoryTableName);
+    assertEquals("unexpected Repository get count",
+            2, tableMetrics.getRepositoryRpcTimer("get").getCount());
+    assertTrue("non-RPC method recorded as Repository RPC",
+            tableMetrics.getRepositoryRpcTimer("getName").getCount() == 0);
+  }
+}
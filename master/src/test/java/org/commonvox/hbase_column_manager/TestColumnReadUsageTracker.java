@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Test that {@link ColumnReadUsageTracker} counts a Get of several versions of a column as one
+ * read, counts existence checks only against known columns, and counts a Get not restricted to
+ * specific columns as a read of every Column Family, as flushed to a simulated Repository.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnReadUsageTracker {
+
+  private static final TableName TABLE01 = TableName.valueOf("testNamespace01", "testTable01");
+  private static final byte[] CF01 = Bytes.toBytes("cf01");
+  private static final byte[] CF02 = Bytes.toBytes("cf02");
+  private static final byte[] ROW01 = Bytes.toBytes("row01");
+
+  @Test
+  public void testRecordingOfGetsAndExistenceChecks() throws Exception {
+    SimulatedUsageWriter usageWriter = new SimulatedUsageWriter();
+    ColumnReadUsageTracker tracker
+            = new ColumnReadUsageTracker(usageWriter, getConfiguration());
+    MTableDescriptor mtd = getMTableDescriptor();
+    List<Cell> cells = new ArrayList<>();
+    cells.add(new KeyValue(ROW01, CF01, Bytes.toBytes("col01"), 2L, Bytes.toBytes("v2")));
+    cells.add(new KeyValue(ROW01, CF01, Bytes.toBytes("col01"), 1L, Bytes.toBytes("v1")));
+    cells.add(new KeyValue(ROW01, CF01, Bytes.toBytes("col02"), 1L, Bytes.toBytes("v1")));
+    tracker.recordGet(mtd, new Get(ROW01).addFamily(CF01).setMaxVersions(),
+            Result.create(cells));
+    tracker.recordExistenceCheck(mtd, new Get(ROW01).addColumn(CF01, Bytes.toBytes("col02"))
+            .addColumn(CF01, Bytes.toBytes("unknownCol")));
+    tracker.flush();
+
+    assertEquals("multiple versions of column counted as multiple reads",
+            Long.valueOf(1), usageWriter.getReadCount(
+                    SchemaEntityType.COLUMN_AUDITOR, "col01"));
+    assertEquals("existence check not counted as column read",
+            Long.valueOf(2), usageWriter.getReadCount(
+                    SchemaEntityType.COLUMN_AUDITOR, "col02"));
+    assertNull("existence check counted as read of unknown column",
+            usageWriter.getReadCount(SchemaEntityType.COLUMN_AUDITOR, "unknownCol"));
+    assertEquals("unexpected Column Family read count",
+            Long.valueOf(2), usageWriter.getReadCount(SchemaEntityType.COLUMN_FAMILY, "cf01"));
+    assertNull("read recorded for unread Column Family",
+            usageWriter.getReadCount(SchemaEntityType.COLUMN_FAMILY, "cf02"));
+  }
+
+  @Test
+  public void testRecordingOfUnqualifiedReads() throws Exception {
+    SimulatedUsageWriter usageWriter = new SimulatedUsageWriter();
+    ColumnReadUsageTracker tracker
+            = new ColumnReadUsageTracker(usageWriter, getConfiguration());
+    MTableDescriptor mtd = getMTableDescriptor();
+    tracker.recordGet(mtd, new Get(ROW01), Result.create(new Cell[]{
+      new KeyValue(ROW01, CF02, Bytes.toBytes("col01"), 1L, Bytes.toBytes("v1")),
+      new KeyValue(ROW01, Bytes.toBytes("unknownCf"), Bytes.toBytes("col01"), 1L,
+              Bytes.toBytes("v1"))}));
+    tracker.flush();
+
+    assertEquals("unqualified Get not counted as read of all Column Families",
+            Long.valueOf(1), usageWriter.getReadCount(SchemaEntityType.COLUMN_FAMILY, "cf01"));
+    assertEquals("unqualified Get not counted as read of all Column Families",
+            Long.valueOf(1), usageWriter.getReadCount(SchemaEntityType.COLUMN_FAMILY, "cf02"));
+    assertEquals("column read not counted (or counted for unknown family)",
+            Long.valueOf(1), usageWriter.getReadCount(
+                    SchemaEntityType.COLUMN_AUDITOR, "col01"));
+  }
+
+  private static Configuration getConfiguration() {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(ColumnReadUsageTracker.ENABLED_KEY, true);
+    conf.setLong(ColumnReadUsageTracker.FLUSH_INTERVAL_KEY, 3600000); // flushed manually by tests
+    return conf;
+  }
+
+  private static MTableDescriptor getMTableDescriptor() {
+    MTableDescriptor mtd = new MTableDescriptor(TABLE01);
+    mtd.setForeignKey(Bytes.toBytes(1L));
+    MColumnDescriptor mcd01 = new MColumnDescriptor(CF01);
+    mcd01.setForeignKey(Bytes.toBytes(2L));
+    mcd01.addColumnAuditor(new ColumnAuditor(Bytes.toBytes("col02")));
+    mtd.addFamily(mcd01);
+    MColumnDescriptor mcd02 = new MColumnDescriptor(CF02);
+    mcd02.setForeignKey(Bytes.toBytes(3L));
+    mtd.addFamily(mcd02);
+    return mtd;
+  }
+
+  private static class SimulatedUsageWriter implements ColumnUsageTracker.UsageWriter {
+
+    private final Map<String, Long> readCounts = new TreeMap<>();
+
+    @Override
+    public void writeUsage(byte[][] counterQualifiers,
+            List<ColumnUsageTracker.UsageDelta> usageDeltas) {
+      for (ColumnUsageTracker.UsageDelta usageDelta : usageDeltas) {
+        // rowId: record type, 8-byte parent foreign key, entity name
+        String key = usageDelta.rowId[0] + ":" + Bytes.toString(Bytes.tail(usageDelta.rowId,
+                usageDelta.rowId.length - 1 - Bytes.SIZEOF_LONG));
+        Long readCount = readCounts.get(key);
+        readCounts.put(key, (readCount == null ? 0 : readCount) + usageDelta.counts[0]);
+      }
+    }
+
+    Long getReadCount(SchemaEntityType entityType, String name) {
+      return readCounts.get(entityType.getRecordType() + ":" + name);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that write usage accumulated by {@link ColumnWriteUsageTracker} is neither lost nor
+ * duplicated when a flush to the (simulated) Repository fails, and that idle columns are retired
+ * from the tracker.
+ *
+ * @author Daniel Vimont
+ */
+public class TestColumnWriteUsageTracker {
+
+  private static final TableName TABLE01 = TableName.valueOf("testNamespace01", "testTable01");
+  private static final byte[] CF01 = Bytes.toBytes("cf01");
+
+  @Test
+  public void testFlushOfAccumulatedUsage() throws Exception {
+    SimulatedUsageWriter usageWriter = new SimulatedUsageWriter();
+    ColumnWriteUsageTracker tracker
+            = new ColumnWriteUsageTracker(usageWriter, getConfiguration());
+    MTableDescriptor mtd = getMTableDescriptor();
+    tracker.recordWrites(mtd, new Put(Bytes.toBytes("row01"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("12345"))
+            .addColumn(CF01, Bytes.toBytes("col02"), Bytes.toBytes("1")));
+    tracker.recordWrites(mtd, new Put(Bytes.toBytes("row02"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("123")));
+
+    usageWriter.failing = true;
+    try {
+      tracker.flush();
+      fail("simulated Repository failure not propagated");
+    } catch (IOException e) {
+    }
+    usageWriter.failing = false;
+    tracker.flush();
+    assertEquals("usage lost or duplicated after failed flush",
+            "2/8", usageWriter.getUsage("col01"));
+    assertEquals("unexpected usage flushed",
+            "1/1", usageWriter.getUsage("col02"));
+
+    tracker.recordWrites(mtd, new Put(Bytes.toBytes("row03"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("1234")));
+    tracker.flush();
+    assertEquals("previously flushed usage flushed again",
+            "3/12", usageWriter.getUsage("col01"));
+    assertEquals("usage of unwritten column flushed again",
+            "1/1", usageWriter.getUsage("col02"));
+  }
+
+  @Test
+  public void testRetirementOfIdleColumns() throws Exception {
+    ColumnWriteUsageTracker tracker
+            = new ColumnWriteUsageTracker(new SimulatedUsageWriter(), getConfiguration());
+    tracker.recordWrites(getMTableDescriptor(), new Put(Bytes.toBytes("row01"))
+            .addColumn(CF01, Bytes.toBytes("col01"), Bytes.toBytes("value")));
+    tracker.flush();
+    assertEquals("recently written column not tracked",
+            1, tracker.getTrackedEntityCount());
+    tracker.flush();
+    assertEquals("idle column not retired",
+            0, tracker.getTrackedEntityCount());
+    assertTrue("tracker unexpectedly disabled", tracker.isEnabled());
+  }
+
+  private static Configuration getConfiguration() {
+    Configuration conf = new Configuration(false);
+    conf.setBoolean(ColumnWriteUsageTracker.ENABLED_KEY, true);
+    conf.setLong(ColumnWriteUsageTracker.FLUSH_INTERVAL_KEY, 3600000); // flushed manually by tests
+    return conf;
+  }
+
+  private static MTableDescriptor getMTableDescriptor() {
+    MTableDescriptor mtd = new MTableDescriptor(TABLE01);
+    MColumnDescriptor mcd = new MColumnDescriptor(CF01);
+    mcd.setForeignKey(Bytes.toBytes(1L));
+    mtd.addFamily(mcd);
+    return mtd;
+  }
+
+  private static class SimulatedUsageWriter implements ColumnUsageTracker.UsageWriter {
+
+    private volatile boolean failing = false;
+    private final Map<String, long[]> writtenUsage = new TreeMap<>();
+
+    @Override
+    public void writeUsage(byte[][] counterQualifiers,
+            List<ColumnUsageTracker.UsageDelta> usageDeltas) throws IOException {
+      if (failing) {
+        throw new IOException("simulated Repository failure");
+      }
+      for (ColumnUsageTracker.UsageDelta usageDelta : usageDeltas) {
+        // rowId: record type, 8-byte parent foreign key, column qualifier
+        String colQualifier = Bytes.toString(Bytes.tail(usageDelta.rowId,
+                usageDelta.rowId.length - 1 - Bytes.SIZEOF_LONG));
+        long[] usage = writtenUsage.get(colQualifier);
+        if (usage == null) {
+          usage = new long[2];
+          writtenUsage.put(colQualifier, usage);
+        }
+        usage[0] += usageDelta.counts[0];
+        usage[1] += usageDelta.counts[1];
+      }
+    }
+
+    String getUsage(String colQualifier) {
+      long[] usage = writtenUsage.get(colQualifier);
+      return usage[0] + "/" + usage[1];
+    }
+  }
+}
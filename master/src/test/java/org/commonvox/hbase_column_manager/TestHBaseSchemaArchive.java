@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.hbase.TableName;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Test that schema entities written to an HBaseSchemaArchive one entity at a time read back
+ * unchanged in each archive format, that conversion between formats preserves them, and that an
+ * archive in the legacy single-document XML form remains readable.
+ *
+ * @author Daniel Vimont
+ */
+public class TestHBaseSchemaArchive {
+
+  private static final String NAMESPACE = "testNamespace";
+  private static final int TABLE_COUNT = 3;
+  private static final int FAMILY_COUNT = 2;
+  private static final int COLUMN_COUNT = 2;
+  private static final String LEGACY_ARCHIVE_RESOURCE = "legacyHBaseSchemaArchive.xml";
+
+  @Test
+  public void testXmlRoundTrip() throws Exception {
+    File archiveFile = File.createTempFile("testSchemaArchive", ".xml");
+    archiveFile.deleteOnExit();
+    List<String> expectedEntities = writeArchive(archiveFile, SchemaArchiveFormat.XML);
+    assertEquals("unexpected entities read from XML archive",
+            expectedEntities, readArchive(archiveFile));
+  }
+
+  @Test
+  public void testConversionRoundTrip() throws Exception {
+    File xmlFile = File.createTempFile("testSchemaArchive", ".xml");
+    xmlFile.deleteOnExit();
+    List<String> expectedEntities = writeArchive(xmlFile, SchemaArchiveFormat.XML);
+    for (SchemaArchiveFormat format : new SchemaArchiveFormat[]{
+            SchemaArchiveFormat.BINARY, SchemaArchiveFormat.COMPRESSED_BINARY}) {
+      File binaryFile = File.createTempFile("testSchemaArchive", ".bin");
+      binaryFile.deleteOnExit();
+      File reconvertedFile = File.createTempFile("testSchemaArchive", ".xml");
+      reconvertedFile.deleteOnExit();
+      HBaseSchemaArchive.convertArchiveFile(xmlFile, binaryFile, format);
+      assertEquals("unexpected entities read from " + format
+              + " archive", expectedEntities, readArchive(binaryFile));
+      HBaseSchemaArchive.convertArchiveFile(binaryFile, reconvertedFile, SchemaArchiveFormat.XML);
+      assertEquals("unexpected entities read from XML archive "
+              + "reconverted from " + format, expectedEntities, readArchive(reconvertedFile));
+    }
+  }
+
+  /**
+   * Reads (with the streaming reader) an archive written by the JAXB-marshalling exporter of
+   * earlier releases, in which the children of each entity were ordered by entity type and
+   * then by name.
+   */
+  @Test
+  public void testReadLegacyArchive() throws Exception {
+    File legacyFile = new File(TestHBaseSchemaArchive.class.getClassLoader()
+            .getResource(LEGACY_ARCHIVE_RESOURCE).toURI());
+    List<String> expectedEntities = new ArrayList<>();
+    expectedEntities.add("0 Namespace: legacyNamespace");
+    for (int t = 1; t <= 2; t++) {
+      expectedEntities.add("1 Table: legacyNamespace:legacyTable0" + t);
+      for (int f = 1; f <= 2; f++) {
+        expectedEntities.add("2 ColumnFamily: cf0" + f);
+        expectedEntities.add("3 ColumnAuditor: anotherColumn");
+        expectedEntities.add("3 ColumnAuditor: auditedColumn0" + f);
+        expectedEntities.add("3 ColumnDefinition: definedColumn0" + f);
+      }
+    }
+    List<String> readEntities = new ArrayList<>();
+    try (HBaseSchemaArchive.SchemaEntityReader reader
+            = HBaseSchemaArchive.openSchemaEntityReader(legacyFile)) {
+      for (SchemaEntity entity = reader.next(); entity != null; entity = reader.next()) {
+        readEntities.add(reader.getDepth() + " " + entity);
+        switch (entity.getSchemaEntityType()) {
+          case NAMESPACE:
+            assertEquals("unexpected configuration of " + entity, "10",
+                    entity.getConfigurationValue("hbase.namespace.quota.maxtables"));
+            break;
+          case TABLE:
+            assertEquals("unexpected parent of " + entity,
+                    "legacyNamespace", reader.getParent().getNameAsString());
+            assertEquals("unexpected configuration of " + entity,
+                    "86400000", entity.getConfigurationValue("hbase.hregion.majorcompaction"));
+            break;
+          case COLUMN_FAMILY:
+            assertEquals("unexpected value of " + entity, "65536",
+                    entity.getValue("BLOCKSIZE"));
+            break;
+          case COLUMN_DEFINITION:
+            assertEquals("unexpected value of " + entity, "[a-z]*",
+                    entity.getValue("COLUMN_VALIDATION_REGEX"));
+            break;
+          default:
+            break;
+        }
+      }
+    }
+    assertEquals("unexpected entities read from legacy archive",
+            expectedEntities, readEntities);
+  }
+
+  /**
+   * Writes a Namespace containing multiple Tables, each with Column Families containing
+   * ColumnDefinitions and ColumnAuditors, and returns a description of each entity written.
+   */
+  private static List<String> writeArchive(File archiveFile, SchemaArchiveFormat format)
+          throws Exception {
+    List<String> writtenEntities = new ArrayList<>();
+    try (HBaseSchemaArchive.SchemaEntityWriter writer = HBaseSchemaArchive.openSchemaEntityWriter(
+            archiveFile, format, NAMESPACE, (TableName) null)) {
+      SchemaEntity namespace
+              = new SchemaEntity(SchemaEntityType.NAMESPACE.getRecordType(), NAMESPACE);
+      writer.writeStartEntity(namespace);
+      writtenEntities.add(describe(namespace, 0));
+      for (int t = 0; t < TABLE_COUNT; t++) {
+        SchemaEntity table = new SchemaEntity(SchemaEntityType.TABLE.getRecordType(),
+                NAMESPACE + ":testTable" + t)
+                .setValue("key", "value" + t).setConfiguration("configKey", "config" + t);
+        writer.writeStartEntity(table);
+        writtenEntities.add(describe(table, 1));
+        for (int f = 0; f < FAMILY_COUNT; f++) {
+          SchemaEntity colFamily = new SchemaEntity(
+                  SchemaEntityType.COLUMN_FAMILY.getRecordType(), "CF" + f);
+          writer.writeStartEntity(colFamily);
+          writtenEntities.add(describe(colFamily, 2));
+          for (int c = 0; c < COLUMN_COUNT; c++) {
+            SchemaEntity colDefinition = new SchemaEntity(
+                    SchemaEntityType.COLUMN_DEFINITION.getRecordType(), "definedColumn" + c)
+                    .setValue("key", "definition" + t + f + c);
+            writer.writeEntity(colDefinition);
+            writtenEntities.add(describe(colDefinition, 3));
+            SchemaEntity colAuditor = new SchemaEntity(
+                    SchemaEntityType.COLUMN_AUDITOR.getRecordType(), "auditedColumn" + c)
+                    .setValue("key", "auditor" + t + f + c);
+            writer.writeEntity(colAuditor);
+            writtenEntities.add(describe(colAuditor, 3));
+          }
+          writer.writeEndEntity();
+        }
+        writer.writeEndEntity();
+      }
+      writer.writeEndEntity();
+    }
+    return writtenEntities;
+  }
+
+  private static List<String> readArchive(File archiveFile) throws Exception {
+    List<String> readEntities = new ArrayList<>();
+    try (HBaseSchemaArchive.SchemaEntityReader reader
+            = HBaseSchemaArchive.openSchemaEntityReader(archiveFile)) {
+      for (SchemaEntity entity = reader.next(); entity != null; entity = reader.next()) {
+        readEntities.add(describe(entity, reader.getDepth()));
+        assertEquals("unexpected parent of " + entity,
+                reader.getDepth() == 0, reader.getParent() == null);
+      }
+      assertNull("entity returned after end of archive", reader.next());
+    }
+    return readEntities;
+  }
+
+  private static String describe(SchemaEntity entity, int depth) {
+    return depth + " " + entity + " " + entity.getValue("key")
+            + " " + entity.getConfigurationValue("configKey");
+  }
+}
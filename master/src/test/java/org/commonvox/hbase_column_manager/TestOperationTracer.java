@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test that {@link OperationTracer} samples no operations unless enabled, and that it retains
+ * only operations slower than its threshold, overwriting the oldest once its ring buffer is full,
+ * with the elapsed time of each operation attributed to its phases.
+ *
+ * @author Daniel Vimont
+ */
+public class TestOperationTracer {
+
+  private static final TableName TABLE01 = TableName.valueOf("testNamespace01", "testTable01");
+
+  @Test
+  public void testTracingDisabledByDefault() {
+    OperationTracer tracer = new OperationTracer(new Configuration(false));
+    assertSame("operation sampled with tracing disabled",
+            TraceSpan.NOT_SAMPLED, tracer.start(TABLE01, "put"));
+    TraceSpan.NOT_SAMPLED.lap(OperationTrace.Phase.HBASE_CALL);
+    TraceSpan.NOT_SAMPLED.finish();
+    assertTrue("trace retained with tracing disabled",
+            tracer.getSlowOperationTraces().isEmpty());
+  }
+
+  @Test
+  public void testSlowOperationRetention() throws Exception {
+    final int bufferSize = 4;
+    Configuration conf = new Configuration(false);
+    conf.setDouble(OperationTracer.SAMPLE_RATE_KEY, 1.0);
+    conf.setLong(OperationTracer.SLOW_OPERATION_THRESHOLD_KEY, 5);
+    conf.setInt(OperationTracer.BUFFER_SIZE_KEY, bufferSize);
+    OperationTracer tracer = new OperationTracer(conf);
+
+    TraceSpan fastSpan = tracer.start(TABLE01, "get");
+    fastSpan.lap(OperationTrace.Phase.HBASE_CALL);
+    fastSpan.finish();
+    assertTrue("fast operation retained",
+            tracer.getSlowOperationTraces().isEmpty());
+
+    for (int i = 0; i < bufferSize + 2; i++) {
+      TraceSpan slowSpan = tracer.start(TABLE01, "put" + i);
+      slowSpan.lap(OperationTrace.Phase.VALIDATION);
+      Thread.sleep(6);
+      slowSpan.lap(OperationTrace.Phase.HBASE_CALL);
+      slowSpan.finish();
+    }
+    List<OperationTrace> traces = tracer.getSlowOperationTraces();
+    assertEquals("unexpected retained trace count", bufferSize, traces.size());
+    assertEquals("unexpected captured trace count",
+            bufferSize + 2, tracer.getSlowOperationCount());
+    assertEquals("oldest traces not overwritten",
+            "put2", traces.get(0).getOperation());
+    OperationTrace trace = traces.get(traces.size() - 1);
+    assertEquals("unexpected Table", TABLE01, trace.getTableName());
+    assertTrue("HBase-call phase not attributed",
+            trace.getPhaseMicros(OperationTrace.Phase.HBASE_CALL) >= 5000);
+    assertEquals("time attributed to phase not entailed",
+            0, trace.getPhaseMicros(OperationTrace.Phase.AUDITING));
+    assertTrue("total less than sum of phases",
+            trace.getTotalMicros() >= trace.getPhaseMicros(OperationTrace.Phase.VALIDATION)
+                    + trace.getPhaseMicros(OperationTrace.Phase.HBASE_CALL));
+  }
+}
@@ -33,6 +33,8 @@ import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBException;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -50,9 +52,11 @@ import org.apache.hadoop.hbase.NamespaceDescriptor;
 import org.apache.hadoop.hbase.NamespaceNotFoundException;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.BufferedMutator;
 import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -266,6 +270,10 @@ public class TestRepositoryAdmin {
           = "FAILURE IN ColumnInvalidityReport PROCESSING!! ==>> ";
   private static final String TABLE_NOT_INCLUDED_EXCEPTION_FAILURE
           = TableNotIncludedForProcessingException.class.getSimpleName() + " failed to be thrown ";
+  private static final String ASYNC_ADMIN_FAILURE
+          = "FAILURE IN " + AsyncMAdmin.class.getSimpleName() + " PROCESSING!! ==>> ";
+  private static final String MASS_ADMIN_FAILURE
+          = "FAILURE IN mass disableTables/deleteTables PROCESSING!! ==>> ";
   private static final String IMPORT_COLDEFINITIONS_FAILURE
           = "FAILURE IN #importColumnDefinitions PROCESSING!! ==>> ";
 
@@ -367,6 +375,339 @@ public class TestRepositoryAdmin {
             + "AND with COLUMN-ALIASES has run to completion.");
   }
 
+  @Test
+  public void testColumnAuditingWithTimelineConsistentReads() throws IOException {
+    System.out.println("#testColumnAuditing has been invoked using TIMELINE-CONSISTENT "
+            + "Repository reads from region replicas.");
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    configuration.setBoolean(Repository.TIMELINE_CONSISTENT_READS_KEY, true);
+    try (Admin standardAdmin = ConnectionFactory.createConnection(configuration).getAdmin()) {
+      RepositoryAdmin.setRepositoryRegionReplication(standardAdmin, 2);
+      assertEquals(REPOSITORY_ADMIN_FAILURE
+              + "unexpected value returned by #getRepositoryRegionReplication", 2,
+              RepositoryAdmin.getRepositoryRegionReplication(standardAdmin));
+    }
+    try {
+      createSchemaStructuresInHBase(configuration, false, true);
+      loadColumnData(configuration, false);
+      verifyColumnAuditing(configuration);
+      verifyColumnData(configuration, false);
+    } finally {
+      try (Admin standardAdmin = ConnectionFactory.createConnection(configuration).getAdmin()) {
+        RepositoryAdmin.setRepositoryRegionReplication(
+                standardAdmin, Repository.DEFAULT_REGION_REPLICATION);
+      }
+    }
+    clearTestingEnvironment();
+    System.out.println("#testColumnAuditing using TIMELINE-CONSISTENT Repository reads "
+            + "has run to completion.");
+  }
+
+  @Test
+  public void testColumnAuditingPolicy() throws IOException {
+    System.out.println("#testColumnAuditingPolicy has been invoked.");
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    createSchemaStructuresInHBase(configuration, false, false);
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected default auditing policy",
+              ColumnAuditingPolicy.auditAll(),
+              repositoryAdmin.getColumnAuditingPolicy(NAMESPACE01_TABLE01, CF01));
+      repositoryAdmin.setColumnAuditingPolicy(
+              NAMESPACE01_TABLE01, CF01, ColumnAuditingPolicy.newQualifiersOnly());
+    }
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "auditing policy not persisted in Repository",
+              ColumnAuditingPolicy.newQualifiersOnly(),
+              repositoryAdmin.getColumnAuditingPolicy(NAMESPACE01_TABLE01, CF01));
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        table01InNamespace01.put(new Put(ROW_ID_01)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG));
+        table01InNamespace01.put(new Put(ROW_ID_02)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_82_BYTES_LONG)
+                .addColumn(CF01, COLQUALIFIER02, VALUE_5_BYTES_LONG));
+      }
+      Set<ColumnAuditor> colAuditors = repositoryAdmin.getColumnAuditors(
+              testTableNamesAndDescriptors.get(NAMESPACE01_TABLE01),
+              testColumnFamilyNamesAndDescriptors.get(Bytes.toString(CF01)));
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "new qualifiers not audited",
+              2, colAuditors.size());
+      for (ColumnAuditor colAuditor : colAuditors) {
+        if (Bytes.equals(COLQUALIFIER01, colAuditor.getName())) {
+          assertEquals(REPOSITORY_ADMIN_FAILURE + "known qualifier audited under "
+                  + ColumnAuditingPolicy.Mode.NEW_QUALIFIERS_ONLY + " policy",
+                  VALUE_2_BYTES_LONG.length, colAuditor.getMaxValueLengthFound());
+        }
+      }
+      repositoryAdmin.setColumnAuditingPolicy(
+              NAMESPACE01_TABLE01, CF01, ColumnAuditingPolicy.auditAll());
+    }
+    clearTestingEnvironment();
+    System.out.println("#testColumnAuditingPolicy has run to completion.");
+  }
+
+  @Test
+  public void testColumnWriteUsage() throws IOException {
+    System.out.println("#testColumnWriteUsage has been invoked.");
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    configuration.setBoolean(ColumnWriteUsageTracker.ENABLED_KEY, true);
+    createSchemaStructuresInHBase(configuration, false, false);
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        table01InNamespace01.put(new Put(ROW_ID_01)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG)
+                .addColumn(CF01, COLQUALIFIER02, VALUE_5_BYTES_LONG));
+        table01InNamespace01.put(new Put(ROW_ID_02)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_82_BYTES_LONG));
+      }
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      repositoryAdmin.flushColumnWriteUsage();
+      for (ColumnAuditor colAuditor : repositoryAdmin.getColumnAuditors(
+              testTableNamesAndDescriptors.get(NAMESPACE01_TABLE01),
+              testColumnFamilyNamesAndDescriptors.get(Bytes.toString(CF01)))) {
+        if (Bytes.equals(COLQUALIFIER01, colAuditor.getName())) {
+          assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected write count",
+                  2, colAuditor.getWriteCount());
+          assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected write bytes",
+                  VALUE_2_BYTES_LONG.length + VALUE_82_BYTES_LONG.length,
+                  colAuditor.getWriteBytes());
+        } else if (Bytes.equals(COLQUALIFIER02, colAuditor.getName())) {
+          assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected write count",
+                  1, colAuditor.getWriteCount());
+        }
+      }
+    }
+    clearTestingEnvironment();
+    System.out.println("#testColumnWriteUsage has run to completion.");
+  }
+
+  @Test
+  public void testColumnReadUsage() throws IOException {
+    System.out.println("#testColumnReadUsage has been invoked.");
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    configuration.setBoolean(ColumnReadUsageTracker.ENABLED_KEY, true);
+    createSchemaStructuresInHBase(configuration, false, false);
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        table01InNamespace01.put(new Put(ROW_ID_01)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG)
+                .addColumn(CF01, COLQUALIFIER02, VALUE_5_BYTES_LONG));
+        table01InNamespace01.put(new Put(ROW_ID_02)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_82_BYTES_LONG));
+        table01InNamespace01.get(new Get(ROW_ID_01).addColumn(CF01, COLQUALIFIER01));
+        try (ResultScanner scanner = table01InNamespace01.getScanner(CF01, COLQUALIFIER01)) {
+          while (scanner.next() != null) {
+          }
+        }
+      }
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      repositoryAdmin.flushColumnReadUsage();
+      for (ColumnAuditor colAuditor : repositoryAdmin.getColumnAuditors(
+              testTableNamesAndDescriptors.get(NAMESPACE01_TABLE01),
+              testColumnFamilyNamesAndDescriptors.get(Bytes.toString(CF01)))) {
+        if (Bytes.equals(COLQUALIFIER01, colAuditor.getName())) {
+          assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected read count",
+                  3, colAuditor.getReadCount());
+          assertTrue(REPOSITORY_ADMIN_FAILURE + "last-read timestamp not recorded",
+                  colAuditor.getLastReadTimestamp() > 0);
+        } else if (Bytes.equals(COLQUALIFIER02, colAuditor.getName())) {
+          assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected read count",
+                  0, colAuditor.getReadCount());
+        }
+      }
+      File coldColumnReportFile = tempTestFolder.newFile("coldColumnReport.csv");
+      assertTrue(REPOSITORY_ADMIN_FAILURE + "cold column not reported",
+              repositoryAdmin.outputReportOnColdColumns(
+                      coldColumnReportFile, NAMESPACE01_TABLE01, 0));
+      String coldColumnReport = new String(Files.readAllBytes(coldColumnReportFile.toPath()));
+      assertTrue(REPOSITORY_ADMIN_FAILURE + "unread column missing from cold-column report",
+              coldColumnReport.contains(Bytes.toString(COLQUALIFIER02)));
+      assertTrue(REPOSITORY_ADMIN_FAILURE + "read column included in cold-column report",
+              !coldColumnReport.contains("," + Bytes.toString(COLQUALIFIER01) + ","));
+    }
+    clearTestingEnvironment();
+    System.out.println("#testColumnReadUsage has run to completion.");
+  }
+
+  @Test
+  public void testColumnAuditorExpiry() throws Exception {
+    System.out.println("#testColumnAuditorExpiry has been invoked.");
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    createSchemaStructuresInHBase(configuration, false, false);
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      long startTimestamp = System.currentTimeMillis();
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        table01InNamespace01.put(new Put(ROW_ID_01)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG)
+                .addColumn(CF01, COLQUALIFIER02, VALUE_5_BYTES_LONG));
+      }
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      HTableDescriptor htd = testTableNamesAndDescriptors.get(NAMESPACE01_TABLE01);
+      HColumnDescriptor hcd = testColumnFamilyNamesAndDescriptors.get(Bytes.toString(CF01));
+      for (ColumnAuditor colAuditor : repositoryAdmin.getColumnAuditors(htd, hcd)) {
+        assertTrue(REPOSITORY_ADMIN_FAILURE + "last-seen timestamp not recorded",
+                colAuditor.getLastSeenTimestamp() >= startTimestamp);
+      }
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "ColumnAuditors swept without retention period",
+              0, repositoryAdmin.sweepExpiredColumnAuditors(NAMESPACE01_TABLE01));
+
+      repositoryAdmin.setColumnAuditorRetentionPeriod(NAMESPACE01_TABLE01, CF01, 1);
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "retention period not persisted",
+              1, repositoryAdmin.getColumnAuditorRetentionPeriod(NAMESPACE01_TABLE01, CF01));
+      Thread.sleep(10);
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "unexpected count of expired ColumnAuditors",
+              2, repositoryAdmin.sweepExpiredColumnAuditors(NAMESPACE01_TABLE01));
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "expired ColumnAuditors still active",
+              0, repositoryAdmin.getColumnAuditors(htd, hcd).size());
+
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        table01InNamespace01.put(new Put(ROW_ID_02)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG));
+      }
+      Set<ColumnAuditor> colAuditors = repositoryAdmin.getColumnAuditors(htd, hcd);
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "expired ColumnAuditor not restored upon write",
+              1, colAuditors.size());
+      assertArrayEquals(REPOSITORY_ADMIN_FAILURE + "unexpected ColumnAuditor restored",
+              COLQUALIFIER01, colAuditors.iterator().next().getName());
+    }
+    clearTestingEnvironment();
+    System.out.println("#testColumnAuditorExpiry has run to completion.");
+  }
+
+  @Test
+  public void testColumnAuditorExpiryUnderAuditingPolicy() throws Exception {
+    System.out.println("#testColumnAuditorExpiryUnderAuditingPolicy has been invoked.");
+    final long RETENTION_PERIOD = 2000;
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    configuration.setLong(Repository.AUDITOR_LAST_SEEN_RESOLUTION_KEY, 0);
+    createSchemaStructuresInHBase(configuration, false, false);
+    try (Connection mConnection = MConnectionFactory.createConnection(configuration)) {
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        table01InNamespace01.put(new Put(ROW_ID_01)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG)
+                .addColumn(CF01, COLQUALIFIER02, VALUE_5_BYTES_LONG));
+      }
+      RepositoryAdmin repositoryAdmin = new RepositoryAdmin(mConnection);
+      repositoryAdmin.setColumnAuditingPolicy(
+              NAMESPACE01_TABLE01, CF01, ColumnAuditingPolicy.newQualifiersOnly());
+      repositoryAdmin.setColumnAuditorRetentionPeriod(
+              NAMESPACE01_TABLE01, CF01, RETENTION_PERIOD);
+      HTableDescriptor htd = testTableNamesAndDescriptors.get(NAMESPACE01_TABLE01);
+      HColumnDescriptor hcd = testColumnFamilyNamesAndDescriptors.get(Bytes.toString(CF01));
+      try (Table table01InNamespace01 = mConnection.getTable(NAMESPACE01_TABLE01)) {
+        Thread.sleep(RETENTION_PERIOD + 100);
+        // known qualifier, bypassed under policy, but still seen
+        table01InNamespace01.put(new Put(ROW_ID_02)
+                .addColumn(CF01, COLQUALIFIER01, VALUE_2_BYTES_LONG));
+        assertEquals(REPOSITORY_ADMIN_FAILURE
+                + "unexpected count of expired ColumnAuditors under auditing policy",
+                1, repositoryAdmin.sweepExpiredColumnAuditors(NAMESPACE01_TABLE01));
+        Set<ColumnAuditor> colAuditors = repositoryAdmin.getColumnAuditors(htd, hcd);
+        assertEquals(REPOSITORY_ADMIN_FAILURE + "written column expired under auditing policy",
+                1, colAuditors.size());
+        assertArrayEquals(REPOSITORY_ADMIN_FAILURE + "unexpected ColumnAuditor expired",
+                COLQUALIFIER01, colAuditors.iterator().next().getName());
+
+        // expired qualifier, still known to Table's cached descriptor, is restored upon write
+        table01InNamespace01.put(new Put(ROW_ID_02)
+                .addColumn(CF01, COLQUALIFIER02, VALUE_5_BYTES_LONG));
+        assertEquals(REPOSITORY_ADMIN_FAILURE
+                + "expired ColumnAuditor not restored upon write under auditing policy",
+                2, repositoryAdmin.getColumnAuditors(htd, hcd).size());
+      }
+      repositoryAdmin.setColumnAuditingPolicy(
+              NAMESPACE01_TABLE01, CF01, ColumnAuditingPolicy.auditAll());
+    }
+    clearTestingEnvironment();
+    System.out.println("#testColumnAuditorExpiryUnderAuditingPolicy has run to completion.");
+  }
+
+  @Test
+  public void testRepositoryLayoutMigration() throws IOException {
+    System.out.println("#testRepositoryLayoutMigration has been invoked.");
+    final int SALT_BUCKETS = 4;
+
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    configuration.setLong(RepositoryLayoutGuard.CHECK_INTERVAL_KEY, 1000);
+    createSchemaStructuresInHBase(configuration, false, true);
+    loadColumnData(configuration, false);
+    int changeEventCount;
+    try (Connection connection = MConnectionFactory.createConnection(configuration)) {
+      changeEventCount = new RepositoryAdmin(connection).getChangeEventMonitor()
+              .getAllChangeEvents().size();
+    }
+    Connection staleConnection = MConnectionFactory.createConnection(configuration);
+    try (Admin standardAdmin = ConnectionFactory.createConnection(configuration).getAdmin()) {
+      RepositoryAdmin.migrateRepositoryLayout(standardAdmin, SALT_BUCKETS);
+      assertEquals(REPOSITORY_ADMIN_FAILURE
+              + "unexpected value returned by #getRepositorySaltBuckets after migration",
+              SALT_BUCKETS, RepositoryAdmin.getRepositorySaltBuckets(standardAdmin));
+      assertEquals(REPOSITORY_ADMIN_FAILURE + "Repository table not pre-split upon migration",
+              SALT_BUCKETS, standardAdmin.getTableRegions(Repository.REPOSITORY_TABLENAME).size());
+    }
+    // a connection opened before migration must not update the Repository in the old layout
+    try {
+      new RepositoryAdmin(staleConnection).addColumnDefinition(
+              NAMESPACE01_TABLE01, CF01, new ColumnDefinition(COLQUALIFIER01));
+      fail(REPOSITORY_ADMIN_FAILURE
+              + "Repository updated via connection opened before layout migration");
+    } catch (ColumnManagerIOException e) {
+    } finally {
+      try {
+        staleConnection.close();
+      } catch (IOException e) {
+      }
+    }
+    try {
+      verifyColumnAuditing(configuration);
+      verifyColumnData(configuration, false);
+      try (Connection connection = MConnectionFactory.createConnection(configuration)) {
+        assertEquals(REPOSITORY_ADMIN_FAILURE + "ChangeEvents not retained upon migration",
+                changeEventCount, new RepositoryAdmin(connection).getChangeEventMonitor()
+                        .getAllChangeEvents().size());
+      }
+      // further auditing against the salted layout
+      loadColumnData(configuration, false);
+      verifyColumnAuditing(configuration);
+    } finally {
+      try (Admin standardAdmin = ConnectionFactory.createConnection(configuration).getAdmin()) {
+        RepositoryAdmin.migrateRepositoryLayout(standardAdmin, 1);
+      }
+    }
+    verifyColumnAuditing(configuration);
+
+    clearTestingEnvironment();
+    System.out.println("#testRepositoryLayoutMigration has run to completion.");
+  }
+
   private void verifyColumnData(Configuration configuration, boolean useDetailedScan)
           throws IOException {
     try (Connection connection = MConnectionFactory.createConnection(configuration)) {
@@ -1316,6 +1657,74 @@ public class TestRepositoryAdmin {
         // put same row to unenforced namespace/table
         namespace02Table03.put(new Put(ROW_ID_01).
                 addColumn(CF02, COLQUALIFIER03, Bytes.toBytes("ftp://google.com")));
+        // batch with invalid rows at indexes 1 and 4 fails fast by default
+        List<Put> batchPuts = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+          batchPuts.add(new Put(ROW_ID_01).addColumn(CF01,
+                  (i == 1) ? COLQUALIFIER03 : COLQUALIFIER02,
+                  (i == 4) ? VALUE_82_BYTES_LONG : VALUE_5_BYTES_LONG));
+        }
+        try {
+          namespace01Table01.batch(batchPuts, new Object[batchPuts.size()]);
+          fail(COL_QUALIFIER_ENFORCE_FAILURE);
+        } catch (ColumnDefinitionNotFoundException e) {
+        } catch (InterruptedException e) {
+          fail(COL_QUALIFIER_ENFORCE_FAILURE + e.getMessage());
+        }
+        // batch validated in parallel, with all violations collected
+        Configuration batchConfiguration = new Configuration(configuration);
+        batchConfiguration.setInt(ParallelColumnValidator.PARALLEL_THRESHOLD_KEY, 2);
+        batchConfiguration.setInt(ParallelColumnValidator.THREAD_COUNT_KEY, 3);
+        batchConfiguration.setBoolean(ParallelColumnValidator.COLLECT_ALL_VIOLATIONS_KEY, true);
+        try (Connection batchConnection = MConnectionFactory.createConnection(batchConfiguration);
+                BufferedMutator batchMutator
+                = batchConnection.getBufferedMutator(NAMESPACE01_TABLE01)) {
+          batchMutator.mutate(batchPuts);
+          fail(COL_VALUE_ENFORCE_FAILURE);
+        } catch (MutationsInvalidException e) {
+          assertEquals(COL_VALUE_ENFORCE_FAILURE + "unexpected invalid Mutation indexes",
+                  new TreeSet<>(Arrays.asList(1, 4)), e.getInvalidMutations().keySet());
+          assertTrue(COL_QUALIFIER_ENFORCE_FAILURE, e.getInvalidMutations().get(1)
+                  instanceof ColumnDefinitionNotFoundException);
+          assertTrue(COL_LENGTH_ENFORCE_FAILURE, e.getInvalidMutations().get(4)
+                  instanceof ColumnValueInvalidException);
+        }
+        // only valid Mutations of batch submitted, with invalid Mutations reported by index
+        ColumnValidationStatistics priorStatistics
+                = repositoryAdmin.getColumnValidationStatistics(NAMESPACE01_TABLE01);
+        ValidatedBatchResult batchResult
+                = repositoryAdmin.putValidMutations(NAMESPACE01_TABLE01, batchPuts);
+        assertEquals(COL_VALUE_ENFORCE_FAILURE + "unexpected invalid Mutation indexes",
+                new TreeSet<>(Arrays.asList(1, 4)), batchResult.getInvalidMutations().keySet());
+        assertEquals(COL_VALUE_ENFORCE_FAILURE + "unexpected valid Mutation count",
+                4, batchResult.getValidMutationCount());
+        assertTrue(COL_VALUE_ENFORCE_FAILURE + "invalid Mutation submitted",
+                batchResult.getResults()[1] == null && batchResult.getResults()[4] == null);
+        assertTrue(COL_VALUE_ENFORCE_FAILURE + "valid Mutation not submitted",
+                batchResult.getResults()[0] != null && batchResult.getResults()[5] != null);
+        ColumnValidationStatistics statistics
+                = repositoryAdmin.getColumnValidationStatistics(NAMESPACE01_TABLE01);
+        assertEquals(COL_VALUE_ENFORCE_FAILURE + "unexpected validated Mutation count",
+                priorStatistics.getValidatedMutationCount() + batchPuts.size(),
+                statistics.getValidatedMutationCount());
+        assertEquals(COL_QUALIFIER_ENFORCE_FAILURE + "unexpected rejected Mutation count",
+                priorStatistics.getColumnDefinitionNotFoundCount() + 1,
+                statistics.getColumnDefinitionNotFoundCount());
+        assertEquals(COL_LENGTH_ENFORCE_FAILURE + "unexpected rejected Mutation count",
+                priorStatistics.getColumnValueInvalidCount() + 1,
+                statistics.getColumnValueInvalidCount());
+        // batches submitted via a Table reuse its descriptor
+        try (Table table = connection.getTable(NAMESPACE01_TABLE01)) {
+          for (int i = 0; i < 2; i++) {
+            batchResult = repositoryAdmin.putValidMutations(table, batchPuts);
+            assertEquals(COL_VALUE_ENFORCE_FAILURE + "unexpected invalid Mutation indexes",
+                    new TreeSet<>(Arrays.asList(1, 4)),
+                    batchResult.getInvalidMutations().keySet());
+          }
+        }
+        batchResult.getResults()[0] = null;
+        assertTrue(COL_VALUE_ENFORCE_FAILURE + "internal results exposed",
+                batchResult.getResults()[0] != null);
       }
     }
   }
@@ -1348,7 +1757,9 @@ public class TestRepositoryAdmin {
     ColumnDefinition colCDefinition
             = new ColumnDefinition(COLQUALIFIER_C).setColumnValidationRegex("https?://.*");
     ColumnDefinition colDDefinition
-            = new ColumnDefinition(COLQUALIFIER_D).setColumnLength(8L);
+            = new ColumnDefinition(COLQUALIFIER_D).setColumnLength(8L)
+                    .setColumnValueType(ColumnValueType.LONG).setColumnValueRange(0L, 1000L)
+                    .setColumnAllowedValues(Bytes.toBytes(1L), Bytes.toBytes(10L));
 
     try (Connection connection = MConnectionFactory.createConnection(configuration)) {
       RepositoryAdmin repositoryAdmin = new RepositoryAdmin(connection);
@@ -1504,14 +1915,20 @@ public class TestRepositoryAdmin {
             = "temp.export.repository.table.compare.hsa.xml";
     final String TARGET_EXPORT_COLFAMILY_COMPARISON_FILE
             = "temp.export.repository.colfamily.compare.hsa.xml";
+    final String TARGET_EXPORT_ALL_BINARY_FILE = "temp.export.repository.hsa.bin";
+    final String TARGET_CONVERTED_ALL_BINARY_FILE = "temp.export.repository.converted.hsa.xml";
     File exportAllFile;
     File exportAllComparisonFile;
+    File exportAllBinaryFile;
+    File convertedAllBinaryFile;
     File exportNamespaceImportedColDefsFile;
     File exportTableColDefsComparisonFile;
     File exportColFamilyColDefsComparisonFile;
     try {
       exportAllFile = tempTestFolder.newFile(TARGET_EXPORT_ALL_FILE);
       exportAllComparisonFile = tempTestFolder.newFile(TARGET_EXPORT_ALL_COMPARISON_FILE);
+      exportAllBinaryFile = tempTestFolder.newFile(TARGET_EXPORT_ALL_BINARY_FILE);
+      convertedAllBinaryFile = tempTestFolder.newFile(TARGET_CONVERTED_ALL_BINARY_FILE);
       exportNamespaceImportedColDefsFile
                = tempTestFolder.newFile(TARGET_EXPORT_NAMESPACE_COMPARISON_FILE);
       exportTableColDefsComparisonFile
@@ -1521,6 +1938,8 @@ public class TestRepositoryAdmin {
     } catch (IllegalStateException e) { // standalone (non-JUnit) execution
       exportAllFile = new File(TARGET_DIRECTORY + TARGET_EXPORT_ALL_FILE);
       exportAllComparisonFile = new File(TARGET_DIRECTORY + TARGET_EXPORT_ALL_COMPARISON_FILE);
+      exportAllBinaryFile = new File(TARGET_DIRECTORY + TARGET_EXPORT_ALL_BINARY_FILE);
+      convertedAllBinaryFile = new File(TARGET_DIRECTORY + TARGET_CONVERTED_ALL_BINARY_FILE);
       exportNamespaceImportedColDefsFile
               = new File(TARGET_DIRECTORY + TARGET_EXPORT_NAMESPACE_COMPARISON_FILE);
       exportTableColDefsComparisonFile
@@ -1544,7 +1963,15 @@ public class TestRepositoryAdmin {
       RepositoryAdmin repositoryAdmin = new RepositoryAdmin(connection);
       repositoryAdmin.enableColumnDefinitionEnforcement(true, NAMESPACE01_TABLE01, CF01);
       repositoryAdmin.exportSchema(exportAllFile);
+      repositoryAdmin.exportSchema(exportAllBinaryFile, SchemaArchiveFormat.COMPRESSED_BINARY);
     }
+    // binary export, converted to XML, should be identical to XML export (except for timestamp)
+    RepositoryAdmin.convertSchemaArchive(
+            exportAllBinaryFile, convertedAllBinaryFile, SchemaArchiveFormat.XML);
+    assertEquals(IMPORT_COLDEFINITIONS_FAILURE
+            + "Binary export/conversion failed to produce expected results",
+            HBaseSchemaArchive.deserializeXmlFile(exportAllFile),
+            HBaseSchemaArchive.deserializeXmlFile(convertedAllBinaryFile));
 
     initializeTestNamespaceAndTableObjects();
     clearTestingEnvironment();
@@ -1852,6 +2279,41 @@ public class TestRepositoryAdmin {
                 + "#getChangeEventsForColumnFamilyAttribute method",
                 STATUS_ATTRIBUTE_NAME, ce.getAttributeNameAsString());
       }
+
+      ChangeEventMonitor tableMonitor = repositoryAdmin.getChangeEventMonitor(
+              new ChangeEventQuery().setTable(NAMESPACE01_TABLE01));
+      assertEquals(CHANGE_EVENT_FAILURE + "unexpected value count returned from "
+              + "Table-restricted ChangeEventMonitor",
+              monitor.getChangeEventsForTable(NAMESPACE01_TABLE01, true).size(),
+              tableMonitor.getAllChangeEvents().size());
+      ChangeEventMonitor timeRangeMonitor = repositoryAdmin.getChangeEventMonitor(
+              new ChangeEventQuery().setTimeRange(0, 1));
+      assertEquals(CHANGE_EVENT_FAILURE + "unexpected value count returned from "
+              + "time-range-restricted ChangeEventMonitor",
+              0, timeRangeMonitor.getAllChangeEvents().size());
+      // entities must be resolved even though their foreign keys precede the time range
+      long latestTimestamp = 0;
+      for (ChangeEvent ce : monitor.getAllChangeEvents()) {
+        latestTimestamp = Math.max(latestTimestamp, ce.getTimestamp());
+      }
+      Set<ChangeEvent> latestChangeEvents = repositoryAdmin.getChangeEventMonitor(
+              new ChangeEventQuery().setMinTimestamp(latestTimestamp)).getAllChangeEvents();
+      assertTrue(CHANGE_EVENT_FAILURE + "no ChangeEvents returned from "
+              + "time-range-restricted ChangeEventMonitor", !latestChangeEvents.isEmpty());
+      for (ChangeEvent ce : latestChangeEvents) {
+        assertTrue(CHANGE_EVENT_FAILURE + "unresolved Namespace of ChangeEvent returned from "
+                + "time-range-restricted ChangeEventMonitor: " + ce,
+                ce.getNamespaceAsString() != null && !ce.getNamespaceAsString().isEmpty());
+      }
+
+      try (ChangeEventTailer tailer
+              = repositoryAdmin.getChangeEventTailer(new ChangeEventQuery(), 0)) {
+        assertEquals(CHANGE_EVENT_FAILURE + "unexpected value count returned from "
+                + "initial ChangeEventTailer#poll", monitor.getAllChangeEvents().size(),
+                tailer.poll().size());
+        assertEquals(CHANGE_EVENT_FAILURE + "unexpected value count returned from "
+                + "subsequent ChangeEventTailer#poll", 0, tailer.poll().size());
+      }
     }
     clearTestingEnvironment();
     System.out.println("#testChangeEventMonitor has run to completion.");
@@ -1959,6 +2421,110 @@ public class TestRepositoryAdmin {
     }
   }
 
+  @Test
+  public void testAsyncMAdmin() throws Exception {
+    System.out.println("#testAsyncMAdmin has been invoked.");
+    // environment cleanup before testing
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    try (Connection connection = MConnectionFactory.createConnection(configuration);
+            AsyncMAdmin asyncMAdmin = new AsyncMAdmin(connection, 4)) {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (NamespaceDescriptor nd : testNamespacesAndDescriptors.values()) {
+        if (!nd.getName().isEmpty() && !nd.getName().equals("default")) {
+          futures.add(asyncMAdmin.createNamespace(nd));
+        }
+      }
+      waitForAll(futures);
+      // all Tables created concurrently, with pre-split regions
+      byte[][] splitKeys = new byte[][]{Bytes.toBytes("m"), Bytes.toBytes("t")};
+      for (HTableDescriptor htd : testTableNamesAndDescriptors.values()) {
+        for (HColumnDescriptor hcd : testColumnFamilyNamesAndDescriptors.values()) {
+          htd.addFamily(hcd);
+        }
+        futures.add(asyncMAdmin.createTable(htd, splitKeys));
+      }
+      waitForAll(futures);
+      Repository repository = ((MConnection) connection).getRepository();
+      ChangeEventMonitor monitor = new RepositoryAdmin(connection).getChangeEventMonitor();
+      for (TableName tableName : testTableNamesAndDescriptors.keySet()) {
+        assertTrue(ASYNC_ADMIN_FAILURE + "Table not online: " + tableName,
+                connection.getAdmin().isTableAvailable(tableName));
+        assertEquals(ASYNC_ADMIN_FAILURE + "unexpected Repository capture of Table: " + tableName,
+                repository.isIncludedTable(tableName),
+                !monitor.getChangeEventsForTable(tableName, false).isEmpty());
+      }
+      // Tables deleted concurrently
+      for (TableName tableName : testTableNamesAndDescriptors.keySet()) {
+        futures.add(asyncMAdmin.disableTable(tableName));
+      }
+      waitForAll(futures);
+      for (TableName tableName : testTableNamesAndDescriptors.keySet()) {
+        futures.add(asyncMAdmin.deleteTable(tableName));
+      }
+      waitForAll(futures);
+      for (TableName tableName : testTableNamesAndDescriptors.keySet()) {
+        assertTrue(ASYNC_ADMIN_FAILURE + "Table not deleted: " + tableName,
+                !connection.getAdmin().tableExists(tableName));
+      }
+    }
+
+    clearTestingEnvironment();
+    System.out.println("#testAsyncMAdmin has run to completion.");
+  }
+
+  @Test
+  public void testMassDisableAndDeleteTables() throws IOException {
+    System.out.println("#testMassDisableAndDeleteTables has been invoked.");
+    // environment cleanup before testing
+    initializeTestNamespaceAndTableObjects();
+    clearTestingEnvironment();
+
+    Configuration configuration = MConfiguration.create();
+    createSchemaStructuresInHBase(configuration, false, false);
+    try (Connection connection = MConnectionFactory.createConnection(configuration);
+            Admin mAdmin = connection.getAdmin()) {
+      Repository repository = ((MConnection) connection).getRepository();
+      // ColumnManager's own Tables must never be matched by a mass disable
+      assertEquals(MASS_ADMIN_FAILURE + "unexpected failure count", 0,
+              mAdmin.disableTables(".*" + Repository.REPOSITORY_NAMESPACE_DESCRIPTOR.getName()
+                      + ".*").length);
+      assertTrue(MASS_ADMIN_FAILURE + "Repository Table disabled",
+              mAdmin.isTableEnabled(Repository.REPOSITORY_TABLENAME));
+      assertEquals(MASS_ADMIN_FAILURE + "unexpected failure count", 0,
+              mAdmin.disableTables(Pattern.compile(NAMESPACE01 + ":.*")).length);
+      for (TableName tableName : testTableNamesAndDescriptors.keySet()) {
+        if (tableName.getNamespaceAsString().equals(NAMESPACE01)) {
+          assertTrue(MASS_ADMIN_FAILURE + "Table not disabled: " + tableName,
+                  mAdmin.isTableDisabled(tableName));
+        }
+      }
+      assertEquals(MASS_ADMIN_FAILURE + "unexpected failure count", 0,
+              mAdmin.deleteTables(Pattern.compile(NAMESPACE01 + ":.*")).length);
+      for (TableName tableName : testTableNamesAndDescriptors.keySet()) {
+        if (tableName.getNamespaceAsString().equals(NAMESPACE01)) {
+          assertTrue(MASS_ADMIN_FAILURE + "Table not deleted: " + tableName,
+                  !mAdmin.tableExists(tableName));
+        }
+      }
+      assertTrue(MASS_ADMIN_FAILURE + "deleted Tables still active in Repository",
+              repository.getMTableDescriptors(
+                      repository.getMNamespaceDescriptor(NAMESPACE01).getForeignKey()).isEmpty());
+    }
+
+    clearTestingEnvironment();
+    System.out.println("#testMassDisableAndDeleteTables has run to completion.");
+  }
+
+  private static void waitForAll(List<Future<Void>> futures) throws Exception {
+    for (Future<Void> future : futures) {
+      future.get();
+    }
+    futures.clear();
+  }
+
   @Test
   public void testRepositorySyncCheckForMissingNamespaces() throws IOException {
     System.out.println("#testRepositorySyncCheckForMissingNamespaces has been invoked.");
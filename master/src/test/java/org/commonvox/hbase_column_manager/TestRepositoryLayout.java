@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Test the conversions between RowIds and Repository row keys under salted and unsalted
+ * {@link RepositoryLayout}s, the layout attributes and split keys of the Repository table
+ * descriptor, that each row key falls within exactly one bucket scan, and that merged bucket
+ * scans return rows in RowId order.
+ *
+ * @author Daniel Vimont
+ */
+public class TestRepositoryLayout {
+
+  private static final byte[] PARENT_FOREIGN_KEY = Bytes.toBytes("0123456789abcdef");
+  private static final int SALT_BUCKETS = 8;
+
+  @Test
+  public void testRowKeyConversions() throws Exception {
+    RepositoryLayout unsaltedLayout = RepositoryLayout.forSaltBuckets(1);
+    RepositoryLayout saltedLayout = RepositoryLayout.forSaltBuckets(SALT_BUCKETS);
+    assertSame("unsalted layout not returned for single bucket",
+            RepositoryLayout.UNSALTED, unsaltedLayout);
+    boolean[] bucketsUsed = new boolean[SALT_BUCKETS];
+    for (int i = 0; i < 1000; i++) {
+      byte[] rowId = getRowId("column" + i);
+      assertArrayEquals("unsalted row key differs from RowId",
+              rowId, unsaltedLayout.toRowKey(rowId));
+      byte[] rowKey = saltedLayout.toRowKey(rowId);
+      assertEquals("unexpected salted row key length",
+              rowId.length + 1, rowKey.length);
+      assertArrayEquals("salted row key not converted back to RowId",
+              rowId, saltedLayout.toRowId(rowKey));
+      assertTrue("salt out of range", rowKey[0] >= 0 && rowKey[0] < SALT_BUCKETS);
+      bucketsUsed[rowKey[0]] = true;
+    }
+    for (int bucket = 0; bucket < SALT_BUCKETS; bucket++) {
+      assertTrue("no RowId assigned to bucket " + bucket, bucketsUsed[bucket]);
+    }
+  }
+
+  @Test
+  public void testTableDescriptorAttributes() throws Exception {
+    HTableDescriptor htd = new HTableDescriptor(Repository.REPOSITORY_TABLENAME);
+    assertSame("unsalted layout not assumed in absence of attributes",
+            RepositoryLayout.UNSALTED, RepositoryLayout.fromTableDescriptor(htd));
+    RepositoryLayout.forSaltBuckets(SALT_BUCKETS).applyTo(htd);
+    RepositoryLayout layout = RepositoryLayout.fromTableDescriptor(htd);
+    assertEquals("unexpected layout version",
+            RepositoryLayout.SALTED_LAYOUT_VERSION, layout.getVersion());
+    assertEquals("unexpected salt buckets", SALT_BUCKETS, layout.getSaltBuckets());
+    assertEquals("unexpected split key count",
+            SALT_BUCKETS - 1, layout.getSplitKeys().length);
+    RepositoryLayout.UNSALTED.applyTo(htd);
+    assertSame("unsalted layout not restored",
+            RepositoryLayout.UNSALTED, RepositoryLayout.fromTableDescriptor(htd));
+  }
+
+  @Test
+  public void testBucketScans() throws Exception {
+    RepositoryLayout layout = RepositoryLayout.forSaltBuckets(SALT_BUCKETS);
+    Repository.RowId prefixRowId = new Repository.RowId(
+            SchemaEntityType.COLUMN_AUDITOR.getRecordType(), PARENT_FOREIGN_KEY, null);
+    List<Scan> bucketScans = layout.toBucketScans(new Scan(prefixRowId.getByteArray(),
+            prefixRowId.getStopRowIdByteArray()), false);
+    assertEquals("unexpected bucket scan count",
+            SALT_BUCKETS, bucketScans.size());
+    for (int i = 0; i < 100; i++) {
+      byte[] rowKey = layout.toRowKey(getRowId("column" + i));
+      int coveringScans = 0;
+      for (Scan bucketScan : bucketScans) {
+        if (Bytes.compareTo(rowKey, bucketScan.getStartRow()) >= 0
+                && Bytes.compareTo(rowKey, bucketScan.getStopRow()) < 0) {
+          coveringScans++;
+        }
+      }
+      assertEquals("row key not covered by exactly one bucket scan",
+              1, coveringScans);
+    }
+
+    Repository.RowId rowId = new Repository.RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
+            PARENT_FOREIGN_KEY, Bytes.toBytes("column01"));
+    List<Scan> singleRowScans = layout.toBucketScans(
+            new Scan(rowId.getByteArray(), rowId.getStopRowIdByteArray()), true);
+    assertEquals("unexpected single-row scan count", 1, singleRowScans.size());
+    assertArrayEquals("single-row scan not started at salted row key",
+            layout.toRowKey(rowId.getByteArray()), singleRowScans.get(0).getStartRow());
+  }
+
+  @Test
+  public void testRowIdOrdering() throws Exception {
+    RepositoryLayout layout = RepositoryLayout.forSaltBuckets(SALT_BUCKETS);
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      byte[] rowKey = layout.toRowKey(getRowId("column" + (char) ('a' + i)));
+      results.add(Result.create(new KeyValue[]{new KeyValue(rowKey, Repository.REPOSITORY_CF,
+              Repository.FOREIGN_KEY_COLUMN, PARENT_FOREIGN_KEY)}));
+    }
+    Collections.sort(results, layout.getRowIdComparator());
+    for (int i = 0; i < 20; i++) {
+      assertArrayEquals("Results not ordered by RowId",
+              getRowId("column" + (char) ('a' + i)), layout.toRowId(results.get(i).getRow()));
+    }
+  }
+
+  private static byte[] getRowId(String columnQualifier) {
+    return new Repository.RowId(SchemaEntityType.COLUMN_AUDITOR.getRecordType(),
+            PARENT_FOREIGN_KEY, Bytes.toBytes(columnQualifier)).getByteArray();
+  }
+}
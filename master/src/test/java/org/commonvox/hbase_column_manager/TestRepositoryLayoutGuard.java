@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.HTableDescriptor;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.util.Bytes;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that {@link RepositoryLayoutGuard} rejects Repository reads and writes once the Repository
+ * table descriptor reports a different layout, or a migration in progress, while rechecking the
+ * descriptor no more often than its check interval (except after an empty read or a failed
+ * write).
+ *
+ * @author Daniel Vimont
+ */
+public class TestRepositoryLayoutGuard {
+
+  private static final Put PUT = new Put(Bytes.toBytes("row")).addColumn(
+          Bytes.toBytes("cf"), Bytes.toBytes("column"), Bytes.toBytes("value"));
+  private static final Get GET = new Get(Bytes.toBytes("row"));
+
+  @Test
+  public void testUnchangedLayout() throws Exception {
+    SimulatedRepository repository = new SimulatedRepository(0);
+    for (int i = 0; i < 3; i++) {
+      repository.guardedTable.put(PUT);
+    }
+    assertEquals("puts not passed through", 3, repository.writeCount);
+    assertEquals("descriptor not reread before each put",
+            3, repository.descriptorReadCount);
+    assertFalse("guard tripped by unchanged layout",
+            repository.layoutGuard.isTripped());
+  }
+
+  @Test
+  public void testMigratedLayout() throws Exception {
+    SimulatedRepository repository = new SimulatedRepository(0);
+    repository.guardedTable.put(PUT);
+    repository.currentHtd = RepositoryLayout.forSaltBuckets(8).applyTo(getRepositoryHtd());
+    assertWriteRejected(repository, "migrated layout");
+    // the guard remains tripped, even should the original layout be restored
+    repository.currentHtd = getRepositoryHtd();
+    assertWriteRejected(repository, "restored layout");
+    assertEquals("put passed through after migration", 1, repository.writeCount);
+    try {
+      repository.guardedTable.get(GET);
+      fail("get not rejected after migration");
+    } catch (ColumnManagerIOException e) {
+    }
+    assertEquals("get passed through after migration", 0, repository.readCount);
+  }
+
+  @Test
+  public void testEmptyReadAfterMigration() throws Exception {
+    SimulatedRepository repository
+            = new SimulatedRepository(RepositoryLayoutGuard.DEFAULT_CHECK_INTERVAL);
+    repository.currentHtd = RepositoryLayout.forSaltBuckets(8).applyTo(getRepositoryHtd());
+    repository.guardedTable.get(GET);
+    assertEquals("descriptor reread after read which found a row",
+            0, repository.descriptorReadCount);
+    repository.rowFound = false;
+    Thread.sleep(1100); // an empty read prompts a check at most once per second
+    try {
+      repository.guardedTable.get(GET);
+      fail("empty read in stale layout not reported");
+    } catch (ColumnManagerIOException e) {
+    }
+    assertTrue("guard not tripped upon empty read in stale layout",
+            repository.layoutGuard.isTripped());
+  }
+
+  @Test
+  public void testMigrationInProgress() throws Exception {
+    SimulatedRepository repository = new SimulatedRepository(0);
+    repository.guardedTable.put(PUT);
+    repository.currentHtd = getRepositoryHtd();
+    repository.currentHtd.setValue(RepositoryLayout.MIGRATION_IN_PROGRESS_ATTRIBUTE, "true");
+    assertWriteRejected(repository, "migration in progress");
+
+    // a Repository opened while its migration is in progress is never updated
+    HTableDescriptor migratingHtd = getRepositoryHtd();
+    migratingHtd.setValue(RepositoryLayout.MIGRATION_IN_PROGRESS_ATTRIBUTE, "true");
+    SimulatedRepository openedDuringMigration
+            = new SimulatedRepository(migratingHtd, RepositoryLayoutGuard.DEFAULT_CHECK_INTERVAL);
+    assertWriteRejected(openedDuringMigration, "migration in progress at opening");
+    assertEquals("put passed through during migration",
+            0, openedDuringMigration.writeCount);
+  }
+
+  @Test
+  public void testCheckInterval() throws Exception {
+    SimulatedRepository repository
+            = new SimulatedRepository(RepositoryLayoutGuard.DEFAULT_CHECK_INTERVAL);
+    repository.currentHtd = RepositoryLayout.forSaltBuckets(8).applyTo(getRepositoryHtd());
+    repository.guardedTable.put(PUT);
+    assertEquals("descriptor reread within check interval",
+            0, repository.descriptorReadCount);
+    // a failed write prompts an immediate check, which reports the migration
+    repository.failWrites = true;
+    assertWriteRejected(repository, "migrated layout after failed write");
+    assertEquals("descriptor not reread after failed write",
+            1, repository.descriptorReadCount);
+  }
+
+  @Test
+  public void testFailedWriteWithUnchangedLayout() throws Exception {
+    SimulatedRepository repository
+            = new SimulatedRepository(RepositoryLayoutGuard.DEFAULT_CHECK_INTERVAL);
+    repository.failWrites = true;
+    try {
+      repository.guardedTable.put(PUT);
+      fail("failed put not reported");
+    } catch (ColumnManagerIOException e) {
+      fail("failed put reported as layout migration");
+    } catch (IOException e) {
+      assertEquals("original failure not reported",
+              SimulatedRepository.WRITE_FAILURE_MSG, e.getMessage());
+    }
+    assertFalse("guard tripped by failed write",
+            repository.layoutGuard.isTripped());
+  }
+
+  private static void assertWriteRejected(SimulatedRepository repository, String condition)
+          throws IOException {
+    try {
+      repository.guardedTable.put(PUT);
+      fail("put not rejected upon " + condition);
+    } catch (ColumnManagerIOException e) {
+    }
+    assertTrue("guard not tripped upon " + condition,
+            repository.layoutGuard.isTripped());
+  }
+
+  private static HTableDescriptor getRepositoryHtd() {
+    return new HTableDescriptor(Repository.REPOSITORY_TABLENAME);
+  }
+
+  /**
+   * Repository table (unsalted when opened) whose descriptor may be changed as by a migration.
+   */
+  private static class SimulatedRepository {
+
+    static final String WRITE_FAILURE_MSG = "simulated write failure";
+    volatile HTableDescriptor currentHtd = getRepositoryHtd();
+    int descriptorReadCount = 0;
+    int writeCount = 0;
+    int readCount = 0;
+    boolean failWrites = false;
+    boolean rowFound = true;
+    final RepositoryLayoutGuard layoutGuard;
+    final Table guardedTable;
+
+    SimulatedRepository(long checkInterval) throws IOException {
+      this(getRepositoryHtd(), checkInterval);
+    }
+
+    SimulatedRepository(HTableDescriptor openedHtd, long checkInterval) throws IOException {
+      Configuration conf = new Configuration(false);
+      conf.setLong(RepositoryLayoutGuard.CHECK_INTERVAL_KEY, checkInterval);
+      layoutGuard = new RepositoryLayoutGuard(openedHtd,
+              new RepositoryLayoutGuard.DescriptorReader() {
+        @Override
+        public HTableDescriptor getRepositoryTableDescriptor() {
+          descriptorReadCount++;
+          return currentHtd;
+        }
+      }, conf);
+      guardedTable = layoutGuard.guard((Table) Proxy.newProxyInstance(
+              Table.class.getClassLoader(), new Class<?>[]{Table.class},
+              new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws IOException {
+          switch (method.getName()) {
+            case "put":
+              if (failWrites) {
+                throw new IOException(WRITE_FAILURE_MSG);
+              }
+              writeCount++;
+              return null;
+            case "get":
+              readCount++;
+              return Result.create(rowFound ? new Cell[]{new KeyValue(GET.getRow(),
+                      Bytes.toBytes("cf"), Bytes.toBytes("column"), Bytes.toBytes("value"))}
+                      : new Cell[0]);
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        }
+      }));
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 Daniel Vimont.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonvox.hbase_column_manager;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ * Test that a {@link SchemaChangeFuture} settled on one thread releases waiters on another, and
+ * that only its first settlement (completion, failure, or cancellation) takes effect.
+ *
+ * @author Daniel Vimont
+ */
+public class TestSchemaChangeFuture {
+
+  @Test
+  public void testCompletionReleasesWaiter() throws Exception {
+    final SchemaChangeFuture future = new SchemaChangeFuture();
+    try {
+      future.get(10, TimeUnit.MILLISECONDS);
+      fail("unsettled future returned from timed get");
+    } catch (TimeoutException e) {
+    }
+    Thread completer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        future.complete();
+      }
+    });
+    completer.start();
+    assertNull("completed future returned a value", future.get(10, TimeUnit.SECONDS));
+    completer.join();
+    assertTrue("completed future not done", future.isDone());
+    assertFalse("completed future could be cancelled", future.cancel(false));
+    assertFalse("completed future could be failed", future.fail(new IOException()));
+    assertNull("completed future reported a failure", future.getFailure());
+  }
+
+  @Test
+  public void testFirstSettlementPrevails() throws Exception {
+    SchemaChangeFuture failedFuture = new SchemaChangeFuture();
+    IOException failure = new IOException("simulated capture failure");
+    assertTrue("unsettled future could not be failed", failedFuture.fail(failure));
+    assertFalse("failed future could be completed", failedFuture.complete());
+    assertSame("failure not retained", failure, failedFuture.getFailure());
+    try {
+      failedFuture.get();
+      fail("failed future returned from get");
+    } catch (ExecutionException e) {
+      assertSame("failure not reported as cause", failure, e.getCause());
+    }
+
+    SchemaChangeFuture cancelledFuture = new SchemaChangeFuture();
+    assertTrue("unsettled future could not be cancelled", cancelledFuture.cancel(true));
+    assertFalse("cancelled future could be completed", cancelledFuture.complete());
+    assertTrue("cancelled future not reported as cancelled", cancelledFuture.isCancelled());
+    try {
+      cancelledFuture.get();
+      fail("cancelled future returned from get");
+    } catch (CancellationException e) {
+    }
+  }
+}